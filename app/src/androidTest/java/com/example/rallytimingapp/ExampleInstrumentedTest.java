@@ -5,6 +5,8 @@ import android.content.Context;
 import androidx.test.platform.app.InstrumentationRegistry;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 
+import com.example.rallytimingapp.sql.RallyDatabase;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
@@ -23,4 +25,11 @@ public class ExampleInstrumentedTest {
         Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
         assertEquals("com.example.rallytimingapp", appContext.getPackageName());
     }
+
+    @Test
+    public void testsUseTheirOwnDatabase() {
+        // The tests empty the tables, so they must never open the event saved on the phone
+        Context appContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        assertEquals(RallyTestRunner.TEST_DATABASE, RallyDatabase.getInstance(appContext).getDatabaseName());
+    }
 }
\ No newline at end of file
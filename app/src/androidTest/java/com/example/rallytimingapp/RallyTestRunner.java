@@ -0,0 +1,24 @@
+package com.example.rallytimingapp;
+
+import android.os.Bundle;
+
+import androidx.test.runner.AndroidJUnitRunner;
+
+import com.example.rallytimingapp.sql.RallyDatabase;
+
+/**
+ * Runs the instrumented tests against a database file of their own, so the tests that empty
+ * the tables never touch the event saved on the phone.
+ */
+public class RallyTestRunner extends AndroidJUnitRunner {
+
+    // Name of the file the tests use in place of the app's database
+    public static final String TEST_DATABASE = "RallyManagerTest.db";
+
+    @Override
+    public void onCreate(Bundle arguments) {
+        // This runs before RallyApplication opens the database
+        RallyDatabase.useDatabase(TEST_DATABASE);
+        super.onCreate(arguments);
+    }
+}
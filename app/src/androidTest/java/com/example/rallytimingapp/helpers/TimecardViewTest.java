@@ -0,0 +1,149 @@
+package com.example.rallytimingapp.helpers;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.R;
+import com.example.rallytimingapp.model.ItineraryStage;
+import com.example.rallytimingapp.model.RallyTime;
+import com.example.rallytimingapp.model.Stage;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Binds a timecard for each of a few hundred stage entries to one recycled TimecardView,
+ * checking a new stage never lays the card out again, and checks the timecards on the
+ * control screens are drawn by it too, so are about as few views as a card in the list.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TimecardViewTest {
+
+    private static final String TAG = "TimecardViewTest";
+    private static final int CARDS = 300;
+
+    private Context context;
+    private final ItineraryStage itineraryStage = new ItineraryStage(3, "SS 3 Tangiteroria 1", 15720,
+            "TC 3", "TC 4", 46070, 50 * RallyTime.MS_PER_MINUTE);
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                R.style.Theme_RallyTimingApp);
+    }
+
+    // Method to make a stage entry with every time filled in, different for each car
+    private static Stage stage(int carNum) {
+        int provStart = 10 * RallyTime.MS_PER_HOUR + carNum * RallyTime.MS_PER_MINUTE;
+        Stage stage = new Stage();
+        stage.setCarNum(carNum);
+        stage.setStageNum(3);
+        stage.setStartOrder(carNum);
+        stage.setProvStart(provStart);
+        stage.setActualStart(provStart);
+        stage.setStageTime(9 * RallyTime.MS_PER_MINUTE + carNum * 370);
+        stage.setFinishTime(provStart + stage.getStageTime());
+        stage.setActualTime(provStart + 50 * RallyTime.MS_PER_MINUTE);
+        stage.setDueTime(provStart + 50 * RallyTime.MS_PER_MINUTE);
+        return stage;
+    }
+
+    // Method to count a view and every view inside it
+    private static int countViews(View view) {
+        int count = 1;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                count += countViews(group.getChildAt(i));
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void bindingAnotherStageOnlyRedraws() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                TimecardView card = new TimecardView(context);
+                int unspecified = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+                card.bind(itineraryStage, stage(1));
+                card.measure(unspecified, unspecified);
+                int width = card.getMeasuredWidth();
+                int height = card.getMeasuredHeight();
+                card.layout(0, 0, width, height);
+                assertTrue(width > 0 && height > 0);
+
+                Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                Canvas canvas = new Canvas(bitmap);
+                long started = System.nanoTime();
+                for (int carNum = 1; carNum <= CARDS; carNum++) {
+                    card.bind(itineraryStage, stage(carNum));
+                    assertFalse(card.isLayoutRequested());
+                    card.draw(canvas);
+                }
+                long elapsed = System.nanoTime() - started;
+                bitmap.recycle();
+
+                // A card with nothing filled in yet is still the same size
+                card.bind(null, new Stage());
+                card.measure(unspecified, unspecified);
+                assertEquals(width, card.getMeasuredWidth());
+                assertEquals(height, card.getMeasuredHeight());
+                Log.i(TAG, "Bound and drew " + CARDS + " cards in " + elapsed / 1000 + "us");
+            }
+        });
+    }
+
+    @Test
+    public void screenCardsAreAboutAsFewViewsAsTheListCard() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                LayoutInflater inflater = LayoutInflater.from(context);
+
+                long started = System.nanoTime();
+                View item = null;
+                for (int i = 0; i < CARDS / 10; i++) {
+                    item = inflater.inflate(R.layout.item_timecard, null);
+                    TimecardView card = item.findViewById(R.id.Card);
+                    card.bind(itineraryStage, stage(i + 1));
+                }
+                long cardElapsed = (System.nanoTime() - started) / (CARDS / 10);
+                int cardViews = countViews(item.findViewById(R.id.CardTimecard));
+
+                // The start, finish and A control cards only add the fields typed over them and
+                // the read-only due time, where they were built from around 90 views
+                View startScreen = inflater.inflate(R.layout.activity_start, null);
+                View finishScreen = inflater.inflate(R.layout.activity_finish, null);
+                View controlScreen = inflater.inflate(R.layout.activity_acontrol, null);
+                assertScreenCard(startScreen, R.id.StartTCHLayout, R.id.STCCard, 2 * cardViews);
+                assertScreenCard(finishScreen, R.id.FinishTCHLayout, R.id.FTCCard, 2 * cardViews);
+                assertScreenCard(controlScreen, R.id.ControlTC1HLayout, R.id.CTC1Card, 2 * cardViews);
+                assertScreenCard(controlScreen, R.id.ControlTC2HLayout, R.id.CTC2Card, 2 * cardViews);
+                Log.i(TAG, "List card: " + cardViews + " views, " + cardElapsed / 1000 + "us to inflate and bind. "
+                        + "Start screen: " + countViews(startScreen) + " views");
+            }
+        });
+    }
+
+    // Method to check a screen's timecard is drawn by a TimecardView and is at most the given views
+    private static void assertScreenCard(View screen, int layoutId, int cardId, int maxViews) {
+        assertTrue(screen.findViewById(cardId) instanceof TimecardView);
+        assertTrue(countViews(screen.findViewById(layoutId)) <= maxViews);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.rallytimingapp.model;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times encoding and decoding every field of every timecard of a 200 car, 4 stage event, as
+ * passed between the phones by TimecardSync.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TimecardCodecBenchmark {
+
+    private static final String TAG = "TimecardCodecBenchmark";
+    private static final long NOW = 1700000000000L;
+    private static final int CARS = 200;
+    private static final int STAGES = 4;
+    private static final int RUNS = 50;
+    // Encoding and decoding a whole event should never hold up an import
+    private static final long LIMIT_MS = 100;
+
+    private static byte[] encode(List<TimecardUpdate> updates) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TimecardCodec.write(out, updates);
+        return out.toByteArray();
+    }
+
+    private static List<TimecardUpdate> decode(byte[] bytes) throws IOException {
+        return TimecardCodec.read(new ByteArrayInputStream(bytes));
+    }
+
+    // Every field of every timecard of the event, set over the course of a day
+    private static List<TimecardUpdate> fullEvent() {
+        Random random = new Random(1);
+        List<TimecardUpdate> updates = new ArrayList<>();
+        for (int carNum = 1; carNum <= CARS; carNum++) {
+            for (int stageNum = 1; stageNum <= STAGES; stageNum++) {
+                for (int field = 0; field < TimecardUpdate.FIELD_COUNT; field++) {
+                    int value = field == TimecardUpdate.START_ORDER ? carNum
+                            : 8 * RallyTime.MS_PER_HOUR + random.nextInt(10 * RallyTime.MS_PER_HOUR);
+                    updates.add(new TimecardUpdate(carNum, stageNum, field, value,
+                            NOW + random.nextInt(12 * RallyTime.MS_PER_HOUR)));
+                }
+            }
+        }
+        return updates;
+    }
+
+    @Test
+    public void fullEventLatency() throws IOException {
+        List<TimecardUpdate> updates = fullEvent();
+        // Warm up before timing
+        for (int i = 0; i < 20; i++) {
+            decode(encode(updates));
+        }
+
+        byte[] bytes = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            bytes = encode(updates);
+        }
+        long encodeMs = (System.nanoTime() - start) / 1000000 / RUNS;
+        List<TimecardUpdate> decoded = null;
+        start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            decoded = decode(bytes);
+        }
+        long decodeMs = (System.nanoTime() - start) / 1000000 / RUNS;
+
+        Log.i(TAG, updates.size() + " updates in " + bytes.length + " bytes, encoded in "
+                + encodeMs + " ms, decoded in " + decodeMs + " ms");
+        assertEquals(updates.size(), decoded.size());
+        assertTrue("Took " + (encodeMs + decodeMs) + " ms", encodeMs + decodeMs < LIMIT_MS);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.PasswordHasher;
+import com.example.rallytimingapp.model.Stage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times clearing an event of 10,000 stage entries, against deleting them one at a time,
+ * and checks compacting afterwards makes the database file smaller.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ClearEventBenchmark {
+
+    private static final String TAG = "ClearEventBenchmark";
+    private static final int CARS = 2500; // 4 stage entries each
+    private static final long LIMIT_MS = 1000;
+
+    private Context context;
+    private StageDatabaseHelper stageDatabaseHelper;
+    private File databaseFile;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        databaseFile = context.getDatabasePath(RallyDatabase.getInstance(context).getDatabaseName());
+        // Only the clearing is timed, but hashing every login at the full cost would make
+        // seeding take a minute
+        UserDatabaseHelper.setHasher(new PasswordHasher(1));
+    }
+
+    @After
+    public void tearDown() {
+        UserDatabaseHelper.setHasher(new PasswordHasher(PasswordHasher.DEFAULT_ITERATIONS));
+        DatabaseSeeder.clearEvent(context);
+    }
+
+    // Method to fill the database with CARS competitors and their stage entries
+    private void seed() {
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            for (int carNum = 1; carNum <= CARS; carNum++) {
+                int compID = seeder.addCompetitor(carNum, "Driver " + carNum, "Co-driver " + carNum);
+                seeder.addLogin("Driver" + carNum, "driver", "Competitor", compID);
+            }
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+    }
+
+    @Test
+    public void clearAndCompact() {
+        seed();
+        long start = System.nanoTime();
+        List<Stage> stages = stageDatabaseHelper.getAllStages();
+        for (Stage stage : stages) {
+            stageDatabaseHelper.deleteStage(stage);
+        }
+        long perRowMs = (System.nanoTime() - start) / 1000000;
+
+        seed();
+        // Let the file reach its full size before measuring it
+        RallyDatabase.getInstance(context).compact();
+        long fullSize = databaseFile.length();
+        start = System.nanoTime();
+        DatabaseSeeder.clearEvent(context);
+        long clearMs = (System.nanoTime() - start) / 1000000;
+
+        start = System.nanoTime();
+        RallyDatabase.getInstance(context).compact();
+        long compactMs = (System.nanoTime() - start) / 1000000;
+        long compactedSize = databaseFile.length();
+
+        Log.i(TAG, "Deleting " + stages.size() + " stage entries one at a time: " + perRowMs + " ms");
+        Log.i(TAG, "Clearing the event: " + clearMs + " ms");
+        Log.i(TAG, "Compacting: " + compactMs + " ms, " + fullSize + " bytes down to " + compactedSize);
+
+        assertEquals(CARS * 4, stages.size());
+        assertEquals(0, stageDatabaseHelper.getAllStages().size());
+        assertTrue("Clearing took " + clearMs + " ms", clearMs < LIMIT_MS);
+        assertTrue(compactedSize < fullSize);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.Competitor;
+import com.example.rallytimingapp.model.PasswordHasher;
+import com.example.rallytimingapp.model.Stage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times a full reset of a large entry list through DatabaseSeeder, which empties and
+ * refills every table inside a single transaction.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseSeederBenchmark {
+
+    private static final String TAG = "DatabaseSeederBenchmark";
+    private static final int CARS = 500;
+    private static final long LIMIT_MS = 1000;
+
+    private Context context;
+    private CompDatabaseHelper compDatabaseHelper;
+    private StageDatabaseHelper stageDatabaseHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        compDatabaseHelper = new CompDatabaseHelper(context);
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        // Hashing thousands of passwords at the full cost would take most of the time measured
+        UserDatabaseHelper.setHasher(new PasswordHasher(1));
+    }
+
+    @After
+    public void tearDown() {
+        UserDatabaseHelper.setHasher(new PasswordHasher(PasswordHasher.DEFAULT_ITERATIONS));
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+    }
+
+    @Test
+    public void seedLargeField() {
+        // Seed once so the second run also has a full set of tables to empty
+        seed();
+        long elapsed = seed();
+        Log.i(TAG, "Seeded " + CARS + " cars in " + elapsed + " ms");
+        assertTrue("Seeding took " + elapsed + " ms", elapsed < LIMIT_MS);
+
+        // Every competitor points at its own stage entries
+        assertEquals(CARS, compDatabaseHelper.getAllCompetitors().size());
+        assertEquals(CARS * 4, stageDatabaseHelper.getAllStages().size());
+        Competitor competitor = compDatabaseHelper.getCompetitorByCarNum(CARS);
+        Stage stage = stageDatabaseHelper.getStage(competitor.getStageId(4));
+        assertEquals(CARS, stage.getCarNum());
+        assertEquals(4, stage.getStageNum());
+    }
+
+    // Method to reset the database with CARS competitors and their logins, returning the time taken
+    private long seed() {
+        long start = System.nanoTime();
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            for (int carNum = 1; carNum <= CARS; carNum++) {
+                int compID = seeder.addCompetitor(carNum, "Driver " + carNum, "Co-driver " + carNum);
+                seeder.addLogin("Driver" + carNum, "driver", "Competitor", compID);
+            }
+            seeder.addTimingCrew("A Control", "George", "0219384756");
+            seeder.addLogin("Admin", "admin", "Admin", -1);
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+}
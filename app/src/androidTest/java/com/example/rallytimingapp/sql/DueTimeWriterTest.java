@@ -0,0 +1,79 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.RallyTime;
+import com.example.rallytimingapp.model.Stage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks quick due time edits are saved as the last one typed, and that a typed due time
+ * doesn't replace one worked out from the actual start.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DueTimeWriterTest {
+
+    private static final int STAGE = 2;
+
+    private StageDatabaseHelper stageDatabaseHelper;
+    private DueTimeWriter dueTimeWriter;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        dueTimeWriter = new DueTimeWriter(context);
+        stageDatabaseHelper.empty();
+    }
+
+    @After
+    public void tearDown() {
+        stageDatabaseHelper.empty();
+    }
+
+    private int addStage(int carNum, int actualStart) {
+        Stage stage = new Stage();
+        stage.setCarNum(carNum);
+        stage.setStageNum(STAGE);
+        stage.setActualStart(actualStart);
+        stageDatabaseHelper.addStage(stage);
+        return stageDatabaseHelper.getStageId(carNum, STAGE);
+    }
+
+    @Test
+    public void savesTheLastTimeTyped() throws Exception {
+        final int typedID = addStage(1, RallyTime.NO_TIME);
+        final int startedID = addStage(2, RallyTime.fromBoxes("10", "00", "", ""));
+        final int workedOut = stageDatabaseHelper.getStage(startedID).getDueTime();
+
+        // The edits are made on the main thread, the same as on the competitor screen
+        final AtomicReference<Future<Void>> saved = new AtomicReference<>();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                dueTimeWriter.set(typedID, RallyTime.fromBoxes("1", "", "", ""));
+                dueTimeWriter.set(typedID, RallyTime.fromBoxes("11", "", "", ""));
+                dueTimeWriter.set(typedID, RallyTime.fromBoxes("11", "45", "", ""));
+                dueTimeWriter.set(startedID, RallyTime.fromBoxes("23", "59", "", ""));
+                saved.set(dueTimeWriter.flush(null));
+            }
+        });
+        saved.get().get(5, TimeUnit.SECONDS);
+
+        assertEquals(RallyTime.fromBoxes("11", "45", "", ""), stageDatabaseHelper.getStage(typedID).getDueTime());
+        assertEquals(workedOut, stageDatabaseHelper.getStage(startedID).getDueTime());
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.Competitor;
+import com.example.rallytimingapp.model.PasswordHasher;
+import com.example.rallytimingapp.model.Stage;
+import com.example.rallytimingapp.model.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Imports a generated entry list of a few thousand cars, with some bad and clashing rows
+ * mixed in, and checks what ends up in the database. Also imports a shorter list with the
+ * passwords hashed at the full cost, checking other writes never wait long behind it.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EntryListImporterTest {
+
+    private static final String TAG = "EntryListImporterTest";
+    private static final int CARS = 3000;
+    private static final long LIMIT_MS = 500;
+
+    private Context context;
+    private CompDatabaseHelper compDatabaseHelper;
+    private StageDatabaseHelper stageDatabaseHelper;
+    private UserDatabaseHelper userDatabaseHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        compDatabaseHelper = new CompDatabaseHelper(context);
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        userDatabaseHelper = new UserDatabaseHelper(context);
+        // Hashing thousands of passwords at the full cost would take most of the time measured
+        UserDatabaseHelper.setHasher(new PasswordHasher(1));
+
+        // Start from a single competitor already entered by hand
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            int compID = seeder.addCompetitor(1, "Hayden Paddon", "John Kennard");
+            seeder.addLogin("Hayden", "hayden", "Competitor", compID);
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        UserDatabaseHelper.setHasher(new PasswordHasher(PasswordHasher.DEFAULT_ITERATIONS));
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+    }
+
+    // Method to build the entry list, with cars 2 to CARS plus a few rows that can't be imported
+    private static String entryList() {
+        StringBuilder csv = new StringBuilder("Car,Driver,Codriver,Username,Password\n");
+        for (int carNum = 2; carNum <= CARS; carNum++) {
+            csv.append(carNum).append(",\"Driver ").append(carNum).append("\",Co-driver ").append(carNum)
+                    .append(",driver").append(carNum).append(",pw").append(carNum).append('\n');
+        }
+        csv.append("1,Someone Else,Co-driver,someone,pw\n"); // Car already in the database
+        csv.append("7000,Driver 2,Co-driver,other,pw\n"); // Driver already in the list
+        csv.append("7001,New Driver,Co-driver,Hayden,pw\n"); // Username already taken
+        csv.append("abc,New Driver,Co-driver,new,pw\n"); // Not a car number
+        csv.append("7002,New Driver,,new,pw\n"); // Missing codriver
+        return csv.toString();
+    }
+
+    @Test
+    public void importLargeEntryList() throws IOException {
+        final List<Integer> progress = new ArrayList<>();
+        long start = System.nanoTime();
+        EntryListImporter.Result result = new EntryListImporter(context).importEntries(
+                new StringReader(entryList()), new EntryListImporter.ProgressListener() {
+                    @Override
+                    public void onProgress(int rowsRead, int imported) {
+                        progress.add(imported);
+                    }
+                });
+        long elapsed = (System.nanoTime() - start) / 1000000;
+        Log.i(TAG, "Imported " + result.getImported() + " cars in " + elapsed + " ms");
+
+        assertEquals(CARS - 1, result.getImported());
+        List<EntryListImporter.RowError> errors = result.getErrors();
+        assertEquals(5, errors.size());
+        assertEquals(CARS + 1, errors.get(0).getLineNum());
+        assertEquals("Car 1 already exists", errors.get(0).getMessage());
+        assertEquals("Competitor Driver 2 already exists", errors.get(1).getMessage());
+        assertEquals("Username Hayden already exists", errors.get(2).getMessage());
+        assertEquals("Missing codriver", errors.get(4).getMessage());
+
+        // Progress is reported after every batch and once at the end
+        assertEquals((CARS - 1) / EntryListImporter.BATCH_SIZE + 1, progress.size());
+        assertEquals(CARS - 1, (int) progress.get(progress.size() - 1));
+
+        assertEquals(CARS, compDatabaseHelper.getAllCompetitors().size());
+        assertEquals(CARS * 4, stageDatabaseHelper.getAllStages().size());
+        Competitor competitor = compDatabaseHelper.getCompetitorByCarNum(CARS);
+        assertEquals("Driver " + CARS, competitor.getDriver());
+        Stage stage = stageDatabaseHelper.getStage(competitor.getStageId(3));
+        assertEquals(CARS, stage.getCarNum());
+        assertEquals(3, stage.getStageNum());
+        assertTrue(userDatabaseHelper.checkUser("driver" + CARS));
+        User user = userDatabaseHelper.getUser("driver" + CARS, "Competitor");
+        assertEquals(competitor.getCompId(), user.getId());
+    }
+
+    @Test
+    public void importLeavesTheWriterFreeWhileHashing() throws Exception {
+        // The full cost, so hashing a batch inside its transaction would show up here
+        UserDatabaseHelper.setHasher(new PasswordHasher(PasswordHasher.DEFAULT_ITERATIONS));
+        final int cars = 2 * EntryListImporter.BATCH_SIZE;
+        final StringBuilder csv = new StringBuilder("Car,Driver,Codriver,Username,Password\n");
+        for (int carNum = 2; carNum <= cars + 1; carNum++) {
+            csv.append(carNum).append(",Driver ").append(carNum).append(",Co-driver ").append(carNum)
+                    .append(",driver").append(carNum).append(",pw").append(carNum).append('\n');
+        }
+
+        final Exception[] failure = new Exception[1];
+        Thread importer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    new EntryListImporter(context).importEntries(new StringReader(csv.toString()), null);
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+            }
+        });
+        importer.start();
+
+        // Keep taking the writer, the way a timing screen saving a time would
+        SQLiteDatabase db = RallyDatabase.getInstance(context).getWritableDatabase();
+        long longestWait = 0;
+        while (importer.isAlive()) {
+            long started = System.nanoTime();
+            db.beginTransaction();
+            db.endTransaction();
+            longestWait = Math.max(longestWait, System.nanoTime() - started);
+            Thread.sleep(10);
+        }
+        importer.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        longestWait /= 1000000;
+        Log.i(TAG, "Longest wait for the writer during a full cost import: " + longestWait + " ms");
+
+        assertEquals(cars + 1, compDatabaseHelper.getAllCompetitors().size());
+        assertTrue("Waited " + longestWait + " ms", longestWait < LIMIT_MS);
+    }
+}
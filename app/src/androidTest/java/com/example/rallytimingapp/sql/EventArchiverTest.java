@@ -0,0 +1,98 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.Classification;
+import com.example.rallytimingapp.model.Event;
+import com.example.rallytimingapp.model.RallyTime;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks rolling over to a new event empties the timing tables, keeps the crews, and
+ * leaves the old event's results readable from its archive.
+ */
+@RunWith(AndroidJUnit4.class)
+public class EventArchiverTest {
+
+    private static final int CARS = 3;
+
+    private Context context;
+    private EventArchiver eventArchiver;
+    private EventDatabaseHelper eventDatabaseHelper;
+    private StageDatabaseHelper stageDatabaseHelper;
+    private UserDatabaseHelper userDatabaseHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        eventArchiver = new EventArchiver(context);
+        eventDatabaseHelper = new EventDatabaseHelper(context);
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        userDatabaseHelper = new UserDatabaseHelper(context);
+
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            for (int carNum = 1; carNum <= CARS; carNum++) {
+                int compID = seeder.addCompetitor(carNum, "Driver " + carNum, "Co-driver " + carNum);
+                seeder.addLogin("Driver" + carNum, "driver", "Competitor", compID);
+            }
+            int crewID = seeder.addTimingCrew("Finish", "Sarah", "0279125769");
+            seeder.addLogin("Sarah", "finish", "Finish", crewID);
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+        // Car n takes n minutes on stage 1
+        for (int carNum = 1; carNum <= CARS; carNum++) {
+            stageDatabaseHelper.setActualStart(1, carNum, RallyTime.fromBoxes("10", "00", "", ""), carNum);
+            stageDatabaseHelper.setFinishTime(1, carNum, RallyTime.fromBoxes("10", String.valueOf(carNum), "0", "0"),
+                    RallyTime.NO_TIME);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (Event event : eventDatabaseHelper.getArchivedEvents()) {
+            context.deleteDatabase(event.getArchiveFile());
+        }
+        DatabaseSeeder.clearEvent(context);
+    }
+
+    @Test
+    public void rolloverArchivesTheEvent() {
+        Event old = eventDatabaseHelper.getCurrentEvent();
+
+        Event next = eventArchiver.rollover("Next Rally");
+
+        assertEquals("Next Rally", next.getName());
+        assertTrue(next.isCurrent());
+        assertEquals(next.getEventId(), eventDatabaseHelper.getCurrentEvent().getEventId());
+        // The timing tables are empty, but the crew can still log in
+        assertEquals(0, stageDatabaseHelper.getAllStages().size());
+        assertFalse(userDatabaseHelper.checkUser("Driver1"));
+        assertTrue(userDatabaseHelper.checkUser("Sarah"));
+
+        List<Event> archived = eventDatabaseHelper.getArchivedEvents();
+        assertEquals(old.getEventId(), archived.get(0).getEventId());
+        Classification stage1 = eventArchiver.getClassification(archived.get(0), 1);
+        List<Classification.Result> results = stage1.getResults();
+        assertEquals(CARS, results.size());
+        for (int i = 0; i < CARS; i++) {
+            assertEquals(i + 1, results.get(i).getCarNum());
+            assertEquals((i + 1) * RallyTime.MS_PER_MINUTE, results.get(i).getTotalTime());
+        }
+    }
+}
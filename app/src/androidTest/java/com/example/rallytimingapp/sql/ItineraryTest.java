@@ -0,0 +1,152 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.Competitor;
+import com.example.rallytimingapp.model.ItineraryStage;
+import com.example.rallytimingapp.model.RallyTime;
+import com.example.rallytimingapp.model.Stage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Lengthens the itinerary of a seeded event to a 15 stage rally and back again, checking
+ * every competitor is given, or loses, its stage entries and the lookups still match.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItineraryTest {
+
+    private static final String TAG = "ItineraryTest";
+    private static final int CARS = 100;
+    private static final int LONG_RALLY = 15;
+
+    private Context context;
+    private ItineraryDatabaseHelper itineraryDatabaseHelper;
+    private ItineraryHelper itineraryHelper;
+    private CompDatabaseHelper compDatabaseHelper;
+    private StageDatabaseHelper stageDatabaseHelper;
+    private final int[] compIds = new int[CARS + 1]; // Competitor ID of each car, by car number
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        itineraryDatabaseHelper = new ItineraryDatabaseHelper(context);
+        itineraryHelper = ItineraryHelper.getInstance(context);
+        compDatabaseHelper = new CompDatabaseHelper(context);
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        itineraryDatabaseHelper.setItinerary(ItineraryDatabaseHelper.DEFAULT_ITINERARY);
+
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            for (int carNum = 1; carNum <= CARS; carNum++) {
+                compIds[carNum] = seeder.addCompetitor(carNum, "Driver " + carNum, "Co-driver " + carNum);
+            }
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        itineraryDatabaseHelper.setItinerary(ItineraryDatabaseHelper.DEFAULT_ITINERARY);
+        DatabaseSeeder.clearEvent(context);
+    }
+
+    // Method to build an itinerary of the given number of stages
+    private static List<ItineraryStage> itinerary(int stageCount) {
+        List<ItineraryStage> stages = new ArrayList<>();
+        for (int stageNum = 1; stageNum <= stageCount; stageNum++) {
+            stages.add(new ItineraryStage(stageNum, "SS " + stageNum, 10000, "TC " + stageNum,
+                    "TC " + (stageNum + 1), 30000, 40 * RallyTime.MS_PER_MINUTE));
+        }
+        return stages;
+    }
+
+    // Method to check each car has an entry for every stage, and each one is the right entry
+    private void assertStageEntries(int stageCount) {
+        for (int carNum = 1; carNum <= CARS; carNum++) {
+            Competitor competitor = compDatabaseHelper.getCompetitorByID(compIds[carNum]);
+            assertEquals(stageCount, competitor.getStageCount());
+            for (int stageNum = 1; stageNum <= stageCount; stageNum++) {
+                Stage stage = stageDatabaseHelper.getStage(competitor.getStageId(stageNum));
+                assertEquals(carNum, stage.getCarNum());
+                assertEquals(stageNum, stage.getStageNum());
+            }
+        }
+    }
+
+    @Test
+    public void longerItineraryGivesEveryCarItsEntries() {
+        itineraryDatabaseHelper.setItinerary(itinerary(LONG_RALLY));
+
+        assertEquals(LONG_RALLY, itineraryHelper.getStageCount());
+        assertEquals("TC 16", itineraryHelper.getItinerary().getStage(LONG_RALLY).getNextControl());
+        assertStageEntries(LONG_RALLY);
+        // The classifications are built for the new number of stages
+        assertNotNull(ClassificationHelper.getInstance(context).getStage(LONG_RALLY));
+
+        // Every lookup after the first is answered from memory
+        long started = System.nanoTime();
+        int found = 0;
+        for (int carNum = 1; carNum <= CARS; carNum++) {
+            int[] stageIds = itineraryHelper.getStageIds(compIds[carNum]);
+            for (int stageNum = 1; stageNum <= LONG_RALLY; stageNum++) {
+                if (stageIds[stageNum] != 0) {
+                    found++;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        assertEquals(CARS * LONG_RALLY, found);
+        Log.i(TAG, "Looked up " + found + " stage entries in " + elapsed / 1000 + "us");
+    }
+
+    @Test
+    public void shorterItineraryRemovesEntries() {
+        int removedId = compDatabaseHelper.getCompetitorByID(compIds[1]).getStageId(4);
+        itineraryDatabaseHelper.setItinerary(itinerary(2));
+
+        assertEquals(2, itineraryHelper.getStageCount());
+        assertStageEntries(2);
+        assertEquals(0, stageDatabaseHelper.getStage(removedId).getStageId());
+        assertEquals(3, itineraryHelper.getStageIds(compIds[1]).length);
+    }
+
+    @Test
+    public void newCompetitorHasEveryStage() {
+        itineraryDatabaseHelper.setItinerary(itinerary(LONG_RALLY));
+
+        DatabaseSeeder seeder = DatabaseSeeder.append(context);
+        int compID;
+        try {
+            compID = seeder.addCompetitor(CARS + 1, "Late Entry", "Co-driver");
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+        Competitor competitor = compDatabaseHelper.getCompetitorByID(compID);
+        assertEquals(LONG_RALLY, competitor.getStageCount());
+        for (int stageNum = 1; stageNum <= LONG_RALLY; stageNum++) {
+            assertNotEquals(0, competitor.getStageId(stageNum));
+        }
+
+        // Deleting the competitor takes its lookups with it
+        compDatabaseHelper.deleteCompetitor(competitor);
+        assertEquals(0, itineraryHelper.getStageIds(compID)[LONG_RALLY]);
+    }
+}
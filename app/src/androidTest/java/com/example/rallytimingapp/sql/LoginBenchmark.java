@@ -0,0 +1,116 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.PasswordHasher;
+import com.example.rallytimingapp.model.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times logging in with 2,000 logins saved, each found by the unique index on the username
+ * and checked against a password hashed at the full cost.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LoginBenchmark {
+
+    private static final String TAG = "LoginBenchmark";
+    private static final int LOGINS = 2000;
+    private static final int RUNS = 20;
+    // Nearly all of a login is the hashing, which is meant to be slow
+    private static final long LOGIN_LIMIT_MS = 500;
+    // A username that isn't there is turned away without hashing anything
+    private static final long MISSING_LIMIT_MS = 5;
+
+    private Context context;
+    private UserDatabaseHelper userDatabaseHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        userDatabaseHelper = new UserDatabaseHelper(context);
+
+        // Every login shares one hash, so seeding doesn't take as long as 2,000 logins
+        String hash = UserDatabaseHelper.hashPassword("driver");
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            for (int carNum = 1; carNum <= LOGINS; carNum++) {
+                int compID = seeder.addCompetitor(carNum, "Driver " + carNum, "Co-driver " + carNum);
+                seeder.addHashedLogin("Driver" + carNum, hash, "Competitor", compID);
+            }
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+    }
+
+    @Test
+    public void loginLatency() {
+        // Warm up the hashing and the compiled query
+        assertEquals("Competitor", userDatabaseHelper.authenticate("Driver1", "driver").getRole());
+
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            int carNum = LOGINS - i * (LOGINS / RUNS);
+            User user = userDatabaseHelper.authenticate("Driver" + carNum, "driver");
+            assertEquals("Competitor", user.getRole());
+            assertNull(user.getPassword());
+        }
+        long perLogin = (System.nanoTime() - start) / 1000000 / RUNS;
+        Log.i(TAG, "Logged in " + RUNS + " times with " + LOGINS + " logins, " + perLogin + " ms each");
+        assertTrue("Login took " + perLogin + " ms", perLogin < LOGIN_LIMIT_MS);
+
+        start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            assertNull(userDatabaseHelper.authenticate("Nobody" + i, "driver"));
+        }
+        long perMissing = (System.nanoTime() - start) / 1000000 / RUNS;
+        Log.i(TAG, "Turned away " + RUNS + " unknown usernames, " + perMissing + " ms each");
+        assertTrue("Unknown username took " + perMissing + " ms", perMissing < MISSING_LIMIT_MS);
+
+        assertNull(userDatabaseHelper.authenticate("Driver1", "wrong"));
+    }
+
+    @Test
+    public void plaintextPasswordIsHashedOnLogin() {
+        // A login saved before passwords were hashed
+        SQLiteDatabase db = RallyDatabase.getInstance(context).getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(UserDatabaseHelper.COLUMN_USER_PASSWORD, "driver");
+        db.update(UserDatabaseHelper.TABLE_USER, values, UserDatabaseHelper.COLUMN_USER_USERNAME + " = ?",
+                new String[]{"Driver7"});
+
+        assertNull(userDatabaseHelper.authenticate("Driver7", "wrong"));
+        assertEquals("Competitor", userDatabaseHelper.authenticate("Driver7", "driver").getRole());
+
+        String saved = DatabaseUtils.stringForQuery(db, "SELECT " + UserDatabaseHelper.COLUMN_USER_PASSWORD
+                + " FROM " + UserDatabaseHelper.TABLE_USER + " WHERE " + UserDatabaseHelper.COLUMN_USER_USERNAME
+                + " = ?", new String[]{"Driver7"});
+        assertTrue(saved.startsWith("pbkdf2$"));
+        assertTrue(new PasswordHasher(PasswordHasher.DEFAULT_ITERATIONS).verify("driver", saved));
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.AControl;
+import com.example.rallytimingapp.model.Competitor;
+import com.example.rallytimingapp.model.Finish;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Has many threads check cars in and request their finish times at once, each car tapped
+ * once by every thread, and checks every car ends up with exactly one entry and a unique order.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OrderAllocationStressTest {
+
+    private static final int CARS = 120;
+    private static final int THREADS = 8;
+    private static final int STAGE = 2;
+
+    private Context context;
+    private CompDatabaseHelper compDatabaseHelper;
+    private AControlDatabaseHelper aControlDatabaseHelper;
+    private FinishDatabaseHelper finishDatabaseHelper;
+    private final List<Competitor> competitors = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        compDatabaseHelper = new CompDatabaseHelper(context);
+        aControlDatabaseHelper = new AControlDatabaseHelper(context);
+        finishDatabaseHelper = new FinishDatabaseHelper(context);
+
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            for (int carNum = 1; carNum <= CARS; carNum++) {
+                seeder.addCompetitor(carNum, "Driver " + carNum, "Co-driver " + carNum);
+            }
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+        competitors.addAll(compDatabaseHelper.getAllCompetitors());
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+    }
+
+    @Test
+    public void finishOrdersAreUnique() throws InterruptedException {
+        final AtomicInteger added = new AtomicInteger();
+        runConcurrently(new CarTask() {
+            @Override
+            public void run(Competitor competitor) {
+                Finish finish = new Finish();
+                finish.setStage(STAGE);
+                finish.setCarNum(competitor.getCarNum());
+                finish.setStageID(competitor.getStageId(STAGE));
+                if (finishDatabaseHelper.addNextFinish(finish)) {
+                    added.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(CARS, added.get());
+        List<Finish> finishes = finishDatabaseHelper.getStage(STAGE);
+        assertEquals(CARS, finishes.size());
+        Set<Integer> cars = new HashSet<>();
+        for (int i = 0; i < finishes.size(); i++) {
+            // Listed in finish order, which must run 1, 2, 3... with no gaps or repeats
+            assertEquals(i + 1, finishes.get(i).getFinishOrder());
+            cars.add(finishes.get(i).getCarNum());
+        }
+        assertEquals(CARS, cars.size());
+        assertEquals(CARS, finishDatabaseHelper.getCurrFinishOrder(STAGE));
+    }
+
+    @Test
+    public void startOrdersAreUnique() throws InterruptedException {
+        final AtomicInteger added = new AtomicInteger();
+        runConcurrently(new CarTask() {
+            @Override
+            public void run(Competitor competitor) {
+                AControl aControl = new AControl();
+                aControl.setStage(STAGE);
+                aControl.setCarNum(competitor.getCarNum());
+                aControl.setStage1ID(competitor.getStageId(STAGE - 1));
+                aControl.setStage2ID(competitor.getStageId(STAGE));
+                if (aControlDatabaseHelper.addNextAControl(aControl)) {
+                    added.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(CARS, added.get());
+        Set<Integer> orders = new HashSet<>();
+        for (Competitor competitor : competitors) {
+            int startOrder = aControlDatabaseHelper.getStartOrder(STAGE, competitor.getCarNum());
+            assertTrue(startOrder >= 1 && startOrder <= CARS);
+            orders.add(startOrder);
+        }
+        assertEquals(CARS, orders.size());
+        assertEquals(CARS, aControlDatabaseHelper.getCurrStartOrder(STAGE));
+    }
+
+    @Test
+    public void counterCarriesOnAfterRemoval() {
+        Finish finish = new Finish();
+        for (int i = 0; i < 3; i++) {
+            Competitor competitor = competitors.get(i);
+            finish = new Finish();
+            finish.setStage(STAGE);
+            finish.setCarNum(competitor.getCarNum());
+            finish.setStageID(competitor.getStageId(STAGE));
+            finishDatabaseHelper.addNextFinish(finish);
+        }
+        assertEquals(3, finish.getFinishOrder());
+
+        // Removing the last car in gives its finish order to the next one
+        finishDatabaseHelper.deleteFinish(finishDatabaseHelper.getStage(STAGE).get(2));
+        Competitor competitor = competitors.get(3);
+        Finish next = new Finish();
+        next.setStage(STAGE);
+        next.setCarNum(competitor.getCarNum());
+        next.setStageID(competitor.getStageId(STAGE));
+        finishDatabaseHelper.addNextFinish(next);
+        assertEquals(3, next.getFinishOrder());
+    }
+
+    private interface CarTask {
+        void run(Competitor competitor);
+    }
+
+    // Method to run the task for every car from THREADS threads at once. Each thread goes
+    // through every car, so each car is tried THREADS times, as if tapped by several devices.
+    private void runConcurrently(final CarTask task) throws InterruptedException {
+        final CountDownLatch ready = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int offset = t * CARS / THREADS;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        ready.await();
+                        for (int i = 0; i < CARS; i++) {
+                            task.run(competitors.get((offset + i) % CARS));
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        ready.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.rallytimingapp.sql;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the car number and order lookups search the unique indexes
+ * rather than scanning the whole table.
+ */
+@RunWith(AndroidJUnit4.class)
+public class QueryPlanTest {
+
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        db = RallyDatabase.getInstance(InstrumentationRegistry.getInstrumentation().getTargetContext())
+                .getReadableDatabase();
+    }
+
+    @Test
+    public void stageByCarNum() {
+        assertUsesIndex(StageDatabaseHelper.INDEX_STAGE_CAR, "SELECT * FROM " + StageDatabaseHelper.TABLE_STAGE
+                + " WHERE " + StageDatabaseHelper.COLUMN_STAGE_CARNUM + " = ?"
+                + " AND " + StageDatabaseHelper.COLUMN_STAGE_STAGENUM + " = ?");
+    }
+
+    @Test
+    public void aControlByCarNum() {
+        assertUsesIndex(AControlDatabaseHelper.INDEX_AC_CAR, "SELECT * FROM " + AControlDatabaseHelper.TABLE_ACONTROL
+                + " WHERE " + AControlDatabaseHelper.COLUMN_AC_STAGE + " = ?"
+                + " AND " + AControlDatabaseHelper.COLUMN_AC_CARNUM + " = ?");
+    }
+
+    @Test
+    public void aControlByStartOrder() {
+        assertUsesIndex(AControlDatabaseHelper.INDEX_AC_ORDER, "SELECT * FROM " + AControlDatabaseHelper.TABLE_ACONTROL
+                + " WHERE " + AControlDatabaseHelper.COLUMN_AC_STAGE + " = ?"
+                + " AND " + AControlDatabaseHelper.COLUMN_AC_SO + " = ?");
+    }
+
+    @Test
+    public void startByCarNum() {
+        assertUsesIndex(StartDatabaseHelper.INDEX_START_CAR, "SELECT * FROM " + StartDatabaseHelper.TABLE_START
+                + " WHERE " + StartDatabaseHelper.COLUMN_START_STAGE + " = ?"
+                + " AND " + StartDatabaseHelper.COLUMN_START_CARNUM + " = ?");
+    }
+
+    @Test
+    public void startByStartOrder() {
+        assertUsesIndex(StartDatabaseHelper.INDEX_START_ORDER, "SELECT * FROM " + StartDatabaseHelper.TABLE_START
+                + " WHERE " + StartDatabaseHelper.COLUMN_START_STAGE + " = ?"
+                + " AND " + StartDatabaseHelper.COLUMN_START_ORDER + " = ?");
+    }
+
+    @Test
+    public void finishByCarNum() {
+        assertUsesIndex(FinishDatabaseHelper.INDEX_FINISH_CAR, "SELECT * FROM " + FinishDatabaseHelper.TABLE_FINISH
+                + " WHERE " + FinishDatabaseHelper.COLUMN_FINISH_STAGE + " = ?"
+                + " AND " + FinishDatabaseHelper.COLUMN_FINISH_CARNUM + " = ?");
+    }
+
+    @Test
+    public void finishByFinishOrder() {
+        assertUsesIndex(FinishDatabaseHelper.INDEX_FINISH_ORDER, "SELECT * FROM " + FinishDatabaseHelper.TABLE_FINISH
+                + " WHERE " + FinishDatabaseHelper.COLUMN_FINISH_STAGE + " = ?"
+                + " AND " + FinishDatabaseHelper.COLUMN_FINISH_ORDER + " = ?");
+    }
+
+    @Test
+    public void joinedStartCard() {
+        // The card lookup should find the start entry by index, then the stage by its ID
+        assertUsesIndex(StartDatabaseHelper.INDEX_START_ORDER, "SELECT " + StageDatabaseHelper.TABLE_STAGE
+                + ".* FROM " + StageDatabaseHelper.TABLE_STAGE + " INNER JOIN " + StartDatabaseHelper.TABLE_START
+                + " ON " + StartDatabaseHelper.COLUMN_START_STAGEID + " = " + StageDatabaseHelper.COLUMN_STAGE_ID
+                + " WHERE " + StartDatabaseHelper.COLUMN_START_STAGE + " = ?"
+                + " AND " + StartDatabaseHelper.COLUMN_START_ORDER + " = ?");
+    }
+
+    // Method to check the query plan for the query searches the given index. The arguments are
+    // bound as strings, the same way the helpers pass them.
+    private void assertUsesIndex(String index, String query) {
+        Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + query, new String[]{"1", "1"});
+        StringBuilder plan = new StringBuilder();
+        while (cursor.moveToNext()) {
+            plan.append(cursor.getString(cursor.getColumnIndexOrThrow("detail"))).append('\n');
+        }
+        cursor.close();
+
+        String detail = plan.toString();
+        assertTrue(detail, detail.contains("USING INDEX " + index)
+                || detail.contains("USING COVERING INDEX " + index));
+        assertTrue(detail, !detail.contains("SCAN"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.AControl;
+import com.example.rallytimingapp.model.Stage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Micro-benchmark comparing a card lookup that reopens the database every time
+ * against the shared connection kept open by RallyApplication.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RallyDatabaseBenchmark {
+
+    private static final String TAG = "RallyDatabaseBenchmark";
+    private static final int CARS = 200;
+    private static final int STAGES = 4;
+    private static final int ROUNDS = 3;
+
+    private RallyDatabase rallyDatabase;
+    private StageDatabaseHelper stageDatabaseHelper;
+    private AControlDatabaseHelper aControlDatabaseHelper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        rallyDatabase = RallyDatabase.getInstance(context);
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        aControlDatabaseHelper = new AControlDatabaseHelper(context);
+        aControlDatabaseHelper.empty();
+        stageDatabaseHelper.empty();
+
+        // 200 cars booked in to the A Control of each of the 4 stages
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int stageNum = 1; stageNum <= STAGES; stageNum++) {
+                for (int carNum = 1; carNum <= CARS; carNum++) {
+                    Stage stage = new Stage();
+                    stage.setCarNum(carNum);
+                    stage.setStageNum(stageNum);
+                    stage.setStartOrder(carNum);
+                    stageDatabaseHelper.addStage(stage);
+
+                    AControl aControl = new AControl();
+                    aControl.setStartOrder(carNum);
+                    aControl.setStage(stageNum);
+                    aControl.setCarNum(carNum);
+                    if (stageNum > 1) {
+                        aControl.setStage1ID(stageDatabaseHelper.getStageId(carNum, stageNum - 1));
+                    }
+                    aControl.setStage2ID(stageDatabaseHelper.getStageId(carNum, stageNum));
+                    aControlDatabaseHelper.addAControl(aControl);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        aControlDatabaseHelper.empty();
+        stageDatabaseHelper.empty();
+    }
+
+    @Test
+    public void lookupLatency() {
+        // Warm up both paths once before timing anything
+        lookUpEveryCard(true);
+        lookUpEveryCard(false);
+
+        long reopenNanos = 0;
+        long sharedNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            reopenNanos += lookUpEveryCard(true);
+            sharedNanos += lookUpEveryCard(false);
+        }
+
+        int lookups = ROUNDS * CARS * STAGES;
+        Log.i(TAG, "Reopen per lookup: " + (reopenNanos / lookups / 1000) + " us");
+        Log.i(TAG, "Shared connection: " + (sharedNanos / lookups / 1000) + " us");
+    }
+
+    // Method to flip through every A Control card the way fillInCards does, returning the
+    // time taken. Closing after each lookup gives the old open/close per call behaviour.
+    private long lookUpEveryCard(boolean closeEachTime) {
+        long start = System.nanoTime();
+        for (int stageNum = 1; stageNum <= STAGES; stageNum++) {
+            for (int startOrder = 1; startOrder <= CARS; startOrder++) {
+                Stage stage = stageDatabaseHelper.getStageByAControlOrder(stageNum, startOrder, false);
+                assertEquals(startOrder, stage.getCarNum());
+                if (closeEachTime) {
+                    rallyDatabase.close();
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        // Leave the shared connection open again for whatever runs next
+        rallyDatabase.getWritableDatabase();
+        return elapsed;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.rallytimingapp.sql;
+
+import android.os.Looper;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks writes run one at a time in the order they were asked for, away from the main
+ * thread, and that results come back on the main thread.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RallyRepositoryTest {
+
+    private static final int TASKS = 200;
+
+    @Test
+    public void writesRunInOrderOffTheMainThread() throws Exception {
+        RallyRepository repository = RallyRepository.getInstance();
+        final List<Integer> ran = Collections.synchronizedList(new ArrayList<Integer>());
+        final AtomicBoolean onMainThread = new AtomicBoolean();
+        for (int i = 0; i < TASKS; i++) {
+            final int task = i;
+            repository.write(new Runnable() {
+                @Override
+                public void run() {
+                    if (Looper.myLooper() == Looper.getMainLooper()) {
+                        onMainThread.set(true);
+                    }
+                    ran.add(task);
+                }
+            });
+        }
+        // The last write only runs once every earlier one has finished
+        repository.write(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        assertFalse(onMainThread.get());
+        assertEquals(TASKS, ran.size());
+        for (int i = 0; i < TASKS; i++) {
+            assertEquals(i, (int) ran.get(i));
+        }
+    }
+
+    @Test
+    public void resultsComeBackOnTheMainThread() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicBoolean onMainThread = new AtomicBoolean();
+        final List<String> results = new ArrayList<>();
+        RallyRepository.getInstance().read(new Callable<String>() {
+            @Override
+            public String call() {
+                return "read";
+            }
+        }, new RallyRepository.Callback<String>() {
+            @Override
+            public void onResult(String result) {
+                onMainThread.set(Looper.myLooper() == Looper.getMainLooper());
+                results.add(result);
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(onMainThread.get());
+        assertEquals("read", results.get(0));
+    }
+}
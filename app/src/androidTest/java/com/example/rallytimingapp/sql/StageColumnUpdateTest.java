@@ -0,0 +1,97 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.RallyTime;
+import com.example.rallytimingapp.model.Stage;
+import com.example.rallytimingapp.model.Start;
+import com.example.rallytimingapp.model.StageTimeCalculator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the single statement updates work out the same times as updateStage, including a
+ * stage run past midnight, and that a swap moves the start orders on the stage entries too.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StageColumnUpdateTest {
+
+    private static final int STAGE = 3;
+
+    private StageDatabaseHelper stageDatabaseHelper;
+    private StartDatabaseHelper startDatabaseHelper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        startDatabaseHelper = new StartDatabaseHelper(context);
+        startDatabaseHelper.empty();
+        stageDatabaseHelper.empty();
+    }
+
+    @After
+    public void tearDown() {
+        startDatabaseHelper.empty();
+        stageDatabaseHelper.empty();
+    }
+
+    private Stage addStage(int carNum) {
+        Stage stage = new Stage();
+        stage.setCarNum(carNum);
+        stage.setStageNum(STAGE);
+        stageDatabaseHelper.addStage(stage);
+        return stageDatabaseHelper.getStage(carNum, STAGE);
+    }
+
+    @Test
+    public void worksOutTimesPastMidnight() {
+        addStage(7);
+        int actualStart = RallyTime.fromBoxes("23", "55", "", "");
+        int finishTime = RallyTime.fromBoxes("00", "03", "12", "34");
+
+        // Finishing first keeps the stage time given, as the start isn't known yet
+        int typed = RallyTime.fromBoxes("", "9", "0", "0");
+        stageDatabaseHelper.setFinishTime(STAGE, 7, finishTime, typed);
+        assertEquals(typed, stageDatabaseHelper.getStage(7, STAGE).getStageTime());
+
+        stageDatabaseHelper.setActualStart(STAGE, 7, actualStart, 4);
+        Stage stage = stageDatabaseHelper.getStage(7, STAGE);
+        assertEquals(4, stage.getStartOrder());
+        assertEquals(StageTimeCalculator.getStageTime(actualStart, finishTime), stage.getStageTime());
+        assertEquals(RallyTime.fromBoxes("", "8", "12", "34"), stage.getStageTime());
+        assertEquals(StageTimeCalculator.getDueTime(actualStart,
+                stageDatabaseHelper.getStageTimeCalculator().getTargetTime(STAGE)), stage.getDueTime());
+
+        // Once the start is known, the finish works the stage time out for itself
+        stageDatabaseHelper.setFinishTime(STAGE, 7, RallyTime.fromBoxes("00", "05", "0", "0"), typed);
+        assertEquals(RallyTime.fromBoxes("", "10", "0", "0"), stageDatabaseHelper.getStage(7, STAGE).getStageTime());
+    }
+
+    @Test
+    public void swapMovesStageStartOrders() {
+        for (int carNum = 1; carNum <= 2; carNum++) {
+            Stage stage = addStage(carNum);
+            stageDatabaseHelper.setStartOrder(STAGE, carNum, carNum);
+            Start start = new Start();
+            start.setStage(STAGE);
+            start.setCarNum(carNum);
+            start.setStartOrder(carNum);
+            start.setStageID(stage.getStageId());
+            startDatabaseHelper.addStart(start);
+        }
+
+        startDatabaseHelper.swapStartOrders(STAGE, 1, 2);
+
+        assertEquals(2, stageDatabaseHelper.getStage(1, STAGE).getStartOrder());
+        assertEquals(1, stageDatabaseHelper.getStage(2, STAGE).getStartOrder());
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.AControl;
+import com.example.rallytimingapp.model.Stage;
+import com.example.rallytimingapp.model.Start;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks moving cars and setting a whole new start order on a 300 car field, keeping the
+ * orders 1 to 300 with no gaps or repeats, and the stage entries in step. Also checks a car
+ * placed at an order that is already taken goes after the last car, and a swap at the
+ * A Control changes the start list too.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartOrderSequencerTest {
+
+    private static final int CARS = 300;
+    private static final int STAGE = 2;
+
+    private StageDatabaseHelper stageDatabaseHelper;
+    private StartDatabaseHelper startDatabaseHelper;
+    private AControlDatabaseHelper aControlDatabaseHelper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        startDatabaseHelper = new StartDatabaseHelper(context);
+        aControlDatabaseHelper = new AControlDatabaseHelper(context);
+        aControlDatabaseHelper.empty();
+        startDatabaseHelper.empty();
+        stageDatabaseHelper.empty();
+
+        // Car n starts at start order n
+        SQLiteDatabase db = RallyDatabase.getInstance(context).getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int carNum = 1; carNum <= CARS; carNum++) {
+                Stage stage = new Stage();
+                stage.setCarNum(carNum);
+                stage.setStageNum(STAGE);
+                stage.setStartOrder(carNum);
+                stageDatabaseHelper.addStage(stage);
+
+                Start start = new Start();
+                start.setStage(STAGE);
+                start.setCarNum(carNum);
+                start.setStartOrder(carNum);
+                start.setStageID(stageDatabaseHelper.getStageId(carNum, STAGE));
+                startDatabaseHelper.addStart(start);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        aControlDatabaseHelper.empty();
+        startDatabaseHelper.empty();
+        stageDatabaseHelper.empty();
+    }
+
+    // Method to check the field runs in the given order of cars, on both tables
+    private void assertOrder(int[] carNums) {
+        List<Start> starts = startDatabaseHelper.getStage(STAGE);
+        assertEquals(CARS, starts.size());
+        for (int i = 0; i < CARS; i++) {
+            assertEquals(i + 1, starts.get(i).getStartOrder());
+            assertEquals(carNums[i], starts.get(i).getCarNum());
+            assertEquals(i + 1, stageDatabaseHelper.getStage(carNums[i], STAGE).getStartOrder());
+        }
+    }
+
+    // Method to return the car numbers 1 to 300, in order
+    private static int[] inOrder() {
+        int[] carNums = new int[CARS];
+        for (int i = 0; i < CARS; i++) {
+            carNums[i] = i + 1;
+        }
+        return carNums;
+    }
+
+    @Test
+    public void movesFirstCarToLast() {
+        assertTrue(startDatabaseHelper.moveStartOrder(STAGE, 1, CARS));
+
+        int[] expected = new int[CARS];
+        for (int i = 0; i < CARS - 1; i++) {
+            expected[i] = i + 2;
+        }
+        expected[CARS - 1] = 1;
+        assertOrder(expected);
+    }
+
+    @Test
+    public void movesLastCarToFirst() {
+        assertTrue(startDatabaseHelper.moveStartOrder(STAGE, CARS, 1));
+
+        int[] expected = new int[CARS];
+        expected[0] = CARS;
+        for (int i = 1; i < CARS; i++) {
+            expected[i] = i;
+        }
+        assertOrder(expected);
+    }
+
+    @Test
+    public void setsAWholeNewOrder() {
+        int[] reversed = new int[CARS];
+        for (int i = 0; i < CARS; i++) {
+            reversed[i] = CARS - i;
+        }
+        assertTrue(startDatabaseHelper.setStartOrders(STAGE, reversed));
+        assertOrder(reversed);
+    }
+
+    @Test
+    public void leavesTheOrderAloneWhenItCannotBeChanged() {
+        assertFalse(startDatabaseHelper.moveStartOrder(STAGE, CARS + 1, 1));
+        assertFalse(startDatabaseHelper.moveStartOrder(STAGE, 1, CARS + 1));
+
+        // A car listed twice, so one car at the stage is missing
+        int[] repeated = inOrder();
+        repeated[CARS - 1] = 1;
+        assertFalse(startDatabaseHelper.setStartOrders(STAGE, repeated));
+        // A car that isn't at the stage, which would clash with the car left out
+        int[] unknown = inOrder();
+        unknown[0] = CARS + 1;
+        assertFalse(startDatabaseHelper.setStartOrders(STAGE, unknown));
+
+        assertOrder(inOrder());
+    }
+
+    @Test
+    public void carAtATakenOrderGoesAfterTheLast() {
+        // A car arriving at an order another car already has
+        Stage stage = new Stage();
+        stage.setCarNum(CARS + 1);
+        stage.setStageNum(STAGE);
+        stageDatabaseHelper.addStage(stage);
+        Start start = new Start();
+        start.setStage(STAGE);
+        start.setCarNum(CARS + 1);
+        start.setStartOrder(5);
+        start.setStageID(stageDatabaseHelper.getStageId(CARS + 1, STAGE));
+        assertFalse(startDatabaseHelper.addStart(start));
+
+        assertEquals(CARS + 1, startDatabaseHelper.placeStart(start));
+        assertEquals(CARS + 1, startDatabaseHelper.getCarNum(STAGE, CARS + 1));
+        assertEquals(5, startDatabaseHelper.getCarNum(STAGE, 5));
+        assertEquals(CARS + 1, stageDatabaseHelper.getStage(CARS + 1, STAGE).getStartOrder());
+    }
+
+    @Test
+    public void aControlSwapMovesTheStartListToo() {
+        // Every car is through the A Control in the same order as the start list
+        for (int carNum = 1; carNum <= CARS; carNum++) {
+            AControl aControl = new AControl();
+            aControl.setStage(STAGE);
+            aControl.setCarNum(carNum);
+            aControl.setStartOrder(carNum);
+            aControl.setStage2ID(stageDatabaseHelper.getStageId(carNum, STAGE));
+            aControlDatabaseHelper.addAControl(aControl);
+        }
+
+        assertTrue(aControlDatabaseHelper.swapStartOrdersAndStarts(STAGE, 1, CARS));
+
+        int[] expected = inOrder();
+        expected[0] = CARS;
+        expected[CARS - 1] = 1;
+        assertOrder(expected);
+        assertEquals(CARS, aControlDatabaseHelper.getCarNum(STAGE, 1));
+        assertEquals(1, aControlDatabaseHelper.getCarNum(STAGE, CARS));
+    }
+}
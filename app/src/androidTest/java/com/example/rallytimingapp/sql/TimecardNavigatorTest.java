@@ -0,0 +1,98 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.Finish;
+import com.example.rallytimingapp.model.Stage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the navigator's cached rosters and stage entries follow every change made
+ * through the helpers, so a flipped-to card is never out of date.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TimecardNavigatorTest {
+
+    private static final int CARS = 10;
+    private static final int STAGE = 1;
+
+    private StageDatabaseHelper stageDatabaseHelper;
+    private FinishDatabaseHelper finishDatabaseHelper;
+    private TimecardNavigator navigator;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        finishDatabaseHelper = new FinishDatabaseHelper(context);
+        navigator = TimecardNavigator.getInstance(context);
+        finishDatabaseHelper.empty();
+        stageDatabaseHelper.empty();
+
+        // The cars finish in the reverse of their numbers
+        for (int carNum = CARS; carNum >= 1; carNum--) {
+            addFinish(carNum);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        finishDatabaseHelper.empty();
+        stageDatabaseHelper.empty();
+    }
+
+    private void addFinish(int carNum) {
+        Stage stage = new Stage();
+        stage.setCarNum(carNum);
+        stage.setStageNum(STAGE);
+        stageDatabaseHelper.addStage(stage);
+
+        Finish finish = new Finish();
+        finish.setStage(STAGE);
+        finish.setCarNum(carNum);
+        finish.setStageID(stageDatabaseHelper.getStageId(carNum, STAGE));
+        finishDatabaseHelper.addNextFinish(finish);
+    }
+
+    @Test
+    public void flipsThroughTheRoster() {
+        assertEquals(CARS, navigator.getLastOrder(TimecardNavigator.FINISH, STAGE));
+        for (int order = 1; order <= CARS; order++) {
+            assertEquals(CARS + 1 - order, navigator.getStage(TimecardNavigator.FINISH, STAGE, order).getCarNum());
+        }
+        // Orders with no car, and stages no car has reached, give an empty card
+        assertEquals(0, navigator.getStage(TimecardNavigator.FINISH, STAGE, CARS + 1).getStageId());
+        assertEquals(0, navigator.getLastOrder(TimecardNavigator.FINISH, STAGE + 1));
+    }
+
+    @Test
+    public void followsChanges() {
+        // Read the roster and a card, so both are cached
+        assertEquals(CARS, navigator.getStage(TimecardNavigator.FINISH, STAGE, 1).getCarNum());
+
+        // A new finish shows up straight away
+        addFinish(CARS + 1);
+        assertEquals(CARS + 1, navigator.getLastOrder(TimecardNavigator.FINISH, STAGE));
+        assertEquals(CARS + 1, navigator.getStage(TimecardNavigator.FINISH, STAGE, CARS + 1).getCarNum());
+
+        // So does a time saved on a card that had already been read
+        Stage stage = navigator.getStage(TimecardNavigator.FINISH, STAGE, 1);
+        stage.setFinishTime(45296789);
+        stageDatabaseHelper.updateStage(stage);
+        assertEquals(45296789, navigator.getStage(TimecardNavigator.FINISH, STAGE, 1).getFinishTime());
+
+        // And emptying the tables
+        stageDatabaseHelper.empty();
+        assertEquals(0, navigator.getLastOrder(TimecardNavigator.FINISH, STAGE));
+        assertEquals(0, navigator.getStage(TimecardNavigator.FINISH, STAGE, 1).getStageId());
+    }
+}
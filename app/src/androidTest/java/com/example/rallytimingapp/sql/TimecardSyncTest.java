@@ -0,0 +1,127 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.rallytimingapp.model.HybridClock;
+import com.example.rallytimingapp.model.RallyTime;
+import com.example.rallytimingapp.model.Stage;
+import com.example.rallytimingapp.model.TimecardUpdate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks timecard fields imported from other phones are merged field by field, keeping the
+ * latest edit of each, and give the same timecards whatever order they are imported in.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TimecardSyncTest {
+
+    private static final int TEN_AM = 10 * RallyTime.MS_PER_HOUR;
+
+    private Context context;
+    private TimecardSync timecardSync;
+    private StageDatabaseHelper stageDatabaseHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        timecardSync = new TimecardSync(context);
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        seed();
+    }
+
+    @After
+    public void tearDown() {
+        DatabaseSeeder.clearEvent(context);
+    }
+
+    private void seed() {
+        DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+        try {
+            seeder.addCompetitor(1, "Hayden Paddon", "John Kennard");
+            seeder.addCompetitor(2, "Emma Gilmour", "Mal Peden");
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+    }
+
+    @Test
+    public void laterEditsWin() {
+        stageDatabaseHelper.setActualStart(1, 1, TEN_AM, 1);
+        long local = RallyDatabase.getClock(RallyDatabase.getInstance(context).getReadableDatabase()).getLast();
+
+        TimecardSync.Result result = timecardSync.applyUpdates(Arrays.asList(
+                // Made before the start was saved here, so it loses
+                new TimecardUpdate(1, 1, TimecardUpdate.ACTUAL_START, TEN_AM + RallyTime.MS_PER_MINUTE, local - 1),
+                new TimecardUpdate(1, 1, TimecardUpdate.FINISH_TIME, TEN_AM + 5 * RallyTime.MS_PER_MINUTE, local + 5),
+                new TimecardUpdate(9, 1, TimecardUpdate.FINISH_TIME, TEN_AM, local + 5)));
+
+        assertEquals(1, result.getApplied());
+        assertEquals(1, result.getIgnored());
+        assertEquals(1, result.getMissing());
+        Stage stage = stageDatabaseHelper.getStage(1, 1);
+        assertEquals(TEN_AM, stage.getActualStart());
+        // Worked out again from the local start and the imported finish
+        assertEquals(5 * RallyTime.MS_PER_MINUTE, stage.getStageTime());
+
+        // Exporting from after the import has only the stage time worked out here
+        List<TimecardUpdate> updates = timecardSync.getUpdates(local + 5);
+        assertEquals(1, updates.size());
+        assertEquals(TimecardUpdate.STAGE_TIME, updates.get(0).getField());
+    }
+
+    @Test
+    public void importOrderDoesNotMatter() {
+        long clock = HybridClock.fromTime(System.currentTimeMillis()) + 1000;
+        List<TimecardUpdate> start = Arrays.asList(
+                new TimecardUpdate(1, 1, TimecardUpdate.START_ORDER, 1, clock),
+                new TimecardUpdate(1, 1, TimecardUpdate.ACTUAL_START, TEN_AM, clock),
+                new TimecardUpdate(2, 1, TimecardUpdate.ACTUAL_START, TEN_AM + RallyTime.MS_PER_MINUTE, clock + 1));
+        List<TimecardUpdate> finish = Arrays.asList(
+                new TimecardUpdate(1, 1, TimecardUpdate.FINISH_TIME, TEN_AM + 4 * RallyTime.MS_PER_MINUTE, clock + 2),
+                // A corrected start time, typed at the finish after the first one
+                new TimecardUpdate(2, 1, TimecardUpdate.ACTUAL_START, TEN_AM + 2 * RallyTime.MS_PER_MINUTE, clock + 3),
+                new TimecardUpdate(2, 1, TimecardUpdate.FINISH_TIME, TEN_AM + 7 * RallyTime.MS_PER_MINUTE, clock + 3));
+
+        timecardSync.applyUpdates(start);
+        timecardSync.applyUpdates(finish);
+        List<Stage> startFirst = stageDatabaseHelper.getAllStages();
+
+        DatabaseSeeder.clearEvent(context);
+        seed();
+        timecardSync.applyUpdates(finish);
+        timecardSync.applyUpdates(start);
+        List<Stage> finishFirst = stageDatabaseHelper.getAllStages();
+
+        assertEquals(startFirst.size(), finishFirst.size());
+        List<String> a = new ArrayList<>();
+        List<String> b = new ArrayList<>();
+        for (int i = 0; i < startFirst.size(); i++) {
+            a.add(describe(startFirst.get(i)));
+            b.add(describe(finishFirst.get(i)));
+        }
+        assertEquals(a, b);
+        assertEquals(5 * RallyTime.MS_PER_MINUTE, stageDatabaseHelper.getStage(2, 1).getStageTime());
+    }
+
+    private static String describe(Stage stage) {
+        StringBuilder fields = new StringBuilder(stage.getCarNum() + "/" + stage.getStageNum());
+        for (int field = 0; field < TimecardUpdate.FIELD_COUNT; field++) {
+            fields.append(' ').append(TimecardUpdate.getField(stage, field));
+        }
+        return fields.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.rallytimingapp;
+
+import android.app.Application;
+import android.os.StrictMode;
+
+import com.example.rallytimingapp.sql.ItineraryHelper;
+import com.example.rallytimingapp.sql.RallyDatabase;
+import com.example.rallytimingapp.sql.RallyRepository;
+
+public class RallyApplication extends Application {
+    // Application class, which owns the database connection for the whole process
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        if (BuildConfig.DEBUG) {
+            // Report any disk access left on the main thread, and any cursor that is never closed
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyLog()
+                    .build());
+            StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
+                    .detectLeakedSqlLiteObjects()
+                    .detectLeakedClosableObjects()
+                    .penaltyLog()
+                    .build());
+        }
+        // Open the shared connection up front, on the writer thread as opening it may have to
+        // create or upgrade the database. It is never closed, so every screen reuses it along
+        // with SQLite's page cache instead of reopening the file. The itinerary is read in
+        // straight after, so the screens never wait on it.
+        RallyRepository.getInstance().write(new Runnable() {
+            @Override
+            public void run() {
+                RallyDatabase.getInstance(RallyApplication.this).getWritableDatabase();
+                ItineraryHelper.getInstance(RallyApplication.this).preload();
+            }
+        });
+    }
+}
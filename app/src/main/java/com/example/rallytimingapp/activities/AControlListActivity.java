@@ -1,31 +1,29 @@
 package com.example.rallytimingapp.activities;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
-import android.widget.AdapterView;
-import android.widget.ArrayAdapter;
-import android.widget.ListView;
 import android.widget.SearchView;
 
 import com.example.rallytimingapp.R;
-import com.example.rallytimingapp.model.TimingCrew;
+import com.example.rallytimingapp.helpers.PagedNameAdapter;
+import com.example.rallytimingapp.helpers.SearchResultSource;
+import com.example.rallytimingapp.model.ListEntry;
+import com.example.rallytimingapp.sql.ListSearchHelper;
 import com.example.rallytimingapp.sql.TimingCrewDatabaseHelper;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
-public class AControlListActivity extends AppCompatActivity implements AdapterView.OnItemClickListener, SearchView.OnQueryTextListener {
-    private List<TimingCrew> aControlList = new ArrayList<TimingCrew>(); // List to contain all the a control crew entries
-    private List<String> postChiefs = new ArrayList<>(); // List to contain the names of the post chiefs
-    private ArrayAdapter<String> adapter;
-    private ListView aControlListView;
+public class AControlListActivity extends AppCompatActivity implements PagedNameAdapter.OnEntryClickListener, SearchView.OnQueryTextListener {
+    private PagedNameAdapter adapter; // Adapter reading the names of the post chiefs a page at a time
+    private RecyclerView aControlListView;
     private SearchView searchBar;
-    private TimingCrewDatabaseHelper crewDatabaseHelper;
-    private TimingCrew aControlCrew;
+    private ListSearchHelper listSearchHelper;
+    private TimingCrewDatabaseHelper timingCrewDatabaseHelper;
     private final String role = "A Control";
 
     @Override
@@ -34,13 +32,34 @@ public class AControlListActivity extends AppCompatActivity implements AdapterVi
         setContentView(R.layout.activity_acontrol_list);
 
         // Set up Adapter
-        aControlListView = (ListView) findViewById(R.id.AControlListView);
-        crewDatabaseHelper = new TimingCrewDatabaseHelper(this);
+        aControlListView = (RecyclerView) findViewById(R.id.AControlListView);
+        listSearchHelper = ListSearchHelper.getInstance(this);
+        timingCrewDatabaseHelper = new TimingCrewDatabaseHelper(this);
         if (aControlListView != null) {
-            postChiefs = getPostChiefs();
-            adapter = new ArrayAdapter<String>(this, android.R.layout.simple_list_item_1, postChiefs);
+            adapter = new PagedNameAdapter(new SearchResultSource(new SearchResultSource.Rows() {
+                @Override
+                public int count() {
+                    return timingCrewDatabaseHelper.getPostChiefCount(role);
+                }
+
+                @Override
+                public List<ListEntry> loadPage(int offset, int limit) {
+                    return timingCrewDatabaseHelper.getPostChiefPage(role, offset, limit);
+                }
+
+                @Override
+                public List<Integer> search(String text) {
+                    return listSearchHelper.searchCrews(role, text);
+                }
+
+                @Override
+                public List<ListEntry> load(List<Integer> ids) {
+                    return timingCrewDatabaseHelper.getPostChiefEntries(ids);
+                }
+            }), this);
+            aControlListView.setLayoutManager(new LinearLayoutManager(this));
             aControlListView.setAdapter(adapter);
-            aControlListView.setOnItemClickListener(this);
+            adapter.reload();
 
             // Set up Search Bar
             searchBar = (SearchView) findViewById(R.id.AControlSearchBar);
@@ -48,76 +67,44 @@ public class AControlListActivity extends AppCompatActivity implements AdapterVi
             searchBar.setOnCloseListener(new SearchView.OnCloseListener() {
                 @Override
                 public boolean onClose() {
-                    postChiefs = getPostChiefs();
-                    adapter.clear();
-                    adapter.addAll(postChiefs);
-                    adapter.notifyDataSetChanged();
+                    adapter.setSearch("");
                     return false;
                 }
             });
         }
     }
 
-    // Method to return a list of the names of all post chiefs of crews in the A Control role
-    public List<String> getPostChiefs() {
-        List<String> currPostChiefs = new ArrayList<>();
-        aControlList = crewDatabaseHelper.getTimingCrewsByPosition(role);
-        for (int i = 0; i < aControlList.size(); i++) {
-            currPostChiefs.add(aControlList.get(i).getPostChief());
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (adapter != null) {
+            adapter.close();
         }
-        return currPostChiefs;
     }
 
-    // Method for when a list item is clicked. The relevant crew object is found and the ID and role type are
+    // Method for when a list item is clicked. The ID of the crew in that row and the role type are
     // Passed onto the intent as an extra. Switches to the page where the admin can update a crew account
     @Override
-    public void onItemClick(AdapterView<?> adapterView, View view, int position, long id) {
-        String postChiefName = (String) adapterView.getAdapter().getItem(position);
-        aControlCrew = crewDatabaseHelper.getTimingCrewByPostChief(role, postChiefName);
-        int crewID = aControlCrew.getCrewId();
+    public void onEntryClick(ListEntry entry) {
         Intent intent = new Intent(this, UpdateCrewActivity.class);
         intent.putExtra("ROLE", role);
-        intent.putExtra("CREW_ID", crewID);
+        intent.putExtra("CREW_ID", entry.getId());
         startActivity(intent);
     }
 
-    // Method for when a search is submitted. Each entry in the database is tested
-    // to see if they contain the query and results are displayed
+    // Method for when a search is submitted. Only the post chiefs whose names contain
+    // the query are shown
     @Override
     public boolean onQueryTextSubmit(String query) {
-        String search = query.toLowerCase(Locale.ROOT);
-        aControlList = crewDatabaseHelper.getTimingCrewsByPosition(role);
-        List<String> results = new ArrayList<>();
-        for (int i = 0; i < aControlList.size(); i++) {
-            String currPostChief = aControlList.get(i).getPostChief();
-            String toMatch = currPostChief.toLowerCase(Locale.ROOT);
-            if (toMatch.contains(search)) {
-                results.add(currPostChief);
-            }
-        }
-        adapter.clear();
-        adapter.addAll(results);
-        adapter.notifyDataSetChanged();
+        adapter.setSearch(query);
         return false;
     }
 
-    // Method for when a search input is changed. Each entry in the database is tested
-    // to see if they contain the new query and the results are displayed
+    // Method for when a search input is changed. Only the post chiefs whose names contain
+    // the new query are shown
     @Override
     public boolean onQueryTextChange(String newText) {
-        String search = newText.toLowerCase(Locale.ROOT);
-        aControlList = crewDatabaseHelper.getTimingCrewsByPosition(role);
-        List<String> results = new ArrayList<>();
-        for (int i = 0; i < aControlList.size(); i++) {
-            String currPostChief = aControlList.get(i).getPostChief();
-            String toMatch = currPostChief.toLowerCase(Locale.ROOT);
-            if (toMatch.contains(search)) {
-                results.add(currPostChief);
-            }
-        }
-        adapter.clear();
-        adapter.addAll(results);
-        adapter.notifyDataSetChanged();
+        adapter.setSearch(newText);
         return false;
     }
 
@@ -134,4 +121,4 @@ public class AControlListActivity extends AppCompatActivity implements AdapterVi
         intent.putExtra("ROLE", role);
         startActivity(intent);
     }
-}
\ No newline at end of file
+}
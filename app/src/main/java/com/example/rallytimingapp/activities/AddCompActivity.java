@@ -13,9 +13,11 @@ import android.widget.ScrollView;
 import com.example.rallytimingapp.R;
 import com.example.rallytimingapp.helpers.InputValidation;
 import com.example.rallytimingapp.model.Competitor;
+import com.example.rallytimingapp.model.RallyTime;
 import com.example.rallytimingapp.model.Stage;
 import com.example.rallytimingapp.model.User;
 import com.example.rallytimingapp.sql.CompDatabaseHelper;
+import com.example.rallytimingapp.sql.ItineraryHelper;
 import com.example.rallytimingapp.sql.StageDatabaseHelper;
 import com.example.rallytimingapp.sql.UserDatabaseHelper;
 import com.google.android.material.snackbar.Snackbar;
@@ -124,11 +126,11 @@ public class AddCompActivity extends AppCompatActivity implements View.OnClickLi
             newComp.setCarNum(carNum);
             newComp.setDriver(driver);
             newComp.setCodriver(codriver);
-            // For each stage for this competitor, make a stage database entry
-            newComp.setStage1Id(newStage(carNum,1));
-            newComp.setStage2Id(newStage(carNum,2));
-            newComp.setStage3Id(newStage(carNum,3));
-            newComp.setStage4Id(newStage(carNum,4));
+            // For each stage in the itinerary, make a stage database entry
+            int stageCount = ItineraryHelper.getInstance(activity).getStageCount();
+            for (int stageNum = 1; stageNum <= stageCount; stageNum++) {
+                newComp.setStageId(stageNum, newStage(carNum, stageNum));
+            }
             compDatabaseHelper.addCompetitor(newComp);
             // Get the ID assigned to that entry to return
             compID = compDatabaseHelper.getCompId(carNum);
@@ -172,12 +174,12 @@ public class AddCompActivity extends AppCompatActivity implements View.OnClickLi
             stage.setCarNum(carNum);
             stage.setStageNum(stageNum);
             stage.setStartOrder(0);
-            stage.setProvStart("");
-            stage.setActualStart("");
-            stage.setFinishTime("");
-            stage.setStageTime("");
-            stage.setActualTime("");
-            stage.setDueTime("");
+            stage.setProvStart(RallyTime.NO_TIME);
+            stage.setActualStart(RallyTime.NO_TIME);
+            stage.setFinishTime(RallyTime.NO_TIME);
+            stage.setStageTime(RallyTime.NO_TIME);
+            stage.setActualTime(RallyTime.NO_TIME);
+            stage.setDueTime(RallyTime.NO_TIME);
             stageDatabaseHelper.addStage(stage);
         }
         // Get the ID for that stage and return it
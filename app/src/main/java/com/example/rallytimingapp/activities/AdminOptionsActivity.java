@@ -1,55 +1,59 @@
 package com.example.rallytimingapp.activities;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 
 import android.content.Context;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
 import android.util.DisplayMetrics;
+import android.util.Log;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.PopupWindow;
 import android.widget.ScrollView;
 
 import com.example.rallytimingapp.R;
-import com.example.rallytimingapp.model.Competitor;
-import com.example.rallytimingapp.model.Stage;
-import com.example.rallytimingapp.model.TimingCrew;
-import com.example.rallytimingapp.model.User;
-import com.example.rallytimingapp.sql.AControlDatabaseHelper;
-import com.example.rallytimingapp.sql.CompDatabaseHelper;
-import com.example.rallytimingapp.sql.FinishDatabaseHelper;
-import com.example.rallytimingapp.sql.StageDatabaseHelper;
-import com.example.rallytimingapp.sql.StartDatabaseHelper;
-import com.example.rallytimingapp.sql.TimingCrewDatabaseHelper;
-import com.example.rallytimingapp.sql.UserDatabaseHelper;
+import com.example.rallytimingapp.model.Event;
+import com.example.rallytimingapp.model.Itinerary;
+import com.example.rallytimingapp.model.ItineraryParser;
+import com.example.rallytimingapp.sql.DatabaseSeeder;
+import com.example.rallytimingapp.sql.EventArchiver;
+import com.example.rallytimingapp.sql.ItineraryDatabaseHelper;
+import com.example.rallytimingapp.sql.RallyDatabase;
+import com.example.rallytimingapp.sql.RallyRepository;
+import com.google.android.material.snackbar.Snackbar;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Callable;
 
 public class AdminOptionsActivity extends AppCompatActivity implements View.OnClickListener {
+    private static final String TAG = "AdminOptionsActivity";
+    private static final int ITINERARY_REQUEST = 1; // Request code for choosing an itinerary file
+
     private final AppCompatActivity activity = AdminOptionsActivity.this;
 
     private Button competitorButton;
     private Button aControlButton;
     private Button startButton;
     private Button finishButton;
+    private Button resultsButton;
+    private Button newEventButton;
+    private Button itineraryButton;
     private Button signOutButton;
     private Button resetButton;
-
-    private AControlDatabaseHelper aControlDatabaseHelper;
-    private StartDatabaseHelper startDatabaseHelper;
-    private FinishDatabaseHelper finishDatabaseHelper;
-    private UserDatabaseHelper userDatabaseHelper;
-    private CompDatabaseHelper compDatabaseHelper;
-    private StageDatabaseHelper stageDatabaseHelper;
-    private TimingCrewDatabaseHelper timingCrewDatabaseHelper;
-
-    private User user;
-    private Competitor competitor;
-    private TimingCrew crew;
-    private Stage stage;
+    private ScrollView scrollView;
 
     private PopupWindow resetPopup;
+    private PopupWindow newEventPopup;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -58,7 +62,6 @@ public class AdminOptionsActivity extends AppCompatActivity implements View.OnCl
 
         initViews();
         initListeners();
-        initObjects();
     }
 
     // Method to initialise views
@@ -67,6 +70,10 @@ public class AdminOptionsActivity extends AppCompatActivity implements View.OnCl
         aControlButton = findViewById(R.id.AControlRoleButton);
         startButton = findViewById(R.id.StartRoleButton);
         finishButton = findViewById(R.id.FinishRoleButton);
+        resultsButton = findViewById(R.id.ResultsButton);
+        newEventButton = findViewById(R.id.NewEventButton);
+        itineraryButton = findViewById(R.id.ItineraryButton);
+        scrollView = findViewById(R.id.AdminOptionsScrollView);
         signOutButton = findViewById(R.id.AOSignOutButton);
         resetButton = findViewById(R.id.AOResetButton);
     }
@@ -77,25 +84,13 @@ public class AdminOptionsActivity extends AppCompatActivity implements View.OnCl
         aControlButton.setOnClickListener(this);
         startButton.setOnClickListener(this);
         finishButton.setOnClickListener(this);
+        resultsButton.setOnClickListener(this);
+        newEventButton.setOnClickListener(this);
+        itineraryButton.setOnClickListener(this);
         signOutButton.setOnClickListener(this);
         resetButton.setOnClickListener(this);
     }
 
-    // Method to initialise objects
-    private void initObjects() {
-        userDatabaseHelper = new UserDatabaseHelper(activity);
-        compDatabaseHelper = new CompDatabaseHelper(activity);
-        timingCrewDatabaseHelper = new TimingCrewDatabaseHelper(activity);
-        stageDatabaseHelper = new StageDatabaseHelper(activity);
-        aControlDatabaseHelper = new AControlDatabaseHelper(activity);
-        startDatabaseHelper = new StartDatabaseHelper(activity);
-        finishDatabaseHelper = new FinishDatabaseHelper(activity);
-        user = new User();
-        competitor = new Competitor();
-        crew = new TimingCrew();
-        stage = new Stage();
-    }
-
     // On Click Method for the buttons
     @Override
     public void onClick(View view) {
@@ -122,6 +117,22 @@ public class AdminOptionsActivity extends AppCompatActivity implements View.OnCl
                 intent = new Intent(this, FinishListActivity.class);
                 startActivity(intent);
                 break;
+            case R.id.ResultsButton:
+                // Results button goes to the Classification Activity
+                intent = new Intent(this, ClassificationActivity.class);
+                startActivity(intent);
+                break;
+            case R.id.NewEventButton:
+                // New event button shows a pop-up asking for the new event's name
+                ShowNewEventPopup();
+                break;
+            case R.id.ItineraryButton:
+                // Itinerary button opens the file picker to choose an itinerary to import
+                intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+                intent.addCategory(Intent.CATEGORY_OPENABLE);
+                intent.setType("text/*");
+                startActivityForResult(intent, ITINERARY_REQUEST);
+                break;
             case R.id.AOSignOutButton:
                 // Sign out button returns to the main login page
                 intent = new Intent(this, MainActivity.class);
@@ -134,112 +145,127 @@ public class AdminOptionsActivity extends AppCompatActivity implements View.OnCl
         }
     }
 
-    // Method which resets all the databases and creates the basic accounts
-    public void resetAll() {
-        // Empty all the databases
-        aControlDatabaseHelper.empty();
-        startDatabaseHelper.empty();
-        finishDatabaseHelper.empty();
-        userDatabaseHelper.empty();
-        compDatabaseHelper.empty();
-        stageDatabaseHelper.empty();
-        timingCrewDatabaseHelper.empty();
-
-        // First create competitor database entries with the below data and save their IDs
-        int compID1 = CreateCompetitor(1, "Hayden Paddon", "John Kennard");
-        int compID2 = CreateCompetitor(5, "Emma Gilmour", "Mal Peden");
-        int compID3 = CreateCompetitor(2, "Ben Hunt", "Tony Rawstorn");
-        int compID4 = CreateCompetitor(12, "Jack Hawkeswood", "Sarah Brenna");
-
-        // Then create timing crew database entries with the below data and save their IDs
-        int crewID1 = CreateTimingCrew("A Control", "George", "0219384756");
-        int crewID2 = CreateTimingCrew("Start", "Jared", "0212349879");
-        int crewID3 = CreateTimingCrew("Finish", "Sarah", "0279125769");
-
-        // Then create logins using the below data and IDs from above
-        CreateLogin("Hayden", "hayden", "Competitor", compID1);
-        CreateLogin("Emma", "emma", "Competitor", compID2);
-        CreateLogin("Ben", "ben","Competitor", compID3);
-        CreateLogin("Jack", "jack", "Competitor", compID4);
-        CreateLogin("George", "ac", "A Control", crewID1);
-        CreateLogin("Jared", "start", "Start", crewID2);
-        CreateLogin("Sarah", "finish", "Finish", crewID3);
-        CreateLogin("Admin", "admin", "Admin", -1);
+    // Method to reset everything on the writer thread, as hashing the logins' passwords
+    // takes too long for the main thread
+    private void reset() {
+        RallyRepository.getInstance().write(new Runnable() {
+            @Override
+            public void run() {
+                resetAll();
+            }
+        });
     }
 
-    // Method to create a competitor database entry
-    private int CreateCompetitor(int carNum, String driver, String codriver) {
-        int compID = 0;
-        // Check if an entry with the given car number already exists
-        if (!compDatabaseHelper.checkCompetitor(carNum)) {
-            // If not, create one
-            competitor.setCarNum(carNum);
-            competitor.setDriver(driver);
-            competitor.setCodriver(codriver);
-            // For each stage for this competitor, create a stage database entry
-            competitor.setStage1Id(CreateStage(carNum, 1));
-            competitor.setStage2Id(CreateStage(carNum, 2));
-            competitor.setStage3Id(CreateStage(carNum, 3));
-            competitor.setStage4Id(CreateStage(carNum, 4));
-            // Add the competitor to the database
-            compDatabaseHelper.addCompetitor(competitor);
+    // Method for when the file picker closes, which starts the import of the chosen itinerary
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (requestCode == ITINERARY_REQUEST && resultCode == RESULT_OK && data != null && data.getData() != null) {
+            importItinerary(data.getData());
         }
-        // Get the ID of the database entry and return it
-        compID = compDatabaseHelper.getCompId(carNum);
-        return compID;
     }
 
-    // Method to create a timing crew database entry
-    private int CreateTimingCrew(String position, String postChief, String phone) {
-        int crewID = 0;
-        // Check if an entry with the given position and post chief already exists
-        if (!timingCrewDatabaseHelper.checkTimingCrew(position, postChief)) {
-            // If not, create one
-            crew.setPosition(position);
-            crew.setPostChief(postChief);
-            crew.setPostChiefPhone(phone);
-            // Add the timing crew to the database
-            timingCrewDatabaseHelper.addTimingCrew(crew);
-        }
-        // Get the ID of the database entry and return it
-        crewID = timingCrewDatabaseHelper.getCrewId(position, postChief);
-        return crewID;
+    // Method which reads an itinerary file and, if every row is right, replaces the itinerary
+    // with it on the writer thread, as each competitor's stage entries change with it
+    private void importItinerary(final Uri uri) {
+        itineraryButton.setEnabled(false);
+        RallyRepository.getInstance().write(new Callable<ItineraryParser>() {
+            @Override
+            public ItineraryParser call() {
+                try (Reader reader = new InputStreamReader(getContentResolver().openInputStream(uri), StandardCharsets.UTF_8)) {
+                    ItineraryParser parser = new ItineraryParser(reader);
+                    Itinerary itinerary = parser.read();
+                    if (itinerary != null) {
+                        new ItineraryDatabaseHelper(activity).setItinerary(itinerary.getStages());
+                    }
+                    return parser;
+                } catch (IOException | RuntimeException e) {
+                    Log.e(TAG, "Could not import itinerary", e);
+                    return null;
+                }
+            }
+        }, new RallyRepository.Callback<ItineraryParser>() {
+            @Override
+            public void onResult(ItineraryParser parser) {
+                showItineraryResult(parser);
+            }
+        });
     }
 
-    // Method to create a login
-    private void CreateLogin(String username, String password, String role, int id) {
-        // Check if an entry with the given username already exists
-        if (!userDatabaseHelper.checkUser(username)) {
-            // If not, create one
-            user.setUsername(username);
-            user.setPassword(password);
-            user.setRole(role);
-            user.setId(id);
-            // Add the login to the database
-            userDatabaseHelper.addUser(user);
+    // Method to show how an itinerary import went, listing what was wrong with the file if
+    // it wasn't used
+    private void showItineraryResult(ItineraryParser parser) {
+        itineraryButton.setEnabled(true);
+        if (parser == null) {
+            Snackbar.make(scrollView, "Could not read itinerary", Snackbar.LENGTH_LONG).show();
+            return;
+        }
+        List<String> errors = parser.getErrors();
+        if (errors.isEmpty()) {
+            Snackbar.make(scrollView, "Itinerary imported", Snackbar.LENGTH_LONG).show();
+            return;
         }
+        StringBuilder message = new StringBuilder();
+        for (String error : errors) {
+            message.append(error).append('\n');
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Itinerary not imported")
+                .setMessage(message.toString().trim())
+                .setPositiveButton("OK", null)
+                .show();
     }
 
-    // Method to create a stage database entry
-    private int CreateStage(int carNum, int stageNum) {
-        // Check if an entry with the given car and stage number already exists
-        if (!stageDatabaseHelper.checkStage(carNum, stageNum)) {
-            // If not, create one. Set all values to 0 or null.
-            stage.setCarNum(carNum);
-            stage.setStageNum(stageNum);
-            stage.setStartOrder(0);
-            stage.setProvStart("");
-            stage.setActualStart("");
-            stage.setFinishTime("");
-            stage.setStageTime("");
-            stage.setActualTime("");
-            stage.setDueTime("");
-            // Add the stage to the database
-            stageDatabaseHelper.addStage(stage);
+    // Method to archive the current event and start a new one with the given name, on the
+    // writer thread as the whole event is copied out to its archive file. Unlike the reset,
+    // the finished event's results can still be looked at from the results page.
+    private void startNewEvent(final String name) {
+        RallyRepository.getInstance().write(new Callable<Event>() {
+            @Override
+            public Event call() {
+                return new EventArchiver(activity).rollover(name);
+            }
+        }, new RallyRepository.Callback<Event>() {
+            @Override
+            public void onResult(Event event) {
+                Snackbar.make(scrollView, "Started " + event.getName(), Snackbar.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    // Method which resets all the databases and creates the basic accounts, all in one
+    // transaction so a reset is either fully done or not done at all. Only called on the
+    // writer thread.
+    public void resetAll() {
+        // Empty all the databases
+        DatabaseSeeder seeder = DatabaseSeeder.begin(activity);
+        try {
+            // First create competitor database entries with the below data and save their IDs
+            int compID1 = seeder.addCompetitor(1, "Hayden Paddon", "John Kennard");
+            int compID2 = seeder.addCompetitor(5, "Emma Gilmour", "Mal Peden");
+            int compID3 = seeder.addCompetitor(2, "Ben Hunt", "Tony Rawstorn");
+            int compID4 = seeder.addCompetitor(12, "Jack Hawkeswood", "Sarah Brenna");
+
+            // Then create timing crew database entries with the below data and save their IDs
+            int crewID1 = seeder.addTimingCrew("A Control", "George", "0219384756");
+            int crewID2 = seeder.addTimingCrew("Start", "Jared", "0212349879");
+            int crewID3 = seeder.addTimingCrew("Finish", "Sarah", "0279125769");
+
+            // Then create logins using the below data and IDs from above
+            seeder.addLogin("Hayden", "hayden", "Competitor", compID1);
+            seeder.addLogin("Emma", "emma", "Competitor", compID2);
+            seeder.addLogin("Ben", "ben", "Competitor", compID3);
+            seeder.addLogin("Jack", "jack", "Competitor", compID4);
+            seeder.addLogin("George", "ac", "A Control", crewID1);
+            seeder.addLogin("Jared", "start", "Start", crewID2);
+            seeder.addLogin("Sarah", "finish", "Finish", crewID3);
+            seeder.addLogin("Admin", "admin", "Admin", -1);
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
         }
-        // Get the ID of the database entry and return it
-        int stageID = stageDatabaseHelper.getStageId(carNum, stageNum);
-        return stageID;
+        // Shrink the file in the background, now the old event's entries are gone
+        RallyDatabase.getInstance(activity).scheduleCompact();
     }
 
     // Method to show the reset pop-up that is shown when the reset button is clicked
@@ -264,8 +290,8 @@ public class AdminOptionsActivity extends AppCompatActivity implements View.OnCl
         yesReset.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View view) {
-                // Calls the reset all method then dismisses pop-up
-                resetAll();
+                // Calls the reset method then dismisses pop-up
+                reset();
                 resetPopup.dismiss();
             }
         });
@@ -279,4 +305,49 @@ public class AdminOptionsActivity extends AppCompatActivity implements View.OnCl
             }
         });
     }
+
+    // Method to show the new event pop-up that is shown when the new event button is clicked
+    private void ShowNewEventPopup() {
+        DisplayMetrics displayMetrics = this.getResources().getDisplayMetrics();
+        int width = displayMetrics.widthPixels;
+        int height = displayMetrics.heightPixels;
+
+        LayoutInflater layoutInflater = (LayoutInflater) this.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
+        View layout = layoutInflater.inflate(R.layout.new_event_popup, null);
+
+        newEventPopup = new PopupWindow(this);
+        newEventPopup.setContentView(layout);
+        newEventPopup.setWidth(width);
+        newEventPopup.setHeight(height);
+        newEventPopup.setFocusable(true);
+        newEventPopup.setBackgroundDrawable(null);
+        newEventPopup.showAtLocation(layout, Gravity.CENTER, 1, 1);
+
+        final EditText eventName = layout.findViewById(R.id.NewEventName);
+
+        // Set listener for yes button
+        Button yesNewEvent = layout.findViewById(R.id.YesNewEventButton);
+        yesNewEvent.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                // The new event needs a name, so the pop-up stays open until it has one
+                String name = eventName.getText().toString().trim();
+                if (name.isEmpty()) {
+                    eventName.setError("Please enter the event name");
+                    return;
+                }
+                startNewEvent(name);
+                newEventPopup.dismiss();
+            }
+        });
+
+        // Set listener for no button, which just dismisses the pop-up
+        Button noNewEvent = layout.findViewById(R.id.NoNewEventButton);
+        noNewEvent.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View view) {
+                newEventPopup.dismiss();
+            }
+        });
+    }
 }
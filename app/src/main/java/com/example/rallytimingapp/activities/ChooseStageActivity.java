@@ -4,17 +4,23 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
+import android.widget.LinearLayout;
 
 import com.example.rallytimingapp.R;
+import com.example.rallytimingapp.helpers.LoginSession;
+import com.example.rallytimingapp.model.ItineraryStage;
+import com.example.rallytimingapp.sql.ItineraryHelper;
+import com.example.rallytimingapp.sql.RallyRepository;
+
+import java.util.List;
+import java.util.concurrent.Callable;
 
 public class ChooseStageActivity extends AppCompatActivity implements View.OnClickListener {
 
-    private Button stage1Button;
-    private Button stage2Button;
-    private Button stage3Button;
-    private Button stage4Button;
+    private LinearLayout stageButtons;
 
     private String role;
 
@@ -24,46 +30,47 @@ public class ChooseStageActivity extends AppCompatActivity implements View.OnCli
         setContentView(R.layout.activity_choose_stage);
 
         initViews();
-        initListeners();
+        initStageButtons();
 
-        // Get role from intent
+        // Get role from intent, or from the crew's session if the page was opened without one
         role = getIntent().getStringExtra("ROLE");
+        if (role == null) {
+            role = LoginSession.getInstance(this).getRole();
+        }
     }
 
     // Method to initialise views
     private void initViews() {
-        stage1Button = findViewById(R.id.Stage1Button);
-        stage2Button = findViewById(R.id.Stage2Button);
-        stage3Button = findViewById(R.id.Stage3Button);
-        stage4Button = findViewById(R.id.Stage4Button);
+        stageButtons = findViewById(R.id.StageButtons);
     }
 
-    // Method to initialise listeners
-    private void initListeners() {
-        stage1Button.setOnClickListener(this);
-        stage2Button.setOnClickListener(this);
-        stage3Button.setOnClickListener(this);
-        stage4Button.setOnClickListener(this);
+    // Method to read the itinerary, then add a button for each stage in it, tagged with its
+    // stage number
+    private void initStageButtons() {
+        RallyRepository.getInstance().read(new Callable<List<ItineraryStage>>() {
+            @Override
+            public List<ItineraryStage> call() {
+                return ItineraryHelper.getInstance(ChooseStageActivity.this).getItinerary().getStages();
+            }
+        }, new RallyRepository.Callback<List<ItineraryStage>>() {
+            @Override
+            public void onResult(List<ItineraryStage> stages) {
+                LayoutInflater inflater = getLayoutInflater();
+                for (ItineraryStage itineraryStage : stages) {
+                    Button button = (Button) inflater.inflate(R.layout.stage_button, stageButtons, false);
+                    button.setText(itineraryStage.getName());
+                    button.setTag(itineraryStage.getStageNum());
+                    button.setOnClickListener(ChooseStageActivity.this);
+                    stageButtons.addView(button);
+                }
+            }
+        });
     }
 
     // On Click method for buttons, depending on the role and which button is clicked
     @Override
     public void onClick(View view) {
-        int stage = 0;
-        switch (view.getId()) {
-            case R.id.Stage1Button:
-                stage = 1;
-                break;
-            case R.id.Stage2Button:
-                stage = 2;
-                break;
-            case R.id.Stage3Button:
-                stage = 3;
-                break;
-            case R.id.Stage4Button:
-                stage = 4;
-                break;
-        }
+        int stage = (Integer) view.getTag();
 
         // Each role is sent to a different activity, and the stage number is
         // passed as an extra
@@ -87,8 +94,9 @@ public class ChooseStageActivity extends AppCompatActivity implements View.OnCli
         }
     }
 
-    // Method to return to the main login page
+    // Method to end the crew's session and return to the main login page
     public void signOut(View view) {
+        LoginSession.getInstance(this).end();
         Intent intent = new Intent(this, MainActivity.class);
         startActivity(intent);
     }
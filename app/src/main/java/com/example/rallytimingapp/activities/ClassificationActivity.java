@@ -0,0 +1,252 @@
+package com.example.rallytimingapp.activities;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.ArrayAdapter;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.ListView;
+import android.widget.TextView;
+
+import com.example.rallytimingapp.R;
+import com.example.rallytimingapp.model.Classification;
+import com.example.rallytimingapp.model.Event;
+import com.example.rallytimingapp.model.ItineraryStage;
+import com.example.rallytimingapp.model.RallyTime;
+import com.example.rallytimingapp.sql.ClassificationHelper;
+import com.example.rallytimingapp.sql.EventArchiver;
+import com.example.rallytimingapp.sql.EventDatabaseHelper;
+import com.example.rallytimingapp.sql.ItineraryHelper;
+import com.example.rallytimingapp.sql.RallyRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+public class ClassificationActivity extends AppCompatActivity implements View.OnClickListener {
+    // Shows the classifications of the current event, kept up to date by the ClassificationHelper,
+    // or of an archived event, read from its archive file by the EventArchiver when it is chosen
+
+    private List<String> lines = new ArrayList<>(); // One line of text for each car
+    private ArrayAdapter<String> adapter;
+    private ListView classListView;
+    private TextView title;
+    private LinearLayout eventButtons;
+    private LinearLayout stageButtons;
+    private Button overallButton;
+
+    private ClassificationHelper classificationHelper;
+    private EventDatabaseHelper eventDatabaseHelper;
+    private EventArchiver eventArchiver;
+    private RallyRepository repository;
+    private List<Event> events = new ArrayList<>(); // The current event first, then the archived events
+    private Event event; // Event being shown, null until the events have been read
+    private Map<Integer, String> stageNames = new LinkedHashMap<>(); // Name of each stage of the event shown
+    private int stageNum = 0; // Stage being shown, 0 for the overall classification
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_classification);
+
+        initViews();
+        initListeners();
+        classificationHelper = ClassificationHelper.getInstance(this);
+        eventDatabaseHelper = new EventDatabaseHelper(this);
+        eventArchiver = new EventArchiver(this);
+        repository = RallyRepository.getInstance();
+
+        // Setup Adapter
+        adapter = new ArrayAdapter<String>(this, android.R.layout.simple_list_item_1, lines);
+        classListView.setAdapter(adapter);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // The classification is kept up to date as times are saved, so it only needs listing again,
+        // once the events are known
+        fillInEvents();
+    }
+
+    // Method to initialise views
+    private void initViews() {
+        classListView = findViewById(R.id.ClassListView);
+        title = findViewById(R.id.ClassTitle);
+        eventButtons = findViewById(R.id.ClassEventButtons);
+        stageButtons = findViewById(R.id.ClassStageButtons);
+        overallButton = findViewById(R.id.ClassOverallButton);
+        overallButton.setTag(0);
+    }
+
+    // Method to initialise listeners for the buttons
+    private void initListeners() {
+        overallButton.setOnClickListener(this);
+    }
+
+    // On Click Method for the stage buttons, each of which shows a different classification
+    @Override
+    public void onClick(View view) {
+        // Nothing can be listed until the events have been read
+        if (event == null) {
+            return;
+        }
+        stageNum = (Integer) view.getTag();
+        fillInList();
+    }
+
+    // Method to read the events on a reader thread, then add a button for each, tagged with
+    // its position in the list, and show the event that was being shown or else the current one
+    private void fillInEvents() {
+        repository.read(new Callable<List<Event>>() {
+            @Override
+            public List<Event> call() {
+                List<Event> eventList = new ArrayList<>();
+                eventList.add(eventDatabaseHelper.getCurrentEvent());
+                eventList.addAll(eventDatabaseHelper.getArchivedEvents());
+                return eventList;
+            }
+        }, new RallyRepository.Callback<List<Event>>() {
+            @Override
+            public void onResult(List<Event> eventList) {
+                events = eventList;
+                int shownEvent = 0;
+                int shownStage = 0;
+                eventButtons.removeAllViews();
+                LayoutInflater inflater = getLayoutInflater();
+                for (int i = 0; i < events.size(); i++) {
+                    Button button = (Button) inflater.inflate(R.layout.class_stage_button, eventButtons, false);
+                    button.setText(events.get(i).getName());
+                    button.setTag(i);
+                    button.setOnClickListener(new View.OnClickListener() {
+                        @Override
+                        public void onClick(View view) {
+                            // A newly chosen event starts on its overall classification
+                            fillInStages(events.get((Integer) view.getTag()), 0);
+                        }
+                    });
+                    eventButtons.addView(button);
+                    if (event != null && events.get(i).getEventId() == event.getEventId()) {
+                        shownEvent = i;
+                        shownStage = stageNum;
+                    }
+                }
+                fillInStages(events.get(shownEvent), shownStage);
+            }
+        });
+    }
+
+    // Method to read the stages of the given event on a reader thread, then add a button after
+    // the overall button for each, tagged with its stage number, and list the given stage.
+    // The current event's stages come from the itinerary, while an archived event's are
+    // numbered from its results, as older archives have no itinerary.
+    private void fillInStages(final Event chosenEvent, final int chosenStage) {
+        event = chosenEvent;
+        repository.read(new Callable<Map<Integer, String>>() {
+            @Override
+            public Map<Integer, String> call() {
+                Map<Integer, String> names = new LinkedHashMap<>();
+                if (chosenEvent.isCurrent()) {
+                    for (ItineraryStage itineraryStage : ItineraryHelper.getInstance(ClassificationActivity.this)
+                            .getItinerary().getStages()) {
+                        names.put(itineraryStage.getStageNum(), itineraryStage.getName());
+                    }
+                } else {
+                    int lastStage = eventArchiver.getClassification(chosenEvent, 0).getLastStage();
+                    for (int i = 1; i <= lastStage; i++) {
+                        names.put(i, getString(R.string.ssshort, i));
+                    }
+                }
+                return names;
+            }
+        }, new RallyRepository.Callback<Map<Integer, String>>() {
+            @Override
+            public void onResult(Map<Integer, String> names) {
+                // Ignore the stages if another event has been chosen since
+                if (chosenEvent != event) {
+                    return;
+                }
+                stageNames = names;
+                stageButtons.removeViews(1, stageButtons.getChildCount() - 1);
+                LayoutInflater inflater = getLayoutInflater();
+                for (int stage : stageNames.keySet()) {
+                    Button button = (Button) inflater.inflate(R.layout.class_stage_button, stageButtons, false);
+                    button.setText(getString(R.string.ssshort, stage));
+                    button.setTag(stage);
+                    button.setOnClickListener(ClassificationActivity.this);
+                    stageButtons.addView(button);
+                }
+                stageNum = chosenStage;
+                fillInList();
+            }
+        });
+    }
+
+    // Method to fill the list with the chosen classification of the event being shown
+    private void fillInList() {
+        // A stage outside the event shows the overall classification instead
+        String stageName = stageNames.get(stageNum);
+        if (stageName != null) {
+            title.setText(stageName);
+        } else {
+            title.setText(R.string.overall);
+        }
+
+        // The classifications may have to be read from the database, or from the event's
+        // archive, first, so the results are copied on a reader thread and listed once they are back
+        final Event shownEvent = event;
+        final int shownStage = stageNum;
+        repository.read(new Callable<List<Classification.Result>>() {
+            @Override
+            public List<Classification.Result> call() {
+                if (shownEvent.isCurrent()) {
+                    return classificationHelper.getResults(shownStage);
+                }
+                return eventArchiver.getClassification(shownEvent, shownStage).getResults();
+            }
+        }, new RallyRepository.Callback<List<Classification.Result>>() {
+            @Override
+            public void onResult(List<Classification.Result> results) {
+                // Ignore the results if another classification has been chosen since
+                if (shownEvent != event || shownStage != stageNum) {
+                    return;
+                }
+                lines.clear();
+                for (int i = 0; i < results.size(); i++) {
+                    lines.add(getLine(results.get(i)));
+                }
+                adapter.notifyDataSetChanged();
+            }
+        });
+    }
+
+    // Method to return the text for a car, eg "2   Car 5   4:21.45", with any road penalty
+    // included in the time and shown after it, eg "3   Car 8   5:31.45 (1:10 pen)"
+    private String getLine(Classification.Result result) {
+        String position = result.isExcluded() ? "OTL" : result.isDNF() ? "DNF" : String.valueOf(result.getPosition());
+        String line = position + "   Car " + result.getCarNum();
+        if (result.getStagesCompleted() > 0) {
+            int time = result.getTotalTime();
+            line = line + "   " + RallyTime.getTotalMinutes(time) + ":" + RallyTime.toBox(RallyTime.getSeconds(time))
+                    + "." + RallyTime.toBox(RallyTime.getHundredths(time));
+        }
+        if (result.getPenalty() > 0) {
+            int penalty = result.getPenalty();
+            line = line + " (" + RallyTime.getTotalMinutes(penalty) + ":" + RallyTime.toBox(RallyTime.getSeconds(penalty))
+                    + " pen)";
+        }
+        return line;
+    }
+
+    // Method which returns to the admin options page
+    public void back(View view) {
+        Intent intent = new Intent(this, AdminOptionsActivity.class);
+        startActivity(intent);
+    }
+}
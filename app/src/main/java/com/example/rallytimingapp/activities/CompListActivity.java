@@ -1,31 +1,47 @@
 package com.example.rallytimingapp.activities;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
-import android.widget.AdapterView;
-import android.widget.ArrayAdapter;
-import android.widget.ListView;
+import android.widget.Button;
 import android.widget.SearchView;
 
 import com.example.rallytimingapp.R;
-import com.example.rallytimingapp.model.Competitor;
+import com.example.rallytimingapp.helpers.PagedNameAdapter;
+import com.example.rallytimingapp.helpers.SearchResultSource;
+import com.example.rallytimingapp.model.ListEntry;
 import com.example.rallytimingapp.sql.CompDatabaseHelper;
+import com.example.rallytimingapp.sql.EntryListImporter;
+import com.example.rallytimingapp.sql.ListSearchHelper;
+import com.example.rallytimingapp.sql.RallyRepository;
+import com.google.android.material.snackbar.Snackbar;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.Callable;
 
-public class CompListActivity extends AppCompatActivity implements AdapterView.OnItemClickListener, SearchView.OnQueryTextListener {
-    private List<Competitor> competitorList = new ArrayList<Competitor>(); // List to contain all the competitor entries
-    private List<String> drivers = new ArrayList<>(); // List to contain the names of the drivers
-    private ArrayAdapter<String> adapter;
-    private ListView compUserListView;
+public class CompListActivity extends AppCompatActivity implements PagedNameAdapter.OnEntryClickListener, SearchView.OnQueryTextListener {
+    private static final String TAG = "CompListActivity";
+    private static final int IMPORT_REQUEST = 1; // Request code for choosing an entry list file
+    private static final int MAX_ERRORS_SHOWN = 50; // Most row errors listed after an import
+
+    private PagedNameAdapter adapter; // Adapter reading the names of the drivers a page at a time
+    private RecyclerView compUserListView;
     private SearchView searchBar;
+    private ListSearchHelper listSearchHelper;
     private CompDatabaseHelper compDatabaseHelper;
-    private Competitor competitor;
+    private Button importButton;
+    private Snackbar importProgress;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -33,13 +49,35 @@ public class CompListActivity extends AppCompatActivity implements AdapterView.O
         setContentView(R.layout.activity_comp_list);
 
         // Set up Adapter
-        compUserListView = (ListView) findViewById(R.id.CompListView);
+        compUserListView = (RecyclerView) findViewById(R.id.CompListView);
+        listSearchHelper = ListSearchHelper.getInstance(this);
         compDatabaseHelper = new CompDatabaseHelper(this);
+        importButton = (Button) findViewById(R.id.ImportCompButton);
         if (compUserListView != null) {
-            drivers = getDrivers();
-            adapter = new ArrayAdapter<String>(this, android.R.layout.simple_list_item_1, drivers);
+            adapter = new PagedNameAdapter(new SearchResultSource(new SearchResultSource.Rows() {
+                @Override
+                public int count() {
+                    return compDatabaseHelper.getCompetitorCount();
+                }
+
+                @Override
+                public List<ListEntry> loadPage(int offset, int limit) {
+                    return compDatabaseHelper.getCompetitorPage(offset, limit);
+                }
+
+                @Override
+                public List<Integer> search(String text) {
+                    return listSearchHelper.searchCompetitors(text);
+                }
+
+                @Override
+                public List<ListEntry> load(List<Integer> ids) {
+                    return compDatabaseHelper.getCompetitorEntries(ids);
+                }
+            }), this);
+            compUserListView.setLayoutManager(new LinearLayoutManager(this));
             compUserListView.setAdapter(adapter);
-            compUserListView.setOnItemClickListener(this);
+            adapter.reload();
 
             // Set up Search Bar
             searchBar = (SearchView) findViewById(R.id.CompSearchBar);
@@ -47,75 +85,43 @@ public class CompListActivity extends AppCompatActivity implements AdapterView.O
             searchBar.setOnCloseListener(new SearchView.OnCloseListener() {
                 @Override
                 public boolean onClose() {
-                    drivers = getDrivers();
-                    adapter.clear();
-                    adapter.addAll(drivers);
-                    adapter.notifyDataSetChanged();
+                    adapter.setSearch("");
                     return false;
                 }
             });
         }
     }
 
-    // Method to return a list of the names of all drivers
-    public List<String> getDrivers() {
-        List<String> currDrivers = new ArrayList<>();
-        competitorList = compDatabaseHelper.getAllCompetitors();
-        for (int i = 0; i < competitorList.size(); i++) {
-            currDrivers.add(competitorList.get(i).getDriver());
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (adapter != null) {
+            adapter.close();
         }
-        return currDrivers;
     }
 
-    // Method for when a list item is clicked. The relevant competitor object is found and the ID is
+    // Method for when a list item is clicked. The ID of the competitor in that row is
     // Passed onto the intent as an extra. Switches to the page where the admin can update a competitor account
     @Override
-    public void onItemClick(AdapterView<?> adapterView, View view, int position, long id) {
-        String compName = (String) adapterView.getAdapter().getItem(position);
-        competitor = compDatabaseHelper.getCompetitorByDriver(compName);
-        int compID = competitor.getCompId();
+    public void onEntryClick(ListEntry entry) {
         Intent intent = new Intent(this, UpdateCompActivity.class);
-        intent.putExtra("COMP_ID", compID);
+        intent.putExtra("COMP_ID", entry.getId());
         startActivity(intent);
     }
 
-    // Method for when a search is submitted. Each entry in the database is tested
-    // to see if they contain the query and results are displayed
+    // Method for when a search is submitted. Only the drivers whose names contain
+    // the query are shown
     @Override
     public boolean onQueryTextSubmit(String query) {
-        String search = query.toLowerCase(Locale.ROOT);
-        competitorList = compDatabaseHelper.getAllCompetitors();
-        List<String> results = new ArrayList<>();
-        for (int i = 0; i < competitorList.size(); i++) {
-            String currDriver = competitorList.get(i).getDriver();
-            String toMatch = currDriver.toLowerCase(Locale.ROOT);
-            if (toMatch.contains(search)) {
-                results.add(currDriver);
-            }
-        }
-        adapter.clear();
-        adapter.addAll(results);
-        adapter.notifyDataSetChanged();
+        adapter.setSearch(query);
         return false;
     }
 
-    // Method for when a search input is changed. Each entry in the database is tested
-    // to see if they contain the new query and the results are displayed
+    // Method for when a search input is changed. Only the drivers whose names contain
+    // the new query are shown
     @Override
     public boolean onQueryTextChange(String newText) {
-        String search = newText.toLowerCase(Locale.ROOT);
-        competitorList = compDatabaseHelper.getAllCompetitors();
-        List<String> results = new ArrayList<>();
-        for (int i = 0; i < competitorList.size(); i++) {
-            String currDriver = competitorList.get(i).getDriver();
-            String toMatch = currDriver.toLowerCase(Locale.ROOT);
-            if (toMatch.contains(search)) {
-                results.add(currDriver);
-            }
-        }
-        adapter.clear();
-        adapter.addAll(results);
-        adapter.notifyDataSetChanged();
+        adapter.setSearch(newText);
         return false;
     }
 
@@ -130,4 +136,88 @@ public class CompListActivity extends AppCompatActivity implements AdapterView.O
         Intent intent = new Intent(this, AddCompActivity.class);
         startActivity(intent);
     }
-}
\ No newline at end of file
+
+    // Method which opens the file picker to choose an entry list to import
+    public void importList(View view) {
+        Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+        intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.setType("text/*");
+        startActivityForResult(intent, IMPORT_REQUEST);
+    }
+
+    // Method for when the file picker closes, which starts the import of the chosen file
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (requestCode == IMPORT_REQUEST && resultCode == RESULT_OK && data != null && data.getData() != null) {
+            importEntries(data.getData());
+        }
+    }
+
+    // Method which imports an entry list on the writer thread, like every other change, showing
+    // progress as each batch is saved and the rows that couldn't be imported at the end
+    private void importEntries(final Uri uri) {
+        importButton.setEnabled(false);
+        importProgress = Snackbar.make(compUserListView, "Importing entry list", Snackbar.LENGTH_INDEFINITE);
+        importProgress.show();
+        final EntryListImporter importer = new EntryListImporter(this);
+        RallyRepository.getInstance().write(new Callable<EntryListImporter.Result>() {
+            @Override
+            public EntryListImporter.Result call() {
+                try (Reader reader = new InputStreamReader(getContentResolver().openInputStream(uri), StandardCharsets.UTF_8)) {
+                    return importer.importEntries(reader, new EntryListImporter.ProgressListener() {
+                        @Override
+                        public void onProgress(final int rowsRead, final int imported) {
+                            runOnUiThread(new Runnable() {
+                                @Override
+                                public void run() {
+                                    importProgress.setText("Imported " + imported + " of " + rowsRead + " rows");
+                                }
+                            });
+                        }
+                    });
+                } catch (IOException | RuntimeException e) {
+                    // Return null so the failure is shown once the import has finished
+                    Log.e(TAG, "Could not import entry list", e);
+                    return null;
+                }
+            }
+        }, new RallyRepository.Callback<EntryListImporter.Result>() {
+            @Override
+            public void onResult(EntryListImporter.Result result) {
+                showImportResult(result);
+            }
+        });
+    }
+
+    // Method to refresh the list after an import and show how it went
+    private void showImportResult(EntryListImporter.Result result) {
+        importButton.setEnabled(true);
+        importProgress.dismiss();
+        adapter.reload();
+
+        if (result == null) {
+            Snackbar.make(compUserListView, "Could not read entry list", Snackbar.LENGTH_LONG).show();
+            return;
+        }
+        List<EntryListImporter.RowError> errors = result.getErrors();
+        if (errors.isEmpty()) {
+            Snackbar.make(compUserListView, result.getImported() + " competitors imported", Snackbar.LENGTH_LONG).show();
+            return;
+        }
+
+        // List the rows that were skipped so they can be fixed and imported again
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < errors.size() && i < MAX_ERRORS_SHOWN; i++) {
+            message.append(errors.get(i)).append('\n');
+        }
+        if (errors.size() > MAX_ERRORS_SHOWN) {
+            message.append("and ").append(errors.size() - MAX_ERRORS_SHOWN).append(" more");
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(result.getImported() + " imported, " + errors.size() + " skipped")
+                .setMessage(message.toString().trim())
+                .setPositiveButton("OK", null)
+                .show();
+    }
+}
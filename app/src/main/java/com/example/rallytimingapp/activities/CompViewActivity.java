@@ -1,133 +1,56 @@
 package com.example.rallytimingapp.activities;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import android.content.Context;
 import android.os.Bundle;
-import android.text.Editable;
-import android.text.TextWatcher;
 import android.util.DisplayMetrics;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
 import android.widget.PopupWindow;
-import android.widget.ScrollView;
 import android.widget.TextView;
 
 import com.example.rallytimingapp.R;
+import com.example.rallytimingapp.helpers.TimecardAdapter;
 import com.example.rallytimingapp.model.AControl;
 import com.example.rallytimingapp.model.Competitor;
 import com.example.rallytimingapp.model.Finish;
 import com.example.rallytimingapp.model.Stage;
 import com.example.rallytimingapp.sql.AControlDatabaseHelper;
 import com.example.rallytimingapp.sql.CompDatabaseHelper;
+import com.example.rallytimingapp.sql.DueTimeWriter;
 import com.example.rallytimingapp.sql.FinishDatabaseHelper;
+import com.example.rallytimingapp.sql.ItineraryHelper;
+import com.example.rallytimingapp.sql.RallyRepository;
 import com.example.rallytimingapp.sql.StageDatabaseHelper;
 import com.google.android.material.snackbar.Snackbar;
 
-public class CompViewActivity extends AppCompatActivity implements View.OnClickListener {
+import java.util.concurrent.Callable;
+
+public class CompViewActivity extends AppCompatActivity implements TimecardAdapter.CardListener {
     private final AppCompatActivity activity = CompViewActivity.this;
 
-    private ScrollView scrollView;
+    private RecyclerView timecardList;
+    private TimecardAdapter adapter; // Adapter showing a timecard for each stage of the itinerary
 
     private TextView carNumTV;
 
-    private TextView startOrder1;
-    private TextView provStartH1;
-    private TextView provStartM1;
-    private TextView actualStartH1;
-    private TextView actualStartM1;
-    private TextView finishTimeH1;
-    private TextView finishTimeM1;
-    private TextView finishTimeS1;
-    private TextView finishTimeMS1;
-    private TextView stageTimeM1;
-    private TextView stageTimeS1;
-    private TextView stageTimeMS1;
-    private TextView actualTimeH1;
-    private TextView actualTimeM1;
-    private TextView dueTimeH1;
-    private TextView dueTimeM1;
-
-    private TextView startOrder2;
-    private TextView provStartH2;
-    private TextView provStartM2;
-    private TextView actualStartH2;
-    private TextView actualStartM2;
-    private TextView finishTimeH2;
-    private TextView finishTimeM2;
-    private TextView finishTimeS2;
-    private TextView finishTimeMS2;
-    private TextView stageTimeM2;
-    private TextView stageTimeS2;
-    private TextView stageTimeMS2;
-    private TextView actualTimeH2;
-    private TextView actualTimeM2;
-    private TextView dueTimeH2;
-    private TextView dueTimeM2;
-
-    private TextView startOrder3;
-    private TextView provStartH3;
-    private TextView provStartM3;
-    private TextView actualStartH3;
-    private TextView actualStartM3;
-    private TextView finishTimeH3;
-    private TextView finishTimeM3;
-    private TextView finishTimeS3;
-    private TextView finishTimeMS3;
-    private TextView stageTimeM3;
-    private TextView stageTimeS3;
-    private TextView stageTimeMS3;
-    private TextView actualTimeH3;
-    private TextView actualTimeM3;
-    private TextView dueTimeH3;
-    private TextView dueTimeM3;
-
-    private TextView startOrder4;
-    private TextView provStartH4;
-    private TextView provStartM4;
-    private TextView actualStartH4;
-    private TextView actualStartM4;
-    private TextView finishTimeH4;
-    private TextView finishTimeM4;
-    private TextView finishTimeS4;
-    private TextView finishTimeMS4;
-    private TextView stageTimeM4;
-    private TextView stageTimeS4;
-    private TextView stageTimeMS4;
-    private TextView actualTimeH4;
-    private TextView actualTimeM4;
-    private TextView dueTimeH4;
-    private TextView dueTimeM4;
-
-    private Button checkIn1;
-    private Button reqTime1;
-    private Button saveDT1;
-    private Button checkIn2;
-    private Button reqTime2;
-    private Button saveDT2;
-    private Button checkIn3;
-    private Button reqTime3;
-    private Button saveDT3;
-    private Button checkIn4;
-    private Button reqTime4;
-    private Button saveDT4;
-
     private CompDatabaseHelper compDatabaseHelper;
     private StageDatabaseHelper stageDatabaseHelper;
     private AControlDatabaseHelper aControlDatabaseHelper;
     private FinishDatabaseHelper finishDatabaseHelper;
-    private Competitor competitor;
-    private Stage stage;
-    private AControl aControl;
-    private Finish finish;
+    private ItineraryHelper itineraryHelper;
+    private RallyRepository repository;
+    private DueTimeWriter dueTimeWriter;
 
     private PopupWindow checkInPopup;
     private PopupWindow reqTimePopup;
 
     private int compID;
-    private int carNum;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -136,124 +59,53 @@ public class CompViewActivity extends AppCompatActivity implements View.OnClickL
 
         initViews();
         initObjects();
-        initListeners();
 
         // Get the competitor ID which was passed through the intent from the login
         compID = getIntent().getIntExtra("COMP_ID", 0);
-        // Get the competitor object associated with that ID
-        competitor = compDatabaseHelper.getCompetitorByID(compID);
-        // Get the car number and change the display
-        carNum = competitor.getCarNum();
-        carNumTV.setText(String.valueOf(carNum));
         // Fill in the timecards
         fillInCards();
     }
 
-    // Method to fill in the timecards
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // Hand any due time still waiting to be saved to the writer thread straight away,
+        // rather than after the idle delay, without holding up the screen change
+        dueTimeWriter.flush(null);
+    }
+
+    // Method to read the competitor and their stages, then fill in the timecards
     private void fillInCards() {
-        // Get the first stage object for that competitor
-        stage = stageDatabaseHelper.getStage(competitor.getStage1Id());
-        // If the start order is currently set to 0, there are no details to show yet so
-        // set the text to nothing
-        if (stage.getStartOrder() == 0) {
-            startOrder1.setText("");
-        } else {
-            startOrder1.setText(String.valueOf(stage.getStartOrder()));
-        }
-        // Fill in the remaining fields for stage 1
-        provStartH1.setText(stage.getProvStartH());
-        provStartM1.setText(stage.getProvStartM());
-        actualStartH1.setText(stage.getActualStartH());
-        actualStartM1.setText(stage.getActualStartM());
-        finishTimeH1.setText(stage.getFinishTimeH());
-        finishTimeM1.setText(stage.getFinishTimeM());
-        finishTimeS1.setText(stage.getFinishTimeS());
-        finishTimeMS1.setText(stage.getFinishTimeMS());
-        stageTimeM1.setText(stage.getStageTimeM());
-        stageTimeS1.setText(stage.getStageTimeS());
-        stageTimeMS1.setText(stage.getStageTimeMS());
-        actualTimeH1.setText(stage.getActualTimeH());
-        actualTimeM1.setText(stage.getActualTimeM());
-        dueTimeH1.setText(stage.getDueTimeH());
-        dueTimeM1.setText(stage.getDueTimeM());
-
-        // Get the second stage object for that competitor
-        stage = stageDatabaseHelper.getStage(competitor.getStage2Id());
-        // If the start order is currently set to 0, there are no details to show yet so
-        // set the text to nothing
-        if (stage.getStartOrder() == 0) {
-            startOrder2.setText("");
-        } else {
-            startOrder2.setText(String.valueOf(stage.getStartOrder()));
-        }
-        // Fill in the remaining fields for stage 2
-        provStartH2.setText(stage.getProvStartH());
-        provStartM2.setText(stage.getProvStartM());
-        actualStartH2.setText(stage.getActualStartH());
-        actualStartM2.setText(stage.getActualStartM());
-        finishTimeH2.setText(stage.getFinishTimeH());
-        finishTimeM2.setText(stage.getFinishTimeM());
-        finishTimeS2.setText(stage.getFinishTimeS());
-        finishTimeMS2.setText(stage.getFinishTimeMS());
-        stageTimeM2.setText(stage.getStageTimeM());
-        stageTimeS2.setText(stage.getStageTimeS());
-        stageTimeMS2.setText(stage.getStageTimeMS());
-        actualTimeH2.setText(stage.getActualTimeH());
-        actualTimeM2.setText(stage.getActualTimeM());
-        dueTimeH2.setText(stage.getDueTimeH());
-        dueTimeM2.setText(stage.getDueTimeM());
-
-        // Get the third stage object for that competitor
-        stage = stageDatabaseHelper.getStage(competitor.getStage3Id());
-        // If the start order is currently set to 0, there are no details to show yet so
-        // set the text to nothing
-        if (stage.getStartOrder() == 0) {
-            startOrder3.setText("");
-        } else {
-            startOrder3.setText(String.valueOf(stage.getStartOrder()));
-        }
-        // Fill in the remaining fields for stage 3
-        provStartH3.setText(stage.getProvStartH());
-        provStartM3.setText(stage.getProvStartM());
-        actualStartH3.setText(stage.getActualStartH());
-        actualStartM3.setText(stage.getActualStartM());
-        finishTimeH3.setText(stage.getFinishTimeH());
-        finishTimeM3.setText(stage.getFinishTimeM());
-        finishTimeS3.setText(stage.getFinishTimeS());
-        finishTimeMS3.setText(stage.getFinishTimeMS());
-        stageTimeM3.setText(stage.getStageTimeM());
-        stageTimeS3.setText(stage.getStageTimeS());
-        stageTimeMS3.setText(stage.getStageTimeMS());
-        actualTimeH3.setText(stage.getActualTimeH());
-        actualTimeM3.setText(stage.getActualTimeM());
-        dueTimeH3.setText(stage.getDueTimeH());
-        dueTimeM3.setText(stage.getDueTimeM());
-
-        // Get the fourth stage object for that competitor
-        stage = stageDatabaseHelper.getStage(competitor.getStage4Id());
-        // If the start order is currently set to 0, there are no details to show yet so
-        // set the text to nothing
-        if (stage.getStartOrder() == 0) {
-            startOrder4.setText("");
-        } else {
-            startOrder4.setText(String.valueOf(stage.getStartOrder()));
+        repository.read(new Callable<Stage[]>() {
+            @Override
+            public Stage[] call() {
+                // Get the competitor object associated with that ID
+                Competitor competitor = compDatabaseHelper.getCompetitorByID(compID);
+                // Get the stage objects for that competitor, one for each stage of the itinerary
+                Stage[] stages = new Stage[itineraryHelper.getStageCount()];
+                for (int i = 0; i < stages.length; i++) {
+                    stages[i] = stageDatabaseHelper.getStage(competitor.getStageId(i + 1));
+                    // A stage with no entry yet still gets a blank card
+                    stages[i].setStageNum(i + 1);
+                    stages[i].setCarNum(competitor.getCarNum());
+                }
+                return stages;
+            }
+        }, new RallyRepository.Callback<Stage[]>() {
+            @Override
+            public void onResult(Stage[] stages) {
+                showCards(stages);
+            }
+        });
+    }
+
+    // Method to fill in the timecards from the stages that were read
+    private void showCards(Stage[] stages) {
+        // Get the car number and change the display
+        if (stages.length > 0) {
+            carNumTV.setText(String.valueOf(stages[0].getCarNum()));
         }
-        // Fill in the remaining fields for stage 4
-        provStartH4.setText(stage.getProvStartH());
-        provStartM4.setText(stage.getProvStartM());
-        actualStartH4.setText(stage.getActualStartH());
-        actualStartM4.setText(stage.getActualStartM());
-        finishTimeH4.setText(stage.getFinishTimeH());
-        finishTimeM4.setText(stage.getFinishTimeM());
-        finishTimeS4.setText(stage.getFinishTimeS());
-        finishTimeMS4.setText(stage.getFinishTimeMS());
-        stageTimeM4.setText(stage.getStageTimeM());
-        stageTimeS4.setText(stage.getStageTimeS());
-        stageTimeMS4.setText(stage.getStageTimeMS());
-        actualTimeH4.setText(stage.getActualTimeH());
-        actualTimeM4.setText(stage.getActualTimeM());
-        dueTimeH4.setText(stage.getDueTimeH());
-        dueTimeM4.setText(stage.getDueTimeM());
+        adapter.setStages(itineraryHelper.getItinerary(), stages);
     }
 
     // Method to initialise the objects
@@ -262,369 +114,47 @@ public class CompViewActivity extends AppCompatActivity implements View.OnClickL
         stageDatabaseHelper = new StageDatabaseHelper(activity);
         aControlDatabaseHelper = new AControlDatabaseHelper(activity);
         finishDatabaseHelper = new FinishDatabaseHelper(activity);
-        competitor = new Competitor();
-        stage = new Stage();
-        aControl = new AControl();
-        finish = new Finish();
+        itineraryHelper = ItineraryHelper.getInstance(activity);
+        repository = RallyRepository.getInstance();
+        dueTimeWriter = new DueTimeWriter(activity);
     }
 
     // Method to initialise the views
     private void initViews() {
-        scrollView = findViewById(R.id.CompViewScrollView);
         carNumTV = findViewById(R.id.CarNum);
 
-        startOrder1 = findViewById(R.id.Sec2Oval);
-        provStartH1 = findViewById(R.id.S2PSH);
-        provStartM1 = findViewById(R.id.S2PSM);
-        actualStartH1 = findViewById(R.id.S2ASH);
-        actualStartM1 = findViewById(R.id.S2ASM);
-        finishTimeH1 = findViewById(R.id.S2FTH);
-        finishTimeM1 = findViewById(R.id.S2FTM);
-        finishTimeS1 = findViewById(R.id.S2FTS);
-        finishTimeMS1 = findViewById(R.id.S2FTMS);
-        stageTimeM1 = findViewById(R.id.S2TTM);
-        stageTimeS1 = findViewById(R.id.S2TTS);
-        stageTimeMS1 = findViewById(R.id.S2TTMS);
-        actualTimeH1 = findViewById(R.id.S2ATH);
-        actualTimeM1 = findViewById(R.id.S2ATM);
-        dueTimeH1 = findViewById(R.id.S2DTH);
-        // Add a text changed listener
-        dueTimeH1.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The input has a max length of 2
-                if(dueTimeH1.getText().toString().length()==2)
-                {
-                    // This box is for hours, so the max input is 24
-                    if (Integer.valueOf(dueTimeH1.getText().toString()) > 24) {
-                        // If the input is larger than 24, clear it and show an error message
-                        dueTimeH1.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // Otherwise move to the next text box
-                        dueTimeH1.clearFocus();
-                        dueTimeM1.requestFocus();
-                        dueTimeM1.setCursorVisible(true);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-        dueTimeM1 = findViewById(R.id.S2DTM);
-        // Add a text changed listener
-        dueTimeM1.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The input has a max length of 2
-                if(dueTimeM1.getText().toString().length()==2)
-                {
-                    // This box is for minutes, so the max input is 59
-                    if (Integer.valueOf(dueTimeM1.getText().toString()) > 59) {
-                        // If the input is larger than 59, clear it and show an error message
-                        dueTimeM1.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // Otherwise save the inputs to the database
-                        stage = stageDatabaseHelper.getStage(carNum, 1);
-                        String inputDTH = dueTimeH1.getText().toString();
-                        String inputDTM = dueTimeM1.getText().toString();
-                        stage.setDueTime(inputDTH, inputDTM);
-                        stageDatabaseHelper.updateStage(stage);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-
-        startOrder2 = findViewById(R.id.Sec3Oval);
-        provStartH2 = findViewById(R.id.S3PSH);
-        provStartM2 = findViewById(R.id.S3PSM);
-        actualStartH2 = findViewById(R.id.S3ASH);
-        actualStartM2 = findViewById(R.id.S3ASM);
-        finishTimeH2 = findViewById(R.id.S3FTH);
-        finishTimeM2 = findViewById(R.id.S3FTM);
-        finishTimeS2 = findViewById(R.id.S3FTS);
-        finishTimeMS2 = findViewById(R.id.S3FTMS);
-        stageTimeM2 = findViewById(R.id.S3TTM);
-        stageTimeS2 = findViewById(R.id.S3TTS);
-        stageTimeMS2 = findViewById(R.id.S3TTMS);
-        actualTimeH2 = findViewById(R.id.S3ATH);
-        actualTimeM2 = findViewById(R.id.S3ATM);
-        dueTimeH2 = findViewById(R.id.S3DTH);
-        // Add a text changed listener
-        dueTimeH2.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The input has a max length of 2
-                if(dueTimeH2.getText().toString().length()==2)
-                {
-                    // This box is for hours, so the max input is 24
-                    if (Integer.valueOf(dueTimeH2.getText().toString()) > 24) {
-                        // If the input is larger than 24, clear it and show an error message
-                        dueTimeH2.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // Otherwise move to the next text box
-                        dueTimeH2.clearFocus();
-                        dueTimeM2.requestFocus();
-                        dueTimeM2.setCursorVisible(true);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-        dueTimeM2 = findViewById(R.id.S3DTM);
-        // Add a text changed listener
-        dueTimeM2.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The input has a max length of 2
-                if(dueTimeM2.getText().toString().length()==2)
-                {
-                    // This box is for minutes, so the max input is 59
-                    if (Integer.valueOf(dueTimeM2.getText().toString()) > 59) {
-                        // If the input is larger than 59, clear it and show an error message
-                        dueTimeM2.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // Otherwise save the inputs to the database
-                        stage = stageDatabaseHelper.getStage(carNum, 2);
-                        String inputDTH = dueTimeH2.getText().toString();
-                        String inputDTM = dueTimeM2.getText().toString();
-                        stage.setDueTime(inputDTH, inputDTM);
-                        stageDatabaseHelper.updateStage(stage);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-
-        startOrder3 = findViewById(R.id.Sec4Oval);
-        provStartH3 = findViewById(R.id.S4PSH);
-        provStartM3 = findViewById(R.id.S4PSM);
-        actualStartH3 = findViewById(R.id.S4ASH);
-        actualStartM3 = findViewById(R.id.S4ASM);
-        finishTimeH3 = findViewById(R.id.S4FTH);
-        finishTimeM3 = findViewById(R.id.S4FTM);
-        finishTimeS3 = findViewById(R.id.S4FTS);
-        finishTimeMS3 = findViewById(R.id.S4FTMS);
-        stageTimeM3 = findViewById(R.id.S4TTM);
-        stageTimeS3 = findViewById(R.id.S4TTS);
-        stageTimeMS3 = findViewById(R.id.S4TTMS);
-        actualTimeH3 = findViewById(R.id.S4ATH);
-        actualTimeM3 = findViewById(R.id.S4ATM);
-        dueTimeH3 = findViewById(R.id.S4DTH);
-        // Add a text changed listener
-        dueTimeH3.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The input has a max length of 2
-                if(dueTimeH3.getText().toString().length()==2)
-                {
-                    // This box is for hours, so the max input is 24
-                    if (Integer.valueOf(dueTimeH3.getText().toString()) > 24) {
-                        // If the input is larger than 24, clear it and show an error message
-                        dueTimeH3.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // Otherwise move to the next text box
-                        dueTimeH3.clearFocus();
-                        dueTimeM3.requestFocus();
-                        dueTimeM3.setCursorVisible(true);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-        dueTimeM3 = findViewById(R.id.S4DTM);
-        // Add a text changed listener
-        dueTimeM3.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The input has a max length of 2
-                if(dueTimeM3.getText().toString().length()==2)
-                {
-                    // This box is for minutes, so the max input is 59
-                    if (Integer.valueOf(dueTimeM3.getText().toString()) > 59) {
-                        // If the input is larger than 59, clear it and show an error message
-                        dueTimeM3.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // Otherwise save the inputs to the database
-                        stage = stageDatabaseHelper.getStage(carNum, 3);
-                        String inputDTH = dueTimeH3.getText().toString();
-                        String inputDTM = dueTimeM3.getText().toString();
-                        stage.setDueTime(inputDTH, inputDTM);
-                        stageDatabaseHelper.updateStage(stage);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-
-        startOrder4 = findViewById(R.id.Sec5Oval);
-        provStartH4 = findViewById(R.id.S5PSH);
-        provStartM4 = findViewById(R.id.S5PSM);
-        actualStartH4 = findViewById(R.id.S5ASH);
-        actualStartM4 = findViewById(R.id.S5ASM);
-        finishTimeH4 = findViewById(R.id.S5FTH);
-        finishTimeM4 = findViewById(R.id.S5FTM);
-        finishTimeS4 = findViewById(R.id.S5FTS);
-        finishTimeMS4 = findViewById(R.id.S5FTMS);
-        stageTimeM4 = findViewById(R.id.S5TTM);
-        stageTimeS4 = findViewById(R.id.S5TTS);
-        stageTimeMS4 = findViewById(R.id.S5TTMS);
-        actualTimeH4 = findViewById(R.id.S5ATH);
-        actualTimeM4 = findViewById(R.id.S5ATM);
-        dueTimeH4 = findViewById(R.id.S5DTH);
-        // Add a text changed listener
-        dueTimeH4.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The input has a max length of 2
-                if(dueTimeH4.getText().toString().length()==2)
-                {
-                    // This box is for hours, so the max input is 24
-                    if (Integer.valueOf(dueTimeH4.getText().toString()) > 24) {
-                        // If the input is larger than 24, clear it and show an error message
-                        dueTimeH4.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // Otherwise move to the next text box
-                        dueTimeH4.clearFocus();
-                        dueTimeM4.requestFocus();
-                        dueTimeM4.setCursorVisible(true);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-        dueTimeM4 = findViewById(R.id.S5DTM);
-        // Add a text changed listener
-        dueTimeM4.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The input has a max length of 2
-                if(dueTimeM4.getText().toString().length()==2)
-                {
-                    // This box is for minutes, so the max input is 59
-                    if (Integer.valueOf(dueTimeM4.getText().toString()) > 59) {
-                        // If the input is larger than 59, clear it and show an error message
-                        dueTimeM4.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // Otherwise save the inputs to the database
-                        stage = stageDatabaseHelper.getStage(carNum, 4);
-                        String inputDTH = dueTimeH4.getText().toString();
-                        String inputDTM = dueTimeM4.getText().toString();
-                        stage.setDueTime(inputDTH, inputDTM);
-                        stageDatabaseHelper.updateStage(stage);
-                    }
-                }
-            }
+        timecardList = findViewById(R.id.TimecardList);
+        timecardList.setLayoutManager(new LinearLayoutManager(activity));
+        // Every card is the same height, so the list never needs measuring again as it scrolls
+        timecardList.setHasFixedSize(true);
+        adapter = new TimecardAdapter(this);
+        timecardList.setAdapter(adapter);
+    }
 
-            @Override
-            public void afterTextChanged(Editable editable) {
+    // Method called when the check in button of a card is clicked
+    @Override
+    public void onCheckIn(int stageNum) {
+        // Show the check in pop-up for the card's stage
+        ShowCheckInPopup(stageNum);
+    }
 
-            }
-        });
+    // Method called when the request time button of a card is clicked
+    @Override
+    public void onRequestTime(int stageNum) {
+        // Show the request time pop-up for the card's stage
+        ShowReqTimePopup(stageNum);
+    }
 
-        checkIn1 = findViewById(R.id.CheckIn1);
-        reqTime1 = findViewById(R.id.ReqTime1);
-        saveDT1 = findViewById(R.id.SaveDT1);
-        checkIn2 = findViewById(R.id.CheckIn2);
-        reqTime2 = findViewById(R.id.ReqTime2);
-        saveDT2 = findViewById(R.id.SaveDT2);
-        checkIn3 = findViewById(R.id.CheckIn3);
-        reqTime3 = findViewById(R.id.ReqTime3);
-        saveDT3 = findViewById(R.id.SaveDT3);
-        checkIn4 = findViewById(R.id.CheckIn4);
-        reqTime4 = findViewById(R.id.ReqTime4);
-        saveDT4 = findViewById(R.id.SaveDT4);
+    // Method called when a due time has been typed in, or the save button of a card clicked
+    @Override
+    public void onDueTime(Stage stage, int dueTime, boolean confirm) {
+        saveDueTime(stage.getStageId(), dueTime, confirm);
     }
 
-    // Method to initialise listeners for the buttons
-    private void initListeners() {
-        checkIn1.setOnClickListener(this);
-        reqTime1.setOnClickListener(this);
-        saveDT1.setOnClickListener(this);
-        checkIn2.setOnClickListener(this);
-        reqTime2.setOnClickListener(this);
-        saveDT2.setOnClickListener(this);
-        checkIn3.setOnClickListener(this);
-        reqTime3.setOnClickListener(this);
-        saveDT3.setOnClickListener(this);
-        checkIn4.setOnClickListener(this);
-        reqTime4.setOnClickListener(this);
-        saveDT4.setOnClickListener(this);
+    // Method called when an hour or minute typed on a card is too large
+    @Override
+    public void onInvalidInput() {
+        Snackbar.make(timecardList, "Invalid Input", Snackbar.LENGTH_LONG).show();
     }
 
     // Method to show the confirm check in pop-up
@@ -646,7 +176,7 @@ public class CompViewActivity extends AppCompatActivity implements View.OnClickL
 
         // Customise the message depending on the stage number
         TextView text = layout.findViewById(R.id.ConfirmCheckIn);
-        text.setText("Check In to Stage " + stageNum + "?");
+        text.setText(getString(R.string.checkin_stage, stageNum));
 
         // Set on click listener for yes button
         Button yesCheckIn = layout.findViewById(R.id.YesCheckInButton);
@@ -672,22 +202,22 @@ public class CompViewActivity extends AppCompatActivity implements View.OnClickL
     }
 
     // Method to add an entry to the A Control database
-    private void addToAControl(int stageNum) {
-        // Check if there is already an entry in the database with the
-        // given stage and car number
-        if (!aControlDatabaseHelper.checkAControl(stageNum, carNum)) {
-            // If not get the start order of the most recently added entry
-            int lastSO = aControlDatabaseHelper.getCurrStartOrder(stageNum);
-            // Set the start order to that plus one
-            aControl.setStartOrder(lastSO+1);
-            aControl.setStage(stageNum);
-            aControl.setCarNum(carNum);
-            // Get the stage IDs from the competitor object
-            aControl.setStage1ID(competitor.getStageId(stageNum-1));
-            aControl.setStage2ID(competitor.getStageId(stageNum));
-            // Add the entry to the database
-            aControlDatabaseHelper.addAControl(aControl);
-        }
+    private void addToAControl(final int stageNum) {
+        repository.write(new Runnable() {
+            @Override
+            public void run() {
+                Competitor currCompetitor = compDatabaseHelper.getCompetitorByID(compID);
+                AControl aControl = new AControl();
+                aControl.setStage(stageNum);
+                aControl.setCarNum(currCompetitor.getCarNum());
+                // Get the stage IDs from the competitor object
+                aControl.setStage1ID(currCompetitor.getStageId(stageNum-1));
+                aControl.setStage2ID(currCompetitor.getStageId(stageNum));
+                // Add the entry to the database with the next start order, unless there is already
+                // an entry with the given stage and car number
+                aControlDatabaseHelper.addNextAControl(aControl);
+            }
+        });
     }
 
     // Method to show the request time pop-up
@@ -709,7 +239,7 @@ public class CompViewActivity extends AppCompatActivity implements View.OnClickL
 
         // Customise the message depending on the stage number
         TextView text = layout.findViewById(R.id.ConfirmReqTime);
-        text.setText("Request Time for Stage " + stageNum + "?");
+        text.setText(getString(R.string.reqtime_stage, stageNum));
 
         // Set an on click listener for the yes button
         Button yesReqTime = layout.findViewById(R.id.YesReqTimeButton);
@@ -735,95 +265,38 @@ public class CompViewActivity extends AppCompatActivity implements View.OnClickL
     }
 
     // Method to add an entry to the Finish database
-    private void addToFinish(int stageNum) {
-        // Check if there is already an entry in the database with the
-        // given stage and car number
-        if (!finishDatabaseHelper.checkFinish(stageNum, carNum)) {
-            // If not get the finish order of the most recently added entry
-            int lastFO = finishDatabaseHelper.getCurrFinishOrder(stageNum);
-            // Set the finish order to that plus one
-            finish.setFinishOrder(lastFO+1);
-            finish.setStage(stageNum);
-            finish.setCarNum(carNum);
-            // Get the stage ID from the competitor object
-            finish.setStageID(competitor.getStageId(stageNum));
-            // Add the entry to the database
-            finishDatabaseHelper.addFinish(finish);
-        }
+    private void addToFinish(final int stageNum) {
+        repository.write(new Runnable() {
+            @Override
+            public void run() {
+                Competitor currCompetitor = compDatabaseHelper.getCompetitorByID(compID);
+                Finish finish = new Finish();
+                finish.setStage(stageNum);
+                finish.setCarNum(currCompetitor.getCarNum());
+                // Get the stage ID from the competitor object
+                finish.setStageID(currCompetitor.getStageId(stageNum));
+                // Add the entry to the database with the next finish order, unless there is already
+                // an entry with the given stage and car number
+                finishDatabaseHelper.addNextFinish(finish);
+            }
+        });
     }
 
-    // On Click method for the buttons
-    @Override
-    public void onClick(View view) {
-        switch (view.getId()) {
-            case R.id.CheckIn1:
-                // Show the check in pop-up for stage 1
-                ShowCheckInPopup(1);
-                break;
-            case R.id.ReqTime1:
-                // Show the request time pop-up for stage 1
-                ShowReqTimePopup(1);
-                break;
-            case R.id.SaveDT1:
-                // Save the due time entered for stage 1 and show a confirmation message
-                stage = stageDatabaseHelper.getStage(carNum, 1);
-                String inputDTH1 = dueTimeH1.getText().toString();
-                String inputDTM1 = dueTimeM1.getText().toString();
-                stage.setDueTime(inputDTH1, inputDTM1);
-                stageDatabaseHelper.updateStage(stage);
-                Snackbar.make(scrollView, "Due Time Saved", Snackbar.LENGTH_LONG).show();
-                break;
-            case R.id.CheckIn2:
-                // Show the check in pop-up for stage 2
-                ShowCheckInPopup(2);
-                break;
-            case R.id.ReqTime2:
-                // Show the request time pop-up for stage 2
-                ShowReqTimePopup(2);
-                break;
-            case R.id.SaveDT2:
-                // Save the due time entered for stage 2 and show a confirmation message
-                stage = stageDatabaseHelper.getStage(carNum, 2);
-                String inputDTH2 = dueTimeH2.getText().toString();
-                String inputDTM2 = dueTimeM2.getText().toString();
-                stage.setDueTime(inputDTH2, inputDTM2);
-                stageDatabaseHelper.updateStage(stage);
-                Snackbar.make(scrollView, "Due Time Saved", Snackbar.LENGTH_LONG).show();
-                break;
-            case R.id.CheckIn3:
-                // Show the check in pop-up for stage 3
-                ShowCheckInPopup(3);
-                break;
-            case R.id.ReqTime3:
-                // Show the request time pop-up for stage 3
-                ShowReqTimePopup(3);
-                break;
-            case R.id.SaveDT3:
-                // Save the due time entered for stage 3 and show a confirmation message
-                stage = stageDatabaseHelper.getStage(carNum, 3);
-                String inputDTH3 = dueTimeH3.getText().toString();
-                String inputDTM3 = dueTimeM3.getText().toString();
-                stage.setDueTime(inputDTH3, inputDTM3);
-                stageDatabaseHelper.updateStage(stage);
-                Snackbar.make(scrollView, "Due Time Saved", Snackbar.LENGTH_LONG).show();
-                break;
-            case R.id.CheckIn4:
-                // Show the check in pop-up for stage 4
-                ShowCheckInPopup(4);
-                break;
-            case R.id.ReqTime4:
-                // Show the request time pop-up for stage 4
-                ShowReqTimePopup(4);
-                break;
-            case R.id.SaveDT4:
-                // Save the due time entered for stage 4 and show a confirmation message
-                stage = stageDatabaseHelper.getStage(carNum, 4);
-                String inputDTH4 = dueTimeH4.getText().toString();
-                String inputDTM4 = dueTimeM4.getText().toString();
-                stage.setDueTime(inputDTH4, inputDTM4);
-                stageDatabaseHelper.updateStage(stage);
-                Snackbar.make(scrollView, "Due Time Saved", Snackbar.LENGTH_LONG).show();
-                break;
+    // Method to save the due time for a stage. As it is typed the time is only kept, to be
+    // saved with any other edits once typing stops. The save button saves straight away and
+    // shows a confirmation message once it is done.
+    private void saveDueTime(int stageId, int dueTime, boolean confirm) {
+        // A card with no stage entry has nothing to save to
+        if (stageId != 0) {
+            dueTimeWriter.set(stageId, dueTime);
+        }
+        if (confirm) {
+            dueTimeWriter.flush(new RallyRepository.Callback<Void>() {
+                @Override
+                public void onResult(Void result) {
+                    Snackbar.make(timecardList, "Due Time Saved", Snackbar.LENGTH_LONG).show();
+                }
+            });
         }
     }
-}
\ No newline at end of file
+}
@@ -5,8 +5,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
-import android.text.Editable;
-import android.text.TextWatcher;
 import android.util.DisplayMetrics;
 import android.view.Gravity;
 import android.view.LayoutInflater;
@@ -17,12 +15,22 @@ import android.widget.ScrollView;
 import android.widget.TextView;
 
 import com.example.rallytimingapp.R;
+import com.example.rallytimingapp.helpers.TimeEntryField;
+import com.example.rallytimingapp.helpers.TimecardView;
 import com.example.rallytimingapp.model.Finish;
+import com.example.rallytimingapp.model.ItineraryStage;
+import com.example.rallytimingapp.model.RallyTime;
 import com.example.rallytimingapp.model.Stage;
+import com.example.rallytimingapp.model.StageTimeCalculator;
 import com.example.rallytimingapp.sql.FinishDatabaseHelper;
+import com.example.rallytimingapp.sql.ItineraryHelper;
+import com.example.rallytimingapp.sql.RallyRepository;
 import com.example.rallytimingapp.sql.StageDatabaseHelper;
+import com.example.rallytimingapp.sql.TimecardNavigator;
 import com.google.android.material.snackbar.Snackbar;
 
+import java.util.concurrent.Callable;
+
 public class FinishActivity extends AppCompatActivity implements View.OnClickListener {
     private final AppCompatActivity activity = FinishActivity.this;
 
@@ -32,35 +40,14 @@ public class FinishActivity extends AppCompatActivity implements View.OnClickLis
     private Button nextButton;
 
     private TextView stageNumTV;
-    private TextView stageLabel1;
-    private TextView stageLabel2;
-    private TextView stageDist;
-    private TextView SS;
-    private TextView blueTC1;
-    private TextView blueTC2;
-    private TextView stageKM;
-    private TextView finishTC;
     private TextView yellowTC;
-    private TextView TTH;
-    private TextView TTM;
 
     private TextView carNumTV;
     private TextView finishOrderTV;
 
-    private TextView startOrder;
-    private TextView provStartH;
-    private TextView provStartM;
-    private TextView actualStartH;
-    private TextView actualStartM;
-    private TextView finishTimeH;
-    private TextView finishTimeM;
-    private TextView finishTimeS;
-    private TextView finishTimeMS;
-    private TextView stageTimeM;
-    private TextView stageTimeS;
-    private TextView stageTimeMS;
-    private TextView actualTimeH;
-    private TextView actualTimeM;
+    private TimecardView card;
+    private TimeEntryField finishTime;
+    private TimeEntryField stageTime;
     private TextView dueTimeH;
     private TextView dueTimeM;
 
@@ -70,8 +57,11 @@ public class FinishActivity extends AppCompatActivity implements View.OnClickLis
 
     private Finish finish;
     private Stage stage;
+    private ItineraryStage itineraryStage;
     private FinishDatabaseHelper finishDatabaseHelper;
     private StageDatabaseHelper stageDatabaseHelper;
+    private RallyRepository repository;
+    private TimecardNavigator navigator;
 
     private int stageNum;
     private int finishOrder;
@@ -90,73 +80,38 @@ public class FinishActivity extends AppCompatActivity implements View.OnClickLis
         stageNum = getIntent().getIntExtra("STAGE", 0);
         // Set default finish order to be 1
         finishOrder = 1;
-        // Fill in the timecards
-        fillInCards();
-        // Based on the stage number, fill in the labels as follows
-        switch (stageNum) {
-            case 1:
-                stageNumTV.setText(R.string.s1finish);
-                stageLabel1.setText(R.string.stage1);
-                stageLabel2.setText(R.string.stage1);
-                stageDist.setText(R.string.stage1dist);
-                stageKM.setText(R.string.stage1km);
-                SS.setText(R.string.SS1);
-                blueTC1.setText(R.string.TC1);
-                blueTC2.setText(R.string.TC2);
-                finishTC.setText(R.string.TC2);
-                yellowTC.setText(R.string.TC2);
-                TTH.setText(R.string.S1TTH);
-                TTM.setText(R.string.S1TTM);
-                break;
-            case 2:
-                stageNumTV.setText(R.string.s2finish);
-                stageLabel1.setText(R.string.stage2);
-                stageLabel2.setText(R.string.stage2);
-                stageDist.setText(R.string.stage2dist);
-                stageKM.setText(R.string.stage2km);
-                SS.setText(R.string.SS2);
-                blueTC1.setText(R.string.TC2);
-                blueTC2.setText(R.string.TC3);
-                finishTC.setText(R.string.TC3);
-                yellowTC.setText(R.string.TC3);
-                TTH.setText(R.string.S2TTH);
-                TTM.setText(R.string.S2TTM);
-                break;
-            case 3:
-                stageNumTV.setText(R.string.s3finish);
-                stageLabel1.setText(R.string.stage3);
-                stageLabel2.setText(R.string.stage3);
-                stageDist.setText(R.string.stage3dist);
-                stageKM.setText(R.string.stage3km);
-                SS.setText(R.string.SS3);
-                blueTC1.setText(R.string.TC3);
-                blueTC2.setText(R.string.TC4);
-                finishTC.setText(R.string.TC4);
-                yellowTC.setText(R.string.TC4);
-                TTH.setText(R.string.S3TTH);
-                TTM.setText(R.string.S3TTM);
-                break;
-            case 4:
-                stageNumTV.setText(R.string.s4finish);
-                stageLabel1.setText(R.string.stage4);
-                stageLabel2.setText(R.string.stage4);
-                stageDist.setText(R.string.stage4dist);
-                stageKM.setText(R.string.stage4km);
-                SS.setText(R.string.SS4);
-                blueTC1.setText(R.string.TC4);
-                blueTC2.setText(R.string.TC5);
-                finishTC.setText(R.string.TC5);
-                yellowTC.setText(R.string.TC5);
-                TTH.setText(R.string.S4TTH);
-                TTM.setText(R.string.S4TTM);
-                break;
-        }
+        stageNumTV.setText(getString(R.string.stage_finish, stageNum));
+        // Fill in the labels and the timecards
+        fillInItinerary();
+    }
+
+    // Method to read the stage's entry in the itinerary, then fill in the labels from it,
+    // which the card draws, and then the timecards
+    private void fillInItinerary() {
+        repository.read(new Callable<ItineraryStage>() {
+            @Override
+            public ItineraryStage call() {
+                return ItineraryHelper.getInstance(activity).getItinerary().getStage(stageNum);
+            }
+        }, new RallyRepository.Callback<ItineraryStage>() {
+            @Override
+            public void onResult(ItineraryStage result) {
+                itineraryStage = result;
+                if (itineraryStage != null) {
+                    yellowTC.setText(itineraryStage.getNextControl());
+                }
+                card.bind(itineraryStage, stage);
+                fillInCards();
+            }
+        });
     }
 
     // Method to initialise objects
     private void initObjects() {
         stageDatabaseHelper = new StageDatabaseHelper(activity);
         finishDatabaseHelper = new FinishDatabaseHelper(activity);
+        repository = RallyRepository.getInstance();
+        navigator = TimecardNavigator.getInstance(activity);
         stage = new Stage();
         finish = new Finish();
     }
@@ -174,263 +129,53 @@ public class FinishActivity extends AppCompatActivity implements View.OnClickLis
         nextButton = findViewById(R.id.FinishNextButton);
 
         stageNumTV = findViewById(R.id.FinishStageNum);
-        stageLabel1 = findViewById(R.id.FTCStage1);
-        stageLabel2 = findViewById(R.id.FTCStage2);
-        stageDist = findViewById(R.id.FTCDist);
-        SS = findViewById(R.id.FTCSS);
-        blueTC1 = findViewById(R.id.FTCTC1);
-        blueTC2 = findViewById(R.id.FTCTC2);
-        stageKM = findViewById(R.id.FTCKM);
-        finishTC = findViewById(R.id.FTCTC);
         yellowTC = findViewById(R.id.FTCYellowTC);
-        TTH = findViewById(R.id.FTCTaTH);
-        TTM = findViewById(R.id.FTCTaTM);
-
-        startOrder = findViewById(R.id.FTCOval);
-        provStartH = findViewById(R.id.FTCPSH);
-        provStartM = findViewById(R.id.FTCPSM);
-        actualStartH = findViewById(R.id.FTCASH);
-        actualStartM = findViewById(R.id.FTCASM);
-        finishTimeH = findViewById(R.id.FTCFTH);
-        // Add a text changed listener to prevent users from inputting an invalid input
-        // And to move onto the next text box, once this one is full
-        finishTimeH.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The max input length is 2 digits
-                if(finishTimeH.getText().toString().length()==2)
-                {
-                    // This box contains the hours of a time, so this input cannot be
-                    // larger than 24
-                    if (Integer.valueOf(finishTimeH.getText().toString()) > 24) {
-                        // If input is larger than 24, reset the text and display an error message.
-                        finishTimeH.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // If the input is valid, move to the next text box
-                        finishTimeH.clearFocus();
-                        finishTimeM.requestFocus();
-                        finishTimeM.setCursorVisible(true);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-        finishTimeM = findViewById(R.id.FTCFTM);
-        // Add a text changed listener to prevent users from inputting an invalid input
-        // And to autofill the next box
-        finishTimeM.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
 
+        // The card draws everything but the finish time and stage time, which are typed over it
+        card = findViewById(R.id.FTCCard);
+        finishTime = findViewById(R.id.FTCFTTime);
+        stageTime = findViewById(R.id.FTCTTTime);
+        // Once the finish time is filled in move onto the stage time, and back again after
+        finishTime.setNextField(stageTime);
+        stageTime.setNextField(finishTime);
+        // Add a listener to update the stage time as each box of the finish time is filled in
+        finishTime.setOnTimeEnteredListener(new TimeEntryField.OnTimeEnteredListener() {
             @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The max input length is 2 digits
-                if(finishTimeM.getText().toString().length()==2)
-                {
-                    // This box contains the minutes of a time, so this input cannot be
-                    // larger than 59
-                    int fTimeM = Integer.valueOf(finishTimeM.getText().toString());
-                    if (fTimeM > 59) {
-                        // If input is larger than 59, reset the text and display an error message.
-                        finishTimeM.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // Otherwise, move to the next box.
-                        finishTimeM.clearFocus();
-                        finishTimeS.requestFocus();
-                        finishTimeS.setCursorVisible(true);
-                        // Autofill the minutes box of the stage time box by deducting the
-                        // actual start time from the finish time
-                        int aStartM = Integer.valueOf(actualStartM.getText().toString());
-                        int sTimeM = 0;
-                        if (fTimeM > aStartM) {
-                            sTimeM = fTimeM - aStartM;
-                        } else if (fTimeM < aStartM) {
-                            // If the time has gone from one hour to the next,
-                            // eg start at 12:59, finish at 13:03, then calculate the difference
-                            sTimeM = (60 - aStartM) + fTimeM;
-                        }
-                        stageTimeM.setText(String.valueOf(sTimeM));
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-        finishTimeS = findViewById(R.id.FTCFTS);
-        // Add a text changed listener to prevent users from inputting an invalid input
-        // And to move onto the next text box, once this one is full
-        finishTimeS.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The maximum input length is 2
-                if(finishTimeS.getText().toString().length()==2)
-                {
-                    // This box contains the seconds of a time, so this input cannot be
-                    // larger than 59
-                    if (Integer.valueOf(finishTimeS.getText().toString()) > 59) {
-                        // If input is larger than 59, reset the text and show error message
-                        finishTimeS.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // If input is valid, copy the text into the seconds box of the finish time,
-                        // and move to the next box
-                        stageTimeS.setText(finishTimeS.getText());
-                        finishTimeS.clearFocus();
-                        finishTimeMS.requestFocus();
-                        finishTimeMS.setCursorVisible(true);
-                    }
-                }
+            public void onTimeEntered(TimeEntryField field, int time, boolean lastBox) {
+                fillInStageTime(time);
             }
 
             @Override
-            public void afterTextChanged(Editable editable) {
-
+            public void onInvalidInput(TimeEntryField field) {
+                // The box has already been cleared
+                Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
             }
         });
-        finishTimeMS = findViewById(R.id.FTCFTMS);
-        // Add a text changed listener to prevent users from inputting an invalid input
-        // And to move onto the next text box, once this one is full
-        finishTimeMS.addTextChangedListener(new TextWatcher() {
+        // Add a listener to show an error message when a box is given an invalid input
+        stageTime.setOnTimeEnteredListener(new TimeEntryField.OnTimeEnteredListener() {
             @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
+            public void onTimeEntered(TimeEntryField field, int time, boolean lastBox) {
 
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // This box contains the milliseconds of a time, so there is no numerical
-                // limit for this one, but there can only be 2 digits max
-                if(finishTimeMS.getText().toString().length()==2)
-                {
-                    // Once the box is full, copy the text to the milliseconds
-                    // box of the stage time and move to the next box
-                    stageTimeMS.setText(finishTimeMS.getText());
-                    finishTimeMS.clearFocus();
-                    stageTimeM.requestFocus();
-                    stageTimeM.setCursorVisible(true);
-                }
             }
 
             @Override
-            public void afterTextChanged(Editable editable) {
-
+            public void onInvalidInput(TimeEntryField field) {
+                Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
             }
         });
-        stageTimeM = findViewById(R.id.FTCTTM);
-        // Add a text changed listener to prevent users from inputting an invalid input
-        // And to autofill the next box
-        stageTimeM.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // Max input length is 2
-                if(stageTimeM.getText().toString().length()==2)
-                {
-                    // This is a minutes box, so input cannot be larger than 59
-                    if (Integer.valueOf(stageTimeM.getText().toString()) > 59) {
-                        stageTimeM.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        stageTimeM.clearFocus();
-                        stageTimeS.requestFocus();
-                        stageTimeS.setCursorVisible(true);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-        stageTimeS = findViewById(R.id.FTCTTS);
-        // Add a text changed listener to prevent users from inputting an invalid input
-        // And to autofill the next box
-        stageTimeS.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // Max input length is 2
-                if(stageTimeS.getText().toString().length()==2)
-                {
-                    // This is a seconds box, so input cannot be larger than 59
-                    if (Integer.valueOf(stageTimeS.getText().toString()) > 59) {
-                        stageTimeS.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        stageTimeS.clearFocus();
-                        stageTimeMS.requestFocus();
-                        stageTimeMS.setCursorVisible(true);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-        stageTimeMS = findViewById(R.id.FTCTTMS);
-        // Add a text changed listener to prevent users from inputting an invalid input
-        // And to autofill the next box
-        stageTimeMS.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // This is a milliseconds box, so input can be any number,
-                // but has a max length of 2 digits
-                if(stageTimeMS.getText().toString().length()==2)
-                {
-                    stageTimeMS.clearFocus();
-                    finishTimeH.requestFocus();
-                    finishTimeH.setCursorVisible(true);
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-        actualTimeH = findViewById(R.id.FTCATH);
-        actualTimeM = findViewById(R.id.FTCATM);
         dueTimeH = findViewById(R.id.FTCDTH);
         dueTimeM = findViewById(R.id.FTCDTM);
     }
 
+    // Method to fill in the stage time boxes from the car's actual start and the finish time
+    // typed so far, if the car has an actual start
+    private void fillInStageTime(int currFinishTime) {
+        int currStageTime = StageTimeCalculator.getStageTime(stage.getActualStart(), currFinishTime);
+        if (currStageTime != RallyTime.NO_TIME) {
+            stageTime.setTime(currStageTime);
+        }
+    }
+
     // Method to initialise the listeners for the buttons
     private void initListeners() {
         backButton.setOnClickListener(this);
@@ -466,27 +211,36 @@ public class FinishActivity extends AppCompatActivity implements View.OnClickLis
 
     // Method to fill in all the fields of the timecard, from various databases
     private void fillInCards() {
-        // First check if there are any entries in the database for this stage
-        if (finishDatabaseHelper.getStage(stageNum).size() != 0) {
-            carNum = finishDatabaseHelper.getCarNum(stageNum, finishOrder);
+        final int currFinishOrder = finishOrder;
+        // Get the stage entry of the car at the current finish order, usually already read
+        // along with the cards either side of it
+        repository.read(new Callable<Stage>() {
+            @Override
+            public Stage call() {
+                return navigator.getStage(TimecardNavigator.FINISH, stageNum, currFinishOrder);
+            }
+        }, new RallyRepository.Callback<Stage>() {
+            @Override
+            public void onResult(Stage result) {
+                // Ignore the entry if the user has moved to another finish order since
+                if (currFinishOrder == finishOrder) {
+                    showCards(result);
+                }
+            }
+        });
+    }
+
+    // Method to fill in the text boxes from the stage entry that was read
+    private void showCards(Stage currStage) {
+        stage = currStage;
+        // First check if there is an entry in the database for this stage and finish order
+        if (stage.getStageId() != 0) {
+            carNum = stage.getCarNum();
             carNumTV.setText(String.valueOf(carNum));
-            finish = finishDatabaseHelper.getFinish(finishDatabaseHelper.getFinishID(stageNum, carNum));
             finishOrderTV.setText(String.valueOf(finishOrder));
-            stage = stageDatabaseHelper.getStage(finish.getStageID());
-            startOrder.setText(String.valueOf(stage.getStartOrder()));
-            provStartH.setText(stage.getProvStartH());
-            provStartM.setText(stage.getProvStartM());
-            actualStartH.setText(stage.getActualStartH());
-            actualStartM.setText(stage.getActualStartM());
-            finishTimeH.setText(stage.getFinishTimeH());
-            finishTimeM.setText(stage.getFinishTimeM());
-            finishTimeS.setText(stage.getFinishTimeS());
-            finishTimeMS.setText(stage.getFinishTimeMS());
-            stageTimeM.setText(stage.getStageTimeM());
-            stageTimeS.setText(stage.getStageTimeS());
-            stageTimeMS.setText(stage.getStageTimeMS());
-            actualTimeH.setText(stage.getActualTimeH());
-            actualTimeM.setText(stage.getActualTimeM());
+            card.bind(itineraryStage, stage);
+            finishTime.setTime(stage.getFinishTime());
+            stageTime.setTime(stage.getStageTime());
             dueTimeH.setText(stage.getDueTimeH());
             dueTimeM.setText(stage.getDueTimeM());
         } else {
@@ -494,12 +248,27 @@ public class FinishActivity extends AppCompatActivity implements View.OnClickLis
             finishOrderTV.setText("0");
             carNumTV.setText("");
         }
-        finishTimeH.requestFocus();
-        finishTimeH.setCursorVisible(true);
+        finishTime.focusFirstBox();
     }
 
-    // Method to show a pop-up
+    // Method to read the entry at the current finish order, then show a pop-up for it
     private void ShowReturnTCPopup() {
+        final int currFinishOrder = finishOrder;
+        repository.read(new Callable<Finish>() {
+            @Override
+            public Finish call() {
+                return finishDatabaseHelper.getFinish(stageNum, currFinishOrder);
+            }
+        }, new RallyRepository.Callback<Finish>() {
+            @Override
+            public void onResult(Finish result) {
+                ShowReturnTCPopup(result);
+            }
+        });
+    }
+
+    // Method to show a pop-up
+    private void ShowReturnTCPopup(Finish currFinish) {
         DisplayMetrics displayMetrics = this.getResources().getDisplayMetrics();
         int width = displayMetrics.widthPixels;
         int height = displayMetrics.heightPixels;
@@ -515,7 +284,7 @@ public class FinishActivity extends AppCompatActivity implements View.OnClickLis
         returnTCPopup.setBackgroundDrawable(null);
         returnTCPopup.showAtLocation(layout, Gravity.CENTER, 1, 1);
 
-        finish = finishDatabaseHelper.getFinish(stageNum, finishOrder);
+        finish = currFinish;
         carNum = finish.getCarNum();
         String currCarNum = String.valueOf(carNum);
         TextView text = layout.findViewById(R.id.ReturnTC);
@@ -527,17 +296,23 @@ public class FinishActivity extends AppCompatActivity implements View.OnClickLis
             @Override
             public void onClick(View view) {
                 // Save inputs to the database
-                stage = stageDatabaseHelper.getStage(finish.getStageID());
-                String inputFTH = finishTimeH.getText().toString();
-                String inputFTM = finishTimeM.getText().toString();
-                String inputFTS = finishTimeS.getText().toString();
-                String inputFTMS = finishTimeMS.getText().toString();
-                stage.setFinishTime(inputFTH, inputFTM, inputFTS, inputFTMS);
-                String inputSTM = stageTimeM.getText().toString();
-                String inputSTS = stageTimeS.getText().toString();
-                String inputSTMS = stageTimeMS.getText().toString();
-                stage.setStageTime(inputSTM, inputSTS, inputSTMS);
-                stageDatabaseHelper.updateStage(stage);
+                final int inputFT = finishTime.getTime();
+                final int inputST = stageTime.getTime();
+                final int returnedCarNum = carNum;
+                repository.write(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        // The stage time is worked out again from the actual start if it is known
+                        stageDatabaseHelper.setFinishTime(stageNum, returnedCarNum, inputFT, inputST);
+                        return null;
+                    }
+                }, new RallyRepository.Callback<Void>() {
+                    @Override
+                    public void onResult(Void result) {
+                        // Show the times as they were saved
+                        fillInCards();
+                    }
+                });
                 returnTCPopup.dismiss();
             }
         });
@@ -561,10 +336,19 @@ public class FinishActivity extends AppCompatActivity implements View.OnClickLis
 
     // Method to change the display to the next finish order, if it exists
     public void nextTC() {
-        int currFinishOrder = finishDatabaseHelper.getCurrFinishOrder(stageNum);
-        if ((finishOrder + 1) <= currFinishOrder) {
-            finishOrder = finishOrder + 1;
-            fillInCards();
-        }
+        repository.read(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return navigator.getLastOrder(TimecardNavigator.FINISH, stageNum);
+            }
+        }, new RallyRepository.Callback<Integer>() {
+            @Override
+            public void onResult(Integer currFinishOrder) {
+                if ((finishOrder + 1) <= currFinishOrder) {
+                    finishOrder = finishOrder + 1;
+                    fillInCards();
+                }
+            }
+        });
     }
 }
\ No newline at end of file
@@ -10,6 +10,8 @@ import android.widget.ScrollView;
 
 import com.example.rallytimingapp.R;
 import com.example.rallytimingapp.helpers.InputValidation;
+import com.example.rallytimingapp.helpers.LoginSession;
+import com.example.rallytimingapp.model.RallyTime;
 import com.example.rallytimingapp.model.Stage;
 import com.example.rallytimingapp.model.User;
 import com.example.rallytimingapp.sql.StageDatabaseHelper;
@@ -22,9 +24,6 @@ import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
 import com.google.android.material.snackbar.Snackbar;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class MainActivity extends AppCompatActivity {
     private final AppCompatActivity activity = MainActivity.this;
 
@@ -44,7 +43,7 @@ public class MainActivity extends AppCompatActivity {
     private Competitor competitor;
     private TimingCrew crew;
     private Stage stage;
-    private List<User> userList;
+    private LoginSession loginSession;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -57,6 +56,30 @@ public class MainActivity extends AppCompatActivity {
 
         // Ensure that there is always an admin login
         CreateLogin("Admin", "admin", "Admin", -1);
+
+        // A timing crew still logged in goes straight back to choosing a stage
+        if (resumeSession()) {
+            finish();
+        }
+    }
+
+    // Method to go to the choose stage page if a timing crew's session is still active,
+    // returning true if so
+    private boolean resumeSession() {
+        if (!loginSession.isActive()) {
+            return false;
+        }
+        // The crew's login may have been changed or removed since they logged in
+        User sessionUser = userDatabaseHelper.getUser(loginSession.getUsername(), loginSession.getRole());
+        if (sessionUser.getUsername() == null || sessionUser.getId() != loginSession.getRoleId()) {
+            loginSession.end();
+            return false;
+        }
+        Intent intent = new Intent(this, ChooseStageActivity.class);
+        intent.putExtra("ROLE", sessionUser.getRole());
+        intent.putExtra("CREW_ID", sessionUser.getId());
+        startActivity(intent);
+        return true;
     }
 
     // Method to create a login.
@@ -82,10 +105,9 @@ public class MainActivity extends AppCompatActivity {
             competitor.setDriver(driver);
             competitor.setCodriver(codriver);
             // For each stage, create a stage database entry
-            competitor.setStage1Id(CreateStage(carNum, 1));
-            competitor.setStage2Id(CreateStage(carNum, 2));
-            competitor.setStage3Id(CreateStage(carNum, 3));
-            competitor.setStage4Id(CreateStage(carNum, 4));
+            for (int stageNum = 1; stageNum <= 4; stageNum++) {
+                competitor.setStageId(stageNum, CreateStage(carNum, stageNum));
+            }
             compDatabaseHelper.addCompetitor(competitor);
         }
         // Get the competitor ID to return
@@ -116,12 +138,12 @@ public class MainActivity extends AppCompatActivity {
             stage.setCarNum(carNum);
             stage.setStageNum(stageNum);
             stage.setStartOrder(0);
-            stage.setProvStart("");
-            stage.setActualStart("");
-            stage.setFinishTime("");
-            stage.setStageTime("");
-            stage.setActualTime("");
-            stage.setDueTime("");
+            stage.setProvStart(RallyTime.NO_TIME);
+            stage.setActualStart(RallyTime.NO_TIME);
+            stage.setFinishTime(RallyTime.NO_TIME);
+            stage.setStageTime(RallyTime.NO_TIME);
+            stage.setActualTime(RallyTime.NO_TIME);
+            stage.setDueTime(RallyTime.NO_TIME);
             stageDatabaseHelper.addStage(stage);
         }
         // Get the stage ID to return
@@ -149,7 +171,7 @@ public class MainActivity extends AppCompatActivity {
         competitor = new Competitor();
         crew = new TimingCrew();
         stage = new Stage();
-        userList = new ArrayList<>();
+        loginSession = LoginSession.getInstance(activity);
     }
 
     // Method to login, used when login button clicked
@@ -164,24 +186,17 @@ public class MainActivity extends AppCompatActivity {
             checkedChip = chips.findViewById(checkedChipID);
             String role = checkedChip.getText().toString().trim();
 
-            // Check if the login is valid
-            if (verifyLogin(username, password, role)) {
-                // If so, get a list of all of the users in the database and get the
-                // id of the matching user
-                userList.addAll(userDatabaseHelper.getAllUsers());
-                int id = -1;
-                for (int i = 0; i < userList.size(); i++) {
-                    User currUser = userList.get(i);
-                    if (username.equals(currUser.getUsername())) {
-                        id = currUser.getId();
-                    }
-                }
+            // Check if the login is valid, getting the matching user if so
+            User loggedIn = verifyLogin(username, password, role);
+            if (loggedIn != null) {
+                int id = loggedIn.getId();
 
                 if (role.equals("Competitor")) {
                     // If the role is a competitor, go to the competitor view activity,
                     // passing the ID as an extra
                     Intent intent = new Intent(this, CompViewActivity.class);
                     intent.putExtra("COMP_ID", id);
+                    loginSession.end();
                     clearInputs();
                     startActivity(intent);
                 } else {
@@ -190,15 +205,18 @@ public class MainActivity extends AppCompatActivity {
                     Intent intent = new Intent(this, ChooseStageActivity.class);
                     intent.putExtra("ROLE", role);
                     intent.putExtra("CREW_ID", id);
+                    // Remember the crew, so they don't have to log in again to change stage
+                    loginSession.start(loggedIn);
                     clearInputs();
                     startActivity(intent);
                 }
             }
             clearInputs();
             // If there was no chip selected, see if the login was an admin
-        } else if (verifyLogin(username, password, "Admin")) {
+        } else if (verifyLogin(username, password, "Admin") != null) {
             // If so, go to the admin options page
             Intent intent = new Intent(this, AdminOptionsActivity.class);
+            loginSession.end();
             clearInputs();
             startActivity(intent);
 
@@ -208,26 +226,28 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    // Method to check if the given login details are in the database
-    private boolean verifyLogin(String username, String password, String role) {
+    // Method to check if the given login details are in the database, returning the
+    // matching user, or null if there isn't one
+    private User verifyLogin(String username, String password, String role) {
         // First check if all the input have been filled in
         if (!inputValidation.isEditTextFilled(editTextUsername)) {
-            return false;
+            return null;
         }
         if (!inputValidation.isEditTextFilled(editTextPassword)) {
-            return false;
+            return null;
         }
-        // Then check if there is a user in the database with the given username,
-        // password and role
-        if (userDatabaseHelper.checkUser(username, password, role)) {
-            // If so, return true
-            return true;
+        // Then look up the username, checking the password against its hash, and check
+        // the user has the given role
+        User loggedIn = userDatabaseHelper.authenticate(username, password);
+        if (loggedIn != null && role.equals(loggedIn.getRole())) {
+            // If so, return the user
+            return loggedIn;
         } else {
             // If not, show an error message
             Snackbar.make(scrollView, "Invalid Login", Snackbar.LENGTH_LONG).show();
         }
-        // Return false
-        return false;
+        // Return null
+        return null;
     }
 
     // Method to clear the inputs and reset focus
@@ -5,8 +5,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
-import android.text.Editable;
-import android.text.TextWatcher;
 import android.util.DisplayMetrics;
 import android.view.Gravity;
 import android.view.LayoutInflater;
@@ -17,15 +15,22 @@ import android.widget.ScrollView;
 import android.widget.TextView;
 
 import com.example.rallytimingapp.R;
+import com.example.rallytimingapp.helpers.TimeEntryField;
+import com.example.rallytimingapp.helpers.TimecardView;
 import com.example.rallytimingapp.model.AControl;
+import com.example.rallytimingapp.model.ItineraryStage;
 import com.example.rallytimingapp.model.Stage;
 import com.example.rallytimingapp.model.Start;
+import com.example.rallytimingapp.sql.ItineraryHelper;
+import com.example.rallytimingapp.sql.RallyRepository;
 import com.example.rallytimingapp.sql.StageDatabaseHelper;
 import com.example.rallytimingapp.sql.StartDatabaseHelper;
+import com.example.rallytimingapp.sql.TimecardNavigator;
 import com.google.android.material.snackbar.Snackbar;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 public class StartActivity extends AppCompatActivity implements View.OnClickListener {
     private final AppCompatActivity activity = StartActivity.this;
@@ -42,32 +47,11 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
     private TextView startOrderTV;
 
     private TextView stageNumTV;
-    private TextView stageLabel1;
-    private TextView stageLabel2;
-    private TextView stageDist;
-    private TextView SS;
-    private TextView blueTC1;
-    private TextView blueTC2;
-    private TextView stageKM;
-    private TextView finishTC;
     private TextView yellowTC;
-    private TextView TTH;
-    private TextView TTM;
 
+    private TimecardView card;
     private TextView startOrderTC;
-    private TextView provStartH;
-    private TextView provStartM;
-    private TextView actualStartH;
-    private TextView actualStartM;
-    private TextView finishTimeH;
-    private TextView finishTimeM;
-    private TextView finishTimeS;
-    private TextView finishTimeMS;
-    private TextView stageTimeM;
-    private TextView stageTimeS;
-    private TextView stageTimeMS;
-    private TextView actualTimeH;
-    private TextView actualTimeM;
+    private TimeEntryField actualStart;
     private TextView dueTimeH;
     private TextView dueTimeM;
 
@@ -76,8 +60,11 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
 
     private Start start;
     private Stage stage;
+    private ItineraryStage itineraryStage;
     private StartDatabaseHelper startDatabaseHelper;
     private StageDatabaseHelper stageDatabaseHelper;
+    private RallyRepository repository;
+    private TimecardNavigator navigator;
 
     private int stageNum;
     private int startOrder;
@@ -96,73 +83,38 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
         stageNum = getIntent().getIntExtra("STAGE", 0);
         // Set default start order to be 1
         startOrder = 1;
-        // Fill in the timecards
-        fillInCards();
-        // Based on the stage number, fill in the labels as follows
-        switch (stageNum) {
-            case 1:
-                stageNumTV.setText(R.string.s1start);
-                stageLabel1.setText(R.string.stage1);
-                stageLabel2.setText(R.string.stage1);
-                stageDist.setText(R.string.stage1dist);
-                stageKM.setText(R.string.stage1km);
-                SS.setText(R.string.SS1);
-                blueTC1.setText(R.string.TC1);
-                blueTC2.setText(R.string.TC2);
-                finishTC.setText(R.string.TC2);
-                yellowTC.setText(R.string.TC2);
-                TTH.setText(R.string.S1TTH);
-                TTM.setText(R.string.S1TTM);
-                break;
-            case 2:
-                stageNumTV.setText(R.string.s2start);
-                stageLabel1.setText(R.string.stage2);
-                stageLabel2.setText(R.string.stage2);
-                stageDist.setText(R.string.stage2dist);
-                stageKM.setText(R.string.stage2km);
-                SS.setText(R.string.SS2);
-                blueTC1.setText(R.string.TC2);
-                blueTC2.setText(R.string.TC3);
-                finishTC.setText(R.string.TC3);
-                yellowTC.setText(R.string.TC3);
-                TTH.setText(R.string.S2TTH);
-                TTM.setText(R.string.S2TTM);
-                break;
-            case 3:
-                stageNumTV.setText(R.string.s3start);
-                stageLabel1.setText(R.string.stage3);
-                stageLabel2.setText(R.string.stage3);
-                stageDist.setText(R.string.stage3dist);
-                stageKM.setText(R.string.stage3km);
-                SS.setText(R.string.SS3);
-                blueTC1.setText(R.string.TC3);
-                blueTC2.setText(R.string.TC4);
-                finishTC.setText(R.string.TC4);
-                yellowTC.setText(R.string.TC4);
-                TTH.setText(R.string.S3TTH);
-                TTM.setText(R.string.S3TTM);
-                break;
-            case 4:
-                stageNumTV.setText(R.string.s4start);
-                stageLabel1.setText(R.string.stage4);
-                stageLabel2.setText(R.string.stage4);
-                stageDist.setText(R.string.stage4dist);
-                stageKM.setText(R.string.stage4km);
-                SS.setText(R.string.SS4);
-                blueTC1.setText(R.string.TC4);
-                blueTC2.setText(R.string.TC5);
-                finishTC.setText(R.string.TC5);
-                yellowTC.setText(R.string.TC5);
-                TTH.setText(R.string.S4TTH);
-                TTM.setText(R.string.S4TTM);
-                break;
-        }
+        stageNumTV.setText(getString(R.string.stage_start, stageNum));
+        // Fill in the labels and the timecards
+        fillInItinerary();
+    }
+
+    // Method to read the stage's entry in the itinerary, then fill in the labels from it,
+    // which the card draws, and then the timecards
+    private void fillInItinerary() {
+        repository.read(new Callable<ItineraryStage>() {
+            @Override
+            public ItineraryStage call() {
+                return ItineraryHelper.getInstance(activity).getItinerary().getStage(stageNum);
+            }
+        }, new RallyRepository.Callback<ItineraryStage>() {
+            @Override
+            public void onResult(ItineraryStage result) {
+                itineraryStage = result;
+                if (itineraryStage != null) {
+                    yellowTC.setText(itineraryStage.getNextControl());
+                }
+                card.bind(itineraryStage, stage);
+                fillInCards();
+            }
+        });
     }
 
     // Method to initialise objects
     private void initObjects() {
         stageDatabaseHelper = new StageDatabaseHelper(activity);
         startDatabaseHelper = new StartDatabaseHelper(activity);
+        repository = RallyRepository.getInstance();
+        navigator = TimecardNavigator.getInstance(activity);
         stage = new Stage();
         start = new Start();
     }
@@ -181,98 +133,29 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
         startOrderTV = findViewById(R.id.StartOrder);
 
         stageNumTV = findViewById(R.id.StartStageNum);
-        stageLabel1 = findViewById(R.id.STCStage1);
-        stageLabel2 = findViewById(R.id.STCStage2);
-        stageDist = findViewById(R.id.STCDist);
-        SS = findViewById(R.id.STCSS);
-        blueTC1 = findViewById(R.id.STCTC1);
-        blueTC2 = findViewById(R.id.STCTC2);
-        stageKM = findViewById(R.id.STCKM);
-        finishTC = findViewById(R.id.STCTC);
         yellowTC = findViewById(R.id.STCYellowTC);
-        TTH = findViewById(R.id.STCTaTH);
-        TTM = findViewById(R.id.STCTaTM);
 
+        // The card draws everything but the actual start and start order, which are typed over it
+        card = findViewById(R.id.STCCard);
         startOrderTC = findViewById(R.id.STCOval);
-        provStartH = findViewById(R.id.STCPSH);
-        provStartM = findViewById(R.id.STCPSM);
-        actualStartH = findViewById(R.id.STCASH);
-        // Add a text changed listener to prevent users from inputting an invalid input
-        // And to move onto the next text box, once this one is full
-        actualStartH.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The max input length is 2 digits
-                if(actualStartH.getText().toString().length()==2)
-                {
-                    // This box contains the hours, so this input cannot be
-                    // larger than 24
-                    if (Integer.valueOf(actualStartH.getText().toString()) > 24) {
-                        // If input is larger than 24, reset the text and display an error message.
-                        actualStartH.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // If the input is valid, move to the next text box
-                        actualStartH.clearFocus();
-                        actualStartM.requestFocus();
-                        actualStartM.setCursorVisible(true);
-                    }
-                }
-            }
-
-            @Override
-            public void afterTextChanged(Editable editable) {
-
-            }
-        });
-        actualStartM = findViewById(R.id.STCASM);
-        // Add a text changed listener to prevent users from inputting an invalid input
-        // And to autofill the next box
-        actualStartM.addTextChangedListener(new TextWatcher() {
+        actualStart = findViewById(R.id.STCASTime);
+        // Add a listener to show an error message when a box is given an invalid input, and
+        // to move onto the start order once the actual start is filled in
+        actualStart.setOnTimeEnteredListener(new TimeEntryField.OnTimeEnteredListener() {
             @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-
-            }
-
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-                // The max input length is 2 digits
-                if(actualStartM.getText().toString().length()==2)
-                {
-                    // This box contains the minutes, so this input cannot be
-                    // larger than 59
-                    if (Integer.valueOf(actualStartM.getText().toString()) > 59) {
-                        // If input is larger than 59, reset the text and display an error message.
-                        actualStartM.setText("");
-                        Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
-                    } else {
-                        // Otherwise, move to the next box.
-                        actualStartM.clearFocus();
-                        startOrderTC.requestFocus();
-                        startOrderTC.setCursorVisible(true);
-                    }
+            public void onTimeEntered(TimeEntryField field, int time, boolean lastBox) {
+                if (lastBox) {
+                    startOrderTC.requestFocus();
+                    startOrderTC.setCursorVisible(true);
                 }
             }
 
             @Override
-            public void afterTextChanged(Editable editable) {
-
+            public void onInvalidInput(TimeEntryField field) {
+                // The box has already been cleared
+                Snackbar.make(scrollView, "Invalid Input", Snackbar.LENGTH_LONG).show();
             }
         });
-        finishTimeH = findViewById(R.id.STCFTH);
-        finishTimeM = findViewById(R.id.STCFTM);
-        finishTimeS = findViewById(R.id.STCFTS);
-        finishTimeMS = findViewById(R.id.STCFTMS);
-        stageTimeM = findViewById(R.id.STCTTM);
-        stageTimeS = findViewById(R.id.STCTTS);
-        stageTimeMS = findViewById(R.id.STCTTMS);
-        actualTimeH = findViewById(R.id.STCATH);
-        actualTimeM = findViewById(R.id.STCATM);
         dueTimeH = findViewById(R.id.STCDTH);
         dueTimeM = findViewById(R.id.STCDTM);
     }
@@ -317,26 +200,35 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
 
     // Fill in the text boxes of the timecards, if there is at least one entry in the database
     private void fillInCards() {
-        if (startDatabaseHelper.getStage(stageNum).size() != 0) {
-            carNum = startDatabaseHelper.getCarNum(stageNum, startOrder);
+        final int currStartOrder = startOrder;
+        // Get the stage entry of the car at the current start order, usually already read
+        // along with the cards either side of it
+        repository.read(new Callable<Stage>() {
+            @Override
+            public Stage call() {
+                return navigator.getStage(TimecardNavigator.START, stageNum, currStartOrder);
+            }
+        }, new RallyRepository.Callback<Stage>() {
+            @Override
+            public void onResult(Stage result) {
+                // Ignore the entry if the user has moved to another start order since
+                if (currStartOrder == startOrder) {
+                    showCards(result);
+                }
+            }
+        });
+    }
+
+    // Method to fill in the text boxes from the stage entry that was read
+    private void showCards(Stage currStage) {
+        stage = currStage;
+        if (stage.getStageId() != 0) {
+            carNum = stage.getCarNum();
             carNumTV.setText(String.valueOf(carNum));
-            start = startDatabaseHelper.getStart(stageNum, startOrder);
             startOrderTV.setText(String.valueOf(startOrder));
-            stage = stageDatabaseHelper.getStage(start.getStageID());
+            card.bind(itineraryStage, stage);
             startOrderTC.setText(String.valueOf(stage.getStartOrder()));
-            provStartH.setText(stage.getProvStartH());
-            provStartM.setText(stage.getProvStartM());
-            actualStartH.setText(stage.getActualStartH());
-            actualStartM.setText(stage.getActualStartM());
-            finishTimeH.setText(stage.getFinishTimeH());
-            finishTimeM.setText(stage.getFinishTimeM());
-            finishTimeS.setText(stage.getFinishTimeS());
-            finishTimeMS.setText(stage.getFinishTimeMS());
-            stageTimeM.setText(stage.getStageTimeM());
-            stageTimeS.setText(stage.getStageTimeS());
-            stageTimeMS.setText(stage.getStageTimeMS());
-            actualTimeH.setText(stage.getActualTimeH());
-            actualTimeM.setText(stage.getActualTimeM());
+            actualStart.setTime(stage.getActualStart());
             dueTimeH.setText(stage.getDueTimeH());
             dueTimeM.setText(stage.getDueTimeM());
         } else {
@@ -345,13 +237,28 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
             startOrderTV.setText("0");
             carNumTV.setText("");
         }
-        actualStartH.requestFocus();
-        actualStartH.setCursorVisible(true);
+        actualStart.focusFirstBox();
     }
 
     // Displays a pop-up to confirm if the user wants to change the start order
     // and what they want to change it to
     private void ShowChangeSOPopup() {
+        // Get the start order of the last entry to the Start database,
+        // This will be used to ensure that a swap is not made with a start order that doesn't exist yet
+        repository.read(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return navigator.getLastOrder(TimecardNavigator.START, stageNum);
+            }
+        }, new RallyRepository.Callback<Integer>() {
+            @Override
+            public void onResult(Integer currSO) {
+                ShowChangeSOPopup(currSO);
+            }
+        });
+    }
+
+    private void ShowChangeSOPopup(int currSO) {
         DisplayMetrics displayMetrics = this.getResources().getDisplayMetrics();
         int width = displayMetrics.widthPixels;
         int height = displayMetrics.heightPixels;
@@ -370,9 +277,6 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
         Button leftSO = layout.findViewById(R.id.LeftSOButton);
         Button rightSO = layout.findViewById(R.id.RightSOButton);
 
-        // Get the start order of the last entry to the Start database,
-        // This will be used to ensure that a swap is not made with a start order that doesn't exist yet
-        int currSO = startDatabaseHelper.getCurrStartOrder(stageNum);
         // Get the start order before and after the current one
         int prevSO = startOrder - 1;
         int nextSO = startOrder + 1;
@@ -387,12 +291,11 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
             leftSO.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View view) {
-                    // Call the method to swap the start orders
+                    // Call the method to swap the start orders, which fills in the cards again
                     swap(startOrder, prevSO);
 
-                    // Dismiss the pop-up then fill in the cards again
+                    // Dismiss the pop-up
                     changeSOPopup.dismiss();
-                    fillInCards();
                 }
             });
         }
@@ -408,12 +311,11 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
             rightSO.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View view) {
-                    // Call the method to swap the start orders
+                    // Call the method to swap the start orders, which fills in the cards again
                     swap(startOrder, nextSO);
 
-                    // Dismiss the pop-up then fill in the cards again
+                    // Dismiss the pop-up
                     changeSOPopup.dismiss();
-                    fillInCards();
                 }
             });
         }
@@ -428,36 +330,41 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
         });
     }
 
-    public void swap(int currSO, int newSO) {
-        // Get the Start Database entry for the current start order
-        Start currStart = startDatabaseHelper.getStart(stageNum, currSO);
-        // Get the Start database entry of the new start order
-        Start start2 = startDatabaseHelper.getStart(stageNum, newSO);
-        // Change the current entries start order and update the database
-        currStart.setStartOrder(newSO);
-        startDatabaseHelper.updateStart(currStart);
-        // Get the car number of the current entry
-        carNum = currStart.getCarNum();
-        // Get the stage database entry for the current entry
-        stage = stageDatabaseHelper.getStage(currStart.getStageID());
-        // Change the start order in the stage database and update it
-        stage.setStartOrder(newSO);
-        stageDatabaseHelper.updateStage(stage);
-
-        // Set the start order of the other entry to the current start order and
-        // update the Start database
-        start2.setStartOrder(currSO);
-        startDatabaseHelper.updateStart(start2);
-        // Get the car number of the other entry
-        carNum = start2.getCarNum();
-        // Get the stage database entry for the other entry
-        stage = stageDatabaseHelper.getStage(start2.getStageID());
-        // Change the start order in the stage database and update it
-        stage.setStartOrder(currSO);
-        stageDatabaseHelper.updateStage(stage);
+    // Method to swap two start orders on the writer thread, then fill in the cards again
+    public void swap(final int currSO, final int newSO) {
+        repository.write(new Callable<Void>() {
+            @Override
+            public Void call() {
+                // Swap the start orders of the two entries in the Start database,
+                // which also swaps them on the cars' stage entries
+                startDatabaseHelper.swapStartOrders(stageNum, currSO, newSO);
+                return null;
+            }
+        }, new RallyRepository.Callback<Void>() {
+            @Override
+            public void onResult(Void result) {
+                fillInCards();
+            }
+        });
     }
 
     private void ShowReturnTCPopup() {
+        // Get the database entry at the current start order, which has the car number
+        final int currStartOrder = startOrder;
+        repository.read(new Callable<Start>() {
+            @Override
+            public Start call() {
+                return startDatabaseHelper.getStart(stageNum, currStartOrder);
+            }
+        }, new RallyRepository.Callback<Start>() {
+            @Override
+            public void onResult(Start result) {
+                ShowReturnTCPopup(result);
+            }
+        });
+    }
+
+    private void ShowReturnTCPopup(Start currStart) {
         // Pop-up to confirm if the user wants to return the timecard to the competitor
         DisplayMetrics displayMetrics = this.getResources().getDisplayMetrics();
         int width = displayMetrics.widthPixels;
@@ -474,8 +381,8 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
         returnTCPopup.setBackgroundDrawable(null);
         returnTCPopup.showAtLocation(layout, Gravity.CENTER, 1, 1);
 
-        // Get the database entry at the current start order and get the car number
-        start = startDatabaseHelper.getStart(stageNum, startOrder);
+        // Get the car number of the entry at the current start order
+        start = currStart;
         carNum = start.getCarNum();
         String currCarNum = String.valueOf(carNum);
         TextView text = layout.findViewById(R.id.ReturnTC);
@@ -487,17 +394,19 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
         yesReturn.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View view) {
-                // Get the stage entry for the current start entry
-                stage = stageDatabaseHelper.getStage(start.getStageID());
-                String inputASH = actualStartH.getText().toString();
-                String inputASM = actualStartM.getText().toString();
-                stage.setActualStart(inputASH, inputASM);
-                // Save the time that was put into the actual start boxes as a string
-                String inputSO = startOrderTC.getText().toString();
+                // Save the time that was put into the actual start boxes
+                final int inputAS = actualStart.getTime();
                 // Save the start order that was entered
-                // and update the entry in the stage database
-                stage.setStartOrder(Integer.valueOf(inputSO));
-                stageDatabaseHelper.updateStage(stage);
+                final int inputSO = Integer.valueOf(startOrderTC.getText().toString());
+                final int returnedCarNum = carNum;
+                // Update the stage entry for the current start entry on the writer thread
+                repository.write(new Runnable() {
+                    @Override
+                    public void run() {
+                        stageDatabaseHelper.setActualStart(stageNum, returnedCarNum,
+                                inputAS, inputSO);
+                    }
+                });
                 returnTCPopup.dismiss();
             }
         });
@@ -527,11 +436,20 @@ public class StartActivity extends AppCompatActivity implements View.OnClickList
     public void nextTC() {
         // If the current start order is the same as the most recent entry,
         // it is not possible to go to the next one, so do nothing
-        int currStartOrder = startDatabaseHelper.getCurrStartOrder(stageNum);
-        if ((startOrder + 1) <= currStartOrder) {
-            // Otherwise change the start order and fill the cards again
-            startOrder = startOrder + 1;
-            fillInCards();
-        }
+        repository.read(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return navigator.getLastOrder(TimecardNavigator.START, stageNum);
+            }
+        }, new RallyRepository.Callback<Integer>() {
+            @Override
+            public void onResult(Integer currStartOrder) {
+                if ((startOrder + 1) <= currStartOrder) {
+                    // Otherwise change the start order and fill the cards again
+                    startOrder = startOrder + 1;
+                    fillInCards();
+                }
+            }
+        });
     }
 }
\ No newline at end of file
@@ -63,9 +63,9 @@ public class UpdateCompActivity extends AppCompatActivity implements View.OnClic
         competitor = compDatabaseHelper.getCompetitorByID(compID);
         // Get the user entry with that ID
         user = userDatabaseHelper.getUserByRoleID(role, compID);
-        // Fill in the text boxes using these objects
+        // Fill in the text boxes using these objects. Only a hash of the password is saved,
+        // so its box is left empty, and the password stays the same unless one is typed in.
         usernameET.setText(user.getUsername());
-        passwordET.setText(user.getPassword());
         carNumET.setText(String.valueOf(competitor.getCarNum()));
         driverET.setText(competitor.getDriver());
         codriverET.setText(competitor.getCodriver());
@@ -298,9 +298,6 @@ public class UpdateCompActivity extends AppCompatActivity implements View.OnClic
         if (!inputValidation.isEditTextFilled(usernameET)) {
             return false;
         }
-        if (!inputValidation.isEditTextFilled(passwordET)) {
-            return false;
-        }
         if (!inputValidation.isEditTextFilled(carNumET)) {
             return false;
         }
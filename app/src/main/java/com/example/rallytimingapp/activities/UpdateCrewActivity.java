@@ -70,9 +70,9 @@ public class UpdateCrewActivity extends AppCompatActivity implements View.OnClic
         // Get the crew and user database entries associated with that ID
         crew = crewDatabaseHelper.getTimingCrewByID(crewID);
         user = userDatabaseHelper.getUserByRoleID(role, crewID);
-        // Fill in the text boxes using these objects
+        // Fill in the text boxes using these objects. Only a hash of the password is saved,
+        // so its box is left empty, and the password stays the same unless one is typed in.
         usernameET.setText(user.getUsername());
-        passwordET.setText(user.getPassword());
         postChiefET.setText(crew.getPostChief());
         phoneET.setText(crew.getPostChiefPhone());
     }
@@ -317,9 +317,6 @@ public class UpdateCrewActivity extends AppCompatActivity implements View.OnClic
         if (!inputValidation.isEditTextFilled(usernameET)) {
             return false;
         }
-        if (!inputValidation.isEditTextFilled(passwordET)) {
-            return false;
-        }
         if (!inputValidation.isEditTextFilled(postChiefET)) {
             return false;
         }
@@ -0,0 +1,87 @@
+package com.example.rallytimingapp.helpers;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.example.rallytimingapp.model.User;
+
+public class LoginSession {
+    // Remembers the timing crew logged in on this phone, so the crew can go back and forth
+    // between the stage screens, or come back to the app later, without logging in again.
+    // The session is kept in the shared preferences so it lasts when the app is closed,
+    // along with a copy in memory so the preferences are only read once. It ends when the
+    // crew signs out, or SESSION_LENGTH after logging in. Competitor and admin logins
+    // aren't remembered.
+
+    // How long a session lasts, long enough for a day of stages
+    static final long SESSION_LENGTH = 12 * 60 * 60 * 1000L;
+
+    private static final String PREFERENCES_NAME = "login_session";
+    private static final String KEY_USERNAME = "username";
+    private static final String KEY_ROLE = "role";
+    private static final String KEY_ROLE_ID = "role_id";
+    private static final String KEY_EXPIRES = "expires";
+
+    private static LoginSession instance;
+
+    private final SharedPreferences preferences;
+    private String username;
+    private String role;
+    private int roleId;
+    private long expires;
+
+    // Method to return the one shared instance
+    public static synchronized LoginSession getInstance(Context context) {
+        if (instance == null) {
+            instance = new LoginSession(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private LoginSession(Context context) {
+        preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        username = preferences.getString(KEY_USERNAME, null);
+        role = preferences.getString(KEY_ROLE, null);
+        roleId = preferences.getInt(KEY_ROLE_ID, 0);
+        expires = preferences.getLong(KEY_EXPIRES, 0);
+    }
+
+    // Method to start a session for the user who has just logged in
+    public synchronized void start(User user) {
+        username = user.getUsername();
+        role = user.getRole();
+        roleId = user.getId();
+        expires = System.currentTimeMillis() + SESSION_LENGTH;
+        preferences.edit()
+                .putString(KEY_USERNAME, username)
+                .putString(KEY_ROLE, role)
+                .putInt(KEY_ROLE_ID, roleId)
+                .putLong(KEY_EXPIRES, expires)
+                .apply();
+    }
+
+    // Method to end the session, used when the crew signs out
+    public synchronized void end() {
+        username = null;
+        role = null;
+        expires = 0;
+        preferences.edit().clear().apply();
+    }
+
+    // Method to return true if a crew is logged in and the session hasn't run out
+    public synchronized boolean isActive() {
+        return role != null && System.currentTimeMillis() < expires;
+    }
+
+    public synchronized String getUsername() {
+        return isActive() ? username : null;
+    }
+
+    public synchronized String getRole() {
+        return isActive() ? role : null;
+    }
+
+    public synchronized int getRoleId() {
+        return isActive() ? roleId : 0;
+    }
+}
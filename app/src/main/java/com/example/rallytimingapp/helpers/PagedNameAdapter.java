@@ -0,0 +1,194 @@
+package com.example.rallytimingapp.helpers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.rallytimingapp.model.ListEntry;
+import com.example.rallytimingapp.model.PageCache;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class PagedNameAdapter extends RecyclerView.Adapter<PagedNameAdapter.ViewHolder> {
+    // Shows a list of names read from the database a page at a time, on a background thread,
+    // as the list is scrolled. Only a few pages are held at once, so a list of thousands of
+    // entries takes no more memory than a short one. Each row carries the ID of its entry,
+    // so a click can go straight to it.
+
+    private static final int PAGE_SIZE = 50; // Rows read in each query
+    private static final int MAX_PAGES = 6; // Pages kept in memory
+    private static final int PREFETCH = 10; // Rows from the end of a page at which the next one is read
+    private static final int SEARCH_DELAY_MS = 150; // Pause in typing before the list is searched
+
+    // Interface for where the rows come from. Both methods are called on the background thread.
+    public interface PageSource {
+        // Method to return the number of rows matching the search text
+        int count(String search);
+
+        // Method to return up to limit rows matching the search text, starting at offset
+        List<ListEntry> loadPage(String search, int offset, int limit);
+    }
+
+    // Interface for when a row is clicked
+    public interface OnEntryClickListener {
+        void onEntryClick(ListEntry entry);
+    }
+
+    private final PageSource source;
+    private final OnEntryClickListener listener;
+    private final PageCache<ListEntry> cache = new PageCache<>(PAGE_SIZE, MAX_PAGES);
+    private final Set<Integer> loading = new HashSet<>(); // Pages being read at the moment
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private String search = "";
+    private int count;
+    private int generation; // Goes up each time the list is reloaded, so older reads are ignored
+
+    // Reloads the list once typing in the search box has paused
+    private final Runnable pendingReload = new Runnable() {
+        @Override
+        public void run() {
+            reload();
+        }
+    };
+
+    public PagedNameAdapter(PageSource source, OnEntryClickListener listener) {
+        this.source = source;
+        this.listener = listener;
+    }
+
+    // Object holding the view for one row
+    public class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+        private final TextView nameText;
+
+        ViewHolder(View view) {
+            super(view);
+            nameText = view.findViewById(android.R.id.text1);
+            view.setOnClickListener(this);
+        }
+
+        @Override
+        public void onClick(View view) {
+            int position = getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+            // A row that is still loading can't be opened yet
+            ListEntry entry = cache.get(position);
+            if (entry != null) {
+                listener.onEntryClick(entry);
+            }
+        }
+    }
+
+    // Method to show only the rows matching the search text. The list is read again once
+    // typing pauses, rather than on every key.
+    public void setSearch(String search) {
+        this.search = search == null ? "" : search;
+        mainHandler.removeCallbacks(pendingReload);
+        mainHandler.postDelayed(pendingReload, SEARCH_DELAY_MS);
+    }
+
+    // Method to read the list again, eg after entries have been added
+    public void reload() {
+        mainHandler.removeCallbacks(pendingReload);
+        final int currGeneration = ++generation;
+        final String currSearch = search;
+        cache.clear();
+        loading.clear();
+        loading.add(0);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final int newCount = source.count(currSearch);
+                final List<ListEntry> firstPage = source.loadPage(currSearch, 0, PAGE_SIZE);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (currGeneration != generation) {
+                            return;
+                        }
+                        loading.remove(0);
+                        count = newCount;
+                        cache.putPage(0, firstPage);
+                        notifyDataSetChanged();
+                    }
+                });
+            }
+        });
+    }
+
+    // Method to stop the background thread, called when the screen is closed
+    public void close() {
+        mainHandler.removeCallbacks(pendingReload);
+        executor.shutdownNow();
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(android.R.layout.simple_list_item_1, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        ListEntry entry = cache.get(position);
+        int page = cache.pageOf(position);
+        if (entry == null) {
+            // Leave the row blank until its page has been read
+            holder.nameText.setText("");
+            loadPage(page);
+        } else {
+            holder.nameText.setText(entry.getName());
+        }
+        // Read the next page before the list reaches it
+        if (position % PAGE_SIZE >= PAGE_SIZE - PREFETCH && (page + 1) * PAGE_SIZE < count) {
+            loadPage(page + 1);
+        }
+    }
+
+    @Override
+    public int getItemCount() {
+        return count;
+    }
+
+    // Method to read a page on the background thread, unless it is loaded or being read already
+    private void loadPage(final int page) {
+        if (cache.hasPage(page) || loading.contains(page)) {
+            return;
+        }
+        loading.add(page);
+        final int currGeneration = generation;
+        final String currSearch = search;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final List<ListEntry> rows = source.loadPage(currSearch, page * PAGE_SIZE, PAGE_SIZE);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (currGeneration != generation) {
+                            return;
+                        }
+                        loading.remove(page);
+                        cache.putPage(page, rows);
+                        notifyItemRangeChanged(page * PAGE_SIZE, rows.size());
+                    }
+                });
+            }
+        });
+    }
+}
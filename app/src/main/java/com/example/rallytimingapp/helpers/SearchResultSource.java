@@ -0,0 +1,57 @@
+package com.example.rallytimingapp.helpers;
+
+import com.example.rallytimingapp.model.ListEntry;
+
+import java.util.Collections;
+import java.util.List;
+
+public class SearchResultSource implements PagedNameAdapter.PageSource {
+    // Pages through one of the list screens. With no search text the rows are paged straight
+    // out of the table in name order, so the full list never has to be held. Otherwise the
+    // search index is asked once, each time the list is reloaded, for the IDs of the matching
+    // rows, and each page then reads just its own rows from the table.
+
+    // Interface for the table behind a list screen and the search index kept for it. Every
+    // method is called on the adapter's background thread.
+    public interface Rows {
+        // Method to return the number of rows in the list
+        int count();
+
+        // Method to return up to limit rows of the list in name order, starting at offset
+        List<ListEntry> loadPage(int offset, int limit);
+
+        // Method to return the IDs of the rows matching the search text, in name order
+        List<Integer> search(String text);
+
+        // Method to return the rows with the given IDs, in the same order
+        List<ListEntry> load(List<Integer> ids);
+    }
+
+    private final Rows rows;
+    private List<Integer> results = Collections.emptyList(); // IDs found by the last search
+
+    public SearchResultSource(Rows rows) {
+        this.rows = rows;
+    }
+
+    // The adapter counts the rows first whenever the list is reloaded, so run the search here
+    @Override
+    public synchronized int count(String text) {
+        if (text.isEmpty()) {
+            results = Collections.emptyList();
+            return rows.count();
+        }
+        results = rows.search(text);
+        return results.size();
+    }
+
+    @Override
+    public synchronized List<ListEntry> loadPage(String text, int offset, int limit) {
+        if (text.isEmpty()) {
+            return rows.loadPage(offset, limit);
+        }
+        int from = Math.min(offset, results.size());
+        int to = Math.min(offset + limit, results.size());
+        return rows.load(results.subList(from, to));
+    }
+}
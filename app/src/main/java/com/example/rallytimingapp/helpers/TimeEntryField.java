@@ -0,0 +1,267 @@
+package com.example.rallytimingapp.helpers;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.text.InputType;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.inputmethod.BaseInputConnection;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputConnection;
+import android.view.inputmethod.InputMethodManager;
+
+import androidx.core.content.ContextCompat;
+
+import com.example.rallytimingapp.R;
+import com.example.rallytimingapp.model.RallyTime;
+import com.example.rallytimingapp.model.TimeEntry;
+
+public class TimeEntryField extends View {
+    // The boxes for typing in one time on a timecard, eg the four boxes of a finish time, in
+    // place of an EditText for each box. The digits typed go to a TimeEntry, which checks
+    // each box as it is filled and moves on to the next one, and the boxes are drawn from
+    // its values, so typing a time never builds a string. When the last box is filled the
+    // next field, if there is one, is given the focus. The boxes are set with the timeFormat
+    // and blueBoxes attributes in the layout.
+
+    private static final int BOX_WIDTH = 50; // Width of each box, in dp
+    private static final int BOX_HEIGHT = 50;
+
+    // Interface for when a box has been filled in
+    public interface OnTimeEnteredListener {
+        // Method called each time a box is filled, with the time typed so far and whether
+        // it was the last box
+        void onTimeEntered(TimeEntryField field, int time, boolean lastBox);
+
+        // Method called when a box is filled with a value too large for it, which is cleared
+        void onInvalidInput(TimeEntryField field);
+    }
+
+    private final TimeEntry entry;
+    private final Drawable[] backgrounds; // Background of each box
+    private final float boxWidth; // In pixels
+    private final float boxHeight;
+    private final Paint textPaint;
+    private final Paint cursorPaint;
+    private final char[] digit = new char[1]; // For drawing a box with only one digit typed
+
+    private OnTimeEnteredListener listener;
+    private TimeEntryField nextField;
+
+    public TimeEntryField(Context context) {
+        this(context, null);
+    }
+
+    public TimeEntryField(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.TimeEntryField);
+        int timeFormat = a.getInt(R.styleable.TimeEntryField_timeFormat, 0);
+        boolean blue = a.getBoolean(R.styleable.TimeEntryField_blueBoxes, false);
+        a.recycle();
+
+        if (timeFormat == 1) {
+            entry = new TimeEntry(TimeEntry.FINISH_TIME);
+        } else if (timeFormat == 2) {
+            entry = new TimeEntry(TimeEntry.STAGE_TIME);
+        } else {
+            entry = new TimeEntry(TimeEntry.TIME_OF_DAY);
+        }
+        backgrounds = new Drawable[entry.getBoxCount()];
+        for (int i = 0; i < backgrounds.length; i++) {
+            backgrounds[i] = ContextCompat.getDrawable(context, getBackground(entry.getBox(i), blue));
+        }
+
+        DisplayMetrics displayMetrics = getResources().getDisplayMetrics();
+        boxWidth = BOX_WIDTH * displayMetrics.density;
+        boxHeight = BOX_HEIGHT * displayMetrics.density;
+        textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setTextSize(30 * displayMetrics.scaledDensity);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        textPaint.setColor(ContextCompat.getColor(context, R.color.black));
+        cursorPaint = new Paint();
+        cursorPaint.setStyle(Paint.Style.STROKE);
+        cursorPaint.setStrokeWidth(3 * displayMetrics.density);
+        cursorPaint.setColor(ContextCompat.getColor(context, R.color.dark_blue));
+
+        setFocusable(true);
+        setFocusableInTouchMode(true);
+    }
+
+    // Method to return the background for a kind of box
+    private static int getBackground(int box, boolean blue) {
+        switch (box) {
+            case TimeEntry.HOURS:
+                return blue ? R.drawable.blueh : R.drawable.backgroundh;
+            case TimeEntry.MINUTES:
+                return blue ? R.drawable.bluem : R.drawable.backgroundm;
+            case TimeEntry.SECONDS:
+                return R.drawable.backgrounds;
+            default:
+                return R.drawable.background10;
+        }
+    }
+
+    public void setOnTimeEnteredListener(OnTimeEnteredListener listener) {
+        this.listener = listener;
+    }
+
+    // Method to set the field given the focus once the last box of this one is filled
+    public void setNextField(TimeEntryField nextField) {
+        this.nextField = nextField;
+    }
+
+    // Method to fill in the boxes from a time, or empty them if there is no time
+    public void setTime(int time) {
+        entry.setTime(time);
+        invalidate();
+    }
+
+    // Method to return the time in the boxes, or NO_TIME if they are all empty
+    public int getTime() {
+        return entry.getTime();
+    }
+
+    // Method to give the field the focus, ready for the first box to be typed in
+    public void focusFirstBox() {
+        entry.select(0);
+        requestFocus();
+        invalidate();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(resolveSize(Math.round(boxWidth * entry.getBoxCount()), widthMeasureSpec),
+                resolveSize(Math.round(boxHeight), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        int height = getHeight();
+        float baseline = height / 2f - (textPaint.ascent() + textPaint.descent()) / 2;
+        for (int i = 0; i < backgrounds.length; i++) {
+            int left = Math.round(i * boxWidth);
+            int right = Math.round((i + 1) * boxWidth);
+            backgrounds[i].setBounds(left, 0, right, height);
+            backgrounds[i].draw(canvas);
+
+            float centre = (left + right) / 2f;
+            int value = entry.getValue(i);
+            if (entry.getDigitCount(i) == 1) {
+                digit[0] = (char) ('0' + value);
+                canvas.drawText(digit, 0, 1, centre, baseline, textPaint);
+            } else if (value != RallyTime.NO_TIME) {
+                canvas.drawText(RallyTime.toBox(value), centre, baseline, textPaint);
+            }
+            // Show which box the next digit goes in
+            if (isFocused() && i == entry.getCursor()) {
+                float inset = cursorPaint.getStrokeWidth() / 2;
+                canvas.drawRect(left + inset, inset, right - inset, height - inset, cursorPaint);
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled()) {
+            return false;
+        }
+        if (event.getAction() == MotionEvent.ACTION_UP) {
+            // Start typing in the box that was touched
+            entry.select((int) (event.getX() / boxWidth));
+            requestFocus();
+            showKeyboard();
+            invalidate();
+            performClick();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        if (gainFocus) {
+            showKeyboard();
+        }
+        invalidate();
+    }
+
+    // Method to show the number keyboard for typing in the boxes
+    private void showKeyboard() {
+        InputMethodManager imm = (InputMethodManager) getContext().getSystemService(Context.INPUT_METHOD_SERVICE);
+        if (imm != null) {
+            imm.showSoftInput(this, InputMethodManager.SHOW_IMPLICIT);
+        }
+    }
+
+    @Override
+    public boolean onCheckIsTextEditor() {
+        return true;
+    }
+
+    @Override
+    public InputConnection onCreateInputConnection(EditorInfo outAttrs) {
+        outAttrs.inputType = InputType.TYPE_CLASS_NUMBER;
+        outAttrs.imeOptions = EditorInfo.IME_ACTION_NEXT | EditorInfo.IME_FLAG_NO_EXTRACT_UI;
+        // The keyboard's digits arrive as key events, see onKeyDown
+        return new BaseInputConnection(this, false) {
+            @Override
+            public boolean deleteSurroundingText(int beforeLength, int afterLength) {
+                delete();
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if (keyCode >= KeyEvent.KEYCODE_0 && keyCode <= KeyEvent.KEYCODE_9) {
+            type(keyCode - KeyEvent.KEYCODE_0);
+            return true;
+        }
+        if (keyCode == KeyEvent.KEYCODE_DEL) {
+            delete();
+            return true;
+        }
+        return super.onKeyDown(keyCode, event);
+    }
+
+    // Method to put a digit in the box at the cursor, then tell the listener if a box was filled
+    private void type(int digit) {
+        int result = entry.type(digit);
+        invalidate();
+        if (result == TimeEntry.INVALID) {
+            if (listener != null) {
+                listener.onInvalidInput(this);
+            }
+        } else if (result != TimeEntry.TYPED) {
+            boolean lastBox = result == TimeEntry.LAST_BOX_FILLED;
+            if (listener != null) {
+                listener.onTimeEntered(this, entry.getTime(), lastBox);
+            }
+            if (lastBox && nextField != null) {
+                nextField.focusFirstBox();
+            }
+        }
+    }
+
+    // Method to remove the last digit typed
+    private void delete() {
+        entry.delete();
+        invalidate();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.rallytimingapp.helpers;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.rallytimingapp.R;
+import com.example.rallytimingapp.model.Itinerary;
+import com.example.rallytimingapp.model.ItineraryStage;
+import com.example.rallytimingapp.model.Stage;
+
+public class TimecardAdapter extends RecyclerView.Adapter<TimecardAdapter.ViewHolder> {
+    // Shows a competitor's timecard for each stage of the itinerary as a scrolling list, so
+    // only the cards on screen are ever made and each is drawn by a single TimecardView. The
+    // due time in the yellow column of each card can be typed in, and is kept on the card's
+    // stage as well as passed on, so it is still shown when the card is scrolled back to.
+
+    // Interface for the buttons and due time boxes on each card
+    public interface CardListener {
+        // Method called when the check in button of a card is clicked
+        void onCheckIn(int stageNum);
+
+        // Method called when the request time button of a card is clicked
+        void onRequestTime(int stageNum);
+
+        // Method called when a due time has been typed in, or confirm is true if the save
+        // button was clicked
+        void onDueTime(Stage stage, int dueTime, boolean confirm);
+
+        // Method called when an hour or minute typed in is too large
+        void onInvalidInput();
+    }
+
+    private final CardListener listener;
+    private Itinerary itinerary;
+    private Stage[] stages = new Stage[0]; // The competitor's entries, in stage order
+
+    public TimecardAdapter(CardListener listener) {
+        this.listener = listener;
+    }
+
+    // Object holding the views for one card
+    public class ViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener {
+        private final TimecardView card;
+        private final TimeEntryField dueTime;
+        private final TextView yellowTC;
+
+        ViewHolder(View view) {
+            super(view);
+            card = view.findViewById(R.id.Card);
+            dueTime = view.findViewById(R.id.CardDTTime);
+            yellowTC = view.findViewById(R.id.CardYellowTC);
+            Button checkIn = view.findViewById(R.id.CardCheckIn);
+            Button reqTime = view.findViewById(R.id.CardReqTime);
+            Button saveDT = view.findViewById(R.id.CardSaveDT);
+            checkIn.setOnClickListener(this);
+            reqTime.setOnClickListener(this);
+            saveDT.setOnClickListener(this);
+
+            // Add a listener to show an error message when a box is given an invalid input,
+            // and to save the due time once it is filled in
+            dueTime.setOnTimeEnteredListener(new TimeEntryField.OnTimeEnteredListener() {
+                @Override
+                public void onTimeEntered(TimeEntryField field, int time, boolean lastBox) {
+                    if (lastBox) {
+                        saveDueTime(false);
+                    }
+                }
+
+                @Override
+                public void onInvalidInput(TimeEntryField field) {
+                    listener.onInvalidInput();
+                }
+            });
+        }
+
+        // Method to fill in the card from a stage
+        void bind(Stage stage) {
+            ItineraryStage itineraryStage = itinerary == null ? null : itinerary.getStage(stage.getStageNum());
+            card.bind(itineraryStage, stage);
+            yellowTC.setText(itineraryStage == null ? "" : itineraryStage.getNextControl());
+            dueTime.setTime(stage.getDueTime());
+        }
+
+        // Method to keep the due time typed on the card and pass it on to be saved
+        private void saveDueTime(boolean confirm) {
+            int position = getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+            Stage stage = stages[position];
+            int inputDT = dueTime.getTime();
+            stage.setDueTime(inputDT);
+            listener.onDueTime(stage, inputDT, confirm);
+        }
+
+        @Override
+        public void onClick(View view) {
+            int position = getAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+            int stageNum = stages[position].getStageNum();
+            switch (view.getId()) {
+                case R.id.CardCheckIn:
+                    listener.onCheckIn(stageNum);
+                    break;
+                case R.id.CardReqTime:
+                    listener.onRequestTime(stageNum);
+                    break;
+                case R.id.CardSaveDT:
+                    saveDueTime(true);
+                    break;
+            }
+        }
+    }
+
+    // Method to show the given stages, with their details from the itinerary
+    public void setStages(Itinerary itinerary, Stage[] stages) {
+        this.itinerary = itinerary;
+        this.stages = stages;
+        notifyDataSetChanged();
+    }
+
+    @NonNull
+    @Override
+    public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_timecard, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+        holder.bind(stages[position]);
+    }
+
+    @Override
+    public int getItemCount() {
+        return stages.length;
+    }
+}
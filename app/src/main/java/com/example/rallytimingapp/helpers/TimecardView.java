@@ -0,0 +1,344 @@
+package com.example.rallytimingapp.helpers;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.util.DisplayMetrics;
+import android.view.View;
+
+import androidx.core.content.ContextCompat;
+
+import com.example.rallytimingapp.R;
+import com.example.rallytimingapp.model.ItineraryStage;
+import com.example.rallytimingapp.model.RallyTime;
+import com.example.rallytimingapp.model.Stage;
+
+public class TimecardView extends View {
+    // Draws a competitor's timecard for one stage, the blue road section column and the
+    // boxes for each time, straight onto the canvas in one pass, rather than as dozens of
+    // TextViews. It shows a copy of the stage's times
+    // taken when it is bound, see bind. The card is always the same size, so binding another
+    // stage to it, eg as a list of cards is scrolled, only redraws it and never lays out the
+    // list again. The yellow competitor use column is left to the layout beside the card.
+    // On the control screens the boxes the official types into are TimeEntryFields laid over
+    // the card in the same place, so the card leaves those boxes out, see setTypedBoxes.
+
+    // Boxes which can be left out of the card, the same as the typedBoxes flags
+    public static final int START_ORDER = 1;
+    public static final int PROV_START = 2;
+    public static final int ACTUAL_START = 4;
+    public static final int FINISH_TIME = 8;
+    public static final int STAGE_TIME = 16;
+    public static final int ACTUAL_TIME = 32;
+
+    // Sizes of the card and its parts in dp, the same as in the timecard layouts
+    private static final int BLUE_WIDTH = 40;
+    private static final int MAIN_WIDTH = 465;
+    private static final int CARD_WIDTH = BLUE_WIDTH + MAIN_WIDTH;
+    private static final int CARD_HEIGHT = 225;
+    private static final int BOX_WIDTH = 50;
+    private static final int BOX_HEIGHT = 50;
+
+    // Top of each row of the card
+    private static final int ROW1 = 0;
+    private static final int ROW2 = 25;
+    private static final int ROW3 = 75;
+    private static final int ROW4 = 90;
+    private static final int ROW5 = 140;
+    private static final int ROW6 = 155;
+    private static final int ROW7 = 205;
+
+    private final float density;
+
+    // Boxes left out of the card, as another view is typed into in their place
+    private int typedBoxes;
+
+    // Paints, made once for every card drawn
+    private final Paint labelPaint;
+    private final Paint boxPaint;
+    private final Paint ovalPaint;
+    private final Paint blueTextPaint;
+    private final Paint roadSectionPaint;
+    private final Paint bluePaint;
+    private final Paint borderPaint;
+
+    // Backgrounds of the boxes and the pictures on the card
+    private final Drawable hoursBox;
+    private final Drawable minutesBox;
+    private final Drawable secondsBox;
+    private final Drawable hundredthsBox;
+    private final Drawable blueHoursBox;
+    private final Drawable blueMinutesBox;
+    private final Drawable oval;
+    private final Drawable flag;
+    private final Drawable shortArrow;
+    private final Drawable longArrow;
+    private final Drawable stop;
+
+    // Labels which are the same on every card
+    private final String finishTimeLabel;
+    private final String provStartLabel;
+    private final String actualStartLabel;
+    private final String targetTimeLabel;
+    private final String timeTakenLabel;
+    private final String actualTimeLabel;
+    private final String startOrderLabel;
+
+    // Labels from the itinerary, set when a different stage is bound
+    private ItineraryStage itineraryStage;
+    private String stageName = "";
+    private String distance = "";
+    private String roadSection = "";
+    private String specialStage = "";
+    private String startControl = "";
+    private String nextControl = "";
+    private String targetTimeH = "";
+    private String targetTimeM = "";
+
+    // Text of each box, from the stage that was bound
+    private String startOrder = "";
+    private String provStartH = "";
+    private String provStartM = "";
+    private String actualStartH = "";
+    private String actualStartM = "";
+    private String finishTimeH = "";
+    private String finishTimeM = "";
+    private String finishTimeS = "";
+    private String finishTimeMS = "";
+    private String stageTimeM = "";
+    private String stageTimeS = "";
+    private String stageTimeMS = "";
+    private String actualTimeH = "";
+    private String actualTimeM = "";
+
+    public TimecardView(Context context) {
+        this(context, null);
+    }
+
+    public TimecardView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        DisplayMetrics displayMetrics = getResources().getDisplayMetrics();
+        density = displayMetrics.density;
+        // The card is drawn in dp, so text sizes only need the user's font scale
+        float fontScale = displayMetrics.scaledDensity / density;
+
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.TimecardView);
+        typedBoxes = a.getInt(R.styleable.TimecardView_typedBoxes, 0);
+        a.recycle();
+
+        int black = ContextCompat.getColor(context, R.color.black);
+        int white = ContextCompat.getColor(context, R.color.white);
+        labelPaint = textPaint(11 * fontScale, black);
+        boxPaint = textPaint(30 * fontScale, black);
+        ovalPaint = textPaint(34 * fontScale, black);
+        blueTextPaint = textPaint(16 * fontScale, white);
+        roadSectionPaint = textPaint(13 * fontScale, white);
+        bluePaint = new Paint();
+        bluePaint.setColor(ContextCompat.getColor(context, R.color.dark_blue));
+        borderPaint = new Paint();
+        borderPaint.setStyle(Paint.Style.STROKE);
+        borderPaint.setStrokeWidth(2);
+        borderPaint.setColor(black);
+
+        hoursBox = ContextCompat.getDrawable(context, R.drawable.backgroundh);
+        minutesBox = ContextCompat.getDrawable(context, R.drawable.backgroundm);
+        secondsBox = ContextCompat.getDrawable(context, R.drawable.backgrounds);
+        hundredthsBox = ContextCompat.getDrawable(context, R.drawable.background10);
+        blueHoursBox = ContextCompat.getDrawable(context, R.drawable.blueh);
+        blueMinutesBox = ContextCompat.getDrawable(context, R.drawable.bluem);
+        oval = ContextCompat.getDrawable(context, R.drawable.oval);
+        flag = ContextCompat.getDrawable(context, R.drawable.flag);
+        shortArrow = ContextCompat.getDrawable(context, R.drawable.arrow1);
+        longArrow = ContextCompat.getDrawable(context, R.drawable.arrow2);
+        stop = ContextCompat.getDrawable(context, R.drawable.stop);
+
+        finishTimeLabel = context.getString(R.string.FT);
+        provStartLabel = context.getString(R.string.PS);
+        actualStartLabel = context.getString(R.string.AS);
+        targetTimeLabel = context.getString(R.string.TargT);
+        timeTakenLabel = context.getString(R.string.TT);
+        actualTimeLabel = context.getString(R.string.AT);
+        startOrderLabel = context.getString(R.string.SO);
+    }
+
+    // Method to set which boxes are left out of the card, eg START_ORDER | ACTUAL_START
+    public void setTypedBoxes(int typedBoxes) {
+        this.typedBoxes = typedBoxes;
+        invalidate();
+    }
+
+    // Method to check if a box is drawn on the card, rather than typed into over it
+    private boolean isDrawn(int box) {
+        return (typedBoxes & box) == 0;
+    }
+
+    // Method to make a bold, centred paint for text of the given size in dp
+    private static Paint textPaint(float size, int color) {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTextSize(size);
+        paint.setColor(color);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setTypeface(Typeface.DEFAULT_BOLD);
+        return paint;
+    }
+
+    // Method to show a competitor's entry for a stage, with the stage's details from the
+    // itinerary, which may be null if it isn't known. The labels are only made again when a
+    // different stage of the itinerary is bound.
+    public void bind(ItineraryStage itineraryStage, Stage stage) {
+        if (itineraryStage != this.itineraryStage) {
+            this.itineraryStage = itineraryStage;
+            fillInLabels(itineraryStage);
+        }
+        // If the start order is currently set to 0, there are no details to show yet
+        startOrder = stage.getStartOrder() == 0 ? "" : String.valueOf(stage.getStartOrder());
+        provStartH = stage.getProvStartH();
+        provStartM = stage.getProvStartM();
+        actualStartH = stage.getActualStartH();
+        actualStartM = stage.getActualStartM();
+        finishTimeH = stage.getFinishTimeH();
+        finishTimeM = stage.getFinishTimeM();
+        finishTimeS = stage.getFinishTimeS();
+        finishTimeMS = stage.getFinishTimeMS();
+        stageTimeM = stage.getStageTimeM();
+        stageTimeS = stage.getStageTimeS();
+        stageTimeMS = stage.getStageTimeMS();
+        actualTimeH = stage.getActualTimeH();
+        actualTimeM = stage.getActualTimeM();
+        invalidate();
+    }
+
+    // Method to fill in the labels of the card from the stage's entry in the itinerary
+    private void fillInLabels(ItineraryStage itineraryStage) {
+        if (itineraryStage == null) {
+            stageName = distance = roadSection = specialStage = "";
+            startControl = nextControl = targetTimeH = targetTimeM = "";
+            return;
+        }
+        Context context = getContext();
+        stageName = itineraryStage.getName();
+        distance = context.getString(R.string.stage_distance, itineraryStage.getDistance() / 1000.0);
+        roadSection = context.getString(R.string.road_section, itineraryStage.getRoadDistance() / 1000.0,
+                itineraryStage.getAverageSpeed());
+        specialStage = context.getString(R.string.special_stage, itineraryStage.getStageNum());
+        startControl = itineraryStage.getStartControl();
+        nextControl = itineraryStage.getNextControl();
+        targetTimeH = RallyTime.toBox(RallyTime.getHours(itineraryStage.getTargetTime()));
+        targetTimeM = RallyTime.toBox(RallyTime.getMinutes(itineraryStage.getTargetTime()));
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(resolveSize(Math.round(CARD_WIDTH * density), widthMeasureSpec),
+                resolveSize(Math.round(CARD_HEIGHT * density), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        canvas.save();
+        canvas.scale(density, density);
+        drawBlueColumn(canvas);
+        canvas.translate(BLUE_WIDTH, 0);
+
+        // Row 1, the stage name and finish time label
+        drawLabel(canvas, labelPaint, stageName, 0, ROW1, 175, ROW2 - ROW1);
+        drawLabel(canvas, labelPaint, finishTimeLabel, 175, ROW1, 150, ROW2 - ROW1);
+
+        // Row 2, the length of the stage and its finish time
+        drawLabel(canvas, labelPaint, distance, 0, ROW2, 125, BOX_HEIGHT);
+        if (isDrawn(FINISH_TIME)) {
+            drawBox(canvas, hoursBox, finishTimeH, 125, ROW2);
+            drawBox(canvas, minutesBox, finishTimeM, 175, ROW2);
+            drawBox(canvas, secondsBox, finishTimeS, 225, ROW2);
+            drawBox(canvas, hundredthsBox, finishTimeMS, 275, ROW2);
+        }
+        drawPicture(canvas, flag, 345, ROW2, 50);
+
+        // Rows 3 and 4, the start times and target time
+        drawLabel(canvas, labelPaint, provStartLabel, 0, ROW3, 110, ROW4 - ROW3);
+        drawLabel(canvas, labelPaint, actualStartLabel, 125, ROW3, 100, ROW4 - ROW3);
+        drawLabel(canvas, labelPaint, targetTimeLabel, 345, ROW3, 100, ROW4 - ROW3);
+        if (isDrawn(PROV_START)) {
+            drawBox(canvas, hoursBox, provStartH, 5, ROW4);
+            drawBox(canvas, minutesBox, provStartM, 55, ROW4);
+        }
+        drawPicture(canvas, shortArrow, 105, ROW4, 20);
+        if (isDrawn(ACTUAL_START)) {
+            drawBox(canvas, blueHoursBox, actualStartH, 125, ROW4);
+            drawBox(canvas, blueMinutesBox, actualStartM, 175, ROW4);
+        }
+        drawPicture(canvas, longArrow, 225, ROW4, 120);
+        drawBox(canvas, null, targetTimeH, 345, ROW4);
+        drawBox(canvas, null, targetTimeM, 395, ROW4);
+        drawPicture(canvas, shortArrow, 445, ROW4, 20);
+
+        // Rows 5 and 6, the start order, time taken and actual time at the next control
+        drawLabel(canvas, labelPaint, specialStage, 0, ROW5, 110, ROW6 - ROW5);
+        drawLabel(canvas, labelPaint, timeTakenLabel, 175, ROW5, 150, ROW6 - ROW5);
+        drawLabel(canvas, labelPaint, actualTimeLabel, 345, ROW5, 100, ROW6 - ROW5);
+        if (isDrawn(START_ORDER)) {
+            drawPicture(canvas, oval, 5, ROW6, 100);
+            drawLabel(canvas, ovalPaint, startOrder, 5, ROW6, 100, BOX_HEIGHT);
+        }
+        drawPicture(canvas, stop, 105, ROW6, 70);
+        if (isDrawn(STAGE_TIME)) {
+            drawBox(canvas, minutesBox, stageTimeM, 175, ROW6);
+            drawBox(canvas, secondsBox, stageTimeS, 225, ROW6);
+            drawBox(canvas, hundredthsBox, stageTimeMS, 275, ROW6);
+        }
+        if (isDrawn(ACTUAL_TIME)) {
+            drawBox(canvas, blueHoursBox, actualTimeH, 345, ROW6);
+            drawBox(canvas, blueMinutesBox, actualTimeM, 395, ROW6);
+        }
+
+        // Row 7, the labels under them
+        drawLabel(canvas, labelPaint, startOrderLabel, 0, ROW7, 110, CARD_HEIGHT - ROW7);
+        drawLabel(canvas, labelPaint, stageName, 175, ROW7, 150, CARD_HEIGHT - ROW7);
+        drawLabel(canvas, labelPaint, nextControl, 345, ROW7, 100, CARD_HEIGHT - ROW7);
+        canvas.restore();
+    }
+
+    // Method to draw the blue column down the left of the card, with the controls at either
+    // end of the road section and its length written up the middle
+    private void drawBlueColumn(Canvas canvas) {
+        canvas.drawRect(2, 2, BLUE_WIDTH - 2, CARD_HEIGHT - 2, bluePaint);
+        drawLabel(canvas, blueTextPaint, startControl, 2, 7, BLUE_WIDTH - 4, 20);
+        drawLabel(canvas, blueTextPaint, nextControl, 2, CARD_HEIGHT - 27, BLUE_WIDTH - 4, 20);
+        canvas.save();
+        canvas.rotate(-90, BLUE_WIDTH / 2f, CARD_HEIGHT / 2f);
+        drawLabel(canvas, roadSectionPaint, roadSection, BLUE_WIDTH / 2f - 80, CARD_HEIGHT / 2f - 10, 160, 20);
+        canvas.restore();
+    }
+
+    // Method to draw one timecard box with its background, or a plain border if there is none
+    private void drawBox(Canvas canvas, Drawable background, String text, int left, int top) {
+        if (background == null) {
+            canvas.drawRect(left + 1, top + 1, left + BOX_WIDTH - 1, top + BOX_HEIGHT - 1, borderPaint);
+        } else {
+            background.setBounds(left, top, left + BOX_WIDTH, top + BOX_HEIGHT);
+            background.draw(canvas);
+        }
+        drawLabel(canvas, boxPaint, text, left, top, BOX_WIDTH, BOX_HEIGHT);
+    }
+
+    // Method to draw a picture filling the given width of a row of boxes
+    private static void drawPicture(Canvas canvas, Drawable picture, int left, int top, int width) {
+        picture.setBounds(left, top, left + width, top + BOX_HEIGHT);
+        picture.draw(canvas);
+    }
+
+    // Method to draw text centred in the given area
+    private static void drawLabel(Canvas canvas, Paint paint, String text, float left, float top,
+                                  float width, float height) {
+        if (text.isEmpty()) {
+            return;
+        }
+        float baseline = top + height / 2 - (paint.ascent() + paint.descent()) / 2;
+        canvas.drawText(text, left + width / 2, baseline, paint);
+    }
+}
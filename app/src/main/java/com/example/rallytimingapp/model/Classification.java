@@ -0,0 +1,240 @@
+package com.example.rallytimingapp.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class Classification {
+    // Results for a run of stages, either a single stage or the rally so far. The cars are
+    // kept in order as each time comes in, so changing one car's time only moves that car.
+
+    // Position given to a car that hasn't finished as many stages as the leader
+    public static final int DNF = 0;
+
+    // Cars excluded for lateness go last. Otherwise cars with more stages finished come
+    // first, then the lowest total time. Ties are split by car number so that every car has
+    // its own place in the set.
+    private static final Comparator<Result> RESULT_ORDER = new Comparator<Result>() {
+        @Override
+        public int compare(Result a, Result b) {
+            if (a.isExcluded() != b.isExcluded()) {
+                return a.isExcluded() ? 1 : -1;
+            }
+            if (a.stagesCompleted != b.stagesCompleted) {
+                return Integer.compare(b.stagesCompleted, a.stagesCompleted);
+            }
+            if (a.totalTime != b.totalTime) {
+                return Integer.compare(a.totalTime, b.totalTime);
+            }
+            return Integer.compare(a.carNum, b.carNum);
+        }
+    };
+
+    private final int firstStage; // First stage counted
+    private final int lastStage; // Last stage counted
+    private final TreeSet<Result> order = new TreeSet<>(RESULT_ORDER); // Cars in classification order
+    private final Map<Integer, Result> resultsByCar = new HashMap<>(); // Cars by car number
+
+    // Object for one car's line in the classification
+    public static class Result {
+        private final int carNum; // Car number
+        private final int[] stageTimes; // Time for each stage counted, or NO_TIME
+        private final boolean[] entered; // Whether the car has an entry for each stage counted
+        private final int[] penalties; // Road penalty at the time control after each stage counted
+        private final boolean[] outOfTime; // Whether the car was out of time after each stage counted
+        private int totalTime; // Total of the stage times and penalties the car has
+        private int penalty; // Total of the road penalties
+        private int exclusions; // Number of time controls the car was out of time at
+        private int stagesCompleted; // Number of stages the car has a time for
+        private int position = DNF; // Position, worked out each time the results are listed
+
+        private Result(int carNum, int stageCount) {
+            this.carNum = carNum;
+            this.stageTimes = new int[stageCount];
+            this.entered = new boolean[stageCount];
+            this.penalties = new int[stageCount];
+            this.outOfTime = new boolean[stageCount];
+            for (int i = 0; i < stageCount; i++) {
+                stageTimes[i] = RallyTime.NO_TIME;
+            }
+        }
+
+        // Copy of a result as it is now, which doesn't change when the original does
+        private Result(Result result) {
+            this.carNum = result.carNum;
+            this.stageTimes = result.stageTimes.clone();
+            this.entered = result.entered.clone();
+            this.penalties = result.penalties.clone();
+            this.outOfTime = result.outOfTime.clone();
+            this.totalTime = result.totalTime;
+            this.penalty = result.penalty;
+            this.exclusions = result.exclusions;
+            this.stagesCompleted = result.stagesCompleted;
+            this.position = result.position;
+        }
+
+        public int getCarNum() {
+            return carNum;
+        }
+
+        public int getTotalTime() {
+            return totalTime;
+        }
+
+        public int getPenalty() {
+            return penalty;
+        }
+
+        public int getStagesCompleted() {
+            return stagesCompleted;
+        }
+
+        // A car out of time at any control is excluded from the rally
+        public boolean isExcluded() {
+            return exclusions > 0;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public boolean isDNF() {
+            return position == DNF;
+        }
+
+        // Method to change the time of one stage, keeping the total up to date
+        private void setStageTime(int index, int stageTime) {
+            if (stageTimes[index] != RallyTime.NO_TIME) {
+                totalTime -= stageTimes[index];
+                stagesCompleted--;
+            }
+            stageTimes[index] = stageTime;
+            if (stageTime != RallyTime.NO_TIME) {
+                totalTime += stageTime;
+                stagesCompleted++;
+            }
+        }
+
+        // Method to change the penalty after one stage, keeping the totals up to date
+        private void setPenalty(int index, int stagePenalty, boolean stageOutOfTime) {
+            totalTime += stagePenalty - penalties[index];
+            penalty += stagePenalty - penalties[index];
+            penalties[index] = stagePenalty;
+            if (stageOutOfTime != outOfTime[index]) {
+                exclusions += stageOutOfTime ? 1 : -1;
+                outOfTime[index] = stageOutOfTime;
+            }
+        }
+
+        private boolean hasEntries() {
+            for (boolean stageEntered : entered) {
+                if (stageEntered) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public Classification(int firstStage, int lastStage) {
+        this.firstStage = firstStage;
+        this.lastStage = lastStage;
+    }
+
+    public int getFirstStage() {
+        return firstStage;
+    }
+
+    public int getLastStage() {
+        return lastStage;
+    }
+
+    // Method to record a car's time for a stage, or NO_TIME if it hasn't got one. Only
+    // this car is taken out of the order and put back in its new place.
+    public void setStageTime(int carNum, int stageNum, int stageTime) {
+        if (stageNum < firstStage || stageNum > lastStage) {
+            return;
+        }
+        Result result = resultsByCar.get(carNum);
+        if (result == null) {
+            result = new Result(carNum, lastStage - firstStage + 1);
+            resultsByCar.put(carNum, result);
+        } else {
+            // It has to come out before its time changes, or the set can't find it
+            order.remove(result);
+        }
+        result.entered[stageNum - firstStage] = true;
+        result.setStageTime(stageNum - firstStage, stageTime);
+        order.add(result);
+    }
+
+    // Method to record a car's road penalty at the time control after a stage, and whether
+    // it was out of time there. It only applies to a car already in the classification, and
+    // like setStageTime only this car moves.
+    public void setPenalty(int carNum, int stageNum, int penalty, boolean outOfTime) {
+        Result result = resultsByCar.get(carNum);
+        if (result == null || stageNum < firstStage || stageNum > lastStage) {
+            return;
+        }
+        order.remove(result);
+        result.setPenalty(stageNum - firstStage, penalty, outOfTime);
+        order.add(result);
+    }
+
+    // Method to take a car's entry for a stage away, removing the car if it has no entries left
+    public void removeStage(int carNum, int stageNum) {
+        Result result = resultsByCar.get(carNum);
+        if (result == null || stageNum < firstStage || stageNum > lastStage) {
+            return;
+        }
+        order.remove(result);
+        result.entered[stageNum - firstStage] = false;
+        result.setStageTime(stageNum - firstStage, RallyTime.NO_TIME);
+        result.setPenalty(stageNum - firstStage, 0, false);
+        if (result.hasEntries()) {
+            order.add(result);
+        } else {
+            resultsByCar.remove(carNum);
+        }
+    }
+
+    // Method to remove every car
+    public void clear() {
+        order.clear();
+        resultsByCar.clear();
+    }
+
+    public int size() {
+        return order.size();
+    }
+
+    // Method to return the result for the given car, or null if it isn't in the classification
+    public Result getResult(int carNum) {
+        return resultsByCar.get(carNum);
+    }
+
+    // Method to return the results in order, filling in the positions. Cars on the same time
+    // share a position, and cars that have finished fewer stages than the leader, or have
+    // been excluded, are DNF. Each result is a copy, so the list stays as it is while later
+    // times change the classification.
+    public List<Result> getResults() {
+        List<Result> results = new ArrayList<>(order.size());
+        Result previous = null;
+        int leaderStages = order.isEmpty() ? 0 : order.first().stagesCompleted;
+        for (Result result : order) {
+            if (result.isExcluded() || result.stagesCompleted == 0 || result.stagesCompleted < leaderStages) {
+                result.position = DNF;
+            } else if (previous != null && previous.totalTime == result.totalTime) {
+                result.position = previous.position;
+            } else {
+                result.position = results.size() + 1;
+            }
+            results.add(new Result(result));
+            previous = result;
+        }
+        return results;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.rallytimingapp.model;
 
+import java.util.Arrays;
+
 public class Competitor {
     // Object for each entry to Competitor database
 
@@ -7,10 +9,9 @@ public class Competitor {
     private int carNum; // Car number
     private String driver; // Driver's name
     private String codriver; // Codriver's name
-    private int stage1Id; // Unique ID for this competitors stage 1 in the stage database
-    private int stage2Id; // Unique ID for this competitors stage 2 in the stage database
-    private int stage3Id; // Unique ID for this competitors stage 3 in the stage database
-    private int stage4Id; // Unique ID for this competitors stage 4 in the stage database
+    // Unique ID of this competitor's entry in the stage database for each stage, indexed by
+    // stage number. Index 0 is unused and left as 0, meaning no stage.
+    private int[] stageIds = new int[1];
 
     // Getters and setters for each parameter
     public int getCompId() {
@@ -45,58 +46,34 @@ public class Competitor {
         this.codriver = codriver;
     }
 
-    // Get the stage ID for that competitor for the given stage
+    // Get the stage ID for that competitor for the given stage, or 0 if there isn't one
     public int getStageId(int stage) {
-        int stageID = 0;
-        switch (stage) {
-            case 0:
-                stageID = 0;
-                break;
-            case 1:
-                stageID = stage1Id;
-                break;
-            case 2:
-                stageID = stage2Id;
-                break;
-            case 3:
-                stageID = stage3Id;
-                break;
-            case 4:
-                stageID = stage4Id;
-                break;
+        if (stage < 0 || stage >= stageIds.length) {
+            return 0;
         }
-        return stageID;
-    }
-
-    public int getStage1Id() {
-        return stage1Id;
-    }
-
-    public void setStage1Id(int id) {
-        this.stage1Id = id;
+        return stageIds[stage];
     }
 
-    public int getStage2Id() {
-        return stage2Id;
-    }
-
-    public void setStage2Id(int id) {
-        this.stage2Id = id;
-    }
-
-    public int getStage3Id() {
-        return stage3Id;
+    // Set the stage ID for the given stage, making room for it if needed
+    public void setStageId(int stage, int id) {
+        if (stage >= stageIds.length) {
+            stageIds = Arrays.copyOf(stageIds, stage + 1);
+        }
+        stageIds[stage] = id;
     }
 
-    public void setStage3Id(int id) {
-        this.stage3Id = id;
+    // Get the number of stages this competitor could have an entry for
+    public int getStageCount() {
+        return stageIds.length - 1;
     }
 
-    public int getStage4Id() {
-        return stage4Id;
+    // Get the stage IDs indexed by stage number, as described above
+    public int[] getStageIds() {
+        return stageIds.clone();
     }
 
-    public void setStage4Id(int id) {
-        this.stage4Id = id;
+    public void setStageIds(int[] ids) {
+        this.stageIds = ids.length == 0 ? new int[1] : ids.clone();
+        this.stageIds[0] = 0;
     }
 }
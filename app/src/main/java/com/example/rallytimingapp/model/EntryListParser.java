@@ -0,0 +1,222 @@
+package com.example.rallytimingapp.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class EntryListParser {
+    // Reads an entry list in CSV form one row at a time, so a long list never has to be held
+    // in memory. Each row has a car number, driver, codriver, username and password. An
+    // optional header row can give the columns in a different order, eg
+    //     Car,Driver,Codriver,Username,Password
+    //     1,Hayden Paddon,John Kennard,Hayden,hayden
+    // Fields can be quoted to include commas, with "" for a quote inside a quoted field.
+
+    public static final String CAR = "car";
+    public static final String DRIVER = "driver";
+    public static final String CODRIVER = "codriver";
+    public static final String USERNAME = "username";
+    public static final String PASSWORD = "password";
+
+    // Column order used when the file has no header row
+    private static final String[] DEFAULT_COLUMNS = {CAR, DRIVER, CODRIVER, USERNAME, PASSWORD};
+
+    private final BufferedReader reader;
+    private int[] columns; // Column holding each field, in DEFAULT_COLUMNS order
+    private int lineNum;
+
+    // Object for one row of the entry list. If the row couldn't be read, the error says why.
+    public static class Entry {
+        private final int lineNum;
+        private int carNum;
+        private String driver;
+        private String codriver;
+        private String username;
+        private String password;
+        private String error;
+
+        private Entry(int lineNum) {
+            this.lineNum = lineNum;
+        }
+
+        public int getLineNum() {
+            return lineNum;
+        }
+
+        public int getCarNum() {
+            return carNum;
+        }
+
+        public String getDriver() {
+            return driver;
+        }
+
+        public String getCodriver() {
+            return codriver;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isValid() {
+            return error == null;
+        }
+    }
+
+    public EntryListParser(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    // Method to return the next row of the list, or null at the end. Blank lines and the
+    // header row are skipped.
+    public Entry next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNum++;
+            // A byte order mark at the start of the file isn't part of the first field
+            if (lineNum == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            Entry entry = new Entry(lineNum);
+            List<String> fields = split(line);
+            if (fields == null) {
+                entry.error = "Missing closing quote";
+                return entry;
+            }
+            if (columns == null) {
+                columns = readHeader(fields);
+                if (columns != null) {
+                    continue;
+                }
+                columns = new int[]{0, 1, 2, 3, 4};
+            }
+            fill(entry, fields);
+            return entry;
+        }
+        return null;
+    }
+
+    // Method to return the number of lines read so far
+    public int getLineNum() {
+        return lineNum;
+    }
+
+    // Method to read the column order from a header row, or return null if the row is an entry
+    private static int[] readHeader(List<String> fields) {
+        if (isNumber(fields.get(0))) {
+            return null;
+        }
+        int[] found = new int[DEFAULT_COLUMNS.length];
+        for (int i = 0; i < DEFAULT_COLUMNS.length; i++) {
+            found[i] = -1;
+        }
+        for (int col = 0; col < fields.size(); col++) {
+            String name = fields.get(col).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+            if (name.equals("carno") || name.equals("carnum") || name.equals("carnumber")) {
+                name = CAR;
+            }
+            for (int i = 0; i < DEFAULT_COLUMNS.length; i++) {
+                if (DEFAULT_COLUMNS[i].equals(name) && found[i] == -1) {
+                    found[i] = col;
+                }
+            }
+        }
+        // Any column the header doesn't name keeps its usual place
+        for (int i = 0; i < DEFAULT_COLUMNS.length; i++) {
+            if (found[i] == -1) {
+                found[i] = i;
+            }
+        }
+        return found;
+    }
+
+    // Method to fill in an entry from the fields of a row, checking each one
+    private void fill(Entry entry, List<String> fields) {
+        String car = field(fields, 0);
+        entry.driver = field(fields, 1);
+        entry.codriver = field(fields, 2);
+        entry.username = field(fields, 3);
+        entry.password = field(fields, 4);
+
+        if (car.isEmpty()) {
+            entry.error = "Missing car number";
+        } else if (!isNumber(car)) {
+            entry.error = "Car number \"" + car + "\" is not a number";
+        } else if ((entry.carNum = Integer.parseInt(car)) <= 0) {
+            entry.error = "Car number must be above 0";
+        } else if (entry.driver.isEmpty()) {
+            entry.error = "Missing driver";
+        } else if (entry.codriver.isEmpty()) {
+            entry.error = "Missing codriver";
+        } else if (entry.username.isEmpty()) {
+            entry.error = "Missing username";
+        } else if (entry.password.isEmpty()) {
+            entry.error = "Missing password";
+        }
+    }
+
+    private String field(List<String> fields, int i) {
+        int col = columns[i];
+        return col < fields.size() ? fields.get(col) : "";
+    }
+
+    private static boolean isNumber(String text) {
+        if (text.isEmpty() || text.length() > 9) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Method to split a row into trimmed fields, or return null if a quote is left open
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
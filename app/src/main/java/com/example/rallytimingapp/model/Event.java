@@ -0,0 +1,57 @@
+package com.example.rallytimingapp.model;
+
+public class Event {
+    // Object for each entry to Event database
+
+    private int eventId; // Unique ID for this database
+    private String name; // Name of the rally
+    private long started; // When the event was started, in milliseconds since 1970
+    private long finished; // When the event was archived, 0 for the current event
+    private String archiveFile; // Name of the file the event was archived to, null for the current event
+
+    // Getters and setters for each parameter
+    public int getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(int eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getStarted() {
+        return started;
+    }
+
+    public void setStarted(long started) {
+        this.started = started;
+    }
+
+    public long getFinished() {
+        return finished;
+    }
+
+    public void setFinished(long finished) {
+        this.finished = finished;
+    }
+
+    public String getArchiveFile() {
+        return archiveFile;
+    }
+
+    public void setArchiveFile(String archiveFile) {
+        this.archiveFile = archiveFile;
+    }
+
+    // Whether this is the event being run now, rather than one that has been archived
+    public boolean isCurrent() {
+        return archiveFile == null;
+    }
+}
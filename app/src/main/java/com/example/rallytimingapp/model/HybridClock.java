@@ -0,0 +1,50 @@
+package com.example.rallytimingapp.model;
+
+public class HybridClock {
+    // Hybrid logical clock, used to say which of two edits to a timecard field came last when
+    // they were made on different phones. Each reading is the phone's time in milliseconds
+    // with a counter in the lowest 16 bits, so readings sort by time. Readings always go up,
+    // even if the phone's time goes back, and a phone which has seen a reading from another
+    // always reads later than it from then on, so an edit made after seeing another edit
+    // wins over it even if the two phones' times disagree.
+
+    static final int COUNTER_BITS = 16;
+
+    private long last; // Latest reading given out or seen
+
+    // The clock starts after the given reading, eg the latest one saved
+    public HybridClock(long last) {
+        this.last = last;
+    }
+
+    // Method to return a reading for an edit made now on this phone
+    public synchronized long now() {
+        last = Math.max(fromTime(currentTime()), last + 1);
+        return last;
+    }
+
+    // Method to move the clock on past a reading from another phone
+    public synchronized void receive(long remote) {
+        last = Math.max(last, remote);
+    }
+
+    // Method to return the latest reading given out or seen
+    public synchronized long getLast() {
+        return last;
+    }
+
+    // Method to return the time a reading was taken, in milliseconds since 1970
+    public static long getTime(long reading) {
+        return reading >>> COUNTER_BITS;
+    }
+
+    // Method to return the earliest reading that could be taken at the given time
+    public static long fromTime(long time) {
+        return time << COUNTER_BITS;
+    }
+
+    // The phone's time, which tests can replace
+    protected long currentTime() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.rallytimingapp.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+public class Itinerary {
+    // The stages of a rally, numbered from 1 with no gaps, and kept in an array indexed by
+    // the stage number so a stage is found without searching
+
+    private final ItineraryStage[] stages; // stages[n] is stage n, stages[0] is unused
+
+    // The stages can be given in any order, but have to be numbered 1 to the number of stages
+    public Itinerary(List<ItineraryStage> stageList) {
+        List<ItineraryStage> sorted = new ArrayList<>(stageList);
+        Collections.sort(sorted, new Comparator<ItineraryStage>() {
+            @Override
+            public int compare(ItineraryStage a, ItineraryStage b) {
+                return Integer.compare(a.getStageNum(), b.getStageNum());
+            }
+        });
+        stages = new ItineraryStage[sorted.size() + 1];
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).getStageNum() != i + 1) {
+                throw new IllegalArgumentException("Stages must be numbered 1 to " + sorted.size()
+                        + ", found stage " + sorted.get(i).getStageNum());
+            }
+            stages[i + 1] = sorted.get(i);
+        }
+    }
+
+    // Method to return the number of stages
+    public int getStageCount() {
+        return stages.length - 1;
+    }
+
+    // Method to return the stage with the given number, or null if there isn't one
+    public ItineraryStage getStage(int stageNum) {
+        if (stageNum < 1 || stageNum >= stages.length) {
+            return null;
+        }
+        return stages[stageNum];
+    }
+
+    // Method to return every stage in order
+    public List<ItineraryStage> getStages() {
+        List<ItineraryStage> list = new ArrayList<>(stages.length - 1);
+        for (int stageNum = 1; stageNum < stages.length; stageNum++) {
+            list.add(stages[stageNum]);
+        }
+        return list;
+    }
+
+    // Method to return the target time of each stage in order, starting at stage 1, as
+    // used by StageTimeCalculator
+    public int[] getTargetTimes() {
+        int[] targetTimes = new int[stages.length - 1];
+        for (int i = 0; i < targetTimes.length; i++) {
+            targetTimes[i] = stages[i + 1].getTargetTime();
+        }
+        return targetTimes;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.rallytimingapp.model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ItineraryParser {
+    // Reads an itinerary in CSV form, one stage per row, with an optional header row, eg
+    //     Stage,Name,Distance,Start Control,Next Control,Road Distance,Target Time
+    //     3,SS 3 Helena 1,13.51,TC 3,TC 4,46.07,50:00
+    // Distances are in kilometres and target times in minutes and seconds, as they are
+    // printed in a rally's itinerary. Fields are split the same way as an entry list's.
+    // An itinerary is only ever replaced as a whole, so one bad row means none of it is used.
+
+    private static final Pattern KILOMETRES = Pattern.compile("\\d{1,4}(\\.\\d{1,3})?");
+    private static final Pattern MINUTES = Pattern.compile("(\\d{1,3})(:(\\d{2}))?");
+
+    private final BufferedReader reader;
+    private final List<String> errors = new ArrayList<>();
+
+    public ItineraryParser(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    // Method to read every row and return the itinerary, or null if any row couldn't be
+    // read or the stages aren't numbered 1 to the number of stages, see getErrors
+    public Itinerary read() throws IOException {
+        List<ItineraryStage> stages = new ArrayList<>();
+        String line;
+        int lineNum = 0;
+        boolean firstRow = true;
+        while ((line = reader.readLine()) != null) {
+            lineNum++;
+            // A byte order mark at the start of the file isn't part of the first field
+            if (lineNum == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+
+            List<String> fields = EntryListParser.split(line);
+            if (fields == null) {
+                errors.add("Line " + lineNum + ": Missing closing quote");
+                continue;
+            }
+            // A header row is one that doesn't start with a stage number
+            if (firstRow) {
+                firstRow = false;
+                if (!fields.get(0).isEmpty() && !Character.isDigit(fields.get(0).charAt(0))) {
+                    continue;
+                }
+            }
+            ItineraryStage stage = readStage(fields, lineNum);
+            if (stage != null) {
+                stages.add(stage);
+            }
+        }
+
+        if (errors.isEmpty() && stages.isEmpty()) {
+            errors.add("No stages found");
+        }
+        if (!errors.isEmpty()) {
+            return null;
+        }
+        try {
+            return new Itinerary(stages);
+        } catch (IllegalArgumentException e) {
+            errors.add(e.getMessage());
+            return null;
+        }
+    }
+
+    // Method to return why the itinerary couldn't be read, one message for each problem
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    // Method to make a stage from the fields of a row, or add an error and return null if
+    // one of them isn't right
+    private ItineraryStage readStage(List<String> fields, int lineNum) {
+        String stageNum = field(fields, 0);
+        String name = field(fields, 1);
+        int distance = toMetres(field(fields, 2));
+        String startControl = field(fields, 3);
+        String nextControl = field(fields, 4);
+        int roadDistance = toMetres(field(fields, 5));
+        int targetTime = toMs(field(fields, 6));
+
+        String error = null;
+        if (!stageNum.matches("\\d{1,3}") || Integer.parseInt(stageNum) == 0) {
+            error = "Stage number \"" + stageNum + "\" is not a number above 0";
+        } else if (name.isEmpty()) {
+            error = "Missing stage name";
+        } else if (distance <= 0) {
+            error = "Distance \"" + field(fields, 2) + "\" is not a number of km";
+        } else if (startControl.isEmpty()) {
+            error = "Missing start control";
+        } else if (nextControl.isEmpty()) {
+            error = "Missing next control";
+        } else if (roadDistance < distance) {
+            error = "Road distance \"" + field(fields, 5) + "\" is not a number of km at least the stage distance";
+        } else if (targetTime <= 0) {
+            error = "Target time \"" + field(fields, 6) + "\" is not a time in minutes, eg 50:00";
+        }
+        if (error != null) {
+            errors.add("Line " + lineNum + ": " + error);
+            return null;
+        }
+        return new ItineraryStage(Integer.parseInt(stageNum), name, distance, startControl, nextControl,
+                roadDistance, targetTime);
+    }
+
+    private static String field(List<String> fields, int i) {
+        return i < fields.size() ? fields.get(i) : "";
+    }
+
+    // Method to turn a distance in kilometres into metres, or -1 if it isn't a distance
+    private static int toMetres(String text) {
+        if (!KILOMETRES.matcher(text).matches()) {
+            return -1;
+        }
+        return (int) Math.round(Double.parseDouble(text) * 1000);
+    }
+
+    // Method to turn a time in minutes, with or without seconds, into milliseconds, or
+    // -1 if it isn't a time
+    private static int toMs(String text) {
+        Matcher matcher = MINUTES.matcher(text);
+        if (!matcher.matches()) {
+            return -1;
+        }
+        int seconds = matcher.group(3) == null ? 0 : Integer.parseInt(matcher.group(3));
+        if (seconds >= 60) {
+            return -1;
+        }
+        return Integer.parseInt(matcher.group(1)) * RallyTime.MS_PER_MINUTE + seconds * RallyTime.MS_PER_SECOND;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.rallytimingapp.model;
+
+public class ItineraryStage {
+    // Object for each stage in the itinerary of the rally, with the road section that
+    // follows it to the next time control
+
+    private int stageNum; // Stage number, counting from 1
+    private String name; // Name of the stage, eg SS 3 Helena 1
+    private int distance; // Length of the stage, in metres
+    private String startControl; // Time control before the stage start, eg TC 3
+    private String nextControl; // Time control at the end of the road section after the stage
+    private int roadDistance; // Distance from the stage start to the next time control, in metres
+    private int targetTime; // Target time from the stage start to the next time control, in milliseconds
+
+    public ItineraryStage() {
+    }
+
+    public ItineraryStage(int stageNum, String name, int distance, String startControl,
+                          String nextControl, int roadDistance, int targetTime) {
+        this.stageNum = stageNum;
+        this.name = name;
+        this.distance = distance;
+        this.startControl = startControl;
+        this.nextControl = nextControl;
+        this.roadDistance = roadDistance;
+        this.targetTime = targetTime;
+    }
+
+    // Method to return the average speed needed to reach the next time control on time,
+    // in km/h, or 0 if there is no target time
+    public double getAverageSpeed() {
+        if (targetTime <= 0) {
+            return 0;
+        }
+        return roadDistance * (double) RallyTime.MS_PER_HOUR / targetTime / 1000;
+    }
+
+    // Getters and setters for each parameter
+    public int getStageNum() {
+        return stageNum;
+    }
+
+    public void setStageNum(int stageNum) {
+        this.stageNum = stageNum;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+
+    public void setDistance(int distance) {
+        this.distance = distance;
+    }
+
+    public String getStartControl() {
+        return startControl;
+    }
+
+    public void setStartControl(String startControl) {
+        this.startControl = startControl;
+    }
+
+    public String getNextControl() {
+        return nextControl;
+    }
+
+    public void setNextControl(String nextControl) {
+        this.nextControl = nextControl;
+    }
+
+    public int getRoadDistance() {
+        return roadDistance;
+    }
+
+    public void setRoadDistance(int roadDistance) {
+        this.roadDistance = roadDistance;
+    }
+
+    public int getTargetTime() {
+        return targetTime;
+    }
+
+    public void setTargetTime(int targetTime) {
+        this.targetTime = targetTime;
+    }
+}
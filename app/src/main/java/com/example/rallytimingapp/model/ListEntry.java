@@ -0,0 +1,22 @@
+package com.example.rallytimingapp.model;
+
+public class ListEntry {
+    // Object for one line of a list screen, the ID of the database entry it stands for
+    // and the name shown for it
+
+    private final int id; // Unique ID of the database entry
+    private final String name; // Name shown in the list
+
+    public ListEntry(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.rallytimingapp.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PageCache<T> {
+    // Holds the pages of a long list that have been loaded so far, so only a few pages are
+    // ever kept in memory however long the list is. The page used least recently is dropped
+    // when a new one is added, and will be loaded again if it is needed.
+
+    private final int pageSize; // Number of rows in each page
+    private final Map<Integer, List<T>> pages; // Loaded pages by page number, least recently used first
+
+    public PageCache(int pageSize, final int maxPages) {
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<Integer, List<T>>(maxPages + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    // Method to return the page number holding the given position
+    public int pageOf(int position) {
+        return position / pageSize;
+    }
+
+    // Method to return the row at the given position, or null if its page isn't loaded
+    public T get(int position) {
+        List<T> page = pages.get(pageOf(position));
+        int index = position % pageSize;
+        if (page == null || index >= page.size()) {
+            return null;
+        }
+        return page.get(index);
+    }
+
+    public boolean hasPage(int page) {
+        return pages.containsKey(page);
+    }
+
+    // Method to save a page once it has been loaded
+    public void putPage(int page, List<T> rows) {
+        pages.put(page, rows);
+    }
+
+    // Method to drop every page, eg when the list has changed
+    public void clear() {
+        pages.clear();
+    }
+
+    // Method to return the number of pages held
+    public int size() {
+        return pages.size();
+    }
+}
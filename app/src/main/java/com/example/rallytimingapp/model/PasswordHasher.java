@@ -0,0 +1,120 @@
+package com.example.rallytimingapp.model;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+public class PasswordHasher {
+    // Turns passwords into salted PBKDF2 hashes to save instead of the passwords themselves,
+    // and checks a password against a saved hash. A hash is saved as
+    //     pbkdf2$<iterations>$<salt in hex>$<hash in hex>
+    // so the cost can be raised later without making the saved hashes unreadable. Hashes
+    // made with fewer iterations than the current cost should be made again when the
+    // password is next given, see needsRehash. Anything else saved is taken to be a
+    // password from before hashing was added, and is compared as it is.
+
+    // Iterations used unless another cost is given. Each login takes roughly this many
+    // HMAC-SHA1 runs, a few tens of milliseconds on a phone.
+    public static final int DEFAULT_ITERATIONS = 10000;
+
+    private static final String PREFIX = "pbkdf2$";
+    // SHA1 is the only PBKDF2 digest on every Android version the app runs on
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA1";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 160;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Iterations must be at least 1");
+        }
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    // Method to return the hash to save for a password, with a new salt
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return PREFIX + iterations + "$" + toHex(salt) + "$" + toHex(pbkdf2(password, salt, iterations));
+    }
+
+    // Method to return true if the password matches the saved hash
+    public boolean verify(String password, String saved) {
+        if (password == null || saved == null) {
+            return false;
+        }
+        if (!saved.startsWith(PREFIX)) {
+            return MessageDigest.isEqual(password.getBytes(), saved.getBytes());
+        }
+        String[] parts = saved.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int savedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = fromHex(parts[2]);
+            byte[] hash = fromHex(parts[3]);
+            // Compare every byte, so the time taken doesn't say how much of it matched
+            return savedIterations > 0 && MessageDigest.isEqual(hash, pbkdf2(password, salt, savedIterations));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Method to return true if the saved hash should be made again at the current cost
+    public boolean needsRehash(String saved) {
+        if (saved == null || !saved.startsWith(PREFIX)) {
+            return true;
+        }
+        String[] parts = saved.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] fromHex(String hex) {
+        if (hex.length() % 2 != 0) {
+            throw new IllegalArgumentException("Odd length hex");
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException("Not hex");
+            }
+            bytes[i] = (byte) (high << 4 | low);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.rallytimingapp.model;
+
+public class PenaltyCalculator {
+    // Works out the road penalty for checking in early or late at a time control, from the
+    // actual time and due time on a car's entry for the stage before it. Timecards are
+    // marked to the minute, so a car checking in at any point in its due minute is on time
+    // and only whole minutes early or late are counted. A car more than the maximum lateness
+    // behind is out of time and excluded from the rally.
+
+    // Penalties used unless others are given
+    public static final int DEFAULT_EARLY_PENALTY = RallyTime.MS_PER_MINUTE; // For each minute early
+    public static final int DEFAULT_LATE_PENALTY = 10 * RallyTime.MS_PER_SECOND; // For each minute late
+    public static final int DEFAULT_MAX_LATENESS = 15 * RallyTime.MS_PER_MINUTE;
+
+    private final int earlyPenalty; // Penalty for each minute early
+    private final int latePenalty; // Penalty for each minute late
+    private final int maxLateness; // Lateness after which a car is excluded, or NO_TIME for no limit
+
+    public PenaltyCalculator() {
+        this(DEFAULT_EARLY_PENALTY, DEFAULT_LATE_PENALTY, DEFAULT_MAX_LATENESS);
+    }
+
+    public PenaltyCalculator(int earlyPenalty, int latePenalty, int maxLateness) {
+        this.earlyPenalty = earlyPenalty;
+        this.latePenalty = latePenalty;
+        this.maxLateness = maxLateness;
+    }
+
+    // Method to return the whole minutes a car was late checking in, negative if it was early.
+    // Seconds are ignored on both times, and a check in just after midnight is compared with
+    // a due time just before it the short way round the clock. Returns 0 if either time is missing.
+    public static int getMinutesLate(int actualTime, int dueTime) {
+        if (actualTime == RallyTime.NO_TIME || dueTime == RallyTime.NO_TIME) {
+            return 0;
+        }
+        return StageTimeCalculator.getLateness(toMinute(actualTime), toMinute(dueTime)) / RallyTime.MS_PER_MINUTE;
+    }
+
+    // Method to return the penalty for checking in at the given time, in milliseconds
+    public int getPenalty(int actualTime, int dueTime) {
+        int minutesLate = getMinutesLate(actualTime, dueTime);
+        if (minutesLate < 0) {
+            return -minutesLate * earlyPenalty;
+        }
+        return minutesLate * latePenalty;
+    }
+
+    // Method to return whether checking in at the given time is over the maximum lateness
+    public boolean isExcluded(int actualTime, int dueTime) {
+        return maxLateness != RallyTime.NO_TIME
+                && getMinutesLate(actualTime, dueTime) * RallyTime.MS_PER_MINUTE > maxLateness;
+    }
+
+    // Method to return the penalty for a car's check in after the given stage
+    public int getPenalty(Stage stage) {
+        return getPenalty(stage.getActualTime(), stage.getDueTime());
+    }
+
+    // Method to return whether a car's check in after the given stage excludes it
+    public boolean isExcluded(Stage stage) {
+        return isExcluded(stage.getActualTime(), stage.getDueTime());
+    }
+
+    public int getEarlyPenalty() {
+        return earlyPenalty;
+    }
+
+    public int getLatePenalty() {
+        return latePenalty;
+    }
+
+    public int getMaxLateness() {
+        return maxLateness;
+    }
+
+    // Method to drop the seconds from a time, as the timecards only show the minute
+    private static int toMinute(int time) {
+        return time - time % RallyTime.MS_PER_MINUTE;
+    }
+}
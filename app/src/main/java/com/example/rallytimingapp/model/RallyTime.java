@@ -0,0 +1,109 @@
+package com.example.rallytimingapp.model;
+
+public final class RallyTime {
+    // Times are stored as whole milliseconds, either since midnight for a time of day
+    // or from the start of the stage for a stage time. The boxes on the timecards show
+    // hours, minutes, seconds and hundredths of a second.
+
+    // Value used when a time hasn't been filled in yet, stored as null in the database
+    public static final int NO_TIME = -1;
+
+    public static final int MS_PER_HUNDREDTH = 10;
+    public static final int MS_PER_SECOND = 1000;
+    public static final int MS_PER_MINUTE = 60 * MS_PER_SECOND;
+    public static final int MS_PER_HOUR = 60 * MS_PER_MINUTE;
+    public static final int MS_PER_DAY = 24 * MS_PER_HOUR;
+
+    // "00" to "99", so filling in a timecard box doesn't build a new string each time
+    private static final String[] TWO_DIGITS = new String[100];
+
+    static {
+        for (int i = 0; i < TWO_DIGITS.length; i++) {
+            TWO_DIGITS[i] = i < 10 ? "0" + i : String.valueOf(i);
+        }
+    }
+
+    private RallyTime() {
+    }
+
+    // Methods to return each part of a time, or -1 if there is no time
+    public static int getHours(int time) {
+        return time == NO_TIME ? NO_TIME : time / MS_PER_HOUR;
+    }
+
+    public static int getMinutes(int time) {
+        return time == NO_TIME ? NO_TIME : time / MS_PER_MINUTE % 60;
+    }
+
+    // Minutes of a stage time, which aren't wrapped at the hour
+    public static int getTotalMinutes(int time) {
+        return time == NO_TIME ? NO_TIME : time / MS_PER_MINUTE;
+    }
+
+    public static int getSeconds(int time) {
+        return time == NO_TIME ? NO_TIME : time / MS_PER_SECOND % 60;
+    }
+
+    public static int getHundredths(int time) {
+        return time == NO_TIME ? NO_TIME : time / MS_PER_HUNDREDTH % 100;
+    }
+
+    // Method to return the text for one timecard box, which is blank if there is no time
+    public static String toBox(int part) {
+        if (part < 0) {
+            return "";
+        }
+        if (part < TWO_DIGITS.length) {
+            return TWO_DIGITS[part];
+        }
+        return String.valueOf(part);
+    }
+
+    // Method to work out a time from the text in the timecard boxes. Empty boxes count as 0,
+    // unless all of them are empty, which means there is no time.
+    public static int fromBoxes(String h, String m, String s, String hundredths) {
+        if (isBlank(h) && isBlank(m) && isBlank(s) && isBlank(hundredths)) {
+            return NO_TIME;
+        }
+        return parsePart(h) * MS_PER_HOUR + parsePart(m) * MS_PER_MINUTE
+                + parsePart(s) * MS_PER_SECOND + parsePart(hundredths) * MS_PER_HUNDREDTH;
+    }
+
+    // Method to read a time of day saved in the old "HH:MM" or "HH:MM:SS:MS" text format
+    public static int parseTimeOfDay(String text) {
+        if (text == null) {
+            return NO_TIME;
+        }
+        String[] parts = text.split(":", -1);
+        return fromBoxes(parts[0], part(parts, 1), part(parts, 2), part(parts, 3));
+    }
+
+    // Method to read a stage time saved in the old "MM:SS:MS" text format
+    public static int parseStageTime(String text) {
+        if (text == null) {
+            return NO_TIME;
+        }
+        String[] parts = text.split(":", -1);
+        return fromBoxes("", parts[0], part(parts, 1), part(parts, 2));
+    }
+
+    private static String part(String[] parts, int i) {
+        return i < parts.length ? parts[i] : "";
+    }
+
+    private static boolean isBlank(String text) {
+        return text == null || text.trim().isEmpty();
+    }
+
+    // Anything that isn't a number is treated as an empty box
+    private static int parsePart(String text) {
+        if (isBlank(text)) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
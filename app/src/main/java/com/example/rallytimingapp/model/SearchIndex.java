@@ -0,0 +1,160 @@
+package com.example.rallytimingapp.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class SearchIndex {
+    // Finds the entries of a list screen whose fields contain some search text, without
+    // going through every entry. Every piece of up to three letters in each field is
+    // indexed, so a search only looks at the entries sharing the rarest piece of the search
+    // text, then checks those few properly. Matches ignore case, as the list search always has.
+
+    private static final int GRAM = 3; // Longest piece of text indexed
+
+    // Entries are listed by name, then in the order they were added
+    private static final Comparator<Item> NAME_ORDER = new Comparator<Item>() {
+        @Override
+        public int compare(Item a, Item b) {
+            int byName = a.name.compareTo(b.name);
+            return byName != 0 ? byName : Integer.compare(a.id, b.id);
+        }
+    };
+
+    private final Map<Integer, Item> items = new HashMap<>(); // Entries by ID
+    private final Map<String, Set<Integer>> grams = new HashMap<>(); // IDs of the entries containing each piece of text
+
+    // Object for one entry in the index
+    private static class Item {
+        private final int id;
+        private final String name; // Name shown in the list
+        private final String[] fields; // Lower case text that can be searched
+
+        private Item(int id, String name, String[] fields) {
+            this.id = id;
+            this.name = name;
+            this.fields = fields;
+        }
+
+        private boolean contains(String text) {
+            for (String field : fields) {
+                if (field.contains(text)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Method to add an entry, or replace it if there is already one with the same ID. The
+    // name is shown in the list, and the search text is matched against each of the fields.
+    public void put(int id, String name, String... fields) {
+        remove(id);
+        String[] lowerFields = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            lowerFields[i] = fields[i] == null ? "" : fields[i].toLowerCase(Locale.ROOT);
+        }
+        Item item = new Item(id, name == null ? "" : name, lowerFields);
+        items.put(id, item);
+        for (String gram : gramsOf(item)) {
+            Set<Integer> ids = grams.get(gram);
+            if (ids == null) {
+                ids = new HashSet<>();
+                grams.put(gram, ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    // Method to take an entry out of the index
+    public void remove(int id) {
+        Item item = items.remove(id);
+        if (item == null) {
+            return;
+        }
+        for (String gram : gramsOf(item)) {
+            Set<Integer> ids = grams.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        items.clear();
+        grams.clear();
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    // Method to return the IDs of the entries with a field containing the search text, in
+    // name order. Empty search text matches every entry.
+    public List<Integer> search(String text) {
+        String query = text == null ? "" : text.toLowerCase(Locale.ROOT);
+        List<Item> matches = new ArrayList<>();
+        if (query.isEmpty()) {
+            matches.addAll(items.values());
+        } else {
+            Set<Integer> candidates = candidates(query);
+            for (Integer id : candidates) {
+                Item item = items.get(id);
+                // Sharing one piece doesn't always mean containing the whole text
+                if (query.length() <= GRAM || item.contains(query)) {
+                    matches.add(item);
+                }
+            }
+        }
+
+        Collections.sort(matches, NAME_ORDER);
+        List<Integer> results = new ArrayList<>(matches.size());
+        for (Item item : matches) {
+            results.add(item.id);
+        }
+        return results;
+    }
+
+    // Method to return the IDs of the entries that might contain the search text. Short text
+    // is a piece on its own, so those entries are exact matches.
+    private Set<Integer> candidates(String query) {
+        if (query.length() <= GRAM) {
+            Set<Integer> ids = grams.get(query);
+            return ids == null ? Collections.<Integer>emptySet() : ids;
+        }
+        // Only the entries sharing the piece found in the fewest entries need checking
+        Set<Integer> smallest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Set<Integer> ids = grams.get(query.substring(i, i + GRAM));
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        return smallest;
+    }
+
+    // Method to return every piece of one to three letters in the fields of an entry
+    private static Set<String> gramsOf(Item item) {
+        Set<String> found = new HashSet<>();
+        for (String field : item.fields) {
+            for (int i = 0; i < field.length(); i++) {
+                for (int len = 1; len <= GRAM && i + len <= field.length(); len++) {
+                    found.add(field.substring(i, i + len));
+                }
+            }
+        }
+        return found;
+    }
+}
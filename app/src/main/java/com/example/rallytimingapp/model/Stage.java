@@ -2,17 +2,18 @@ package com.example.rallytimingapp.model;
 
 public class Stage {
     // Object for each entry to Stage database
+    // All the times are in milliseconds, see RallyTime, and are NO_TIME until they are filled in
 
     private int stageId; // Unique ID for this database
     private int carNum; // Car number
     private int stageNum; // Stage number
     private int startOrder; // Start Order for the stage
-    private String provStart; // Provisional start time
-    private String actualStart; // Actual start time
-    private String finishTime; // Finish time
-    private String stageTime; // Stage time
-    private String actualTime; // Actual time
-    private String dueTime; // Due time
+    private int provStart = RallyTime.NO_TIME; // Provisional start time
+    private int actualStart = RallyTime.NO_TIME; // Actual start time
+    private int finishTime = RallyTime.NO_TIME; // Finish time
+    private int stageTime = RallyTime.NO_TIME; // Stage time
+    private int actualTime = RallyTime.NO_TIME; // Actual time
+    private int dueTime = RallyTime.NO_TIME; // Due time
 
     // Getters and setters for each parameter
     public int getStageId() {
@@ -47,235 +48,156 @@ public class Stage {
         this.startOrder = startOrder;
     }
 
-    public String getProvStart() {
+    public int getProvStart() {
         return provStart;
     }
 
-    // Split the provisional start string to get only the hours portion
+    // Get the hours portion of the provisional start time, for its timecard box
     public String getProvStartH() {
-        if(provStart.contains(":")) {
-            String[] provStartSplit = provStart.split(":");
-            return provStartSplit[0];
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getHours(provStart));
     }
 
-    // Split the provisional start string to get only the minutes portion
+    // Get the minutes portion of the provisional start time, for its timecard box
     public String getProvStartM() {
-        if(provStart.contains(":")) {
-            String[] provStartSplit = provStart.split(":");
-            if (provStartSplit.length > 1) {
-                return provStartSplit[1];
-            }
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getMinutes(provStart));
     }
 
-    public void setProvStart(String provStart) {
+    public void setProvStart(int provStart) {
         this.provStart = provStart;
     }
 
     // Set the provisional start time, with the given hours and minutes
     public void setProvStart(String h, String m) {
-        this.provStart = h + ":" + m;
+        this.provStart = RallyTime.fromBoxes(h, m, "", "");
     }
 
-    public String getActualStart() {
+    public int getActualStart() {
         return actualStart;
     }
 
-    // Split the actual start string to get only the hours portion
+    // Get the hours portion of the actual start time, for its timecard box
     public String getActualStartH() {
-        if(actualStart.contains(":")) {
-            String[] actualStartSplit = actualStart.split(":");
-            return actualStartSplit[0];
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getHours(actualStart));
     }
 
-    // Split the actual start string to get only the minutes portion
+    // Get the minutes portion of the actual start time, for its timecard box
     public String getActualStartM() {
-        if(actualStart.contains(":")) {
-            String[] actualStartSplit = actualStart.split(":");
-            if (actualStartSplit.length > 1) {
-                return actualStartSplit[1];
-            }
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getMinutes(actualStart));
     }
 
-    public void setActualStart(String actualStart) {
+    public void setActualStart(int actualStart) {
         this.actualStart = actualStart;
     }
 
     // Set the actual start time, with the given hours and minutes
     public void setActualStart(String h, String m) {
-        this.actualStart = h + ":" + m;
+        this.actualStart = RallyTime.fromBoxes(h, m, "", "");
     }
 
-    public String getFinishTime() {
+    public int getFinishTime() {
         return finishTime;
     }
 
-    // Split the finish time string to get only the hours portion
+    // Get the hours portion of the finish time, for its timecard box
     public String getFinishTimeH() {
-        if(finishTime.contains(":")) {
-            String[] finishTimeSplit = finishTime.split(":");
-            return finishTimeSplit[0];
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getHours(finishTime));
     }
 
-    // Split the finish time string to get only the minutes portion
+    // Get the minutes portion of the finish time, for its timecard box
     public String getFinishTimeM() {
-        if(finishTime.contains(":")) {
-            String[] finishTimeSplit = finishTime.split(":");
-            if (finishTimeSplit.length > 1) {
-                return finishTimeSplit[1];
-            }
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getMinutes(finishTime));
     }
 
-    // Split the finish time string to get only the seconds portion
+    // Get the seconds portion of the finish time, for its timecard box
     public String getFinishTimeS() {
-        if(finishTime.contains(":")) {
-            String[] finishTimeSplit = finishTime.split(":");
-            if (finishTimeSplit.length > 2) {
-                return finishTimeSplit[2];
-            }
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getSeconds(finishTime));
     }
 
-    // Split the finish time string to get only the milliseconds portion
+    // Get the hundredths of a second of the finish time, for its timecard box
     public String getFinishTimeMS() {
-        if(finishTime.contains(":")) {
-            String[] finishTimeSplit = finishTime.split(":");
-            if (finishTimeSplit.length > 3) {
-                return finishTimeSplit[3];
-            }
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getHundredths(finishTime));
     }
 
-    public void setFinishTime(String finishTime) {
+    public void setFinishTime(int finishTime) {
         this.finishTime = finishTime;
     }
 
-    // Set the finish time, with the given hours, minutes, seconds and milliseconds
+    // Set the finish time, with the given hours, minutes, seconds and hundredths
     public void setFinishTime(String h, String m, String s, String ms) {
-        this.finishTime = h + ":" + m + ":" + s + ":" + ms;
+        this.finishTime = RallyTime.fromBoxes(h, m, s, ms);
     }
 
-    public String getStageTime() {
+    public int getStageTime() {
         return stageTime;
     }
 
-    // Split the stage time string to get only the minutes portion
-    // Set the provisional start time, with the given hours and minutes
+    // Get the minutes portion of the stage time, for its timecard box
     public String getStageTimeM() {
-        if(stageTime.contains(":")) {
-            String[] stageTimeSplit = stageTime.split(":");
-            return stageTimeSplit[0];
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getTotalMinutes(stageTime));
     }
 
-    // Split the stage time string to get only the seconds portion
+    // Get the seconds portion of the stage time, for its timecard box
     public String getStageTimeS() {
-        if(stageTime.contains(":")) {
-            String[] stageTimeSplit = stageTime.split(":");
-            if (stageTimeSplit.length > 1) {
-                return stageTimeSplit[1];
-            }
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getSeconds(stageTime));
     }
 
-    // Split the stage time string to get only the milliseconds portion
+    // Get the hundredths of a second of the stage time, for its timecard box
     public String getStageTimeMS() {
-        if(stageTime.contains(":")) {
-            String[] stageTimeSplit = stageTime.split(":");
-            if (stageTimeSplit.length > 2) {
-                return stageTimeSplit[2];
-            }
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getHundredths(stageTime));
     }
 
-    public void setStageTime(String stageTime) {
+    public void setStageTime(int stageTime) {
         this.stageTime = stageTime;
     }
 
-    // Set the stage time, with the given minutes, seconds and milliseconds
+    // Set the stage time, with the given minutes, seconds and hundredths
     public void setStageTime(String m, String s, String ms) {
-        this.stageTime = m + ":" + s + ":" + ms;
+        this.stageTime = RallyTime.fromBoxes("", m, s, ms);
     }
 
-    public String getActualTime() {
+    public int getActualTime() {
         return actualTime;
     }
 
-    // Split the actual time string to get only the hours portion
+    // Get the hours portion of the actual time, for its timecard box
     public String getActualTimeH() {
-        if(actualTime.contains(":")) {
-            String[] actualTimeSplit = actualTime.split(":");
-            return actualTimeSplit[0];
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getHours(actualTime));
     }
 
-    // Split the actual time string to get only the minutes portion
+    // Get the minutes portion of the actual time, for its timecard box
     public String getActualTimeM() {
-        if(actualTime.contains(":")) {
-            String[] actualTimeSplit = actualTime.split(":");
-            if (actualTimeSplit.length > 1) {
-                return actualTimeSplit[1];
-            }
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getMinutes(actualTime));
     }
 
-    public void setActualTime(String actualTime) {
+    public void setActualTime(int actualTime) {
         this.actualTime = actualTime;
     }
 
     // Set the actual time, with the given hours and minutes
     public void setActualTime(String h, String m) {
-        this.actualTime = h + ":" + m;
+        this.actualTime = RallyTime.fromBoxes(h, m, "", "");
     }
 
-    public String getDueTime() {
+    public int getDueTime() {
         return dueTime;
     }
 
-    // Split the due time string to get only the hours portion
+    // Get the hours portion of the due time, for its timecard box
     public String getDueTimeH() {
-        if(dueTime.contains(":")) {
-            String[] dueTimeSplit = dueTime.split(":");
-            return dueTimeSplit[0];
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getHours(dueTime));
     }
 
-    // Split the due time string to get only the minutes portion
+    // Get the minutes portion of the due time, for its timecard box
     public String getDueTimeM() {
-        if(dueTime.contains(":")) {
-            String[] dueTimeSplit = dueTime.split(":");
-            if (dueTimeSplit.length > 1) {
-                return dueTimeSplit[1];
-            }
-        }
-        return "";
+        return RallyTime.toBox(RallyTime.getMinutes(dueTime));
     }
 
-    public void setDueTime(String dueTime) {
+    public void setDueTime(int dueTime) {
         this.dueTime = dueTime;
     }
 
     // Set the due time, with the given hours and minutes
     public void setDueTime(String h, String m) {
-        this.dueTime = h + ":" + m;
+        this.dueTime = RallyTime.fromBoxes(h, m, "", "");
     }
 }
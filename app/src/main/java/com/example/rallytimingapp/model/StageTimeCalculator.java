@@ -0,0 +1,94 @@
+package com.example.rallytimingapp.model;
+
+public class StageTimeCalculator {
+    // Works out the times on a timecard that follow from the others, so they don't
+    // have to be typed in by hand. All times are in milliseconds, see RallyTime.
+
+    // Gap between checking in at a time control and the provisional start of the stage
+    public static final int START_GAP = 3 * RallyTime.MS_PER_MINUTE;
+
+    private final int[] targetTimes; // Target time from each stage start to the next time control
+
+    // The target times are given in stage order, starting at stage 1
+    public StageTimeCalculator(int[] targetTimes) {
+        this.targetTimes = targetTimes.clone();
+    }
+
+    // Method to return the target time for the given stage, or NO_TIME if it isn't known
+    public int getTargetTime(int stageNum) {
+        if (stageNum < 1 || stageNum > targetTimes.length) {
+            return RallyTime.NO_TIME;
+        }
+        return targetTimes[stageNum - 1];
+    }
+
+    // Method to fill in the stage time and due time of one stage entry from its start and
+    // finish times. Only the given entry is touched, and times that can't be worked out yet
+    // are left as they are. Returns true if anything changed.
+    public boolean recompute(Stage stage) {
+        boolean changed = false;
+
+        int stageTime = getStageTime(stage.getActualStart(), stage.getFinishTime());
+        if (stageTime != RallyTime.NO_TIME && stageTime != stage.getStageTime()) {
+            stage.setStageTime(stageTime);
+            changed = true;
+        }
+
+        int dueTime = getDueTime(stage.getActualStart(), getTargetTime(stage.getStageNum()));
+        if (dueTime != RallyTime.NO_TIME && dueTime != stage.getDueTime()) {
+            stage.setDueTime(dueTime);
+            changed = true;
+        }
+        return changed;
+    }
+
+    // Method to return the time taken from the start to the finish of a stage,
+    // allowing for a stage that runs past midnight
+    public static int getStageTime(int actualStart, int finishTime) {
+        if (actualStart == RallyTime.NO_TIME || finishTime == RallyTime.NO_TIME) {
+            return RallyTime.NO_TIME;
+        }
+        return wrapDay(finishTime - actualStart);
+    }
+
+    // Method to return the time a car is due at the next time control
+    public static int getDueTime(int actualStart, int targetTime) {
+        if (actualStart == RallyTime.NO_TIME || targetTime == RallyTime.NO_TIME) {
+            return RallyTime.NO_TIME;
+        }
+        return wrapDay(actualStart + targetTime);
+    }
+
+    // Method to return the provisional start time of a stage from the time the car
+    // checked in at the time control before it
+    public static int getProvisionalStart(int actualTime) {
+        if (actualTime == RallyTime.NO_TIME) {
+            return RallyTime.NO_TIME;
+        }
+        return wrapDay(actualTime + START_GAP);
+    }
+
+    // Method to return how late a car checked in at the time control after the given stage.
+    // A negative value means the car was early, and 0 is returned if either time is missing.
+    public static int getLateness(Stage stage) {
+        return getLateness(stage.getActualTime(), stage.getDueTime());
+    }
+
+    // Method to return how late the actual time is compared with the due time. Time controls
+    // are within a few hours of each other, so the shorter way round the clock is used.
+    public static int getLateness(int actualTime, int dueTime) {
+        if (actualTime == RallyTime.NO_TIME || dueTime == RallyTime.NO_TIME) {
+            return 0;
+        }
+        int lateness = wrapDay(actualTime - dueTime);
+        if (lateness >= RallyTime.MS_PER_DAY / 2) {
+            lateness -= RallyTime.MS_PER_DAY;
+        }
+        return lateness;
+    }
+
+    // Method to bring a time back into a single day
+    private static int wrapDay(int time) {
+        return ((time % RallyTime.MS_PER_DAY) + RallyTime.MS_PER_DAY) % RallyTime.MS_PER_DAY;
+    }
+}
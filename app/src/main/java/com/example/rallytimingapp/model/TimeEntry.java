@@ -0,0 +1,154 @@
+package com.example.rallytimingapp.model;
+
+public class TimeEntry {
+    // Holds the digits typed into the boxes of one time on a timecard, eg the hours, minutes,
+    // seconds and hundredths of a finish time. Each digit goes in the box at the cursor. Once
+    // a box has both its digits it is checked against the largest value the box can hold,
+    // then the cursor moves on to the next box. The first digit typed in a box the cursor has
+    // just moved to starts it again. The time is worked out from the values of the boxes, so
+    // typing never builds a string.
+
+    // Kinds of box a time is made of
+    public static final int HOURS = 0;
+    public static final int MINUTES = 1;
+    public static final int SECONDS = 2;
+    public static final int HUNDREDTHS = 3;
+
+    // The boxes of each kind of time on the timecards
+    public static final int[] TIME_OF_DAY = {HOURS, MINUTES};
+    public static final int[] FINISH_TIME = {HOURS, MINUTES, SECONDS, HUNDREDTHS};
+    public static final int[] STAGE_TIME = {MINUTES, SECONDS, HUNDREDTHS};
+
+    // Largest value, and length in milliseconds, of each kind of box
+    private static final int[] MAX_VALUES = {23, 59, 59, 99};
+    private static final int[] UNITS = {RallyTime.MS_PER_HOUR, RallyTime.MS_PER_MINUTE,
+            RallyTime.MS_PER_SECOND, RallyTime.MS_PER_HUNDREDTH};
+
+    // What happened to a digit that was typed
+    public static final int TYPED = 0; // The box has room for another digit
+    public static final int BOX_FILLED = 1; // The box is full and the cursor moved to the next one
+    public static final int LAST_BOX_FILLED = 2; // The last box is full
+    public static final int INVALID = 3; // The box's value was too large, so it was cleared
+
+    private final int[] boxes; // Kind of each box, in order
+    private final int[] values; // Value of each box, or NO_TIME if it is empty
+    private final int[] digitCounts; // Number of digits typed in each box
+    private int cursor; // Box the next digit goes in
+    private boolean replacing; // Whether the next digit starts the box at the cursor again
+
+    public TimeEntry(int[] boxes) {
+        this.boxes = boxes.clone();
+        values = new int[boxes.length];
+        digitCounts = new int[boxes.length];
+        clear();
+    }
+
+    // Method to empty every box and move the cursor back to the first one
+    public void clear() {
+        for (int i = 0; i < boxes.length; i++) {
+            values[i] = RallyTime.NO_TIME;
+            digitCounts[i] = 0;
+        }
+        select(0);
+    }
+
+    // Method to fill in the boxes from a time, or empty them if there is no time. The first box
+    // isn't wrapped, so a stage time over an hour shows all its minutes.
+    public void setTime(int time) {
+        if (time == RallyTime.NO_TIME) {
+            clear();
+            return;
+        }
+        for (int i = 0; i < boxes.length; i++) {
+            int value = time / UNITS[boxes[i]];
+            if (i > 0) {
+                value %= UNITS[boxes[i - 1]] / UNITS[boxes[i]];
+            }
+            values[i] = value;
+            digitCounts[i] = 2;
+        }
+        select(0);
+    }
+
+    // Method to return the time in the boxes, where an empty box counts as 0, or NO_TIME if
+    // every box is empty
+    public int getTime() {
+        int time = 0;
+        boolean empty = true;
+        for (int i = 0; i < boxes.length; i++) {
+            if (values[i] != RallyTime.NO_TIME) {
+                time += values[i] * UNITS[boxes[i]];
+                empty = false;
+            }
+        }
+        return empty ? RallyTime.NO_TIME : time;
+    }
+
+    // Method to move the cursor to a box, so the next digit typed starts it again
+    public void select(int box) {
+        cursor = Math.max(0, Math.min(box, boxes.length - 1));
+        replacing = true;
+    }
+
+    // Method to put a digit from 0 to 9 in the box at the cursor, returning what happened
+    public int type(int digit) {
+        if (replacing || digitCounts[cursor] == 0) {
+            values[cursor] = digit;
+            digitCounts[cursor] = 1;
+            replacing = false;
+            return TYPED;
+        }
+        values[cursor] = values[cursor] * 10 + digit;
+        digitCounts[cursor] = 2;
+        if (values[cursor] > MAX_VALUES[boxes[cursor]]) {
+            values[cursor] = RallyTime.NO_TIME;
+            digitCounts[cursor] = 0;
+            return INVALID;
+        }
+        if (cursor == boxes.length - 1) {
+            replacing = true;
+            return LAST_BOX_FILLED;
+        }
+        select(cursor + 1);
+        return BOX_FILLED;
+    }
+
+    // Method to remove the last digit of the box at the cursor, or of the box before it if
+    // the cursor is on an empty box
+    public void delete() {
+        if (digitCounts[cursor] == 0 && cursor > 0) {
+            cursor--;
+        }
+        replacing = false;
+        if (digitCounts[cursor] == 2) {
+            values[cursor] /= 10;
+            digitCounts[cursor] = 1;
+        } else {
+            values[cursor] = RallyTime.NO_TIME;
+            digitCounts[cursor] = 0;
+        }
+    }
+
+    public int getBoxCount() {
+        return boxes.length;
+    }
+
+    // Method to return the kind of a box
+    public int getBox(int box) {
+        return boxes[box];
+    }
+
+    // Method to return the value of a box, or NO_TIME if it is empty
+    public int getValue(int box) {
+        return values[box];
+    }
+
+    // Method to return the number of digits typed in a box
+    public int getDigitCount(int box) {
+        return digitCounts[box];
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.rallytimingapp.model;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class TimecardCodec {
+    // Writes timecard updates in a compact binary form to pass between devices, and reads
+    // them back. The file starts with "RTC" and a version byte, then the number of updates,
+    // then the updates sorted by car, stage and field. Each update is written as
+    //     car number, as the gap from the previous update's car
+    //     stage number, as the gap from the previous stage if the car is the same
+    //     field
+    //     value + 1, so no time is written as 0
+    //     timestamp, a HybridClock reading, as the difference from the previous one
+    // using variable length integers of 7 bits a byte, so a whole timecard for a stage
+    // takes a couple of dozen bytes. Differences that can be negative are zigzag encoded.
+    // Streams should be buffered, as they are read and written a byte at a time.
+
+    private static final byte[] MAGIC = {'R', 'T', 'C'};
+    // Version 2 has clock readings for the timestamps rather than milliseconds
+    static final int VERSION = 2;
+
+    // Method to write the updates to the stream, sorted into timecard order
+    public static void write(OutputStream out, List<TimecardUpdate> updates) throws IOException {
+        List<TimecardUpdate> sorted = new ArrayList<>(updates);
+        Collections.sort(sorted, TimecardUpdate.TIMECARD_ORDER);
+
+        out.write(MAGIC);
+        out.write(VERSION);
+        writeVarint(out, sorted.size());
+        int carNum = 0;
+        int stageNum = 0;
+        long timestamp = 0;
+        for (TimecardUpdate update : sorted) {
+            int carGap = update.getCarNum() - carNum;
+            writeVarint(out, carGap);
+            writeVarint(out, carGap == 0 ? update.getStageNum() - stageNum : update.getStageNum());
+            out.write(update.getField());
+            writeVarint(out, update.getValue() + 1);
+            writeVarlong(out, zigzag(update.getTimestamp() - timestamp));
+            carNum = update.getCarNum();
+            stageNum = update.getStageNum();
+            timestamp = update.getTimestamp();
+        }
+    }
+
+    // Method to read back the updates written by write, in timecard order
+    public static List<TimecardUpdate> read(InputStream in) throws IOException {
+        for (byte b : MAGIC) {
+            if (readByte(in) != b) {
+                throw new IOException("Not a timecard file");
+            }
+        }
+        int version = readByte(in);
+        if (version != VERSION) {
+            throw new IOException("Unknown timecard file version " + version);
+        }
+        int count = readVarint(in);
+        // The count can't be trusted to size the list until the updates have been read
+        List<TimecardUpdate> updates = new ArrayList<>(Math.min(count, 1 << 16));
+        int carNum = 0;
+        int stageNum = 0;
+        long timestamp = 0;
+        for (int i = 0; i < count; i++) {
+            int carGap = readVarint(in);
+            carNum += carGap;
+            stageNum = carGap == 0 ? stageNum + readVarint(in) : readVarint(in);
+            int field = readByte(in);
+            if (field >= TimecardUpdate.FIELD_COUNT) {
+                throw new IOException("Unknown timecard field " + field);
+            }
+            int value = readVarint(in) - 1;
+            timestamp += unzigzag(readVarlong(in));
+            updates.add(new TimecardUpdate(carNum, stageNum, field, value, timestamp));
+        }
+        return updates;
+    }
+
+    // Method to write a number which is never negative, 7 bits at a time, lowest first
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        writeVarlong(out, value & 0xFFFFFFFFL);
+    }
+
+    static void writeVarlong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static int readVarint(InputStream in) throws IOException {
+        long value = readVarlong(in);
+        if (value > 0xFFFFFFFFL) {
+            throw new IOException("Number too large");
+        }
+        return (int) value;
+    }
+
+    static long readVarlong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Number too long");
+    }
+
+    // Method to map a signed number to one with no sign, keeping small numbers small
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Timecard file ends early");
+        }
+        return b;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.rallytimingapp.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TimecardLog {
+    // Holds the latest update to each field of each timecard, merging the updates from any
+    // number of devices. Updates can be added in any order and more than once, and the same
+    // set of updates always leaves the same values, see TimecardUpdate.supersedes.
+
+    private final Map<Long, TimecardUpdate> updates = new HashMap<>();
+
+    // Method to add an update, returning true if it replaced what was held for its field
+    public boolean add(TimecardUpdate update) {
+        Long key = key(update.getCarNum(), update.getStageNum(), update.getField());
+        TimecardUpdate held = updates.get(key);
+        if (held != null && !update.supersedes(held)) {
+            return false;
+        }
+        updates.put(key, update);
+        return true;
+    }
+
+    // Method to add every update in the list, returning the number which replaced what was held
+    public int addAll(List<TimecardUpdate> updateList) {
+        int added = 0;
+        for (TimecardUpdate update : updateList) {
+            if (add(update)) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    // Method to return the update held for a field, or null if it has never been set
+    public TimecardUpdate get(int carNum, int stageNum, int field) {
+        return updates.get(key(carNum, stageNum, field));
+    }
+
+    // Method to return every update held, in timecard order
+    public List<TimecardUpdate> getUpdates() {
+        List<TimecardUpdate> updateList = new ArrayList<>(updates.values());
+        Collections.sort(updateList, TimecardUpdate.TIMECARD_ORDER);
+        return updateList;
+    }
+
+    public int size() {
+        return updates.size();
+    }
+
+    // Method to return a key unique to one field of one timecard
+    private static long key(int carNum, int stageNum, int field) {
+        return ((long) carNum << 32) | ((long) stageNum << 8 & 0xFFFFFFFFL) | field;
+    }
+}
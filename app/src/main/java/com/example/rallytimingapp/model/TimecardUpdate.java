@@ -0,0 +1,152 @@
+package com.example.rallytimingapp.model;
+
+import java.util.Comparator;
+
+public class TimecardUpdate {
+    // Object for one field of one car's timecard for a stage, as it was set on one device,
+    // so the timecards can be passed between the Start, Finish and A Control phones.
+    // The value is a time in milliseconds, see RallyTime, except for the start order.
+
+    // Fields of a stage entry, in the order the timecard is filled in
+    public static final int START_ORDER = 0;
+    public static final int PROV_START = 1;
+    public static final int ACTUAL_START = 2;
+    public static final int FINISH_TIME = 3;
+    public static final int STAGE_TIME = 4;
+    public static final int ACTUAL_TIME = 5;
+    public static final int DUE_TIME = 6;
+    public static final int FIELD_COUNT = 7;
+
+    // Order updates by car, then stage, then field
+    public static final Comparator<TimecardUpdate> TIMECARD_ORDER = new Comparator<TimecardUpdate>() {
+        @Override
+        public int compare(TimecardUpdate a, TimecardUpdate b) {
+            if (a.carNum != b.carNum) {
+                return Integer.compare(a.carNum, b.carNum);
+            }
+            if (a.stageNum != b.stageNum) {
+                return Integer.compare(a.stageNum, b.stageNum);
+            }
+            return Integer.compare(a.field, b.field);
+        }
+    };
+
+    private final int carNum;
+    private final int stageNum;
+    private final int field;
+    private final int value;
+    private final long timestamp; // Clock reading of when the field was set, see HybridClock
+
+    public TimecardUpdate(int carNum, int stageNum, int field, int value, long timestamp) {
+        if (field < 0 || field >= FIELD_COUNT) {
+            throw new IllegalArgumentException("Unknown timecard field " + field);
+        }
+        this.carNum = carNum;
+        this.stageNum = stageNum;
+        this.field = field;
+        this.value = value;
+        this.timestamp = timestamp;
+    }
+
+    public int getCarNum() {
+        return carNum;
+    }
+
+    public int getStageNum() {
+        return stageNum;
+    }
+
+    public int getField() {
+        return field;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    // Method to return true if this update is for the same field of the same timecard as the other
+    public boolean sameField(TimecardUpdate other) {
+        return carNum == other.carNum && stageNum == other.stageNum && field == other.field;
+    }
+
+    // Method to return true if this update should replace the other, for the same field.
+    // The later one wins, and if both have the same clock reading the larger value does,
+    // so every device picks the same one whatever order they arrive in.
+    public boolean supersedes(TimecardUpdate other) {
+        return supersedes(timestamp, value, other.timestamp, other.value);
+    }
+
+    // Method to return true if a field set to one value at one clock reading should replace
+    // the same field set to another at another reading
+    public static boolean supersedes(long timestamp, int value, long otherTimestamp, int otherValue) {
+        if (timestamp != otherTimestamp) {
+            return timestamp > otherTimestamp;
+        }
+        return value > otherValue;
+    }
+
+    // Method to return true if the value is what a field holds before it is filled in
+    public static boolean isEmpty(int field, int value) {
+        return field == START_ORDER ? value == 0 : value == RallyTime.NO_TIME;
+    }
+
+    // Method to return the value of a field of a stage entry
+    public static int getField(Stage stage, int field) {
+        switch (field) {
+            case START_ORDER:
+                return stage.getStartOrder();
+            case PROV_START:
+                return stage.getProvStart();
+            case ACTUAL_START:
+                return stage.getActualStart();
+            case FINISH_TIME:
+                return stage.getFinishTime();
+            case STAGE_TIME:
+                return stage.getStageTime();
+            case ACTUAL_TIME:
+                return stage.getActualTime();
+            case DUE_TIME:
+                return stage.getDueTime();
+            default:
+                throw new IllegalArgumentException("Unknown timecard field " + field);
+        }
+    }
+
+    // Method to set a field of a stage entry
+    public static void setField(Stage stage, int field, int value) {
+        switch (field) {
+            case START_ORDER:
+                stage.setStartOrder(value);
+                break;
+            case PROV_START:
+                stage.setProvStart(value);
+                break;
+            case ACTUAL_START:
+                stage.setActualStart(value);
+                break;
+            case FINISH_TIME:
+                stage.setFinishTime(value);
+                break;
+            case STAGE_TIME:
+                stage.setStageTime(value);
+                break;
+            case ACTUAL_TIME:
+                stage.setActualTime(value);
+                break;
+            case DUE_TIME:
+                stage.setDueTime(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown timecard field " + field);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Car " + carNum + " stage " + stageNum + " field " + field + " = " + value + " at " + timestamp;
+    }
+}
@@ -5,78 +5,107 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 
 import com.example.rallytimingapp.model.AControl;
+import com.example.rallytimingapp.model.Start;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class AControlDatabaseHelper extends SQLiteOpenHelper {
-
-    // Database Version
-    private static final int DATABASE_VERSION = 4;
-
-    // Database Name
-    private static final String DATABASE_NAME = "AControlManager.db";
+public class AControlDatabaseHelper {
 
     // A Control table name
-    private static final String TABLE_ACONTROL = "acontrol";
+    static final String TABLE_ACONTROL = "acontrol";
 
     // A Control Table Columns names
-    private static final String COLUMN_AC_ID = "acontrol_id";
-    private static final String COLUMN_AC_SO = "acontrol_start_order";
-    private static final String COLUMN_AC_STAGE = "acontrol_stage";
-    private static final String COLUMN_AC_CARNUM = "acontrol_carNum";
-    private static final String COLUMN_AC_STAGE1ID = "acontrol_stage1_id";
-    private static final String COLUMN_AC_STAGE2ID = "acontrol_stage2_id";
+    static final String COLUMN_AC_ID = "acontrol_id";
+    static final String COLUMN_AC_SO = "acontrol_start_order";
+    static final String COLUMN_AC_STAGE = "acontrol_stage";
+    static final String COLUMN_AC_CARNUM = "acontrol_carNum";
+    static final String COLUMN_AC_STAGE1ID = "acontrol_stage1_id";
+    static final String COLUMN_AC_STAGE2ID = "acontrol_stage2_id";
 
     // Create table SQL query
-    private String CREATE_AC_TABLE = "CREATE TABLE " + TABLE_ACONTROL + "("
+    static final String CREATE_AC_TABLE = "CREATE TABLE " + TABLE_ACONTROL + "("
             + COLUMN_AC_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," + COLUMN_AC_SO + " INTEGER,"
-            + COLUMN_AC_STAGE + " INTEGER," + COLUMN_AC_CARNUM + " INTEGER," + COLUMN_AC_STAGE1ID
-            + " INTEGER," + COLUMN_AC_STAGE2ID + " INTEGER" + ")";
+            + COLUMN_AC_STAGE + " INTEGER," + COLUMN_AC_CARNUM + " INTEGER,"
+            + COLUMN_AC_STAGE1ID + " INTEGER" + StageDatabaseHelper.REFERENCES_STAGE + ","
+            + COLUMN_AC_STAGE2ID + " INTEGER" + StageDatabaseHelper.REFERENCES_STAGE + ")";
 
-    // Drop table SQL query
-    private String DROP_AC_TABLE = "DROP TABLE IF EXISTS " + TABLE_ACONTROL;
+    // Index names
+    static final String INDEX_AC_CAR = "index_acontrol_car_num";
+    static final String INDEX_AC_ORDER = "index_acontrol_start_order";
 
-    public AControlDatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
-    }
+    // Create index SQL queries, each car and each start order only appears once per stage
+    static final String CREATE_AC_CAR_INDEX = "CREATE UNIQUE INDEX " + INDEX_AC_CAR + " ON "
+            + TABLE_ACONTROL + "(" + COLUMN_AC_STAGE + "," + COLUMN_AC_CARNUM + ")";
+    static final String CREATE_AC_ORDER_INDEX = "CREATE UNIQUE INDEX " + INDEX_AC_ORDER + " ON "
+            + TABLE_ACONTROL + "(" + COLUMN_AC_STAGE + "," + COLUMN_AC_SO + ")";
 
-    @Override
-    public void onCreate(SQLiteDatabase db) {
-        db.execSQL(CREATE_AC_TABLE);
-    }
+    // Changes the start orders of this table, keeping them unique
+    private static final StartOrderSequencer SEQUENCER = new StartOrderSequencer(TABLE_ACONTROL, COLUMN_AC_STAGE, COLUMN_AC_SO,
+            COLUMN_AC_CARNUM, COLUMN_AC_STAGE2ID);
+
+    private final RallyDatabase rallyDatabase;
+    private final TimecardNavigator timecardNavigator;
+    private final StartDatabaseHelper startDatabaseHelper;
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL(DROP_AC_TABLE);
-        onCreate(db);
+    public AControlDatabaseHelper(Context context) {
+        rallyDatabase = RallyDatabase.getInstance(context);
+        timecardNavigator = TimecardNavigator.getInstance(context);
+        startDatabaseHelper = new StartDatabaseHelper(context);
     }
 
-    // Method to empty the database of all entries
+    // Method to empty the database of all entries, in a single statement
     public void empty() {
-        List<AControl> aControlList = getAllAControl();
-        for (int i = 0; i < aControlList.size(); i++) {
-            deleteAControl(aControlList.get(i));
-        }
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.delete(TABLE_ACONTROL, null, null);
+        OrderCounter.reset(db, TABLE_ACONTROL);
+        timecardNavigator.rosterChanged(TimecardNavigator.A_CONTROL);
     }
 
     // Method to add an entry to the database, takes an A Control object as a parameter
     public void addAControl(AControl aControl) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
 
         ContentValues values = new ContentValues();
         values.put(COLUMN_AC_SO, aControl.getStartOrder());
         values.put(COLUMN_AC_STAGE, aControl.getStage());
         values.put(COLUMN_AC_CARNUM, aControl.getCarNum());
-        values.put(COLUMN_AC_STAGE1ID, aControl.getStage1ID());
+        // Stage 1 has no previous stage, so store null rather than an ID that doesn't exist
+        if (aControl.getStage1ID() == 0) {
+            values.putNull(COLUMN_AC_STAGE1ID);
+        } else {
+            values.put(COLUMN_AC_STAGE1ID, aControl.getStage1ID());
+        }
         values.put(COLUMN_AC_STAGE2ID, aControl.getStage2ID());
 
         // Inserting Row
         db.insert(TABLE_ACONTROL, null, values);
-        db.close();
+        timecardNavigator.rosterChanged(TimecardNavigator.A_CONTROL, aControl.getStage());
+    }
+
+    // Method to add an entry at the end of the start order for its stage, unless the car is
+    // already there. The check, the new start order and the insert all happen in one
+    // transaction, so two cars checking in together can't get the same start order.
+    // Returns false if the car already had an entry.
+    public boolean addNextAControl(AControl aControl) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            if (checkAControl(aControl.getStage(), aControl.getCarNum())) {
+                return false;
+            }
+            aControl.setStartOrder(OrderCounter.next(db, TABLE_ACONTROL, COLUMN_AC_STAGE,
+                    COLUMN_AC_SO, aControl.getStage()));
+            addAControl(aControl);
+            db.setTransactionSuccessful();
+            return true;
+        } finally {
+            db.endTransaction();
+            // Again once the transaction is over, in case the roster was read in the meantime
+            timecardNavigator.rosterChanged(TimecardNavigator.A_CONTROL, aControl.getStage());
+        }
     }
 
     // Method to return the start order relating to the stage and car number given
@@ -85,7 +114,7 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_AC_SO
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_AC_STAGE + " = ?" + " AND " + COLUMN_AC_CARNUM + " = ?";
         // selection argument
@@ -105,7 +134,6 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
             startOrder = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return startOrder;
     }
@@ -116,7 +144,7 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_AC_CARNUM
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_AC_STAGE + " = ?" + " AND " + COLUMN_AC_SO + " = ?";
         // selection argument
@@ -136,7 +164,6 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
             carNum = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return carNum;
     }
@@ -147,7 +174,7 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_AC_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_AC_STAGE + " = ?" + " AND " + COLUMN_AC_CARNUM + " = ?";
         // selection argument
@@ -167,7 +194,6 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
             aControlID = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return aControlID;
     }
@@ -186,7 +212,7 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
 
         AControl aControl = new AControl();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_AC_ID + " = ?";
@@ -206,11 +232,11 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
             aControl.setStartOrder(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_SO))));
             aControl.setStage(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE))));
             aControl.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_CARNUM))));
-            aControl.setStage1ID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE1ID))));
+            // Stage 1 has no previous stage, which is stored as null
+            aControl.setStage1ID(cursor.getInt(cursor.getColumnIndex(COLUMN_AC_STAGE1ID)));
             aControl.setStage2ID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE2ID))));
         }
         cursor.close();
-        db.close();
 
         return aControl;
     }
@@ -229,7 +255,7 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
 
         AControl aControl = new AControl();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_AC_STAGE + " = ?" + " AND " + COLUMN_AC_SO + " = ?";
@@ -249,11 +275,11 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
             aControl.setStartOrder(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_SO))));
             aControl.setStage(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE))));
             aControl.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_CARNUM))));
-            aControl.setStage1ID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE1ID))));
+            // Stage 1 has no previous stage, which is stored as null
+            aControl.setStage1ID(cursor.getInt(cursor.getColumnIndex(COLUMN_AC_STAGE1ID)));
             aControl.setStage2ID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE2ID))));
         }
         cursor.close();
-        db.close();
 
         return aControl;
     }
@@ -273,7 +299,7 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
         String sortOrder = COLUMN_AC_ID + " ASC";
         List<AControl> aControlList = new ArrayList<AControl>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         Cursor cursor = db.query(TABLE_ACONTROL, //Table to query
                 columns,             //columns to return
@@ -290,38 +316,136 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
                 aControl.setStartOrder(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_SO))));
                 aControl.setStage(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE))));
                 aControl.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_CARNUM))));
-                aControl.setStage1ID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE1ID))));
+                // Stage 1 has no previous stage, which is stored as null
+                aControl.setStage1ID(cursor.getInt(cursor.getColumnIndex(COLUMN_AC_STAGE1ID)));
                 aControl.setStage2ID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE2ID))));
                 aControlList.add(aControl);
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return aControlList;
     }
 
     // Method to update and entry in the A Control database
     public void updateAControl(AControl aControl) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COLUMN_AC_SO, aControl.getStartOrder());
         values.put(COLUMN_AC_STAGE, aControl.getStage());
         values.put(COLUMN_AC_CARNUM, aControl.getCarNum());
-        values.put(COLUMN_AC_STAGE1ID, aControl.getStage1ID());
+        // Stage 1 has no previous stage, so store null rather than an ID that doesn't exist
+        if (aControl.getStage1ID() == 0) {
+            values.putNull(COLUMN_AC_STAGE1ID);
+        } else {
+            values.put(COLUMN_AC_STAGE1ID, aControl.getStage1ID());
+        }
         values.put(COLUMN_AC_STAGE2ID, aControl.getStage2ID());
         // updating row
         db.update(TABLE_ACONTROL, values, COLUMN_AC_ID + " = ?",
                 new String[]{String.valueOf(aControl.getAControlID())});
-        db.close();
+        timecardNavigator.rosterChanged(TimecardNavigator.A_CONTROL, aControl.getStage());
+    }
+
+    // Method to swap the entries at two start orders of a stage. The start orders on the two
+    // cars' stage entries are changed along with them.
+    public void swapStartOrders(int stageNum, int startOrder1, int startOrder2) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            SEQUENCER.swap(db, stageNum, startOrder1, startOrder2);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            startOrdersChanged(stageNum);
+        }
+    }
+
+    // Method to swap the entries at two start orders of a stage, then put both cars in their
+    // new places in the start list. It all happens in one transaction, so the A Control, the
+    // start list and the cars' stage entries can't be left with different orders. Returns
+    // false, changing nothing, if either car couldn't be placed in the start list.
+    public boolean swapStartOrdersAndStarts(int stageNum, int startOrder1, int startOrder2) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            SEQUENCER.swap(db, stageNum, startOrder1, startOrder2);
+            if (!placeStart(stageNum, startOrder1) || !placeStart(stageNum, startOrder2)) {
+                return false;
+            }
+            db.setTransactionSuccessful();
+            return true;
+        } finally {
+            db.endTransaction();
+            startOrdersChanged(stageNum);
+        }
+    }
+
+    // Method to add the car at a start order of a stage to the start list at the same start
+    // order, or move it there if it has already been added. Must be called in a transaction.
+    private boolean placeStart(int stageNum, int startOrder) {
+        AControl aControl = getAControl(stageNum, startOrder);
+        if (aControl.getAControlID() == 0) {
+            return false;
+        }
+        Start start = new Start();
+        start.setStartOrder(startOrder);
+        start.setStage(stageNum);
+        start.setCarNum(aControl.getCarNum());
+        // The entry for the stage being started
+        start.setStageID(aControl.getStage2ID());
+        return startDatabaseHelper.placeStart(start) != 0;
+    }
+
+    // Method to move the car at one start order of a stage to another, with the cars in
+    // between moving up or down one place to make room. Returns false, changing nothing, if
+    // there is no car at the first order or the second is past the last one.
+    public boolean moveStartOrder(int stageNum, int fromOrder, int toOrder) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            boolean moved = SEQUENCER.move(db, stageNum, fromOrder, toOrder);
+            db.setTransactionSuccessful();
+            return moved;
+        } finally {
+            db.endTransaction();
+            startOrdersChanged(stageNum);
+        }
+    }
+
+    // Method to give every car at a stage a new start order, in the order the car numbers are
+    // listed. Returns false, changing nothing, unless every car at the stage is listed once.
+    public boolean setStartOrders(int stageNum, int[] carNums) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            boolean applied = SEQUENCER.apply(db, stageNum, carNums);
+            if (applied) {
+                // Any gaps have closed up, so the next car in carries on from the last car now
+                OrderCounter.reset(db, TABLE_ACONTROL, stageNum);
+                db.setTransactionSuccessful();
+            }
+            return applied;
+        } finally {
+            db.endTransaction();
+            startOrdersChanged(stageNum);
+        }
+    }
+
+    // Method to drop the cached timecards of a stage once its start orders have changed
+    private void startOrdersChanged(int stageNum) {
+        timecardNavigator.rosterChanged(TimecardNavigator.A_CONTROL, stageNum);
+        timecardNavigator.stagesChanged(stageNum);
     }
 
     // Method to delete the given A Control object from the database
     public void deleteAControl(AControl aControl) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         db.delete(TABLE_ACONTROL, COLUMN_AC_ID + " = ?",
                 new String[]{String.valueOf(aControl.getAControlID())});
-        db.close();
+        // The next car in takes the place of the last one if that was the entry removed
+        OrderCounter.reset(db, TABLE_ACONTROL, aControl.getStage());
+        timecardNavigator.rosterChanged(TimecardNavigator.A_CONTROL, aControl.getStage());
     }
 
     // Method to return a list of A Control objects with the given stage number
@@ -343,7 +467,7 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
         String[] selectionArgs = {String.valueOf(stageNum)};
         List<AControl> aControlList = new ArrayList<AControl>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         Cursor cursor = db.query(TABLE_ACONTROL, //Table to query
                 columns,             //columns to return
@@ -360,13 +484,13 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
                 aControl.setStartOrder(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_SO))));
                 aControl.setStage(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE))));
                 aControl.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_CARNUM))));
-                aControl.setStage1ID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE1ID))));
+                // Stage 1 has no previous stage, which is stored as null
+                aControl.setStage1ID(cursor.getInt(cursor.getColumnIndex(COLUMN_AC_STAGE1ID)));
                 aControl.setStage2ID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_AC_STAGE2ID))));
                 aControlList.add(aControl);
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return aControlList;
     }
@@ -379,7 +503,7 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
                 COLUMN_AC_SO
         };
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         String sortOrder = COLUMN_AC_SO + " ASC";
         // selection criteria
@@ -401,7 +525,6 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
             currSO = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return currSO;
     }
@@ -412,7 +535,7 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_AC_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_AC_STAGE + " = ?" + " AND " + COLUMN_AC_CARNUM + " = ?";
         // selection argument
@@ -428,7 +551,6 @@ public class AControlDatabaseHelper extends SQLiteOpenHelper {
                 null);                      //The sort order
         int cursorCount = cursor.getCount();
         cursor.close();
-        db.close();
         if (cursorCount > 0) {
             return true;
         }
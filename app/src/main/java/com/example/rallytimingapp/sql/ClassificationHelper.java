@@ -0,0 +1,179 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.rallytimingapp.model.Classification;
+import com.example.rallytimingapp.model.PenaltyCalculator;
+import com.example.rallytimingapp.model.RallyTime;
+import com.example.rallytimingapp.model.Stage;
+
+import java.util.List;
+
+public class ClassificationHelper {
+    // Keeps the stage and overall classifications for the whole app. They are read from the
+    // stage table the first time they are needed, then kept up to date one car at a time
+    // by StageDatabaseHelper whenever a stage entry changes. The overall classification also
+    // counts the road penalties at the time controls, worked out from the actual and due time
+    // on each stage entry, so returning one car's timecard only recomputes that car.
+
+    private static ClassificationHelper instance;
+
+    private final RallyDatabase rallyDatabase;
+    private final ItineraryHelper itineraryHelper;
+    private PenaltyCalculator penaltyCalculator = new PenaltyCalculator();
+    private Classification overall; // Null until the classifications are first needed
+    private Classification[] stages;
+
+    // Method to return the one shared instance, so every screen sees the same classification
+    public static synchronized ClassificationHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new ClassificationHelper(RallyDatabase.getInstance(context), ItineraryHelper.getInstance(context));
+        }
+        return instance;
+    }
+
+    private ClassificationHelper(RallyDatabase rallyDatabase, ItineraryHelper itineraryHelper) {
+        this.rallyDatabase = rallyDatabase;
+        this.itineraryHelper = itineraryHelper;
+    }
+
+    // Method to return the results of a stage, or of the rally so far if the stage isn't in
+    // the itinerary. The results are copied while the classifications are locked, so they
+    // can be read on any thread while times carry on being saved. The classifications are
+    // read from the stage table if they aren't loaded, so this is called off the main thread.
+    public synchronized List<Classification.Result> getResults(int stageNum) {
+        load();
+        if (stageNum >= 1 && stageNum <= stages.length) {
+            return stages[stageNum - 1].getResults();
+        }
+        return overall.getResults();
+    }
+
+    // Method to return the classification of the rally so far
+    synchronized Classification getOverall() {
+        load();
+        return overall;
+    }
+
+    // Method to change the penalties used for the time controls. Every car's penalties are
+    // worked out again the next time the classifications are needed.
+    public synchronized void setPenaltyCalculator(PenaltyCalculator penaltyCalculator) {
+        this.penaltyCalculator = penaltyCalculator;
+        invalidate();
+    }
+
+    public synchronized PenaltyCalculator getPenaltyCalculator() {
+        return penaltyCalculator;
+    }
+
+    // Method to return the classification of a single stage
+    synchronized Classification getStage(int stageNum) {
+        load();
+        return stages[stageNum - 1];
+    }
+
+    // Method to update the classifications when a stage entry has been added or changed
+    synchronized void stageChanged(Stage stage) {
+        if (overall == null) {
+            return;
+        }
+        overall.setStageTime(stage.getCarNum(), stage.getStageNum(), stage.getStageTime());
+        overall.setPenalty(stage.getCarNum(), stage.getStageNum(), penaltyCalculator.getPenalty(stage),
+                penaltyCalculator.isExcluded(stage));
+        if (stage.getStageNum() >= 1 && stage.getStageNum() <= stages.length) {
+            stages[stage.getStageNum() - 1].setStageTime(stage.getCarNum(), stage.getStageNum(), stage.getStageTime());
+        }
+    }
+
+    // Method to update the classifications after a stage entry was changed in place, without
+    // the new times to hand. It is only read back if the classifications are in use.
+    synchronized void stageChanged(int carNum, int stageNum) {
+        if (overall == null) {
+            return;
+        }
+        String[] columns = {
+                StageDatabaseHelper.COLUMN_STAGE_ST,
+                StageDatabaseHelper.COLUMN_STAGE_AT,
+                StageDatabaseHelper.COLUMN_STAGE_DT
+        };
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.query(StageDatabaseHelper.TABLE_STAGE, columns,
+                StageDatabaseHelper.COLUMN_STAGE_CARNUM + " = ? AND " + StageDatabaseHelper.COLUMN_STAGE_STAGENUM + " = ?",
+                new String[]{String.valueOf(carNum), String.valueOf(stageNum)}, null, null, null);
+        if (cursor.moveToFirst()) {
+            int stageTime = cursor.isNull(0) ? RallyTime.NO_TIME : cursor.getInt(0);
+            overall.setStageTime(carNum, stageNum, stageTime);
+            setPenalty(carNum, stageNum, cursor);
+            if (stageNum >= 1 && stageNum <= stages.length) {
+                stages[stageNum - 1].setStageTime(carNum, stageNum, stageTime);
+            }
+        }
+        cursor.close();
+    }
+
+    // Method to update the classifications when a stage entry has been deleted
+    synchronized void stageRemoved(Stage stage) {
+        if (overall == null) {
+            return;
+        }
+        overall.removeStage(stage.getCarNum(), stage.getStageNum());
+        if (stage.getStageNum() >= 1 && stage.getStageNum() <= stages.length) {
+            stages[stage.getStageNum() - 1].removeStage(stage.getCarNum(), stage.getStageNum());
+        }
+    }
+
+    // Method to throw the classifications away after a change to many stage entries at once,
+    // so they are read again the next time they are needed
+    synchronized void invalidate() {
+        overall = null;
+        stages = null;
+    }
+
+    // Method to build the classifications from the stage table, the first time they are needed
+    private void load() {
+        if (overall != null) {
+            return;
+        }
+        // One classification for each stage in the itinerary
+        int stageCount = itineraryHelper.getStageCount();
+        overall = new Classification(1, stageCount);
+        stages = new Classification[stageCount];
+        for (int i = 0; i < stageCount; i++) {
+            stages[i] = new Classification(i + 1, i + 1);
+        }
+
+        // The actual and due times are read last, in the order setPenalty expects
+        String[] columns = {
+                StageDatabaseHelper.COLUMN_STAGE_CARNUM,
+                StageDatabaseHelper.COLUMN_STAGE_STAGENUM,
+                StageDatabaseHelper.COLUMN_STAGE_ST,
+                StageDatabaseHelper.COLUMN_STAGE_AT,
+                StageDatabaseHelper.COLUMN_STAGE_DT
+        };
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.query(StageDatabaseHelper.TABLE_STAGE, columns, null, null, null, null, null);
+        while (cursor.moveToNext()) {
+            int carNum = cursor.getInt(0);
+            int stageNum = cursor.getInt(1);
+            int stageTime = cursor.isNull(2) ? RallyTime.NO_TIME : cursor.getInt(2);
+            overall.setStageTime(carNum, stageNum, stageTime);
+            setPenalty(carNum, stageNum, cursor);
+            if (stageNum >= 1 && stageNum <= stages.length) {
+                stages[stageNum - 1].setStageTime(carNum, stageNum, stageTime);
+            }
+        }
+        cursor.close();
+    }
+
+    // Method to give a car its penalty at the time control after a stage, from the actual and
+    // due time in the last two columns of the cursor's current row
+    private void setPenalty(int carNum, int stageNum, Cursor cursor) {
+        int last = cursor.getColumnCount() - 1;
+        int actualTime = cursor.isNull(last - 1) ? RallyTime.NO_TIME : cursor.getInt(last - 1);
+        int dueTime = cursor.isNull(last) ? RallyTime.NO_TIME : cursor.getInt(last);
+        overall.setPenalty(carNum, stageNum, penaltyCalculator.getPenalty(actualTime, dueTime),
+                penaltyCalculator.isExcluded(actualTime, dueTime));
+    }
+}
@@ -4,76 +4,85 @@ import android.annotation.SuppressLint;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 
 import com.example.rallytimingapp.model.Competitor;
+import com.example.rallytimingapp.model.ListEntry;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-public class CompDatabaseHelper extends SQLiteOpenHelper {
-
-    // Database Version
-    private static final int DATABASE_VERSION = 9;
-
-    // Database Name
-    private static final String DATABASE_NAME = "CompetitorManager.db";
+public class CompDatabaseHelper {
 
     // Competitor table name
-    private static final String TABLE_COMP = "competitor";
+    static final String TABLE_COMP = "competitor";
 
     // Competitor Table Columns names
-    private static final String COLUMN_COMP_ID = "_id";
-    private static final String COLUMN_COMP_CARNUM = "competitor_carNum";
-    private static final String COLUMN_COMP_DRIVER = "competitor_driver";
-    private static final String COLUMN_COMP_CODRIVER = "competitor_codriver";
-    private static final String COLUMN_COMP_STAGE1ID = "competitor_stage1_id";
-    private static final String COLUMN_COMP_STAGE2ID = "competitor_stage2_id";
-    private static final String COLUMN_COMP_STAGE3ID = "competitor_stage3_id";
-    private static final String COLUMN_COMP_STAGE4ID = "competitor_stage4_id";
-
-    // Create table SQL query
-    private String CREATE_COMP_TABLE = "CREATE TABLE " + TABLE_COMP + "("
+    static final String COLUMN_COMP_ID = "_id";
+    static final String COLUMN_COMP_CARNUM = "competitor_carNum";
+    static final String COLUMN_COMP_DRIVER = "competitor_driver";
+    static final String COLUMN_COMP_CODRIVER = "competitor_codriver";
+
+    // Columns which held the IDs of stages 1 to 4 before the stage entries were listed in
+    // the competitor_stage table, still read when upgrading an older database
+    static final String[] LEGACY_STAGEID_COLUMNS = {
+            "competitor_stage1_id",
+            "competitor_stage2_id",
+            "competitor_stage3_id",
+            "competitor_stage4_id"
+    };
+
+    // Create table SQL query. The stage entries of each competitor are listed in the
+    // competitor_stage table, see ItineraryDatabaseHelper.
+    static final String CREATE_COMP_TABLE = "CREATE TABLE " + TABLE_COMP + "("
             + COLUMN_COMP_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," + COLUMN_COMP_CARNUM + " INTEGER,"
-            + COLUMN_COMP_DRIVER + " TEXT," + COLUMN_COMP_CODRIVER + " TEXT," + COLUMN_COMP_STAGE1ID
-            + " INTEGER," + COLUMN_COMP_STAGE2ID + " INTEGER," + COLUMN_COMP_STAGE3ID + " INTEGER,"
-            + COLUMN_COMP_STAGE4ID + " INTEGER" + ")";
+            + COLUMN_COMP_DRIVER + " TEXT," + COLUMN_COMP_CODRIVER + " TEXT" + ")";
 
-    // Drop table SQL query
-    private String DROP_COMP_TABLE = "DROP TABLE IF EXISTS " + TABLE_COMP;
+    // Index name
+    static final String INDEX_COMP_DRIVER = "index_competitor_driver";
 
-    public CompDatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
-    }
+    // Create index SQL query, used to list the competitors in order of driver name
+    static final String CREATE_COMP_DRIVER_INDEX = "CREATE INDEX " + INDEX_COMP_DRIVER + " ON "
+            + TABLE_COMP + "(" + COLUMN_COMP_DRIVER + "," + COLUMN_COMP_ID + ")";
 
-    @Override
-    public void onCreate(SQLiteDatabase db) {
-        db.execSQL(CREATE_COMP_TABLE);
-    }
+    private final RallyDatabase rallyDatabase;
+    private final ListSearchHelper listSearchHelper;
+    private final ItineraryHelper itineraryHelper;
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL(DROP_COMP_TABLE);
-        onCreate(db);
+    public CompDatabaseHelper(Context context) {
+        rallyDatabase = RallyDatabase.getInstance(context);
+        listSearchHelper = ListSearchHelper.getInstance(context);
+        itineraryHelper = ItineraryHelper.getInstance(context);
     }
 
-    // Method to add a new entry to the database
+    // Method to add a new entry to the database, along with its stage entry IDs
     public void addCompetitor(Competitor competitor) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
 
         ContentValues values = new ContentValues();
         values.put(COLUMN_COMP_CARNUM, competitor.getCarNum());
         values.put(COLUMN_COMP_DRIVER, competitor.getDriver());
         values.put(COLUMN_COMP_CODRIVER, competitor.getCodriver());
-        values.put(COLUMN_COMP_STAGE1ID, competitor.getStage1Id());
-        values.put(COLUMN_COMP_STAGE2ID, competitor.getStage2Id());
-        values.put(COLUMN_COMP_STAGE3ID, competitor.getStage3Id());
-        values.put(COLUMN_COMP_STAGE4ID, competitor.getStage4Id());
 
         // Inserting Row
-        db.insert(TABLE_COMP, null, values);
-        db.close();
+        long compID;
+        db.beginTransaction();
+        try {
+            compID = db.insert(TABLE_COMP, null, values);
+            if (compID != -1) {
+                ItineraryDatabaseHelper.saveCompetitorStages(db, (int) compID, competitor.getStageIds());
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        if (compID != -1) {
+            listSearchHelper.competitorChanged((int) compID, competitor);
+            itineraryHelper.competitorChanged((int) compID, competitor.getStageIds());
+        }
     }
 
     public int getCompId(int carNum) {
@@ -81,7 +90,7 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_COMP_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_COMP_CARNUM + " = ?";
         // selection argument
@@ -101,17 +110,16 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
             compID = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return compID;
     }
 
-    // Method to remove all entries from the database
+    // Method to remove all entries from the database, in a single statement
     public void empty() {
-        List<Competitor> competitorList = getAllCompetitors();
-        for (int i = 0; i < competitorList.size(); i++) {
-            deleteCompetitor(competitorList.get(i));
-        }
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.delete(TABLE_COMP, null, null);
+        listSearchHelper.invalidate();
+        itineraryHelper.invalidate();
     }
 
     // Method to return the Competitor with the given ID
@@ -121,16 +129,12 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
                 COLUMN_COMP_ID,
                 COLUMN_COMP_CARNUM,
                 COLUMN_COMP_DRIVER,
-                COLUMN_COMP_CODRIVER,
-                COLUMN_COMP_STAGE1ID,
-                COLUMN_COMP_STAGE2ID,
-                COLUMN_COMP_STAGE3ID,
-                COLUMN_COMP_STAGE4ID
+                COLUMN_COMP_CODRIVER
         };
 
         Competitor competitor = new Competitor();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_COMP_ID + " = ?";
@@ -150,13 +154,9 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
                 competitor.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_CARNUM))));
                 competitor.setDriver(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_DRIVER)));
                 competitor.setCodriver(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_CODRIVER)));
-                competitor.setStage1Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE1ID))));
-                competitor.setStage2Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE2ID))));
-                competitor.setStage3Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE3ID))));
-                competitor.setStage4Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE4ID))));
+                competitor.setStageIds(itineraryHelper.getStageIds(competitor.getCompId()));
         }
         cursor.close();
-        db.close();
 
         return competitor;
     }
@@ -168,16 +168,12 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
                 COLUMN_COMP_ID,
                 COLUMN_COMP_CARNUM,
                 COLUMN_COMP_DRIVER,
-                COLUMN_COMP_CODRIVER,
-                COLUMN_COMP_STAGE1ID,
-                COLUMN_COMP_STAGE2ID,
-                COLUMN_COMP_STAGE3ID,
-                COLUMN_COMP_STAGE4ID
+                COLUMN_COMP_CODRIVER
         };
 
         Competitor competitor = new Competitor();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_COMP_CARNUM + " = ?";
@@ -197,13 +193,9 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
             competitor.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_CARNUM))));
             competitor.setDriver(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_DRIVER)));
             competitor.setCodriver(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_CODRIVER)));
-            competitor.setStage1Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE1ID))));
-            competitor.setStage2Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE2ID))));
-            competitor.setStage3Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE3ID))));
-            competitor.setStage4Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE4ID))));
+            competitor.setStageIds(itineraryHelper.getStageIds(competitor.getCompId()));
         }
         cursor.close();
-        db.close();
 
         return competitor;
     }
@@ -215,16 +207,12 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
                 COLUMN_COMP_ID,
                 COLUMN_COMP_CARNUM,
                 COLUMN_COMP_DRIVER,
-                COLUMN_COMP_CODRIVER,
-                COLUMN_COMP_STAGE1ID,
-                COLUMN_COMP_STAGE2ID,
-                COLUMN_COMP_STAGE3ID,
-                COLUMN_COMP_STAGE4ID
+                COLUMN_COMP_CODRIVER
         };
 
         Competitor competitor = new Competitor();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_COMP_DRIVER + " = ?";
@@ -244,13 +232,9 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
             competitor.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_CARNUM))));
             competitor.setDriver(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_DRIVER)));
             competitor.setCodriver(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_CODRIVER)));
-            competitor.setStage1Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE1ID))));
-            competitor.setStage2Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE2ID))));
-            competitor.setStage3Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE3ID))));
-            competitor.setStage4Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE4ID))));
+            competitor.setStageIds(itineraryHelper.getStageIds(competitor.getCompId()));
         }
         cursor.close();
-        db.close();
 
         return competitor;
     }
@@ -262,17 +246,13 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
                 COLUMN_COMP_ID,
                 COLUMN_COMP_CARNUM,
                 COLUMN_COMP_DRIVER,
-                COLUMN_COMP_CODRIVER,
-                COLUMN_COMP_STAGE1ID,
-                COLUMN_COMP_STAGE2ID,
-                COLUMN_COMP_STAGE3ID,
-                COLUMN_COMP_STAGE4ID
+                COLUMN_COMP_CODRIVER
         };
 
         String sortOrder = COLUMN_COMP_DRIVER + " ASC";
         List<Competitor> competitorList = new ArrayList<Competitor>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         Cursor cursor = db.query(TABLE_COMP, //Table to query
                 columns,             //columns to return
@@ -289,42 +269,116 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
                 competitor.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_CARNUM))));
                 competitor.setDriver(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_DRIVER)));
                 competitor.setCodriver(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_CODRIVER)));
-                competitor.setStage1Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE1ID))));
-                competitor.setStage2Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE2ID))));
-                competitor.setStage3Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE3ID))));
-                competitor.setStage4Id(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_COMP_STAGE4ID))));
+                competitor.setStageIds(itineraryHelper.getStageIds(competitor.getCompId()));
                 competitorList.add(competitor);
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return competitorList;
     }
 
-    // Method to update an entry in the database
+    // Method to return the number of competitors
+    public int getCompetitorCount() {
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        return (int) DatabaseUtils.queryNumEntries(db, TABLE_COMP);
+    }
+
+    // Method to return one page of the competitors, in order of driver name, as the ID and
+    // driver's name of each
+    public List<ListEntry> getCompetitorPage(int offset, int limit) {
+        String[] columns = {
+                COLUMN_COMP_ID,
+                COLUMN_COMP_DRIVER
+        };
+        String sortOrder = COLUMN_COMP_DRIVER + " ASC, " + COLUMN_COMP_ID + " ASC";
+        List<ListEntry> page = new ArrayList<>(limit);
+
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+
+        Cursor cursor = db.query(TABLE_COMP, //Table to query
+                columns,             //columns to return
+                null,        //columns for the WHERE clause
+                null,     //The values for the WHERE clause
+                null,        //group the rows
+                null,         //filter by row groups
+                sortOrder,         //The sort order
+                offset + "," + limit);         //The rows to return
+
+        while (cursor.moveToNext()) {
+            page.add(new ListEntry(cursor.getInt(0), cursor.getString(1)));
+        }
+        cursor.close();
+
+        return page;
+    }
+
+    // Method to return the competitors with the given IDs, in the same order, as the ID and
+    // driver's name of each. IDs no longer in the database are left out.
+    public List<ListEntry> getCompetitorEntries(List<Integer> compIDs) {
+        if (compIDs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String[] columns = {
+                COLUMN_COMP_ID,
+                COLUMN_COMP_DRIVER
+        };
+        // selection criteria, one argument for each ID
+        StringBuilder selection = new StringBuilder(COLUMN_COMP_ID + " IN (");
+        String[] selectionArgs = new String[compIDs.size()];
+        for (int i = 0; i < compIDs.size(); i++) {
+            selection.append(i == 0 ? "?" : ",?");
+            selectionArgs[i] = String.valueOf(compIDs.get(i));
+        }
+        selection.append(")");
+        Map<Integer, String> drivers = new HashMap<>();
+
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+
+        Cursor cursor = db.query(TABLE_COMP, columns, selection.toString(), selectionArgs,
+                null, null, null);
+        while (cursor.moveToNext()) {
+            drivers.put(cursor.getInt(0), cursor.getString(1));
+        }
+        cursor.close();
+
+        List<ListEntry> entries = new ArrayList<>(compIDs.size());
+        for (int compID : compIDs) {
+            if (drivers.containsKey(compID)) {
+                entries.add(new ListEntry(compID, drivers.get(compID)));
+            }
+        }
+        return entries;
+    }
+
+    // Method to update an entry in the database, along with its stage entry IDs
     public void updateCompetitor(Competitor competitor) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COLUMN_COMP_CARNUM, competitor.getCarNum());
         values.put(COLUMN_COMP_DRIVER, competitor.getDriver());
         values.put(COLUMN_COMP_CODRIVER, competitor.getCodriver());
-        values.put(COLUMN_COMP_STAGE1ID, competitor.getStage1Id());
-        values.put(COLUMN_COMP_STAGE2ID, competitor.getStage2Id());
-        values.put(COLUMN_COMP_STAGE3ID, competitor.getStage3Id());
-        values.put(COLUMN_COMP_STAGE4ID, competitor.getStage4Id());
         // updating row
-        db.update(TABLE_COMP, values, COLUMN_COMP_ID + " = ?",
-                new String[]{String.valueOf(competitor.getCompId())});
-        db.close();
+        db.beginTransaction();
+        try {
+            db.update(TABLE_COMP, values, COLUMN_COMP_ID + " = ?",
+                    new String[]{String.valueOf(competitor.getCompId())});
+            ItineraryDatabaseHelper.saveCompetitorStages(db, competitor.getCompId(), competitor.getStageIds());
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        listSearchHelper.competitorChanged(competitor.getCompId(), competitor);
+        itineraryHelper.competitorChanged(competitor.getCompId(), competitor.getStageIds());
     }
 
-    // Method to delete an entry in the database
+    // Method to delete an entry in the database. Its stage entry IDs go with it.
     public void deleteCompetitor(Competitor competitor) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         db.delete(TABLE_COMP, COLUMN_COMP_ID + " = ?",
                 new String[]{String.valueOf(competitor.getCompId())});
-        db.close();
+        listSearchHelper.competitorRemoved(competitor.getCompId());
+        itineraryHelper.competitorRemoved(competitor.getCompId());
     }
 
     // Method to check if there is an entry in the database with the given car number
@@ -333,7 +387,7 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_COMP_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_COMP_CARNUM + " = ?";
         // selection argument
@@ -349,7 +403,6 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
                 null);                      //The sort order
         int cursorCount = cursor.getCount();
         cursor.close();
-        db.close();
         if (cursorCount > 0) {
             return true;
         }
@@ -362,7 +415,7 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_COMP_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_COMP_DRIVER + " = ?";
         // selection argument
@@ -378,7 +431,6 @@ public class CompDatabaseHelper extends SQLiteOpenHelper {
                 null);                      //The sort order
         int cursorCount = cursor.getCount();
         cursor.close();
-        db.close();
         if (cursorCount > 0) {
             return true;
         }
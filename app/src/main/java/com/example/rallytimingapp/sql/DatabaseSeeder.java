@@ -0,0 +1,166 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+public class DatabaseSeeder {
+    // Empties every table and fills them again in one transaction, using compiled insert
+    // statements and the row IDs they return rather than looking each entry up afterwards.
+    // append adds to the tables as they are instead, so a long run of entries can be saved
+    // in batches, one seeder each. Nothing is saved unless setSuccessful is called before
+    // end, eg
+    //     DatabaseSeeder seeder = DatabaseSeeder.begin(context);
+    //     try {
+    //         int compID = seeder.addCompetitor(1, "Driver", "Co-driver");
+    //         seeder.addLogin("Driver", "password", "Competitor", compID);
+    //         seeder.setSuccessful();
+    //     } finally {
+    //         seeder.end();
+    //     }
+
+    // Tables in the order they are emptied, the ones pointing at stages first
+    private static final String[] TABLES = {
+            AControlDatabaseHelper.TABLE_ACONTROL,
+            StartDatabaseHelper.TABLE_START,
+            FinishDatabaseHelper.TABLE_FINISH,
+            ItineraryDatabaseHelper.TABLE_COMP_STAGE,
+            CompDatabaseHelper.TABLE_COMP,
+            StageDatabaseHelper.TABLE_STAGE,
+            UserDatabaseHelper.TABLE_USER,
+            TimingCrewDatabaseHelper.TABLE_TIMING_CREW,
+            OrderCounter.TABLE_ORDER_COUNTER
+    };
+
+    private final SQLiteDatabase db;
+    private final ClassificationHelper classificationHelper;
+    private final ListSearchHelper listSearchHelper;
+    private final TimecardNavigator timecardNavigator;
+    private final ItineraryHelper itineraryHelper;
+    private final SQLiteStatement insertStage;
+    private final SQLiteStatement insertCompetitor;
+    private final SQLiteStatement insertCompStage;
+    private final SQLiteStatement insertCrew;
+    private final SQLiteStatement insertUser;
+    private final long[] stageIds; // Entry made for each stage of the current competitor, indexed by stage number
+
+    // Method to start a reset, emptying every table inside a new transaction
+    public static DatabaseSeeder begin(Context context) {
+        return new DatabaseSeeder(context, true);
+    }
+
+    // Method to empty every table of the event in one transaction, leaving nothing to log in with
+    public static void clearEvent(Context context) {
+        DatabaseSeeder seeder = begin(context);
+        try {
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+    }
+
+    // Method to start adding entries to the tables as they are, inside a new transaction
+    public static DatabaseSeeder append(Context context) {
+        return new DatabaseSeeder(context, false);
+    }
+
+    private DatabaseSeeder(Context context, boolean emptyFirst) {
+        this.db = RallyDatabase.getInstance(context).getWritableDatabase();
+        this.classificationHelper = ClassificationHelper.getInstance(context);
+        this.listSearchHelper = ListSearchHelper.getInstance(context);
+        this.timecardNavigator = TimecardNavigator.getInstance(context);
+        this.itineraryHelper = ItineraryHelper.getInstance(context);
+        // Each competitor is given an entry for every stage in the itinerary
+        this.stageIds = new long[itineraryHelper.getStageCount() + 1];
+        db.beginTransaction();
+        if (emptyFirst) {
+            for (String table : TABLES) {
+                db.delete(table, null, null);
+            }
+        }
+
+        // New stage entries start with a start order of 0 and no times
+        insertStage = db.compileStatement("INSERT INTO " + StageDatabaseHelper.TABLE_STAGE + "("
+                + StageDatabaseHelper.COLUMN_STAGE_CARNUM + "," + StageDatabaseHelper.COLUMN_STAGE_STAGENUM + ","
+                + StageDatabaseHelper.COLUMN_STAGE_SO + ") VALUES (?,?,0)");
+        insertCompetitor = db.compileStatement("INSERT INTO " + CompDatabaseHelper.TABLE_COMP + "("
+                + CompDatabaseHelper.COLUMN_COMP_CARNUM + "," + CompDatabaseHelper.COLUMN_COMP_DRIVER + ","
+                + CompDatabaseHelper.COLUMN_COMP_CODRIVER + ") VALUES (?,?,?)");
+        insertCompStage = db.compileStatement("INSERT INTO " + ItineraryDatabaseHelper.TABLE_COMP_STAGE + "("
+                + ItineraryDatabaseHelper.COLUMN_COMP_STAGE_COMPID + "," + ItineraryDatabaseHelper.COLUMN_COMP_STAGE_STAGENUM + ","
+                + ItineraryDatabaseHelper.COLUMN_COMP_STAGE_STAGEID + ") VALUES (?,?,?)");
+        insertCrew = db.compileStatement("INSERT INTO " + TimingCrewDatabaseHelper.TABLE_TIMING_CREW + "("
+                + TimingCrewDatabaseHelper.COLUMN_CREW_POSITION + "," + TimingCrewDatabaseHelper.COLUMN_CREW_POSTCHIEF + ","
+                + TimingCrewDatabaseHelper.COLUMN_CREW_PHONE + ") VALUES (?,?,?)");
+        insertUser = db.compileStatement("INSERT INTO " + UserDatabaseHelper.TABLE_USER + "("
+                + UserDatabaseHelper.COLUMN_USER_USERNAME + "," + UserDatabaseHelper.COLUMN_USER_PASSWORD + ","
+                + UserDatabaseHelper.COLUMN_USER_ROLE + "," + UserDatabaseHelper.COLUMN_USER_ROLE_ID + ") VALUES (?,?,?,?)");
+    }
+
+    // Method to add a competitor along with an empty stage entry for each stage, returning its ID
+    public int addCompetitor(int carNum, String driver, String codriver) {
+        for (int stageNum = 1; stageNum < stageIds.length; stageNum++) {
+            insertStage.bindLong(1, carNum);
+            insertStage.bindLong(2, stageNum);
+            stageIds[stageNum] = insertStage.executeInsert();
+        }
+
+        insertCompetitor.bindLong(1, carNum);
+        insertCompetitor.bindString(2, driver);
+        insertCompetitor.bindString(3, codriver);
+        long compID = insertCompetitor.executeInsert();
+
+        insertCompStage.bindLong(1, compID);
+        for (int stageNum = 1; stageNum < stageIds.length; stageNum++) {
+            insertCompStage.bindLong(2, stageNum);
+            insertCompStage.bindLong(3, stageIds[stageNum]);
+            insertCompStage.executeInsert();
+        }
+        return (int) compID;
+    }
+
+    // Method to add a timing crew, returning its ID
+    public int addTimingCrew(String position, String postChief, String phone) {
+        insertCrew.bindString(1, position);
+        insertCrew.bindString(2, postChief);
+        insertCrew.bindString(3, phone);
+        return (int) insertCrew.executeInsert();
+    }
+
+    // Method to add a login for the competitor or crew with the given ID, saving a hash of
+    // the password. The hash is made inside the transaction, so anything adding more than a
+    // few logins should hash the passwords first and use addHashedLogin, see EntryListImporter.
+    public void addLogin(String username, String password, String role, int id) {
+        addHashedLogin(username, UserDatabaseHelper.hashPassword(password), role, id);
+    }
+
+    // Method to add a login with a password already hashed, see UserDatabaseHelper.hashPassword
+    void addHashedLogin(String username, String hash, String role, int id) {
+        insertUser.bindString(1, username);
+        insertUser.bindString(2, hash);
+        insertUser.bindString(3, role);
+        insertUser.bindLong(4, id);
+        insertUser.executeInsert();
+    }
+
+    // Method to mark the reset as finished, so it is saved when end is called
+    public void setSuccessful() {
+        db.setTransactionSuccessful();
+    }
+
+    // Method to finish the reset, saving it only if setSuccessful was called
+    public void end() {
+        insertStage.close();
+        insertCompetitor.close();
+        insertCompStage.close();
+        insertCrew.close();
+        insertUser.close();
+        db.endTransaction();
+        // Every stage entry has changed, so the classifications are read again when next needed
+        classificationHelper.invalidate();
+        // The same goes for the search indexes of the list screens and the timecard rosters
+        listSearchHelper.invalidate();
+        timecardNavigator.invalidate();
+        itineraryHelper.invalidate();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+public class DueTimeWriter {
+    // Holds the due times typed on the competitor screen until typing stops, then saves them
+    // all in one go. Each stage entry only keeps the last time typed for it, so a few quick
+    // edits end up as a single write of just the due time column. Everything here is called
+    // on the main thread, and the write itself runs on the repository's writer thread.
+
+    private static final int IDLE_MS = 500; // Time since the last edit before the times are saved
+
+    private final StageDatabaseHelper stageDatabaseHelper;
+    private final RallyRepository repository;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private Map<Integer, Integer> pending = new HashMap<>(); // Due times by stage ID
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush(null);
+        }
+    };
+
+    public DueTimeWriter(Context context) {
+        stageDatabaseHelper = new StageDatabaseHelper(context);
+        repository = RallyRepository.getInstance();
+    }
+
+    // Method to keep a typed due time, replacing any earlier one for the same stage entry,
+    // and to put off saving until typing has stopped for a moment
+    public void set(int stageID, int dueTime) {
+        pending.put(stageID, dueTime);
+        handler.removeCallbacks(flushTask);
+        handler.postDelayed(flushTask, IDLE_MS);
+    }
+
+    // Method to save the kept due times now. The callback is given once they are saved,
+    // even if there was nothing to save, so it can be used to confirm a save button.
+    public Future<Void> flush(RallyRepository.Callback<Void> callback) {
+        handler.removeCallbacks(flushTask);
+        final Map<Integer, Integer> dueTimes = pending;
+        pending = new HashMap<>();
+        return repository.write(new Callable<Void>() {
+            @Override
+            public Void call() {
+                if (!dueTimes.isEmpty()) {
+                    stageDatabaseHelper.updateDueTimes(dueTimes);
+                }
+                return null;
+            }
+        }, callback);
+    }
+}
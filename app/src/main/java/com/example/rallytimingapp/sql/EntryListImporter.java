@@ -0,0 +1,185 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.rallytimingapp.model.EntryListParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class EntryListImporter {
+    // Adds the competitors from an entry list to the database, each with its stage entries
+    // and a competitor login. The list is read one row at a time and saved in batches, so
+    // a long list neither fills memory nor holds the database for the whole import. The
+    // passwords of a batch are hashed before its transaction starts, as hashing them takes
+    // far longer than saving them and the timing screens can't write in the meantime. Rows
+    // that are invalid, or clash with an entry already added, are skipped and reported.
+
+    // Number of competitors saved in each transaction
+    static final int BATCH_SIZE = 200;
+
+    private final Context context;
+    private final RallyDatabase rallyDatabase;
+
+    // Interface for following an import as it goes, called after each batch is saved
+    public interface ProgressListener {
+        void onProgress(int rowsRead, int imported);
+    }
+
+    // Object for a row that couldn't be imported
+    public static class RowError {
+        private final int lineNum;
+        private final String message;
+
+        RowError(int lineNum, String message) {
+            this.lineNum = lineNum;
+            this.message = message;
+        }
+
+        public int getLineNum() {
+            return lineNum;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNum + ": " + message;
+        }
+    }
+
+    // Object for the outcome of an import
+    public static class Result {
+        private int imported;
+        private final List<RowError> errors = new ArrayList<>();
+
+        public int getImported() {
+            return imported;
+        }
+
+        public List<RowError> getErrors() {
+            return errors;
+        }
+    }
+
+    public EntryListImporter(Context context) {
+        this.context = context;
+        this.rallyDatabase = RallyDatabase.getInstance(context);
+    }
+
+    // Method to import every row of the given entry list. The listener can be null. It saves
+    // to the database, so it should be run on the writer thread.
+    public Result importEntries(Reader reader, ProgressListener listener) throws IOException {
+        Result result = new Result();
+        // Car numbers, drivers and usernames already taken, so clashes are found without a query per row
+        Set<Integer> carNums = new HashSet<>();
+        Set<String> drivers = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        loadExisting(carNums, drivers, usernames);
+
+        EntryListParser parser = new EntryListParser(reader);
+        List<EntryListParser.Entry> batch = new ArrayList<>(BATCH_SIZE);
+        EntryListParser.Entry entry;
+        while ((entry = parser.next()) != null) {
+            String error = entry.getError();
+            if (error == null) {
+                error = checkClashes(entry, carNums, drivers, usernames);
+            }
+            if (error != null) {
+                result.errors.add(new RowError(entry.getLineNum(), error));
+                continue;
+            }
+            carNums.add(entry.getCarNum());
+            drivers.add(entry.getDriver());
+            usernames.add(entry.getUsername());
+
+            batch.add(entry);
+            if (batch.size() == BATCH_SIZE) {
+                saveBatch(batch, result);
+                batch.clear();
+                if (listener != null) {
+                    listener.onProgress(parser.getLineNum(), result.imported);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            saveBatch(batch, result);
+        }
+        if (listener != null) {
+            listener.onProgress(parser.getLineNum(), result.imported);
+        }
+        return result;
+    }
+
+    // Method to save a batch of entries in one transaction, hashing their passwords first
+    private void saveBatch(List<EntryListParser.Entry> batch, Result result) {
+        String[] hashes = new String[batch.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = UserDatabaseHelper.hashPassword(batch.get(i).getPassword());
+        }
+
+        DatabaseSeeder seeder = DatabaseSeeder.append(context);
+        try {
+            for (int i = 0; i < hashes.length; i++) {
+                EntryListParser.Entry entry = batch.get(i);
+                int compID = seeder.addCompetitor(entry.getCarNum(), entry.getDriver(), entry.getCodriver());
+                seeder.addHashedLogin(entry.getUsername(), hashes[i], "Competitor", compID);
+            }
+            seeder.setSuccessful();
+        } finally {
+            seeder.end();
+        }
+        result.imported += hashes.length;
+    }
+
+    // Method to return why an entry can't be added alongside the ones already there, or null if it can
+    private static String checkClashes(EntryListParser.Entry entry, Set<Integer> carNums,
+                                       Set<String> drivers, Set<String> usernames) {
+        if (carNums.contains(entry.getCarNum())) {
+            return "Car " + entry.getCarNum() + " already exists";
+        }
+        if (drivers.contains(entry.getDriver())) {
+            return "Competitor " + entry.getDriver() + " already exists";
+        }
+        if (usernames.contains(entry.getUsername())) {
+            return "Username " + entry.getUsername() + " already exists";
+        }
+        return null;
+    }
+
+    // Method to read the car numbers, drivers and usernames already in the database
+    private void loadExisting(Set<Integer> carNums, Set<String> drivers, Set<String> usernames) {
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.query(CompDatabaseHelper.TABLE_COMP,
+                new String[]{CompDatabaseHelper.COLUMN_COMP_CARNUM, CompDatabaseHelper.COLUMN_COMP_DRIVER},
+                null, null, null, null, null);
+        while (cursor.moveToNext()) {
+            carNums.add(cursor.getInt(0));
+            drivers.add(cursor.getString(1));
+        }
+        cursor.close();
+
+        // Stage entries left behind by a deleted competitor would still clash with a new one
+        cursor = db.query(true, StageDatabaseHelper.TABLE_STAGE, new String[]{StageDatabaseHelper.COLUMN_STAGE_CARNUM},
+                null, null, null, null, null, null);
+        while (cursor.moveToNext()) {
+            carNums.add(cursor.getInt(0));
+        }
+        cursor.close();
+
+        cursor = db.query(UserDatabaseHelper.TABLE_USER, new String[]{UserDatabaseHelper.COLUMN_USER_USERNAME},
+                null, null, null, null, null);
+        while (cursor.moveToNext()) {
+            usernames.add(cursor.getString(0));
+        }
+        cursor.close();
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import com.example.rallytimingapp.model.Classification;
+import com.example.rallytimingapp.model.Event;
+import com.example.rallytimingapp.model.PenaltyCalculator;
+import com.example.rallytimingapp.model.RallyTime;
+
+import java.io.File;
+
+public class EventArchiver {
+    // Moves a finished event out of the timing tables into an archive file of its own, then
+    // starts the next event with empty tables, so the screens used on the day only ever
+    // search the current event. Each archive file is a small SQLite database holding the
+    // event's timing tables as they were, and is only ever opened read-only afterwards.
+    // Timing crews, and every login other than the competitors', carry on to the next event.
+
+    // Tables copied to the archive, stages first as the others point at them, with the
+    // statements to create them
+    private static final String[][] ARCHIVED_TABLES = {
+            {StageDatabaseHelper.TABLE_STAGE, StageDatabaseHelper.CREATE_STAGE_TABLE},
+            {CompDatabaseHelper.TABLE_COMP, CompDatabaseHelper.CREATE_COMP_TABLE},
+            {ItineraryDatabaseHelper.TABLE_ITINERARY, ItineraryDatabaseHelper.CREATE_ITINERARY_TABLE},
+            {ItineraryDatabaseHelper.TABLE_COMP_STAGE, ItineraryDatabaseHelper.CREATE_COMP_STAGE_TABLE},
+            {AControlDatabaseHelper.TABLE_ACONTROL, AControlDatabaseHelper.CREATE_AC_TABLE},
+            {StartDatabaseHelper.TABLE_START, StartDatabaseHelper.CREATE_START_TABLE},
+            {FinishDatabaseHelper.TABLE_FINISH, FinishDatabaseHelper.CREATE_FINISH_TABLE}
+    };
+
+    // Tables emptied for the next event, the ones pointing at stages first
+    private static final String[] CLEARED_TABLES = {
+            AControlDatabaseHelper.TABLE_ACONTROL,
+            StartDatabaseHelper.TABLE_START,
+            FinishDatabaseHelper.TABLE_FINISH,
+            ItineraryDatabaseHelper.TABLE_COMP_STAGE,
+            CompDatabaseHelper.TABLE_COMP,
+            StageDatabaseHelper.TABLE_STAGE,
+            OrderCounter.TABLE_ORDER_COUNTER
+    };
+
+    private static final String COMPETITOR_ROLE = "Competitor";
+
+    private final Context context;
+    private final RallyDatabase rallyDatabase;
+    private final EventDatabaseHelper eventDatabaseHelper;
+
+    public EventArchiver(Context context) {
+        this.context = context;
+        this.rallyDatabase = RallyDatabase.getInstance(context);
+        this.eventDatabaseHelper = new EventDatabaseHelper(context);
+    }
+
+    // Method to archive the current event and start a new one with the given name, returning
+    // the new event. It writes the whole event out, so it should be run on the writer thread.
+    public Event rollover(String newEventName) {
+        Event current = eventDatabaseHelper.getCurrentEvent();
+        String archiveFile = rallyDatabase.getArchiveFile(current.getEventId());
+        writeArchive(archiveFile, current);
+
+        // The archive is complete before anything is removed, so a failure here leaves the
+        // current event as it was and the archive is simply written again next time
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            EventDatabaseHelper.setArchived(db, current.getEventId(), archiveFile);
+            EventDatabaseHelper.addCurrentEvent(db, newEventName);
+            for (String table : CLEARED_TABLES) {
+                db.delete(table, null, null);
+            }
+            db.delete(UserDatabaseHelper.TABLE_USER, UserDatabaseHelper.COLUMN_USER_ROLE + " = ?",
+                    new String[]{COMPETITOR_ROLE});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        // Everything kept in memory was for the old event
+        ClassificationHelper.getInstance(context).invalidate();
+        ListSearchHelper.getInstance(context).invalidate();
+        TimecardNavigator.getInstance(context).invalidate();
+        ItineraryHelper.getInstance(context).invalidate();
+        // The old event's pages are free now, so the live file can shrink
+        rallyDatabase.scheduleCompact();
+
+        return eventDatabaseHelper.getCurrentEvent();
+    }
+
+    // Method to return the overall classification of an archived event, with the road
+    // penalties, or of the given stage if stageNum is not 0
+    public Classification getClassification(Event event, int stageNum) {
+        PenaltyCalculator penaltyCalculator = ClassificationHelper.getInstance(context).getPenaltyCalculator();
+        SQLiteDatabase archive = SQLiteDatabase.openDatabase(context.getDatabasePath(event.getArchiveFile()).getPath(),
+                null, SQLiteDatabase.OPEN_READONLY);
+        try {
+            // Archives written before the itinerary was added don't have one, so the number
+            // of stages comes from the stage entries themselves
+            Classification classification = stageNum == 0
+                    ? new Classification(1, (int) DatabaseUtils.longForQuery(archive, "SELECT IFNULL(MAX("
+                    + StageDatabaseHelper.COLUMN_STAGE_STAGENUM + "), 0) FROM " + StageDatabaseHelper.TABLE_STAGE, null))
+                    : new Classification(stageNum, stageNum);
+            String[] columns = {
+                    StageDatabaseHelper.COLUMN_STAGE_CARNUM,
+                    StageDatabaseHelper.COLUMN_STAGE_STAGENUM,
+                    StageDatabaseHelper.COLUMN_STAGE_ST,
+                    StageDatabaseHelper.COLUMN_STAGE_AT,
+                    StageDatabaseHelper.COLUMN_STAGE_DT
+            };
+            String selection = stageNum == 0 ? null : StageDatabaseHelper.COLUMN_STAGE_STAGENUM + " = ?";
+            String[] selectionArgs = stageNum == 0 ? null : new String[]{String.valueOf(stageNum)};
+            Cursor cursor = archive.query(StageDatabaseHelper.TABLE_STAGE, columns, selection, selectionArgs,
+                    null, null, null);
+            while (cursor.moveToNext()) {
+                int stageTime = cursor.isNull(2) ? RallyTime.NO_TIME : cursor.getInt(2);
+                classification.setStageTime(cursor.getInt(0), cursor.getInt(1), stageTime);
+                if (stageNum == 0) {
+                    int actualTime = cursor.isNull(3) ? RallyTime.NO_TIME : cursor.getInt(3);
+                    int dueTime = cursor.isNull(4) ? RallyTime.NO_TIME : cursor.getInt(4);
+                    classification.setPenalty(cursor.getInt(0), cursor.getInt(1),
+                            penaltyCalculator.getPenalty(actualTime, dueTime), penaltyCalculator.isExcluded(actualTime, dueTime));
+                }
+            }
+            cursor.close();
+            return classification;
+        } finally {
+            archive.close();
+        }
+    }
+
+    // Method to copy the timing tables of the current event into a new archive file,
+    // replacing any left over from an earlier attempt
+    private void writeArchive(String archiveFile, Event event) {
+        context.deleteDatabase(archiveFile);
+        File file = context.getDatabasePath(archiveFile);
+        SQLiteDatabase archive = SQLiteDatabase.openOrCreateDatabase(file, null);
+        try {
+            SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+            archive.beginTransaction();
+            try {
+                // The archive describes itself, so it still makes sense if it is copied elsewhere
+                archive.execSQL(EventDatabaseHelper.CREATE_EVENT_TABLE);
+                archive.execSQL("INSERT INTO " + EventDatabaseHelper.TABLE_EVENT + " VALUES (?,?,?,?,?)",
+                        new Object[]{event.getEventId(), event.getName(), event.getStarted(),
+                                System.currentTimeMillis(), archiveFile});
+                for (String[] table : ARCHIVED_TABLES) {
+                    archive.execSQL(table[1]);
+                    copyTable(db, archive, table[0]);
+                }
+                archive.execSQL(StageDatabaseHelper.CREATE_STAGE_CAR_INDEX);
+                archive.setTransactionSuccessful();
+            } finally {
+                archive.endTransaction();
+            }
+        } finally {
+            archive.close();
+        }
+        // Nothing should change an archive once it is written
+        file.setReadOnly();
+    }
+
+    // Method to copy every row of a table from the live database into the archive
+    private static void copyTable(SQLiteDatabase from, SQLiteDatabase to, String table) {
+        Cursor cursor = from.query(table, null, null, null, null, null, null);
+        int columns = cursor.getColumnCount();
+        StringBuilder names = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (int i = 0; i < columns; i++) {
+            names.append(i == 0 ? "" : ",").append(cursor.getColumnName(i));
+            values.append(i == 0 ? "?" : ",?");
+        }
+        SQLiteStatement insert = to.compileStatement("INSERT INTO " + table + "(" + names + ") VALUES (" + values + ")");
+        try {
+            while (cursor.moveToNext()) {
+                for (int i = 0; i < columns; i++) {
+                    switch (cursor.getType(i)) {
+                        case Cursor.FIELD_TYPE_NULL:
+                            insert.bindNull(i + 1);
+                            break;
+                        case Cursor.FIELD_TYPE_INTEGER:
+                            insert.bindLong(i + 1, cursor.getLong(i));
+                            break;
+                        case Cursor.FIELD_TYPE_FLOAT:
+                            insert.bindDouble(i + 1, cursor.getDouble(i));
+                            break;
+                        case Cursor.FIELD_TYPE_BLOB:
+                            insert.bindBlob(i + 1, cursor.getBlob(i));
+                            break;
+                        default:
+                            insert.bindString(i + 1, cursor.getString(i));
+                            break;
+                    }
+                }
+                insert.executeInsert();
+            }
+        } finally {
+            insert.close();
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.rallytimingapp.sql;
+
+import android.annotation.SuppressLint;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.rallytimingapp.model.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EventDatabaseHelper {
+    // Keeps a list of the rallies run with the app. The timing tables only ever hold the
+    // current event, the one with no archive file. Earlier events have been copied out to
+    // their own archive files, see EventArchiver.
+
+    // Event table name
+    static final String TABLE_EVENT = "event";
+
+    // Event Table Columns names
+    static final String COLUMN_EVENT_ID = "event_id";
+    static final String COLUMN_EVENT_NAME = "event_name";
+    static final String COLUMN_EVENT_STARTED = "event_started";
+    static final String COLUMN_EVENT_FINISHED = "event_finished";
+    static final String COLUMN_EVENT_ARCHIVE = "event_archive_file";
+
+    // Create table SQL query
+    static final String CREATE_EVENT_TABLE = "CREATE TABLE " + TABLE_EVENT + "("
+            + COLUMN_EVENT_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," + COLUMN_EVENT_NAME + " TEXT,"
+            + COLUMN_EVENT_STARTED + " INTEGER," + COLUMN_EVENT_FINISHED + " INTEGER," + COLUMN_EVENT_ARCHIVE + " TEXT" + ")";
+
+    // Name given to the event already in the database when the event table is added
+    static final String FIRST_EVENT_NAME = "Rally";
+
+    private static final String[] COLUMNS = {
+            COLUMN_EVENT_ID,
+            COLUMN_EVENT_NAME,
+            COLUMN_EVENT_STARTED,
+            COLUMN_EVENT_FINISHED,
+            COLUMN_EVENT_ARCHIVE
+    };
+
+    private final RallyDatabase rallyDatabase;
+
+    public EventDatabaseHelper(Context context) {
+        rallyDatabase = RallyDatabase.getInstance(context);
+    }
+
+    // Method to add a new current event, returning its ID. Only called while the previous
+    // current event is being archived, or when the table is first made.
+    static int addCurrentEvent(SQLiteDatabase db, String name) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_EVENT_NAME, name);
+        values.put(COLUMN_EVENT_STARTED, System.currentTimeMillis());
+        values.put(COLUMN_EVENT_FINISHED, 0);
+        values.putNull(COLUMN_EVENT_ARCHIVE);
+        return (int) db.insert(TABLE_EVENT, null, values);
+    }
+
+    // Method to mark an event as archived to the given file
+    static void setArchived(SQLiteDatabase db, int eventID, String archiveFile) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_EVENT_FINISHED, System.currentTimeMillis());
+        values.put(COLUMN_EVENT_ARCHIVE, archiveFile);
+        db.update(TABLE_EVENT, values, COLUMN_EVENT_ID + " = ?", new String[]{String.valueOf(eventID)});
+    }
+
+    // Method to return the event being run now
+    public Event getCurrentEvent() {
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.query(TABLE_EVENT, COLUMNS, COLUMN_EVENT_ARCHIVE + " IS NULL",
+                null, null, null, COLUMN_EVENT_ID + " DESC", "1");
+        Event event = new Event();
+        if (cursor.moveToFirst()) {
+            event = readEvent(cursor);
+        }
+        cursor.close();
+        return event;
+    }
+
+    // Method to return every archived event, the most recent first
+    public List<Event> getArchivedEvents() {
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.query(TABLE_EVENT, COLUMNS, COLUMN_EVENT_ARCHIVE + " IS NOT NULL",
+                null, null, null, COLUMN_EVENT_FINISHED + " DESC");
+        List<Event> eventList = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            eventList.add(readEvent(cursor));
+        }
+        cursor.close();
+        return eventList;
+    }
+
+    // Method to rename the current event
+    public void setCurrentEventName(String name) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_EVENT_NAME, name);
+        db.update(TABLE_EVENT, values, COLUMN_EVENT_ARCHIVE + " IS NULL", null);
+    }
+
+    @SuppressLint("Range")
+    private static Event readEvent(Cursor cursor) {
+        Event event = new Event();
+        event.setEventId(cursor.getInt(cursor.getColumnIndex(COLUMN_EVENT_ID)));
+        event.setName(cursor.getString(cursor.getColumnIndex(COLUMN_EVENT_NAME)));
+        event.setStarted(cursor.getLong(cursor.getColumnIndex(COLUMN_EVENT_STARTED)));
+        event.setFinished(cursor.getLong(cursor.getColumnIndex(COLUMN_EVENT_FINISHED)));
+        event.setArchiveFile(cursor.getString(cursor.getColumnIndex(COLUMN_EVENT_ARCHIVE)));
+        return event;
+    }
+}
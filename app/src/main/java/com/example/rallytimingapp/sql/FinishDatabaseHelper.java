@@ -5,66 +5,59 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 
 import com.example.rallytimingapp.model.Finish;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class FinishDatabaseHelper extends SQLiteOpenHelper {
-
-    // Database Version
-    private static final int DATABASE_VERSION = 1;
-
-    // Database Name
-    private static final String DATABASE_NAME = "FinishManager.db";
+public class FinishDatabaseHelper {
 
     // Finish table name
-    private static final String TABLE_FINISH = "finish";
+    static final String TABLE_FINISH = "finish";
 
     // FInish Table Columns names
-    private static final String COLUMN_FINISH_ID = "finish_id";
-    private static final String COLUMN_FINISH_ORDER = "finish_order";
-    private static final String COLUMN_FINISH_STAGE = "finish_stage";
-    private static final String COLUMN_FINISH_CARNUM = "finish_carNum";
-    private static final String COLUMN_FINISH_STAGEID = "finish_stageID";
+    static final String COLUMN_FINISH_ID = "finish_id";
+    static final String COLUMN_FINISH_ORDER = "finish_order";
+    static final String COLUMN_FINISH_STAGE = "finish_stage";
+    static final String COLUMN_FINISH_CARNUM = "finish_carNum";
+    static final String COLUMN_FINISH_STAGEID = "finish_stageID";
 
     // Create table SQL query
-    private String CREATE_FINISH_TABLE = "CREATE TABLE " + TABLE_FINISH + "("
+    static final String CREATE_FINISH_TABLE = "CREATE TABLE " + TABLE_FINISH + "("
             + COLUMN_FINISH_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," + COLUMN_FINISH_ORDER + " INTEGER,"
             + COLUMN_FINISH_STAGE + " INTEGER," + COLUMN_FINISH_CARNUM + " INTEGER," + COLUMN_FINISH_STAGEID
-            + " INTEGER" + ")";
+            + " INTEGER" + StageDatabaseHelper.REFERENCES_STAGE + ")";
 
-    // Drop table SQL query
-    private String DROP_FINISH_TABLE = "DROP TABLE IF EXISTS " + TABLE_FINISH;
+    // Index names
+    static final String INDEX_FINISH_CAR = "index_finish_car_num";
+    static final String INDEX_FINISH_ORDER = "index_finish_order";
 
-    public FinishDatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
-    }
+    // Create index SQL queries, each car and each finish order only appears once per stage
+    static final String CREATE_FINISH_CAR_INDEX = "CREATE UNIQUE INDEX " + INDEX_FINISH_CAR + " ON "
+            + TABLE_FINISH + "(" + COLUMN_FINISH_STAGE + "," + COLUMN_FINISH_CARNUM + ")";
+    static final String CREATE_FINISH_ORDER_INDEX = "CREATE UNIQUE INDEX " + INDEX_FINISH_ORDER + " ON "
+            + TABLE_FINISH + "(" + COLUMN_FINISH_STAGE + "," + COLUMN_FINISH_ORDER + ")";
 
-    @Override
-    public void onCreate(SQLiteDatabase db) {
-        db.execSQL(CREATE_FINISH_TABLE);
-    }
+    private final RallyDatabase rallyDatabase;
+    private final TimecardNavigator timecardNavigator;
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL(DROP_FINISH_TABLE);
-        onCreate(db);
+    public FinishDatabaseHelper(Context context) {
+        rallyDatabase = RallyDatabase.getInstance(context);
+        timecardNavigator = TimecardNavigator.getInstance(context);
     }
 
-    // Method to remove all entries from the database
+    // Method to remove all entries from the database, in a single statement
     public void empty() {
-        List<Finish> finishList = getAllFinish();
-        for (int i = 0; i < finishList.size(); i++) {
-            deleteFinish(finishList.get(i));
-        }
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.delete(TABLE_FINISH, null, null);
+        OrderCounter.reset(db, TABLE_FINISH);
+        timecardNavigator.rosterChanged(TimecardNavigator.FINISH);
     }
 
     // Method to add an entry to the database
     public void addFinish(Finish finish) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
 
         ContentValues values = new ContentValues();
         values.put(COLUMN_FINISH_ORDER, finish.getFinishOrder());
@@ -74,7 +67,30 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
 
         // Inserting Row
         db.insert(TABLE_FINISH, null, values);
-        db.close();
+        timecardNavigator.rosterChanged(TimecardNavigator.FINISH, finish.getStage());
+    }
+
+    // Method to add an entry at the end of the finish order for its stage, unless the car is
+    // already there. The check, the new finish order and the insert all happen in one
+    // transaction, so two cars requesting their time together can't get the same order.
+    // Returns false if the car already had an entry.
+    public boolean addNextFinish(Finish finish) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            if (checkFinish(finish.getStage(), finish.getCarNum())) {
+                return false;
+            }
+            finish.setFinishOrder(OrderCounter.next(db, TABLE_FINISH, COLUMN_FINISH_STAGE,
+                    COLUMN_FINISH_ORDER, finish.getStage()));
+            addFinish(finish);
+            db.setTransactionSuccessful();
+            return true;
+        } finally {
+            db.endTransaction();
+            // Again once the transaction is over, in case the roster was read in the meantime
+            timecardNavigator.rosterChanged(TimecardNavigator.FINISH, finish.getStage());
+        }
     }
 
     // Method to return the car number of the entry with the given stage number and finish order
@@ -83,7 +99,7 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_FINISH_CARNUM
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_FINISH_STAGE + " = ?" + " AND " + COLUMN_FINISH_ORDER + " = ?";
         // selection argument
@@ -103,7 +119,6 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
             carNum = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return carNum;
     }
@@ -114,7 +129,7 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_FINISH_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_FINISH_STAGE + " = ?" + " AND " + COLUMN_FINISH_CARNUM + " = ?";
         // selection argument
@@ -134,7 +149,6 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
             finishID = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return finishID;
     }
@@ -152,7 +166,7 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
 
         Finish finish = new Finish();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_FINISH_ID + " = ?";
@@ -175,7 +189,6 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
             finish.setStageID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_FINISH_STAGEID))));
         }
         cursor.close();
-        db.close();
 
         return finish;
     }
@@ -193,7 +206,7 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
 
         Finish finish = new Finish();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_FINISH_STAGE + " = ?" + " AND " + COLUMN_FINISH_ORDER + " = ?";
@@ -216,7 +229,6 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
             finish.setStageID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_FINISH_STAGEID))));
         }
         cursor.close();
-        db.close();
 
         return finish;
     }
@@ -235,7 +247,7 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
         String sortOrder = COLUMN_FINISH_ID + " ASC";
         List<Finish> finishList = new ArrayList<Finish>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         Cursor cursor = db.query(TABLE_FINISH, //Table to query
                 columns,             //columns to return
@@ -257,14 +269,13 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return finishList;
     }
 
     // Method to update an entry in the database
     public void updateFinish(Finish finish) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COLUMN_FINISH_ORDER, finish.getFinishOrder());
         values.put(COLUMN_FINISH_STAGE, finish.getStage());
@@ -273,15 +284,17 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
         // updating row
         db.update(TABLE_FINISH, values, COLUMN_FINISH_ID + " = ?",
                 new String[]{String.valueOf(finish.getFinishID())});
-        db.close();
+        timecardNavigator.rosterChanged(TimecardNavigator.FINISH, finish.getStage());
     }
 
     // Method to delete an entry in the database
     public void deleteFinish(Finish finish) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         db.delete(TABLE_FINISH, COLUMN_FINISH_ID + " = ?",
                 new String[]{String.valueOf(finish.getFinishID())});
-        db.close();
+        // The next car in takes the place of the last one if that was the entry removed
+        OrderCounter.reset(db, TABLE_FINISH, finish.getStage());
+        timecardNavigator.rosterChanged(TimecardNavigator.FINISH, finish.getStage());
     }
 
     // Method to return a list of all entries with the given stage number
@@ -302,7 +315,7 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
         String[] selectionArgs = {String.valueOf(stageNum)};
         List<Finish> finishList = new ArrayList<Finish>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         Cursor cursor = db.query(TABLE_FINISH, //Table to query
                 columns,             //columns to return
@@ -324,7 +337,6 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return finishList;
     }
@@ -337,7 +349,7 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
                 COLUMN_FINISH_ORDER
         };
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         String sortOrder = COLUMN_FINISH_ORDER + " ASC";
         // selection criteria
@@ -359,7 +371,6 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
             currFO = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return currFO;
     }
@@ -370,7 +381,7 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_FINISH_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_FINISH_STAGE + " = ?" + " AND " + COLUMN_FINISH_CARNUM + " = ?";
         // selection argument
@@ -386,7 +397,6 @@ public class FinishDatabaseHelper extends SQLiteOpenHelper {
                 null);                      //The sort order
         int cursorCount = cursor.getCount();
         cursor.close();
-        db.close();
         if (cursorCount > 0) {
             return true;
         }
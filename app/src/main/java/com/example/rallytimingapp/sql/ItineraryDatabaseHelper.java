@@ -0,0 +1,222 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.rallytimingapp.model.Itinerary;
+import com.example.rallytimingapp.model.ItineraryStage;
+import com.example.rallytimingapp.model.RallyTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ItineraryDatabaseHelper {
+    // Holds the itinerary of the current event, one row for each stage with its time
+    // controls, distances and target time, and the competitor_stage table, which maps each
+    // competitor and stage number to the competitor's stage entry. The number of stages is
+    // whatever is in the itinerary, so a longer rally needs no change to the tables. Both
+    // are read through ItineraryHelper, which keeps them in memory.
+
+    // Itinerary table name
+    static final String TABLE_ITINERARY = "itinerary";
+
+    // Itinerary Table Columns names
+    static final String COLUMN_ITINERARY_ID = "itinerary_id";
+    static final String COLUMN_ITINERARY_STAGENUM = "itinerary_stage_num";
+    static final String COLUMN_ITINERARY_NAME = "itinerary_name";
+    static final String COLUMN_ITINERARY_DISTANCE = "itinerary_distance";
+    static final String COLUMN_ITINERARY_START_CONTROL = "itinerary_start_control";
+    static final String COLUMN_ITINERARY_NEXT_CONTROL = "itinerary_next_control";
+    static final String COLUMN_ITINERARY_ROAD_DISTANCE = "itinerary_road_distance";
+    static final String COLUMN_ITINERARY_TARGET_TIME = "itinerary_target_time";
+
+    // Create table SQL query
+    static final String CREATE_ITINERARY_TABLE = "CREATE TABLE " + TABLE_ITINERARY + "("
+            + COLUMN_ITINERARY_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," + COLUMN_ITINERARY_STAGENUM + " INTEGER NOT NULL UNIQUE,"
+            + COLUMN_ITINERARY_NAME + " TEXT," + COLUMN_ITINERARY_DISTANCE + " INTEGER,"
+            + COLUMN_ITINERARY_START_CONTROL + " TEXT," + COLUMN_ITINERARY_NEXT_CONTROL + " TEXT,"
+            + COLUMN_ITINERARY_ROAD_DISTANCE + " INTEGER," + COLUMN_ITINERARY_TARGET_TIME + " INTEGER" + ")";
+
+    // Competitor stage table name
+    static final String TABLE_COMP_STAGE = "competitor_stage";
+
+    // Competitor Stage Table Columns names
+    static final String COLUMN_COMP_STAGE_COMPID = "competitor_stage_comp_id";
+    static final String COLUMN_COMP_STAGE_STAGENUM = "competitor_stage_stage_num";
+    static final String COLUMN_COMP_STAGE_STAGEID = "competitor_stage_stage_id";
+
+    // Create table SQL query. The rows go with the competitor or stage entry they point to.
+    static final String CREATE_COMP_STAGE_TABLE = "CREATE TABLE " + TABLE_COMP_STAGE + "("
+            + COLUMN_COMP_STAGE_COMPID + " INTEGER NOT NULL REFERENCES " + CompDatabaseHelper.TABLE_COMP + "("
+            + CompDatabaseHelper.COLUMN_COMP_ID + ") ON DELETE CASCADE,"
+            + COLUMN_COMP_STAGE_STAGENUM + " INTEGER NOT NULL,"
+            + COLUMN_COMP_STAGE_STAGEID + " INTEGER NOT NULL" + StageDatabaseHelper.REFERENCES_STAGE + ")";
+
+    // Index names
+    static final String INDEX_COMP_STAGE = "index_competitor_stage";
+    static final String INDEX_COMP_STAGE_STAGEID = "index_competitor_stage_stage_id";
+
+    // Create index SQL queries. Each competitor has one entry per stage, and deleting a stage
+    // entry finds the row pointing at it without reading the whole table.
+    static final String CREATE_COMP_STAGE_INDEX = "CREATE UNIQUE INDEX " + INDEX_COMP_STAGE + " ON "
+            + TABLE_COMP_STAGE + "(" + COLUMN_COMP_STAGE_COMPID + "," + COLUMN_COMP_STAGE_STAGENUM + ")";
+    static final String CREATE_COMP_STAGE_STAGEID_INDEX = "CREATE INDEX " + INDEX_COMP_STAGE_STAGEID + " ON "
+            + TABLE_COMP_STAGE + "(" + COLUMN_COMP_STAGE_STAGEID + ")";
+
+    // Itinerary the app was first written for, given to a new database and to one upgraded
+    // from when the four stages were fixed
+    static final List<ItineraryStage> DEFAULT_ITINERARY = Arrays.asList(
+            new ItineraryStage(1, "SSS 1 Pohe Island 1", 1240, "TC 1", "TC 2", 2830, 7 * RallyTime.MS_PER_MINUTE),
+            new ItineraryStage(2, "SSS 2 Pohe Island 2", 1240, "TC 2", "TC 3", 2830, 7 * RallyTime.MS_PER_MINUTE),
+            new ItineraryStage(3, "SS 3 Helena 1", 13510, "TC 3", "TC 4", 46070, 50 * RallyTime.MS_PER_MINUTE),
+            new ItineraryStage(4, "SS 4 Akerama 1", 16070, "TC 4", "TC 5", 35700, 40 * RallyTime.MS_PER_MINUTE));
+
+    private static final String[] COLUMNS = {
+            COLUMN_ITINERARY_STAGENUM,
+            COLUMN_ITINERARY_NAME,
+            COLUMN_ITINERARY_DISTANCE,
+            COLUMN_ITINERARY_START_CONTROL,
+            COLUMN_ITINERARY_NEXT_CONTROL,
+            COLUMN_ITINERARY_ROAD_DISTANCE,
+            COLUMN_ITINERARY_TARGET_TIME
+    };
+
+    private final Context context;
+    private final RallyDatabase rallyDatabase;
+
+    public ItineraryDatabaseHelper(Context context) {
+        this.context = context;
+        this.rallyDatabase = RallyDatabase.getInstance(context);
+    }
+
+    // Method to make the itinerary and competitor stage tables, with the default itinerary
+    static void addItineraryTables(SQLiteDatabase db) {
+        db.execSQL(CREATE_ITINERARY_TABLE);
+        db.execSQL(CREATE_COMP_STAGE_TABLE);
+        db.execSQL(CREATE_COMP_STAGE_INDEX);
+        db.execSQL(CREATE_COMP_STAGE_STAGEID_INDEX);
+        for (ItineraryStage stage : DEFAULT_ITINERARY) {
+            db.insert(TABLE_ITINERARY, null, itineraryValues(stage));
+        }
+    }
+
+    // Method to replace the itinerary. Every competitor is given an empty stage entry for
+    // each stage added, and the entries for any stage taken away are deleted along with
+    // their timecards, all in one transaction.
+    public void setItinerary(List<ItineraryStage> stages) {
+        // Checks the stages are numbered 1 to the number of stages before anything is changed
+        Itinerary itinerary = new Itinerary(stages);
+        String stageCount = String.valueOf(itinerary.getStageCount());
+
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_ITINERARY, null, null);
+            for (ItineraryStage stage : itinerary.getStages()) {
+                db.insert(TABLE_ITINERARY, null, itineraryValues(stage));
+            }
+            db.delete(StageDatabaseHelper.TABLE_STAGE, StageDatabaseHelper.COLUMN_STAGE_STAGENUM + " > ?",
+                    new String[]{stageCount});
+            // An entry already there for the car and stage, left by a deleted competitor, is reused
+            db.execSQL("INSERT OR IGNORE INTO " + StageDatabaseHelper.TABLE_STAGE + "("
+                    + StageDatabaseHelper.COLUMN_STAGE_CARNUM + "," + StageDatabaseHelper.COLUMN_STAGE_STAGENUM + ","
+                    + StageDatabaseHelper.COLUMN_STAGE_SO + ") SELECT c." + CompDatabaseHelper.COLUMN_COMP_CARNUM
+                    + ", i." + COLUMN_ITINERARY_STAGENUM + ", 0 FROM " + CompDatabaseHelper.TABLE_COMP + " AS c, "
+                    + TABLE_ITINERARY + " AS i");
+            db.execSQL("INSERT OR IGNORE INTO " + TABLE_COMP_STAGE + "(" + COLUMN_COMP_STAGE_COMPID + ","
+                    + COLUMN_COMP_STAGE_STAGENUM + "," + COLUMN_COMP_STAGE_STAGEID + ") SELECT c."
+                    + CompDatabaseHelper.COLUMN_COMP_ID + ", s." + StageDatabaseHelper.COLUMN_STAGE_STAGENUM
+                    + ", s." + StageDatabaseHelper.COLUMN_STAGE_ID + " FROM " + CompDatabaseHelper.TABLE_COMP
+                    + " AS c INNER JOIN " + StageDatabaseHelper.TABLE_STAGE + " AS s ON s."
+                    + StageDatabaseHelper.COLUMN_STAGE_CARNUM + " = c." + CompDatabaseHelper.COLUMN_COMP_CARNUM);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        // Stage entries have been added and removed, so everything kept in memory is read again
+        ItineraryHelper.getInstance(context).invalidate();
+        ClassificationHelper.getInstance(context).invalidate();
+        TimecardNavigator.getInstance(context).invalidate();
+    }
+
+    // Method to read the itinerary from the given database
+    static Itinerary readItinerary(SQLiteDatabase db) {
+        List<ItineraryStage> stages = new ArrayList<>();
+        Cursor cursor = db.query(TABLE_ITINERARY, COLUMNS, null, null, null, null, COLUMN_ITINERARY_STAGENUM);
+        while (cursor.moveToNext()) {
+            ItineraryStage stage = new ItineraryStage();
+            stage.setStageNum(cursor.getInt(0));
+            stage.setName(cursor.getString(1));
+            stage.setDistance(cursor.getInt(2));
+            stage.setStartControl(cursor.getString(3));
+            stage.setNextControl(cursor.getString(4));
+            stage.setRoadDistance(cursor.getInt(5));
+            stage.setTargetTime(cursor.isNull(6) ? RallyTime.NO_TIME : cursor.getInt(6));
+            stages.add(stage);
+        }
+        cursor.close();
+        return new Itinerary(stages);
+    }
+
+    // Method to read the stage entry IDs of every competitor, by competitor ID. Each array is
+    // indexed by stage number, with 0 for any stage the competitor has no entry for.
+    static Map<Integer, int[]> readCompetitorStages(SQLiteDatabase db, int stageCount) {
+        Map<Integer, int[]> competitorStages = new HashMap<>();
+        Cursor cursor = db.query(TABLE_COMP_STAGE,
+                new String[]{COLUMN_COMP_STAGE_COMPID, COLUMN_COMP_STAGE_STAGENUM, COLUMN_COMP_STAGE_STAGEID},
+                null, null, null, null, null);
+        while (cursor.moveToNext()) {
+            int compID = cursor.getInt(0);
+            int stageNum = cursor.getInt(1);
+            if (stageNum < 1 || stageNum > stageCount) {
+                continue;
+            }
+            int[] stageIds = competitorStages.get(compID);
+            if (stageIds == null) {
+                stageIds = new int[stageCount + 1];
+                competitorStages.put(compID, stageIds);
+            }
+            stageIds[stageNum] = cursor.getInt(2);
+        }
+        cursor.close();
+        return competitorStages;
+    }
+
+    // Method to save a competitor's stage entry IDs, replacing any saved before. The IDs are
+    // indexed by stage number, and a 0 means no entry for that stage.
+    static void saveCompetitorStages(SQLiteDatabase db, int compID, int[] stageIds) {
+        db.delete(TABLE_COMP_STAGE, COLUMN_COMP_STAGE_COMPID + " = ?", new String[]{String.valueOf(compID)});
+        ContentValues values = new ContentValues();
+        for (int stageNum = 1; stageNum < stageIds.length; stageNum++) {
+            if (stageIds[stageNum] == 0) {
+                continue;
+            }
+            values.put(COLUMN_COMP_STAGE_COMPID, compID);
+            values.put(COLUMN_COMP_STAGE_STAGENUM, stageNum);
+            values.put(COLUMN_COMP_STAGE_STAGEID, stageIds[stageNum]);
+            db.insert(TABLE_COMP_STAGE, null, values);
+        }
+    }
+
+    // Method to return the values saved for a stage of the itinerary
+    private static ContentValues itineraryValues(ItineraryStage stage) {
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_ITINERARY_STAGENUM, stage.getStageNum());
+        values.put(COLUMN_ITINERARY_NAME, stage.getName());
+        values.put(COLUMN_ITINERARY_DISTANCE, stage.getDistance());
+        values.put(COLUMN_ITINERARY_START_CONTROL, stage.getStartControl());
+        values.put(COLUMN_ITINERARY_NEXT_CONTROL, stage.getNextControl());
+        values.put(COLUMN_ITINERARY_ROAD_DISTANCE, stage.getRoadDistance());
+        if (stage.getTargetTime() == RallyTime.NO_TIME) {
+            values.putNull(COLUMN_ITINERARY_TARGET_TIME);
+        } else {
+            values.put(COLUMN_ITINERARY_TARGET_TIME, stage.getTargetTime());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.rallytimingapp.model.Itinerary;
+import com.example.rallytimingapp.model.StageTimeCalculator;
+
+import java.util.Map;
+
+public class ItineraryHelper {
+    // Keeps the itinerary and every competitor's stage entry IDs in memory for the whole app,
+    // so the screens find a stage, or a competitor's entry for it, by indexing an array. They
+    // are read when the app starts, see preload, and kept up to date by CompDatabaseHelper
+    // as competitors are added, changed and deleted. Changes to many rows at once throw them
+    // away to be read again. The stage time calculator is built from the itinerary's target
+    // times, so it is thrown away with the itinerary whenever that changes.
+
+    private static ItineraryHelper instance;
+
+    private final RallyDatabase rallyDatabase;
+    private Itinerary itinerary; // Null until first needed
+    private StageTimeCalculator stageTimeCalculator; // Null until first needed
+    private Map<Integer, int[]> competitorStages; // Stage entry IDs by competitor ID, null until first needed
+
+    // Method to return the one shared instance
+    public static synchronized ItineraryHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new ItineraryHelper(RallyDatabase.getInstance(context));
+        }
+        return instance;
+    }
+
+    private ItineraryHelper(RallyDatabase rallyDatabase) {
+        this.rallyDatabase = rallyDatabase;
+    }
+
+    // Method to read everything in now rather than when it is first needed. It reads the
+    // database, so it should be run on the writer thread when the app starts.
+    public synchronized void preload() {
+        loadCompetitorStages();
+    }
+
+    // Method to return the itinerary of the current event
+    public synchronized Itinerary getItinerary() {
+        loadItinerary();
+        return itinerary;
+    }
+
+    // Method to return the calculator for the target times of the current itinerary
+    public synchronized StageTimeCalculator getStageTimeCalculator() {
+        loadItinerary();
+        if (stageTimeCalculator == null) {
+            stageTimeCalculator = new StageTimeCalculator(itinerary.getTargetTimes());
+        }
+        return stageTimeCalculator;
+    }
+
+    // Method to return the number of stages in the current event
+    public synchronized int getStageCount() {
+        loadItinerary();
+        return itinerary.getStageCount();
+    }
+
+    // Method to return a competitor's stage entry IDs, indexed by stage number, with 0 for any
+    // stage it has no entry for
+    public synchronized int[] getStageIds(int compID) {
+        loadCompetitorStages();
+        int[] stageIds = competitorStages.get(compID);
+        return stageIds == null ? new int[itinerary.getStageCount() + 1] : stageIds.clone();
+    }
+
+    // Method to update the stage entry IDs kept for a competitor once they have been saved
+    synchronized void competitorChanged(int compID, int[] stageIds) {
+        if (competitorStages != null) {
+            competitorStages.put(compID, stageIds.clone());
+        }
+    }
+
+    // Method to forget a competitor once it has been deleted
+    synchronized void competitorRemoved(int compID) {
+        if (competitorStages != null) {
+            competitorStages.remove(compID);
+        }
+    }
+
+    // Method to throw everything away after a change to many rows at once, so it is read
+    // again the next time it is needed
+    synchronized void invalidate() {
+        itinerary = null;
+        stageTimeCalculator = null;
+        competitorStages = null;
+    }
+
+    private void loadItinerary() {
+        if (itinerary == null) {
+            itinerary = ItineraryDatabaseHelper.readItinerary(rallyDatabase.getReadableDatabase());
+        }
+    }
+
+    private void loadCompetitorStages() {
+        loadItinerary();
+        if (competitorStages == null) {
+            SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+            competitorStages = ItineraryDatabaseHelper.readCompetitorStages(db, itinerary.getStageCount());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.rallytimingapp.model.Competitor;
+import com.example.rallytimingapp.model.SearchIndex;
+import com.example.rallytimingapp.model.TimingCrew;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ListSearchHelper {
+    // Keeps the search indexes for the admin list screens. They are read from the competitor
+    // and timing crew tables the first time a list is searched, then kept up to date one entry
+    // at a time by CompDatabaseHelper and TimingCrewDatabaseHelper whenever an entry changes.
+
+    private static ListSearchHelper instance;
+
+    private final RallyDatabase rallyDatabase;
+    private SearchIndex competitors; // Null until the competitor list is first searched
+    private Map<String, SearchIndex> crews; // Crews by position, null until first searched
+
+    // Method to return the one shared instance, so every screen searches the same indexes
+    public static synchronized ListSearchHelper getInstance(Context context) {
+        if (instance == null) {
+            instance = new ListSearchHelper(RallyDatabase.getInstance(context));
+        }
+        return instance;
+    }
+
+    private ListSearchHelper(RallyDatabase rallyDatabase) {
+        this.rallyDatabase = rallyDatabase;
+    }
+
+    // Method to return the IDs of the competitors whose driver, codriver or car number
+    // contains the search text, in order of driver name
+    public synchronized List<Integer> searchCompetitors(String search) {
+        loadCompetitors();
+        return competitors.search(search);
+    }
+
+    // Method to return the IDs of the crews in the given position whose post chief's name
+    // contains the search text, in order of post chief
+    public synchronized List<Integer> searchCrews(String position, String search) {
+        loadCrews();
+        SearchIndex index = crews.get(position);
+        return index == null ? Collections.<Integer>emptyList() : index.search(search);
+    }
+
+    // Method to update the competitor index when an entry has been added or changed
+    synchronized void competitorChanged(int compID, Competitor competitor) {
+        if (competitors == null) {
+            return;
+        }
+        competitors.put(compID, competitor.getDriver(), competitor.getDriver(),
+                competitor.getCodriver(), String.valueOf(competitor.getCarNum()));
+    }
+
+    // Method to update the competitor index when an entry has been deleted
+    synchronized void competitorRemoved(int compID) {
+        if (competitors == null) {
+            return;
+        }
+        competitors.remove(compID);
+    }
+
+    // Method to update the crew indexes when an entry has been added or changed
+    synchronized void crewChanged(int crewID, TimingCrew crew) {
+        if (crews == null) {
+            return;
+        }
+        // The crew may have moved to a different position
+        for (SearchIndex index : crews.values()) {
+            index.remove(crewID);
+        }
+        crewIndex(crew.getPosition()).put(crewID, crew.getPostChief(), crew.getPostChief());
+    }
+
+    // Method to update the crew indexes when an entry has been deleted
+    synchronized void crewRemoved(int crewID) {
+        if (crews == null) {
+            return;
+        }
+        for (SearchIndex index : crews.values()) {
+            index.remove(crewID);
+        }
+    }
+
+    // Method to throw the indexes away after a change to many entries at once, so they are
+    // read again the next time a list is searched
+    synchronized void invalidate() {
+        competitors = null;
+        crews = null;
+    }
+
+    // Method to build the competitor index from the competitor table, the first time it is needed
+    private void loadCompetitors() {
+        if (competitors != null) {
+            return;
+        }
+        competitors = new SearchIndex();
+
+        String[] columns = {
+                CompDatabaseHelper.COLUMN_COMP_ID,
+                CompDatabaseHelper.COLUMN_COMP_CARNUM,
+                CompDatabaseHelper.COLUMN_COMP_DRIVER,
+                CompDatabaseHelper.COLUMN_COMP_CODRIVER
+        };
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.query(CompDatabaseHelper.TABLE_COMP, columns, null, null, null, null, null);
+        while (cursor.moveToNext()) {
+            String driver = cursor.getString(2);
+            competitors.put(cursor.getInt(0), driver, driver, cursor.getString(3),
+                    String.valueOf(cursor.getInt(1)));
+        }
+        cursor.close();
+    }
+
+    // Method to build the crew indexes from the timing crew table, the first time they are needed
+    private void loadCrews() {
+        if (crews != null) {
+            return;
+        }
+        crews = new HashMap<>();
+
+        String[] columns = {
+                TimingCrewDatabaseHelper.COLUMN_CREW_ID,
+                TimingCrewDatabaseHelper.COLUMN_CREW_POSITION,
+                TimingCrewDatabaseHelper.COLUMN_CREW_POSTCHIEF
+        };
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.query(TimingCrewDatabaseHelper.TABLE_TIMING_CREW, columns, null, null, null, null, null);
+        while (cursor.moveToNext()) {
+            String postChief = cursor.getString(2);
+            crewIndex(cursor.getString(1)).put(cursor.getInt(0), postChief, postChief);
+        }
+        cursor.close();
+    }
+
+    // Method to return the index for a crew position, adding it if there isn't one yet
+    private SearchIndex crewIndex(String position) {
+        SearchIndex index = crews.get(position);
+        if (index == null) {
+            index = new SearchIndex();
+            crews.put(position, index);
+        }
+        return index;
+    }
+}
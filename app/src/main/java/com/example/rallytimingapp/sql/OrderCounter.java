@@ -0,0 +1,54 @@
+package com.example.rallytimingapp.sql;
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+final class OrderCounter {
+    // Keeps the last order handed out for each stage of the A Control and Finish tables, so
+    // the next car in can be numbered without reading every entry for the stage. A counter
+    // that isn't there yet, or has been reset, starts again from the highest order in use.
+    // The Start table only uses one when a car's own start order has been taken.
+
+    // Order counter table name
+    static final String TABLE_ORDER_COUNTER = "order_counter";
+
+    // Order counter table column names
+    static final String COLUMN_COUNTER_TABLE = "counter_table";
+    static final String COLUMN_COUNTER_STAGE = "counter_stage";
+    static final String COLUMN_COUNTER_LAST = "counter_last";
+
+    // Create table SQL query
+    static final String CREATE_ORDER_COUNTER_TABLE = "CREATE TABLE " + TABLE_ORDER_COUNTER + "("
+            + COLUMN_COUNTER_TABLE + " TEXT NOT NULL," + COLUMN_COUNTER_STAGE + " INTEGER NOT NULL,"
+            + COLUMN_COUNTER_LAST + " INTEGER NOT NULL,"
+            + "PRIMARY KEY (" + COLUMN_COUNTER_TABLE + "," + COLUMN_COUNTER_STAGE + "))";
+
+    private static final String WHERE_COUNTER = COLUMN_COUNTER_TABLE + " = ?" + " AND " + COLUMN_COUNTER_STAGE + " = ?";
+
+    private OrderCounter() {
+    }
+
+    // Method to hand out the next order for a stage of the given table. It has to be called
+    // inside the transaction that adds the entry, so no other entry can be given the same order.
+    static int next(SQLiteDatabase db, String table, String stageColumn, String orderColumn, int stage) {
+        String stageArg = String.valueOf(stage);
+        db.execSQL("INSERT OR IGNORE INTO " + TABLE_ORDER_COUNTER + "(" + COLUMN_COUNTER_TABLE + ","
+                + COLUMN_COUNTER_STAGE + "," + COLUMN_COUNTER_LAST + ") SELECT ?, ?, IFNULL(MAX("
+                + orderColumn + "), 0) FROM " + table + " WHERE " + stageColumn + " = ?",
+                new Object[]{table, stage, stage});
+        db.execSQL("UPDATE " + TABLE_ORDER_COUNTER + " SET " + COLUMN_COUNTER_LAST + " = "
+                + COLUMN_COUNTER_LAST + " + 1 WHERE " + WHERE_COUNTER, new Object[]{table, stage});
+        return (int) DatabaseUtils.longForQuery(db, "SELECT " + COLUMN_COUNTER_LAST + " FROM "
+                + TABLE_ORDER_COUNTER + " WHERE " + WHERE_COUNTER, new String[]{table, stageArg});
+    }
+
+    // Method to reset the counter for one stage of a table, after an entry has been removed
+    static void reset(SQLiteDatabase db, String table, int stage) {
+        db.delete(TABLE_ORDER_COUNTER, WHERE_COUNTER, new String[]{table, String.valueOf(stage)});
+    }
+
+    // Method to reset every counter for a table, after it has been emptied
+    static void reset(SQLiteDatabase db, String table) {
+        db.delete(TABLE_ORDER_COUNTER, COLUMN_COUNTER_TABLE + " = ?", new String[]{table});
+    }
+}
@@ -0,0 +1,497 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import com.example.rallytimingapp.model.HybridClock;
+import com.example.rallytimingapp.model.RallyTime;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RallyDatabase extends SQLiteOpenHelper {
+    // Single database file holding every table used by the app. Each of the
+    // DatabaseHelper classes reads and writes its own table(s) through this.
+    // The connection is opened once by RallyApplication and kept open for the
+    // lifetime of the process, so the helpers must never close it.
+
+    private static final String TAG = "RallyDatabase";
+
+    // Database Version
+    // 1 - all tables combined into one database
+    // 2 - unique indexes on the car number and order of each stage
+    // 3 - stage times saved as milliseconds rather than text
+    // 4 - counters for the next A Control and Finish order of each stage
+    // 5 - indexes on the names shown in the list screens
+    // 6 - list of events, with earlier ones archived to their own files
+    // 7 - clock readings of when each stage field was set, for passing timecards between phones
+    // 8 - unique index on the usernames, with passwords saved as hashes
+    // 9 - itinerary of stages, with each competitor's stage entries in their own table
+    private static final int DATABASE_VERSION = 9;
+
+    // Database Name
+    static final String DATABASE_NAME = "RallyManager.db";
+    // Name of the file the shared instance opens, only changed by the instrumented tests
+    private static String databaseName = DATABASE_NAME;
+
+    // Value of PRAGMA auto_vacuum when free pages are kept until an incremental vacuum
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    // Database files used before all the tables were moved into this one, paired with
+    // the table each of them held. Order matters, stages have to be imported before
+    // the tables that point to them.
+    private static final String[][] LEGACY_DATABASES = {
+            {"StageManager.db", StageDatabaseHelper.TABLE_STAGE},
+            {"CompetitorManager.db", CompDatabaseHelper.TABLE_COMP},
+            {"UserManager.db", UserDatabaseHelper.TABLE_USER},
+            {"TimingCrewManager.db", TimingCrewDatabaseHelper.TABLE_TIMING_CREW},
+            {"AControlManager.db", AControlDatabaseHelper.TABLE_ACONTROL},
+            {"StartManager.db", StartDatabaseHelper.TABLE_START},
+            {"FinishManager.db", FinishDatabaseHelper.TABLE_FINISH}
+    };
+
+    private static RallyDatabase instance;
+    // Clock used to stamp the stage fields as they are set, see HybridClock
+    private static HybridClock clock;
+
+    private final Context context;
+    // Legacy files that were copied in by onCreate, deleted once the new database is open
+    private final List<String> importedDatabases = new ArrayList<>();
+
+    // Method to return the one shared instance, so all the helpers use the same connection
+    public static synchronized RallyDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = new RallyDatabase(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Method to make the shared instance open another file, so the instrumented tests can
+    // empty the tables without touching the event saved on the phone. The other file never
+    // brings in the old database files. It has to be called before the database is first
+    // used, see RallyTestRunner.
+    public static synchronized void useDatabase(String name) {
+        if (instance != null) {
+            throw new IllegalStateException("The database is already open");
+        }
+        databaseName = name;
+    }
+
+    private RallyDatabase(Context context) {
+        super(context, databaseName, null, DATABASE_VERSION);
+        this.context = context;
+        // Write-ahead logging lets the screens keep reading while a write is in progress
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // Keep track of the pages freed by deleted entries, so compact can hand them back
+        // without rewriting the whole file. Only takes effect before the first table is made.
+        db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(StageDatabaseHelper.CREATE_STAGE_TABLE);
+        db.execSQL(CompDatabaseHelper.CREATE_COMP_TABLE);
+        ItineraryDatabaseHelper.addItineraryTables(db);
+        db.execSQL(UserDatabaseHelper.CREATE_USER_TABLE);
+        db.execSQL(TimingCrewDatabaseHelper.CREATE_CREW_TABLE);
+        db.execSQL(AControlDatabaseHelper.CREATE_AC_TABLE);
+        db.execSQL(StartDatabaseHelper.CREATE_START_TABLE);
+        db.execSQL(FinishDatabaseHelper.CREATE_FINISH_TABLE);
+        db.execSQL(OrderCounter.CREATE_ORDER_COUNTER_TABLE);
+        addNameIndexes(db);
+        addEventTable(db);
+        db.execSQL(StageDatabaseHelper.CREATE_STAGE_CLOCK_INDEX);
+
+        // Bring across anything that was saved in the old separate database files
+        if (DATABASE_NAME.equals(getDatabaseName())) {
+            for (String[] legacy : LEGACY_DATABASES) {
+                importLegacyDatabase(db, legacy[0], legacy[1]);
+            }
+        }
+        // The old A Control table used 0 for "no previous stage", which isn't a valid
+        // stage ID now that the column is a foreign key
+        db.execSQL("UPDATE " + AControlDatabaseHelper.TABLE_ACONTROL + " SET "
+                + AControlDatabaseHelper.COLUMN_AC_STAGE1ID + " = NULL WHERE "
+                + AControlDatabaseHelper.COLUMN_AC_STAGE1ID + " = 0");
+        // The old competitor file may point at stage entries that were never saved
+        db.execSQL("DELETE FROM " + ItineraryDatabaseHelper.TABLE_COMP_STAGE + " WHERE "
+                + ItineraryDatabaseHelper.COLUMN_COMP_STAGE_STAGEID + " NOT IN (SELECT "
+                + StageDatabaseHelper.COLUMN_STAGE_ID + " FROM " + StageDatabaseHelper.TABLE_STAGE + ")");
+
+        // The old files weren't indexed, so they may have duplicates to tidy up first
+        addUniqueIndexes(db, false);
+        addUsernameIndex(db);
+        stampStageFields(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Each step brings the database up one version, keeping all the data that is already there
+        if (oldVersion < 2) {
+            addUniqueIndexes(db, true);
+        }
+        if (oldVersion < 3) {
+            convertStageTable(db);
+        }
+        if (oldVersion < 4) {
+            // The counters start from the orders already in use the first time they are needed
+            db.execSQL(OrderCounter.CREATE_ORDER_COUNTER_TABLE);
+        }
+        if (oldVersion < 5) {
+            addNameIndexes(db);
+        }
+        if (oldVersion < 6) {
+            // Whatever is in the tables already becomes the current event
+            addEventTable(db);
+        }
+        if (oldVersion < 7) {
+            // Rebuilding the stage table for version 3 already gave it the clock columns
+            if (oldVersion >= 3) {
+                addStageClockColumns(db);
+            }
+            db.execSQL(StageDatabaseHelper.CREATE_STAGE_CLOCK_INDEX);
+            stampStageFields(db);
+        }
+        if (oldVersion < 8) {
+            // Passwords saved as they were typed are hashed the next time each one is used
+            // to log in, as hashing them all now would hold up opening the database
+            addUsernameIndex(db);
+        }
+        if (oldVersion < 9) {
+            moveCompetitorStages(db);
+        }
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        // Foreign keys are turned on here rather than in onConfigure, so that onUpgrade
+        // runs without them and can rebuild tables without cascading deletes
+        if (!db.isReadOnly()) {
+            db.setForeignKeyConstraintsEnabled(true);
+        }
+        // The imported data is now committed, so the old files can go
+        for (int i = 0; i < importedDatabases.size(); i++) {
+            context.deleteDatabase(importedDatabases.get(i));
+        }
+        importedDatabases.clear();
+    }
+
+    // Method to return the name of the file an event is archived to. The archives of any
+    // other file, see useDatabase, are named after it so they never replace the app's own.
+    String getArchiveFile(int eventID) {
+        String archiveFile = "event_" + eventID + ".db";
+        if (!DATABASE_NAME.equals(getDatabaseName())) {
+            archiveFile = getDatabaseName().replace(".db", "_") + archiveFile;
+        }
+        return archiveFile;
+    }
+
+    // Method to give the space freed by deleted entries back to the file system, so the file
+    // shrinks after an event has been cleared. It may take a while, so it should be run on
+    // the writer thread, see scheduleCompact.
+    public void compact() {
+        SQLiteDatabase db = getWritableDatabase();
+        if (DatabaseUtils.longForQuery(db, "PRAGMA auto_vacuum", null) == AUTO_VACUUM_INCREMENTAL) {
+            db.execSQL("PRAGMA incremental_vacuum");
+        } else {
+            // A file made before incremental vacuuming was turned on needs one full VACUUM,
+            // which also switches it over for next time
+            db.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+            db.execSQL("VACUUM");
+        }
+        // Empty the write-ahead log as well, which otherwise keeps its largest size
+        Cursor cursor = db.rawQuery("PRAGMA wal_checkpoint(TRUNCATE)", null);
+        cursor.moveToFirst();
+        cursor.close();
+    }
+
+    // Method to return the clock used to stamp the stage fields as they are set. It starts
+    // from the latest reading saved, so readings keep going up when the app is restarted.
+    static synchronized HybridClock getClock(SQLiteDatabase db) {
+        if (clock == null) {
+            clock = new HybridClock(DatabaseUtils.longForQuery(db, "SELECT IFNULL(MAX("
+                    + StageDatabaseHelper.COLUMN_STAGE_CLOCK + "), 0) FROM " + StageDatabaseHelper.TABLE_STAGE, null));
+        }
+        return clock;
+    }
+
+    // Method to compact the database on the writer thread once the writes already asked for
+    // are done
+    public void scheduleCompact() {
+        RallyRepository.getInstance().write(new Runnable() {
+            @Override
+            public void run() {
+                compact();
+            }
+        });
+    }
+
+    // Method to remove any duplicate entries, then add the unique indexes used to look up
+    // entries by car number and order. Before version 9 the competitor table pointed at its
+    // stage entries itself, rather than through the competitor stage table.
+    private void addUniqueIndexes(SQLiteDatabase db, boolean legacyCompStages) {
+        removeDuplicateStages(db, legacyCompStages);
+        removeDuplicates(db, AControlDatabaseHelper.TABLE_ACONTROL, AControlDatabaseHelper.COLUMN_AC_ID,
+                AControlDatabaseHelper.COLUMN_AC_STAGE, AControlDatabaseHelper.COLUMN_AC_CARNUM,
+                AControlDatabaseHelper.COLUMN_AC_SO);
+        removeDuplicates(db, StartDatabaseHelper.TABLE_START, StartDatabaseHelper.COLUMN_START_ID,
+                StartDatabaseHelper.COLUMN_START_STAGE, StartDatabaseHelper.COLUMN_START_CARNUM,
+                StartDatabaseHelper.COLUMN_START_ORDER);
+        removeDuplicates(db, FinishDatabaseHelper.TABLE_FINISH, FinishDatabaseHelper.COLUMN_FINISH_ID,
+                FinishDatabaseHelper.COLUMN_FINISH_STAGE, FinishDatabaseHelper.COLUMN_FINISH_CARNUM,
+                FinishDatabaseHelper.COLUMN_FINISH_ORDER);
+
+        db.execSQL(StageDatabaseHelper.CREATE_STAGE_CAR_INDEX);
+        db.execSQL(AControlDatabaseHelper.CREATE_AC_CAR_INDEX);
+        db.execSQL(AControlDatabaseHelper.CREATE_AC_ORDER_INDEX);
+        db.execSQL(StartDatabaseHelper.CREATE_START_CAR_INDEX);
+        db.execSQL(StartDatabaseHelper.CREATE_START_ORDER_INDEX);
+        db.execSQL(FinishDatabaseHelper.CREATE_FINISH_CAR_INDEX);
+        db.execSQL(FinishDatabaseHelper.CREATE_FINISH_ORDER_INDEX);
+    }
+
+    // Method to add the indexes used to page through the list screens in name order
+    private void addNameIndexes(SQLiteDatabase db) {
+        db.execSQL(CompDatabaseHelper.CREATE_COMP_DRIVER_INDEX);
+        db.execSQL(TimingCrewDatabaseHelper.CREATE_CREW_POSTCHIEF_INDEX);
+    }
+
+    // Method to remove any logins with a username already used by an earlier one, then add
+    // the unique index used to look up logins by username
+    private void addUsernameIndex(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM " + UserDatabaseHelper.TABLE_USER + " WHERE " + UserDatabaseHelper.COLUMN_USER_ID
+                + " NOT IN (SELECT MIN(" + UserDatabaseHelper.COLUMN_USER_ID + ") FROM " + UserDatabaseHelper.TABLE_USER
+                + " GROUP BY " + UserDatabaseHelper.COLUMN_USER_USERNAME + ")");
+        db.execSQL(UserDatabaseHelper.CREATE_USER_USERNAME_INDEX);
+    }
+
+    // Method to add the itinerary and move each competitor's stage entry IDs from the four
+    // competitor columns to the competitor stage table. The competitor table is then rebuilt
+    // without those columns, the same way as convertStageTable.
+    private void moveCompetitorStages(SQLiteDatabase db) {
+        ItineraryDatabaseHelper.addItineraryTables(db);
+        String[] columns = CompDatabaseHelper.LEGACY_STAGEID_COLUMNS;
+        for (int i = 0; i < columns.length; i++) {
+            // Entries that were never made, or have since been deleted, are left out
+            db.execSQL("INSERT INTO " + ItineraryDatabaseHelper.TABLE_COMP_STAGE + "("
+                    + ItineraryDatabaseHelper.COLUMN_COMP_STAGE_COMPID + "," + ItineraryDatabaseHelper.COLUMN_COMP_STAGE_STAGENUM
+                    + "," + ItineraryDatabaseHelper.COLUMN_COMP_STAGE_STAGEID + ") SELECT "
+                    + CompDatabaseHelper.COLUMN_COMP_ID + ", " + (i + 1) + ", " + columns[i] + " FROM "
+                    + CompDatabaseHelper.TABLE_COMP + " WHERE " + columns[i] + " IN (SELECT "
+                    + StageDatabaseHelper.COLUMN_STAGE_ID + " FROM " + StageDatabaseHelper.TABLE_STAGE + ")");
+        }
+
+        String newTable = CompDatabaseHelper.TABLE_COMP + "_new";
+        String keptColumns = CompDatabaseHelper.COLUMN_COMP_ID + "," + CompDatabaseHelper.COLUMN_COMP_CARNUM + ","
+                + CompDatabaseHelper.COLUMN_COMP_DRIVER + "," + CompDatabaseHelper.COLUMN_COMP_CODRIVER;
+        db.execSQL(CompDatabaseHelper.CREATE_COMP_TABLE.replace(
+                "CREATE TABLE " + CompDatabaseHelper.TABLE_COMP + "(", "CREATE TABLE " + newTable + "("));
+        db.execSQL("INSERT INTO " + newTable + "(" + keptColumns + ") SELECT " + keptColumns
+                + " FROM " + CompDatabaseHelper.TABLE_COMP);
+        db.execSQL("DROP TABLE " + CompDatabaseHelper.TABLE_COMP);
+        db.execSQL("ALTER TABLE " + newTable + " RENAME TO " + CompDatabaseHelper.TABLE_COMP);
+        db.execSQL(CompDatabaseHelper.CREATE_COMP_DRIVER_INDEX);
+    }
+
+    // Method to add a clock column for each stage field, along with one for the whole entry
+    private void addStageClockColumns(SQLiteDatabase db) {
+        for (String column : StageDatabaseHelper.FIELD_COLUMNS) {
+            db.execSQL("ALTER TABLE " + StageDatabaseHelper.TABLE_STAGE + " ADD COLUMN "
+                    + StageDatabaseHelper.clockColumn(column) + " INTEGER NOT NULL DEFAULT 0");
+        }
+        db.execSQL("ALTER TABLE " + StageDatabaseHelper.TABLE_STAGE + " ADD COLUMN "
+                + StageDatabaseHelper.COLUMN_STAGE_CLOCK + " INTEGER NOT NULL DEFAULT 0");
+    }
+
+    // Method to stamp every stage field already filled in with the time now, so the fields
+    // saved before the clocks were added are passed on to the other phones too
+    private void stampStageFields(SQLiteDatabase db) {
+        long now = HybridClock.fromTime(System.currentTimeMillis());
+        StringBuilder sql = new StringBuilder("UPDATE " + StageDatabaseHelper.TABLE_STAGE + " SET "
+                + StageDatabaseHelper.COLUMN_STAGE_CLOCK + " = " + now);
+        for (String column : StageDatabaseHelper.FIELD_COLUMNS) {
+            // A start order of 0 hasn't been given yet, the same as a time of null
+            String empty = column.equals(StageDatabaseHelper.COLUMN_STAGE_SO)
+                    ? "IFNULL(" + column + ", 0) = 0" : column + " IS NULL";
+            sql.append(", ").append(StageDatabaseHelper.clockColumn(column)).append(" = CASE WHEN ")
+                    .append(empty).append(" THEN 0 ELSE ").append(now).append(" END");
+        }
+        db.execSQL(sql.toString());
+    }
+
+    // Method to add the event table, with the event being run now
+    private void addEventTable(SQLiteDatabase db) {
+        db.execSQL(EventDatabaseHelper.CREATE_EVENT_TABLE);
+        EventDatabaseHelper.addCurrentEvent(db, EventDatabaseHelper.FIRST_EVENT_NAME);
+    }
+
+    // Method to keep only the first stage entry for each car and stage number. Anything that
+    // pointed to one of the extra entries is pointed at the one that is kept.
+    private void removeDuplicateStages(SQLiteDatabase db, boolean legacyCompStages) {
+        String table = StageDatabaseHelper.TABLE_STAGE;
+        String id = StageDatabaseHelper.COLUMN_STAGE_ID;
+        String keptIds = "SELECT MIN(" + id + ") FROM " + table + " GROUP BY "
+                + StageDatabaseHelper.COLUMN_STAGE_CARNUM + "," + StageDatabaseHelper.COLUMN_STAGE_STAGENUM;
+
+        List<String[]> references = new ArrayList<>();
+        if (legacyCompStages) {
+            for (String column : CompDatabaseHelper.LEGACY_STAGEID_COLUMNS) {
+                references.add(new String[]{CompDatabaseHelper.TABLE_COMP, column});
+            }
+        } else {
+            references.add(new String[]{ItineraryDatabaseHelper.TABLE_COMP_STAGE,
+                    ItineraryDatabaseHelper.COLUMN_COMP_STAGE_STAGEID});
+        }
+        references.add(new String[]{AControlDatabaseHelper.TABLE_ACONTROL, AControlDatabaseHelper.COLUMN_AC_STAGE1ID});
+        references.add(new String[]{AControlDatabaseHelper.TABLE_ACONTROL, AControlDatabaseHelper.COLUMN_AC_STAGE2ID});
+        references.add(new String[]{StartDatabaseHelper.TABLE_START, StartDatabaseHelper.COLUMN_START_STAGEID});
+        references.add(new String[]{FinishDatabaseHelper.TABLE_FINISH, FinishDatabaseHelper.COLUMN_FINISH_STAGEID});
+        for (String[] reference : references) {
+            db.execSQL("UPDATE " + reference[0] + " SET " + reference[1] + " = (SELECT MIN(kept." + id + ")"
+                    + " FROM " + table + " AS kept INNER JOIN " + table + " AS extra"
+                    + " ON kept." + StageDatabaseHelper.COLUMN_STAGE_CARNUM + " = extra." + StageDatabaseHelper.COLUMN_STAGE_CARNUM
+                    + " AND kept." + StageDatabaseHelper.COLUMN_STAGE_STAGENUM + " = extra." + StageDatabaseHelper.COLUMN_STAGE_STAGENUM
+                    + " WHERE extra." + id + " = " + reference[0] + "." + reference[1] + ")"
+                    + " WHERE " + reference[1] + " IN (SELECT " + id + " FROM " + table
+                    + " WHERE " + id + " NOT IN (" + keptIds + "))");
+        }
+        db.execSQL("DELETE FROM " + table + " WHERE " + id + " NOT IN (" + keptIds + ")");
+    }
+
+    // Method to keep only the first entry for each car in a stage of one of the timing tables,
+    // then move any entry sharing an order with an earlier one to the back of its stage
+    private void removeDuplicates(SQLiteDatabase db, String table, String id, String stage,
+                                  String carNum, String order) {
+        db.execSQL("DELETE FROM " + table + " WHERE " + id + " NOT IN (SELECT MIN(" + id + ") FROM "
+                + table + " GROUP BY " + stage + "," + carNum + ")");
+
+        Cursor cursor = db.rawQuery("SELECT " + id + "," + stage + " FROM " + table + " AS a WHERE EXISTS"
+                + " (SELECT 1 FROM " + table + " AS b WHERE b." + stage + " = a." + stage
+                + " AND b." + order + " = a." + order + " AND b." + id + " < a." + id + ")"
+                + " ORDER BY " + id, null);
+        // Read them all before changing anything, so the updates can't affect the query
+        List<Object[]> moves = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            moves.add(new Object[]{cursor.getInt(1), cursor.getInt(0)});
+        }
+        cursor.close();
+        for (int i = 0; i < moves.size(); i++) {
+            db.execSQL("UPDATE " + table + " SET " + order + " = (SELECT MAX(" + order + ") FROM " + table
+                    + " WHERE " + stage + " = ?) + 1 WHERE " + id + " = ?", moves.get(i));
+        }
+    }
+
+    // Method to rebuild the stage table with integer columns, converting the times saved as
+    // text. SQLite can't change a column's type, so the rows are copied into a new table which
+    // then replaces the old one. Foreign keys are still off here, so dropping the old table
+    // doesn't touch the tables pointing at it.
+    private void convertStageTable(SQLiteDatabase db) {
+        String newTable = StageDatabaseHelper.TABLE_STAGE + "_new";
+        db.execSQL(StageDatabaseHelper.CREATE_STAGE_TABLE.replace(
+                "CREATE TABLE " + StageDatabaseHelper.TABLE_STAGE + "(", "CREATE TABLE " + newTable + "("));
+
+        Cursor cursor = db.query(StageDatabaseHelper.TABLE_STAGE, null, null, null, null, null, null);
+        ContentValues values = new ContentValues();
+        while (cursor.moveToNext()) {
+            values.clear();
+            DatabaseUtils.cursorRowToContentValues(cursor, values);
+            convertStageTimes(values);
+            db.insert(newTable, null, values);
+        }
+        cursor.close();
+
+        db.execSQL("DROP TABLE " + StageDatabaseHelper.TABLE_STAGE);
+        db.execSQL("ALTER TABLE " + newTable + " RENAME TO " + StageDatabaseHelper.TABLE_STAGE);
+        db.execSQL(StageDatabaseHelper.CREATE_STAGE_CAR_INDEX);
+    }
+
+    // Method to change the times in a stage row from the old text format to milliseconds
+    private void convertStageTimes(ContentValues values) {
+        for (String column : StageDatabaseHelper.TIME_COLUMNS) {
+            if (!values.containsKey(column)) {
+                continue;
+            }
+            String text = values.getAsString(column);
+            int time;
+            if (column.equals(StageDatabaseHelper.COLUMN_STAGE_ST)) {
+                time = RallyTime.parseStageTime(text);
+            } else {
+                time = RallyTime.parseTimeOfDay(text);
+            }
+            if (time == RallyTime.NO_TIME) {
+                values.putNull(column);
+            } else {
+                values.put(column, time);
+            }
+        }
+    }
+
+    // Method to insert a competitor from the old competitor file, moving its stage entry IDs
+    // to the competitor stage table
+    private void importCompetitor(SQLiteDatabase db, ContentValues values) {
+        String[] columns = CompDatabaseHelper.LEGACY_STAGEID_COLUMNS;
+        int[] stageIds = new int[columns.length + 1];
+        for (int i = 0; i < columns.length; i++) {
+            Integer stageID = values.getAsInteger(columns[i]);
+            stageIds[i + 1] = stageID == null ? 0 : stageID;
+            values.remove(columns[i]);
+        }
+        long compID = db.insert(CompDatabaseHelper.TABLE_COMP, null, values);
+        if (compID != -1) {
+            ItineraryDatabaseHelper.saveCompetitorStages(db, (int) compID, stageIds);
+        }
+    }
+
+    // Method to copy every row of a table from one of the old database files, if it exists
+    private void importLegacyDatabase(SQLiteDatabase db, String legacyName, String table) {
+        File legacyFile = context.getDatabasePath(legacyName);
+        if (!legacyFile.exists()) {
+            return;
+        }
+        SQLiteDatabase legacyDb = null;
+        Cursor cursor = null;
+        try {
+            legacyDb = SQLiteDatabase.openDatabase(legacyFile.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+            cursor = legacyDb.query(table, null, null, null, null, null, null);
+            ContentValues values = new ContentValues();
+            while (cursor.moveToNext()) {
+                values.clear();
+                DatabaseUtils.cursorRowToContentValues(cursor, values);
+                // The old stage file still has its times saved as text
+                if (table.equals(StageDatabaseHelper.TABLE_STAGE)) {
+                    convertStageTimes(values);
+                }
+                // The old competitor file kept the stage entry IDs in its own columns
+                if (table.equals(CompDatabaseHelper.TABLE_COMP)) {
+                    importCompetitor(db, values);
+                } else {
+                    db.insert(table, null, values);
+                }
+            }
+            importedDatabases.add(legacyName);
+        } catch (SQLiteException e) {
+            // Leave the old file alone if it can't be read, so nothing is lost
+            Log.w(TAG, "Could not import " + legacyName, e);
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+            if (legacyDb != null) {
+                legacyDb.close();
+            }
+        }
+    }
+}
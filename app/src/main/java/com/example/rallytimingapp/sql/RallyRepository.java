@@ -0,0 +1,107 @@
+package com.example.rallytimingapp.sql;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RallyRepository {
+    // Runs the database work of the timing screens away from the main thread, so a slow
+    // query or write never holds up typing on a timecard. Writes go through a single thread,
+    // one at a time in the order they were asked for. Reads share a small pool of threads,
+    // which WAL lets run while a write is going on. A read only sees the writes that have
+    // finished, so a read that has to see a write should be started from that write's callback.
+
+    private static final String TAG = "RallyRepository";
+    private static final int READER_THREADS = 2;
+
+    private static RallyRepository instance;
+
+    // Interface for the result of a task, which is always handed back on the main thread
+    public interface Callback<T> {
+        void onResult(T result);
+    }
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(new NamedThreadFactory("rally-writer"));
+    private final ExecutorService readers = Executors.newFixedThreadPool(READER_THREADS, new NamedThreadFactory("rally-reader"));
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Method to return the one shared instance, so every write goes through the same thread
+    public static synchronized RallyRepository getInstance() {
+        if (instance == null) {
+            instance = new RallyRepository();
+        }
+        return instance;
+    }
+
+    private RallyRepository() {
+    }
+
+    // Method to run a query on one of the reader threads, handing the result to the callback
+    public <T> Future<T> read(Callable<T> task, Callback<T> callback) {
+        return readers.submit(wrap(task, callback));
+    }
+
+    // Method to run a change on the writer thread, handing the result to the callback
+    public <T> Future<T> write(Callable<T> task, Callback<T> callback) {
+        return writer.submit(wrap(task, callback));
+    }
+
+    // Method to run a change on the writer thread when nothing needs to happen afterwards
+    public Future<?> write(final Runnable task) {
+        return writer.submit(wrap(new Callable<Void>() {
+            @Override
+            public Void call() {
+                task.run();
+                return null;
+            }
+        }, null));
+    }
+
+    // Method to log a task that fails, as the executor would otherwise keep the error to itself,
+    // and to post its result back to the main thread
+    private <T> Callable<T> wrap(final Callable<T> task, final Callback<T> callback) {
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                final T result;
+                try {
+                    result = task.call();
+                } catch (Exception e) {
+                    Log.e(TAG, "Database task failed", e);
+                    throw e;
+                }
+                if (callback != null) {
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onResult(result);
+                        }
+                    });
+                }
+                return result;
+            }
+        };
+    }
+
+    // Names the threads, so they can be picked out in a trace or a StrictMode report
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, name + "-" + count.incrementAndGet());
+        }
+    }
+}
@@ -5,81 +5,111 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 
 import com.example.rallytimingapp.model.AControl;
 import com.example.rallytimingapp.model.Competitor;
+import com.example.rallytimingapp.model.RallyTime;
 import com.example.rallytimingapp.model.Stage;
+import com.example.rallytimingapp.model.StageTimeCalculator;
+import com.example.rallytimingapp.model.TimecardUpdate;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
-public class StageDatabaseHelper extends SQLiteOpenHelper {
-
-    // Database Version
-    private static final int DATABASE_VERSION = 7;
-
-    // Database Name
-    private static final String DATABASE_NAME = "StageManager.db";
+public class StageDatabaseHelper {
 
     // Stage table name
-    private static final String TABLE_STAGE = "stage";
+    static final String TABLE_STAGE = "stage";
 
     // Stage Table Columns names
-    private static final String COLUMN_STAGE_ID = "stage_id";
-    private static final String COLUMN_STAGE_CARNUM = "stage_car_num";
-    private static final String COLUMN_STAGE_STAGENUM = "stage_stage_num";
-    private static final String COLUMN_STAGE_SO = "stage_start_order";
-    private static final String COLUMN_STAGE_PS = "stage_prov_start";
-    private static final String COLUMN_STAGE_AS = "stage_actual_start";
-    private static final String COLUMN_STAGE_FT = "stage_finish_time";
-    private static final String COLUMN_STAGE_ST = "stage_stage_time";
-    private static final String COLUMN_STAGE_AT = "stage_actual_time";
-    private static final String COLUMN_STAGE_DT = "stage_due_time";
+    static final String COLUMN_STAGE_ID = "stage_id";
+    static final String COLUMN_STAGE_CARNUM = "stage_car_num";
+    static final String COLUMN_STAGE_STAGENUM = "stage_stage_num";
+    static final String COLUMN_STAGE_SO = "stage_start_order";
+    static final String COLUMN_STAGE_PS = "stage_prov_start";
+    static final String COLUMN_STAGE_AS = "stage_actual_start";
+    static final String COLUMN_STAGE_FT = "stage_finish_time";
+    static final String COLUMN_STAGE_ST = "stage_stage_time";
+    static final String COLUMN_STAGE_AT = "stage_actual_time";
+    static final String COLUMN_STAGE_DT = "stage_due_time";
+    static final String COLUMN_STAGE_CLOCK = "stage_clock"; // Latest clock reading of any field
+
+    // Columns holding a time, in milliseconds
+    static final String[] TIME_COLUMNS = {
+            COLUMN_STAGE_PS, COLUMN_STAGE_AS, COLUMN_STAGE_FT, COLUMN_STAGE_ST, COLUMN_STAGE_AT, COLUMN_STAGE_DT
+    };
+
+    // Columns passed between phones, in TimecardUpdate field order. Each has a column
+    // alongside it holding the clock reading of when it was last set, see HybridClock,
+    // or 0 if it never has been.
+    static final String[] FIELD_COLUMNS = {
+            COLUMN_STAGE_SO, COLUMN_STAGE_PS, COLUMN_STAGE_AS, COLUMN_STAGE_FT, COLUMN_STAGE_ST, COLUMN_STAGE_AT,
+            COLUMN_STAGE_DT
+    };
 
     // Create table SQL query
-    private String CREATE_STAGE_TABLE = "CREATE TABLE " + TABLE_STAGE + "("
+    static final String CREATE_STAGE_TABLE = "CREATE TABLE " + TABLE_STAGE + "("
             + COLUMN_STAGE_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," + COLUMN_STAGE_CARNUM + " INTEGER,"
-            + COLUMN_STAGE_STAGENUM + " INTEGER," + COLUMN_STAGE_SO + " TEXT," + COLUMN_STAGE_PS + " TEXT,"
-            + COLUMN_STAGE_AS + " TEXT," + COLUMN_STAGE_FT + " TEXT," + COLUMN_STAGE_ST + " TEXT,"
-            + COLUMN_STAGE_AT + " TEXT," + COLUMN_STAGE_DT + " TEXT" + ")";
+            + COLUMN_STAGE_STAGENUM + " INTEGER," + COLUMN_STAGE_SO + " INTEGER," + COLUMN_STAGE_PS + " INTEGER,"
+            + COLUMN_STAGE_AS + " INTEGER," + COLUMN_STAGE_FT + " INTEGER," + COLUMN_STAGE_ST + " INTEGER,"
+            + COLUMN_STAGE_AT + " INTEGER," + COLUMN_STAGE_DT + " INTEGER," + clockColumnDefinitions() + ")";
 
-    // Drop table SQL query
-    private String DROP_STAGE_TABLE = "DROP TABLE IF EXISTS " + TABLE_STAGE;
+    // Index names
+    static final String INDEX_STAGE_CAR = "index_stage_car_num";
 
-    public StageDatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
-    }
+    // Create index SQL query, each car only has one entry per stage
+    static final String CREATE_STAGE_CAR_INDEX = "CREATE UNIQUE INDEX " + INDEX_STAGE_CAR + " ON "
+            + TABLE_STAGE + "(" + COLUMN_STAGE_CARNUM + "," + COLUMN_STAGE_STAGENUM + ")";
+
+    static final String INDEX_STAGE_CLOCK = "index_stage_clock";
+
+    // Create index SQL query, for finding the entries changed since a clock reading
+    static final String CREATE_STAGE_CLOCK_INDEX = "CREATE INDEX " + INDEX_STAGE_CLOCK + " ON "
+            + TABLE_STAGE + "(" + COLUMN_STAGE_CLOCK + ")";
 
-    @Override
-    public void onCreate(SQLiteDatabase db) {
-        db.execSQL(CREATE_STAGE_TABLE);
+    // Where clause picking out one car's entry for a stage
+    private static final String WHERE_CAR_STAGE = " WHERE " + COLUMN_STAGE_CARNUM + " = ?1 AND " + COLUMN_STAGE_STAGENUM + " = ?2";
+
+    // Part of an UPDATE moving the entry's clock on to the reading given as ?3
+    private static final String STAMP_ENTRY = COLUMN_STAGE_CLOCK + " = ?3";
+
+    // Statement saving every field of an entry, see buildUpdateStage
+    private static final String UPDATE_STAGE = buildUpdateStage();
+
+    // Foreign key clause for columns in the other timing tables which point to a stage entry
+    static final String REFERENCES_STAGE = " REFERENCES " + TABLE_STAGE + "(" + COLUMN_STAGE_ID + ") ON DELETE CASCADE";
+
+    private final RallyDatabase rallyDatabase;
+    private final ItineraryHelper itineraryHelper;
+    private final ClassificationHelper classificationHelper;
+    private final TimecardNavigator timecardNavigator;
+
+    public StageDatabaseHelper(Context context) {
+        rallyDatabase = RallyDatabase.getInstance(context);
+        classificationHelper = ClassificationHelper.getInstance(context);
+        timecardNavigator = TimecardNavigator.getInstance(context);
+        itineraryHelper = ItineraryHelper.getInstance(context);
     }
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL(DROP_STAGE_TABLE);
-        onCreate(db);
+    // Method to return the calculator for the current itinerary's target times. It is asked
+    // for each time it is used, so a change to the itinerary is picked up straight away, and
+    // making the helper on the main thread never reads the itinerary.
+    public StageTimeCalculator getStageTimeCalculator() {
+        return itineraryHelper.getStageTimeCalculator();
     }
 
     // Method to add an entry to the database
     public void addStage(Stage stage) {
-        SQLiteDatabase db = this.getWritableDatabase();
-
-        ContentValues values = new ContentValues();
-        values.put(COLUMN_STAGE_CARNUM, stage.getCarNum());
-        values.put(COLUMN_STAGE_STAGENUM, stage.getStageNum());
-        values.put(COLUMN_STAGE_SO, stage.getStartOrder());
-        values.put(COLUMN_STAGE_PS, stage.getProvStart());
-        values.put(COLUMN_STAGE_AS, stage.getActualStart());
-        values.put(COLUMN_STAGE_FT, stage.getFinishTime());
-        values.put(COLUMN_STAGE_ST, stage.getStageTime());
-        values.put(COLUMN_STAGE_AT, stage.getActualTime());
-        values.put(COLUMN_STAGE_DT, stage.getDueTime());
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        // Fill in the stage time and due time from the other times, if they are known
+        getStageTimeCalculator().recompute(stage);
+        ContentValues values = stageValues(stage);
+        putClocks(values, stage, RallyDatabase.getClock(db).now());
 
         // Inserting Row
         db.insert(TABLE_STAGE, null, values);
-        db.close();
+        classificationHelper.stageChanged(stage);
     }
 
     // Method to return the ID of the entry with the given car and stage number
@@ -89,7 +119,7 @@ public class StageDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_STAGE_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_STAGE_CARNUM + " = ?" + " AND " + COLUMN_STAGE_STAGENUM + " = ?";
         // selection argument
@@ -109,17 +139,18 @@ public class StageDatabaseHelper extends SQLiteOpenHelper {
             stageID = Integer.parseInt(cursor.getString(0));
         }
         cursor.close();
-        db.close();
 
         return stageID;
     }
 
-    // Method to remove all entries from the database
+    // Method to remove all entries from the database, in a single statement
     public void empty() {
-        List<Stage> stageList = getAllStages();
-        for (int i = 0; i < stageList.size(); i++) {
-            deleteStage(stageList.get(i));
-        }
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.delete(TABLE_STAGE, null, null);
+        // The classifications have to be read again, as every stage time has gone
+        classificationHelper.invalidate();
+        // Emptying the stage table empties every control too
+        timecardNavigator.invalidate();
     }
 
     // Method to return the entry with the given ID
@@ -140,7 +171,7 @@ public class StageDatabaseHelper extends SQLiteOpenHelper {
 
         Stage stage = new Stage();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_STAGE_ID + " = ?";
@@ -160,15 +191,14 @@ public class StageDatabaseHelper extends SQLiteOpenHelper {
             stage.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_CARNUM))));
             stage.setStageNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_STAGENUM))));
             stage.setStartOrder(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_SO))));
-            stage.setProvStart(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_PS)));
-            stage.setActualStart(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_AS)));
-            stage.setFinishTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_FT)));
-            stage.setStageTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_ST)));
-            stage.setActualTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_AT)));
-            stage.setDueTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_DT)));
+            stage.setProvStart(getTime(cursor, COLUMN_STAGE_PS));
+            stage.setActualStart(getTime(cursor, COLUMN_STAGE_AS));
+            stage.setFinishTime(getTime(cursor, COLUMN_STAGE_FT));
+            stage.setStageTime(getTime(cursor, COLUMN_STAGE_ST));
+            stage.setActualTime(getTime(cursor, COLUMN_STAGE_AT));
+            stage.setDueTime(getTime(cursor, COLUMN_STAGE_DT));
         }
         cursor.close();
-        db.close();
 
         return stage;
     }
@@ -191,7 +221,7 @@ public class StageDatabaseHelper extends SQLiteOpenHelper {
 
         Stage stage = new Stage();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_STAGE_CARNUM + " = ?" + " AND " + COLUMN_STAGE_STAGENUM + " = ?";
@@ -211,15 +241,14 @@ public class StageDatabaseHelper extends SQLiteOpenHelper {
             stage.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_CARNUM))));
             stage.setStageNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_STAGENUM))));
             stage.setStartOrder(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_SO))));
-            stage.setProvStart(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_PS)));
-            stage.setActualStart(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_AS)));
-            stage.setFinishTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_FT)));
-            stage.setStageTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_ST)));
-            stage.setActualTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_AT)));
-            stage.setDueTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_DT)));
+            stage.setProvStart(getTime(cursor, COLUMN_STAGE_PS));
+            stage.setActualStart(getTime(cursor, COLUMN_STAGE_AS));
+            stage.setFinishTime(getTime(cursor, COLUMN_STAGE_FT));
+            stage.setStageTime(getTime(cursor, COLUMN_STAGE_ST));
+            stage.setActualTime(getTime(cursor, COLUMN_STAGE_AT));
+            stage.setDueTime(getTime(cursor, COLUMN_STAGE_DT));
         }
         cursor.close();
-        db.close();
 
         return stage;
     }
@@ -243,7 +272,7 @@ public class StageDatabaseHelper extends SQLiteOpenHelper {
         String sortOrder = COLUMN_STAGE_ID + " ASC";
         List<Stage> stageList = new ArrayList<Stage>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         Cursor cursor = db.query(TABLE_STAGE, //Table to query
                 columns,             //columns to return
@@ -260,46 +289,323 @@ public class StageDatabaseHelper extends SQLiteOpenHelper {
                 stage.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_CARNUM))));
                 stage.setStageNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_STAGENUM))));
                 stage.setStartOrder(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_SO))));
-                stage.setProvStart(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_PS)));
-                stage.setActualStart(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_AS)));
-                stage.setFinishTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_FT)));
-                stage.setStageTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_ST)));
-                stage.setActualTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_AT)));
-                stage.setDueTime(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_DT)));
+                stage.setProvStart(getTime(cursor, COLUMN_STAGE_PS));
+                stage.setActualStart(getTime(cursor, COLUMN_STAGE_AS));
+                stage.setFinishTime(getTime(cursor, COLUMN_STAGE_FT));
+                stage.setStageTime(getTime(cursor, COLUMN_STAGE_ST));
+                stage.setActualTime(getTime(cursor, COLUMN_STAGE_AT));
+                stage.setDueTime(getTime(cursor, COLUMN_STAGE_DT));
                 stageList.add(stage);
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return stageList;
     }
 
-    // Method to update an entry in the database
-    public void updateStage(Stage stage) {
-        SQLiteDatabase db = this.getWritableDatabase();
+    // Method to return the stage entry of the car at the given start order at the Start control,
+    // in one query joined against the start table
+    public Stage getStageByStartOrder(int stageNum, int startOrder) {
+        String query = "SELECT " + TABLE_STAGE + ".* FROM " + TABLE_STAGE
+                + " INNER JOIN " + StartDatabaseHelper.TABLE_START
+                + " ON " + StartDatabaseHelper.COLUMN_START_STAGEID + " = " + COLUMN_STAGE_ID
+                + " WHERE " + StartDatabaseHelper.COLUMN_START_STAGE + " = ?"
+                + " AND " + StartDatabaseHelper.COLUMN_START_ORDER + " = ?";
+        return getJoinedStage(query, stageNum, startOrder);
+    }
+
+    // Method to return the stage entry of the car at the given finish order at the Finish control,
+    // in one query joined against the finish table
+    public Stage getStageByFinishOrder(int stageNum, int finishOrder) {
+        String query = "SELECT " + TABLE_STAGE + ".* FROM " + TABLE_STAGE
+                + " INNER JOIN " + FinishDatabaseHelper.TABLE_FINISH
+                + " ON " + FinishDatabaseHelper.COLUMN_FINISH_STAGEID + " = " + COLUMN_STAGE_ID
+                + " WHERE " + FinishDatabaseHelper.COLUMN_FINISH_STAGE + " = ?"
+                + " AND " + FinishDatabaseHelper.COLUMN_FINISH_ORDER + " = ?";
+        return getJoinedStage(query, stageNum, finishOrder);
+    }
+
+    // Method to return one of the two stage entries of the car at the given start order at
+    // the A Control, in one query joined against the A Control table. The previous stage is
+    // the one on the first timecard, otherwise it is the stage being started.
+    public Stage getStageByAControlOrder(int stageNum, int startOrder, boolean previousStage) {
+        String stageIdColumn = previousStage ? AControlDatabaseHelper.COLUMN_AC_STAGE1ID
+                : AControlDatabaseHelper.COLUMN_AC_STAGE2ID;
+        String query = "SELECT " + TABLE_STAGE + ".* FROM " + TABLE_STAGE
+                + " INNER JOIN " + AControlDatabaseHelper.TABLE_ACONTROL
+                + " ON " + stageIdColumn + " = " + COLUMN_STAGE_ID
+                + " WHERE " + AControlDatabaseHelper.COLUMN_AC_STAGE + " = ?"
+                + " AND " + AControlDatabaseHelper.COLUMN_AC_SO + " = ?";
+        return getJoinedStage(query, stageNum, startOrder);
+    }
+
+    // Method to run one of the joined queries above, returning an empty stage if there is no match
+    private Stage getJoinedStage(String query, int stageNum, int order) {
+        Stage stage = new Stage();
+
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(stageNum), String.valueOf(order)});
+
+        if (cursor.moveToFirst()) {
+            stage = readStage(cursor);
+        }
+        cursor.close();
+
+        return stage;
+    }
+
+    // Method to return the entries with the given IDs in one query, in no particular order.
+    // IDs with no entry are left out.
+    static List<Stage> getStages(SQLiteDatabase db, List<Integer> stageIDs) {
+        List<Stage> stageList = new ArrayList<>(stageIDs.size());
+        if (stageIDs.isEmpty()) {
+            return stageList;
+        }
+        StringBuilder selection = new StringBuilder(COLUMN_STAGE_ID + " IN (");
+        String[] selectionArgs = new String[stageIDs.size()];
+        for (int i = 0; i < stageIDs.size(); i++) {
+            selection.append(i == 0 ? "?" : ",?");
+            selectionArgs[i] = String.valueOf(stageIDs.get(i));
+        }
+        selection.append(")");
+
+        Cursor cursor = db.query(TABLE_STAGE, null, selection.toString(), selectionArgs, null, null, null);
+        while (cursor.moveToNext()) {
+            stageList.add(readStage(cursor));
+        }
+        cursor.close();
+
+        return stageList;
+    }
+
+    // Method to return the values to save for a stage entry, all but its ID
+    static ContentValues stageValues(Stage stage) {
         ContentValues values = new ContentValues();
         values.put(COLUMN_STAGE_CARNUM, stage.getCarNum());
         values.put(COLUMN_STAGE_STAGENUM, stage.getStageNum());
         values.put(COLUMN_STAGE_SO, stage.getStartOrder());
-        values.put(COLUMN_STAGE_PS, stage.getProvStart());
-        values.put(COLUMN_STAGE_AS, stage.getActualStart());
-        values.put(COLUMN_STAGE_FT, stage.getFinishTime());
-        values.put(COLUMN_STAGE_ST, stage.getStageTime());
-        values.put(COLUMN_STAGE_AT, stage.getActualTime());
-        values.put(COLUMN_STAGE_DT, stage.getDueTime());
+        putTime(values, COLUMN_STAGE_PS, stage.getProvStart());
+        putTime(values, COLUMN_STAGE_AS, stage.getActualStart());
+        putTime(values, COLUMN_STAGE_FT, stage.getFinishTime());
+        putTime(values, COLUMN_STAGE_ST, stage.getStageTime());
+        putTime(values, COLUMN_STAGE_AT, stage.getActualTime());
+        putTime(values, COLUMN_STAGE_DT, stage.getDueTime());
+        return values;
+    }
+
+    // Method to give each field of a stage entry that has been filled in the clock reading
+    static void putClocks(ContentValues values, Stage stage, long clock) {
+        for (int field = 0; field < FIELD_COLUMNS.length; field++) {
+            if (!TimecardUpdate.isEmpty(field, TimecardUpdate.getField(stage, field))) {
+                values.put(clockColumn(FIELD_COLUMNS[field]), clock);
+            }
+        }
+        values.put(COLUMN_STAGE_CLOCK, clock);
+    }
+
+    // Method to read the stage entry at the cursor's current row
+    @SuppressLint("Range")
+    static Stage readStage(Cursor cursor) {
+        Stage stage = new Stage();
+        stage.setStageId(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_ID))));
+        stage.setCarNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_CARNUM))));
+        stage.setStageNum(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_STAGENUM))));
+        stage.setStartOrder(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_STAGE_SO))));
+        stage.setProvStart(getTime(cursor, COLUMN_STAGE_PS));
+        stage.setActualStart(getTime(cursor, COLUMN_STAGE_AS));
+        stage.setFinishTime(getTime(cursor, COLUMN_STAGE_FT));
+        stage.setStageTime(getTime(cursor, COLUMN_STAGE_ST));
+        stage.setActualTime(getTime(cursor, COLUMN_STAGE_AT));
+        stage.setDueTime(getTime(cursor, COLUMN_STAGE_DT));
+        return stage;
+    }
+
+    // Method to update an entry in the database
+    public void updateStage(Stage stage) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        // Only this car's times can have changed, so only its derived times are worked out again
+        getStageTimeCalculator().recompute(stage);
+        Object[] args = new Object[4 + FIELD_COLUMNS.length];
+        args[0] = stage.getStageId();
+        args[1] = RallyDatabase.getClock(db).now();
+        args[2] = stage.getCarNum();
+        args[3] = stage.getStageNum();
+        for (int field = 0; field < FIELD_COLUMNS.length; field++) {
+            int value = TimecardUpdate.getField(stage, field);
+            args[4 + field] = field == TimecardUpdate.START_ORDER ? value : timeArg(value);
+        }
         // updating row
-        db.update(TABLE_STAGE, values, COLUMN_STAGE_ID + " = ?",
-                new String[]{String.valueOf(stage.getStageId())});
-        db.close();
+        db.execSQL(UPDATE_STAGE, args);
+        // Move just this car in the classifications
+        classificationHelper.stageChanged(stage);
+        timecardNavigator.stageChanged(stage.getStageId());
+    }
+
+    // Method to return the statement used by updateStage. ?1 is the ID, ?2 the clock reading,
+    // ?3 and ?4 the car and stage number, then each field in FIELD_COLUMNS order.
+    private static String buildUpdateStage() {
+        StringBuilder sql = new StringBuilder("UPDATE " + TABLE_STAGE + " SET "
+                + COLUMN_STAGE_CARNUM + " = ?3, " + COLUMN_STAGE_STAGENUM + " = ?4, " + COLUMN_STAGE_CLOCK + " = ?2");
+        for (int field = 0; field < FIELD_COLUMNS.length; field++) {
+            sql.append(", ").append(setField(FIELD_COLUMNS[field], "?" + (5 + field), "?2"));
+        }
+        sql.append(" WHERE " + COLUMN_STAGE_ID + " = ?1");
+        return sql.toString();
+    }
+
+    // Method to save typed due times, given by stage ID, in one transaction. Only the due time
+    // column is written, and a stage whose due time follows from its actual start keeps the
+    // worked out one, the same as updateStage.
+    @SuppressLint("Range")
+    public void updateDueTimes(Map<Integer, Integer> dueTimes) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        List<int[]> changed = new ArrayList<>(); // Car and stage number of each entry written
+        StageTimeCalculator stageTimeCalculator = getStageTimeCalculator();
+        db.beginTransaction();
+        try {
+            long clock = RallyDatabase.getClock(db).now();
+            for (Map.Entry<Integer, Integer> entry : dueTimes.entrySet()) {
+                String[] selectionArgs = {String.valueOf(entry.getKey())};
+                Cursor cursor = db.query(TABLE_STAGE, new String[]{COLUMN_STAGE_STAGENUM, COLUMN_STAGE_AS, COLUMN_STAGE_CARNUM},
+                        COLUMN_STAGE_ID + " = ?", selectionArgs, null, null, null);
+                if (!cursor.moveToFirst()) {
+                    // The entry has gone since the time was typed
+                    cursor.close();
+                    continue;
+                }
+                changed.add(new int[]{cursor.getInt(cursor.getColumnIndex(COLUMN_STAGE_CARNUM)),
+                        cursor.getInt(cursor.getColumnIndex(COLUMN_STAGE_STAGENUM))});
+                int dueTime = StageTimeCalculator.getDueTime(getTime(cursor, COLUMN_STAGE_AS),
+                        stageTimeCalculator.getTargetTime(cursor.getInt(cursor.getColumnIndex(COLUMN_STAGE_STAGENUM))));
+                cursor.close();
+                if (dueTime == RallyTime.NO_TIME) {
+                    dueTime = entry.getValue();
+                }
+
+                // ?1 is the ID, ?2 the clock reading and ?3 the due time
+                db.execSQL("UPDATE " + TABLE_STAGE + " SET " + setField(COLUMN_STAGE_DT, "?3", "?2") + ", "
+                                + COLUMN_STAGE_CLOCK + " = ?2 WHERE " + COLUMN_STAGE_ID + " = ?1",
+                        new Object[]{entry.getKey(), clock, timeArg(dueTime)});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        // The due times change the road penalties of just these cars
+        for (int i = 0; i < changed.size(); i++) {
+            classificationHelper.stageChanged(changed.get(i)[0], changed.get(i)[1]);
+        }
+        for (int stageID : dueTimes.keySet()) {
+            timecardNavigator.stageChanged(stageID);
+        }
+    }
+
+    // The methods below change a few columns of one car's entry for a stage with a single
+    // UPDATE, without reading the entry first. Times that follow from the ones given are
+    // worked out in the same statement, in the same way as StageTimeCalculator. In each
+    // statement ?1 and ?2 are the car and stage number, and ?3 the clock reading.
+
+    // Method to save the start order of a car for a stage
+    public void setStartOrder(int stageNum, int carNum, int startOrder) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.execSQL("UPDATE " + TABLE_STAGE + " SET " + setField(COLUMN_STAGE_SO, "?4", "?3") + ", " + STAMP_ENTRY
+                + WHERE_CAR_STAGE, new Object[]{carNum, stageNum, RallyDatabase.getClock(db).now(), startOrder});
+        timecardNavigator.stageChanged(carNum, stageNum);
+    }
+
+    // Method to save the provisional start and start order given to a car at the A Control
+    public void setProvStart(int stageNum, int carNum, int provStart, int startOrder) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.execSQL("UPDATE " + TABLE_STAGE + " SET " + setField(COLUMN_STAGE_PS, "?4", "?3") + ", "
+                        + setField(COLUMN_STAGE_SO, "?5", "?3") + ", " + STAMP_ENTRY + WHERE_CAR_STAGE,
+                new Object[]{carNum, stageNum, RallyDatabase.getClock(db).now(), timeArg(provStart), startOrder});
+        timecardNavigator.stageChanged(carNum, stageNum);
+    }
+
+    // Method to save the time a car arrived at the A Control after a stage. The car's road
+    // penalty there follows from it.
+    public void setActualTime(int stageNum, int carNum, int actualTime) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.execSQL("UPDATE " + TABLE_STAGE + " SET " + setField(COLUMN_STAGE_AT, "?4", "?3") + ", " + STAMP_ENTRY
+                + WHERE_CAR_STAGE, new Object[]{carNum, stageNum, RallyDatabase.getClock(db).now(), timeArg(actualTime)});
+        classificationHelper.stageChanged(carNum, stageNum);
+        timecardNavigator.stageChanged(carNum, stageNum);
+    }
+
+    // Method to save the actual start and start order of a car at the Start, along with the
+    // stage time if it has finished and the due time at the next control
+    public void setActualStart(int stageNum, int carNum, int actualStart, int startOrder) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        // ?4 is the actual start, ?5 the start order and ?6 the target time for the stage
+        db.execSQL("UPDATE " + TABLE_STAGE + " SET " + setField(COLUMN_STAGE_AS, "?4", "?3") + ", "
+                        + setField(COLUMN_STAGE_SO, "?5", "?3") + ", "
+                        + setField(COLUMN_STAGE_ST, "CASE WHEN ?4 IS NULL OR " + COLUMN_STAGE_FT + " IS NULL THEN "
+                        + COLUMN_STAGE_ST + " ELSE " + wrapDay(COLUMN_STAGE_FT + " - ?4") + " END", "?3") + ", "
+                        + setField(COLUMN_STAGE_DT, "CASE WHEN ?4 IS NULL OR ?6 IS NULL THEN "
+                        + COLUMN_STAGE_DT + " ELSE " + wrapDay("?4 + ?6") + " END", "?3") + ", "
+                        + STAMP_ENTRY + WHERE_CAR_STAGE,
+                new Object[]{carNum, stageNum, RallyDatabase.getClock(db).now(), timeArg(actualStart), startOrder,
+                        timeArg(getStageTimeCalculator().getTargetTime(stageNum))});
+        classificationHelper.stageChanged(carNum, stageNum);
+        timecardNavigator.stageChanged(carNum, stageNum);
+    }
+
+    // Method to save the finish time of a car, with the stage time worked out from its actual
+    // start if that is known, otherwise the stage time given
+    public void setFinishTime(int stageNum, int carNum, int finishTime, int stageTime) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        // ?4 is the finish time and ?5 the stage time given
+        db.execSQL("UPDATE " + TABLE_STAGE + " SET " + setField(COLUMN_STAGE_FT, "?4", "?3") + ", "
+                        + setField(COLUMN_STAGE_ST, "CASE WHEN ?4 IS NULL OR " + COLUMN_STAGE_AS + " IS NULL THEN ?5 ELSE "
+                        + wrapDay("?4 - " + COLUMN_STAGE_AS) + " END", "?3") + ", "
+                        + STAMP_ENTRY + WHERE_CAR_STAGE,
+                new Object[]{carNum, stageNum, RallyDatabase.getClock(db).now(), timeArg(finishTime), timeArg(stageTime)});
+        classificationHelper.stageChanged(carNum, stageNum);
+        timecardNavigator.stageChanged(carNum, stageNum);
+    }
+
+    // Method to return SQL which sets a field to the given value in an UPDATE, moving its
+    // clock on to the given reading if the value is different. Every expression in an UPDATE
+    // sees the entry as it was before, so the clock is compared with the old value.
+    static String setField(String column, String value, String clock) {
+        String clockColumn = clockColumn(column);
+        return column + " = " + value + ", " + clockColumn + " = CASE WHEN " + column + " IS (" + value + ") THEN "
+                + clockColumn + " ELSE " + clock + " END";
+    }
+
+    // Method to return the column holding the clock reading of when a field was last set
+    static String clockColumn(String column) {
+        return column + "_clock";
+    }
+
+    // Method to return the definitions of the clock columns for the create table query
+    static String clockColumnDefinitions() {
+        StringBuilder definitions = new StringBuilder();
+        for (String column : FIELD_COLUMNS) {
+            definitions.append(clockColumn(column)).append(" INTEGER NOT NULL DEFAULT 0,");
+        }
+        return definitions.append(COLUMN_STAGE_CLOCK).append(" INTEGER NOT NULL DEFAULT 0").toString();
+    }
+
+    // Method to return SQL which brings a time back into a single day, the same as
+    // StageTimeCalculator does for a stage that runs past midnight
+    private static String wrapDay(String time) {
+        return "(((" + time + ") % " + RallyTime.MS_PER_DAY + ") + " + RallyTime.MS_PER_DAY + ") % " + RallyTime.MS_PER_DAY;
+    }
+
+    // Method to return a time to bind to a statement, using null when there is no time
+    private static Object timeArg(int time) {
+        return time == RallyTime.NO_TIME ? null : time;
     }
 
     // Method to delete an entry in the database
     public void deleteStage(Stage stage) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         db.delete(TABLE_STAGE, COLUMN_STAGE_ID + " = ?",
                 new String[]{String.valueOf(stage.getStageId())});
-        db.close();
+        classificationHelper.stageRemoved(stage);
+        // Removing a stage entry also removes the car from the controls for that stage
+        timecardNavigator.invalidate();
     }
 
     // Method to check if an entry with the given car and stage number exists
@@ -308,7 +614,7 @@ public class StageDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_STAGE_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_STAGE_CARNUM + " = ?" + " AND " + COLUMN_STAGE_STAGENUM + " = ?";
         // selection arguments
@@ -324,10 +630,24 @@ public class StageDatabaseHelper extends SQLiteOpenHelper {
                 null);                      //The sort order
         int cursorCount = cursor.getCount();
         cursor.close();
-        db.close();
         if (cursorCount > 0) {
             return true;
         }
         return false;
     }
+
+    // Method to put a time into the values to save, using null when there is no time
+    private static void putTime(ContentValues values, String column, int time) {
+        if (time == RallyTime.NO_TIME) {
+            values.putNull(column);
+        } else {
+            values.put(column, time);
+        }
+    }
+
+    // Method to read a time from the cursor, which is null when there is no time
+    private static int getTime(Cursor cursor, String column) {
+        int index = cursor.getColumnIndexOrThrow(column);
+        return cursor.isNull(index) ? RallyTime.NO_TIME : cursor.getInt(index);
+    }
 }
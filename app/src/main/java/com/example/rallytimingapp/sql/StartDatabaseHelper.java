@@ -5,66 +5,65 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 
 import com.example.rallytimingapp.model.Start;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class StartDatabaseHelper extends SQLiteOpenHelper {
-
-    // Database Version
-    private static final int DATABASE_VERSION = 1;
-
-    // Database Name
-    private static final String DATABASE_NAME = "StartManager.db";
+public class StartDatabaseHelper {
 
     // Start table name
-    private static final String TABLE_START = "start";
+    static final String TABLE_START = "start";
 
     // Start Table Columns names
-    private static final String COLUMN_START_ID = "start_id";
-    private static final String COLUMN_START_ORDER = "start_order";
-    private static final String COLUMN_START_STAGE = "start_stage";
-    private static final String COLUMN_START_CARNUM = "start_carNum";
-    private static final String COLUMN_START_STAGEID = "start_stageID";
+    static final String COLUMN_START_ID = "start_id";
+    static final String COLUMN_START_ORDER = "start_order";
+    static final String COLUMN_START_STAGE = "start_stage";
+    static final String COLUMN_START_CARNUM = "start_carNum";
+    static final String COLUMN_START_STAGEID = "start_stageID";
 
     // Create table SQL query
-    private String CREATE_START_TABLE = "CREATE TABLE " + TABLE_START + "("
+    static final String CREATE_START_TABLE = "CREATE TABLE " + TABLE_START + "("
             + COLUMN_START_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," + COLUMN_START_ORDER + " INTEGER,"
             + COLUMN_START_STAGE + " INTEGER," + COLUMN_START_CARNUM + " INTEGER," + COLUMN_START_STAGEID
-            + " INTEGER" + ")";
+            + " INTEGER" + StageDatabaseHelper.REFERENCES_STAGE + ")";
 
-    // Drop table SQL query
-    private String DROP_START_TABLE = "DROP TABLE IF EXISTS " + TABLE_START;
+    // Index names
+    static final String INDEX_START_CAR = "index_start_car_num";
+    static final String INDEX_START_ORDER = "index_start_order";
 
-    public StartDatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
-    }
+    // Create index SQL queries, each car and each start order only appears once per stage
+    static final String CREATE_START_CAR_INDEX = "CREATE UNIQUE INDEX " + INDEX_START_CAR + " ON "
+            + TABLE_START + "(" + COLUMN_START_STAGE + "," + COLUMN_START_CARNUM + ")";
+    static final String CREATE_START_ORDER_INDEX = "CREATE UNIQUE INDEX " + INDEX_START_ORDER + " ON "
+            + TABLE_START + "(" + COLUMN_START_STAGE + "," + COLUMN_START_ORDER + ")";
 
-    @Override
-    public void onCreate(SQLiteDatabase db) {
-        db.execSQL(CREATE_START_TABLE);
-    }
+    // Changes the start orders of this table, keeping them unique
+    private static final StartOrderSequencer SEQUENCER = new StartOrderSequencer(TABLE_START, COLUMN_START_STAGE, COLUMN_START_ORDER,
+            COLUMN_START_CARNUM, COLUMN_START_STAGEID);
+
+    private final RallyDatabase rallyDatabase;
+    private final TimecardNavigator timecardNavigator;
+    private final StageDatabaseHelper stageDatabaseHelper;
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL(DROP_START_TABLE);
-        onCreate(db);
+    public StartDatabaseHelper(Context context) {
+        rallyDatabase = RallyDatabase.getInstance(context);
+        timecardNavigator = TimecardNavigator.getInstance(context);
+        stageDatabaseHelper = new StageDatabaseHelper(context);
     }
 
-    // Method to remove all entries from the database
+    // Method to remove all entries from the database, in a single statement
     public void empty() {
-        List<Start> startList = getAllStarts();
-        for (int i = 0; i < startList.size(); i++) {
-            deleteStart(startList.get(i));
-        }
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.delete(TABLE_START, null, null);
+        timecardNavigator.rosterChanged(TimecardNavigator.START);
     }
 
-    // Method to add an entry to the database
-    public void addStart(Start start) {
-        SQLiteDatabase db = this.getWritableDatabase();
+    // Method to add an entry to the database. Returns false if it couldn't be added, eg
+    // because another car already has its start order.
+    public boolean addStart(Start start) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
 
         ContentValues values = new ContentValues();
         values.put(COLUMN_START_ORDER, start.getStartOrder());
@@ -73,8 +72,46 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
         values.put(COLUMN_START_STAGEID, start.getStageID());
 
         // Inserting Row
-        db.insert(TABLE_START, null, values);
-        db.close();
+        long id = db.insert(TABLE_START, null, values);
+        timecardNavigator.rosterChanged(TimecardNavigator.START, start.getStage());
+        return id != -1;
+    }
+
+    // Method to put a car in the start list at the given start order. If the car is already
+    // there it swaps places with whichever car has that start order. The check and the change
+    // happen in one transaction, so the same car can't be added twice. A swap on the Start
+    // screen can leave the order taken by a car that hasn't got here yet, in which case the
+    // new car goes after the last one instead, on its stage entry too. Returns the start
+    // order the car was given, or 0 if it couldn't be added.
+    public int placeStart(Start start) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            if (!checkStart(start.getStage(), start.getCarNum())) {
+                if (!addStart(start)) {
+                    // The counter starts again from the last order in use, so the order it
+                    // hands out is always free
+                    OrderCounter.reset(db, TABLE_START, start.getStage());
+                    start.setStartOrder(OrderCounter.next(db, TABLE_START, COLUMN_START_STAGE,
+                            COLUMN_START_ORDER, start.getStage()));
+                    if (!addStart(start)) {
+                        return 0;
+                    }
+                    stageDatabaseHelper.setStartOrder(start.getStage(), start.getCarNum(), start.getStartOrder());
+                }
+            } else {
+                Start current = getStartByCarNum(start.getStage(), start.getCarNum());
+                if (current.getStartOrder() != start.getStartOrder()) {
+                    swapStartOrders(start.getStage(), current.getStartOrder(), start.getStartOrder());
+                }
+            }
+            db.setTransactionSuccessful();
+            return start.getStartOrder();
+        } finally {
+            db.endTransaction();
+            // Again once the transaction is over, in case the roster was read in the meantime
+            timecardNavigator.rosterChanged(TimecardNavigator.START, start.getStage());
+        }
     }
 
     // Method to return the car number of the entry with the given stage number and start order
@@ -83,7 +120,7 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_START_CARNUM
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_START_STAGE + " = ?" + " AND " + COLUMN_START_ORDER + " = ?";
         // selection argument
@@ -103,7 +140,6 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
             carNum = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return carNum;
     }
@@ -121,7 +157,7 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
 
         Start start = new Start();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_START_ID + " = ?";
@@ -144,7 +180,6 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
             start.setStageID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_START_STAGEID))));
         }
         cursor.close();
-        db.close();
 
         return start;
     }
@@ -162,7 +197,7 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
 
         Start start = new Start();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_START_STAGE + " = ?" + " AND " + COLUMN_START_CARNUM + " = ?";
@@ -185,7 +220,6 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
             start.setStageID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_START_STAGEID))));
         }
         cursor.close();
-        db.close();
 
         return start;
     }
@@ -203,7 +237,7 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
 
         Start start = new Start();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_START_STAGE + " = ?" + " AND " + COLUMN_START_ORDER + " = ?";
@@ -226,7 +260,6 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
             start.setStageID(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_START_STAGEID))));
         }
         cursor.close();
-        db.close();
 
         return start;
     }
@@ -245,7 +278,7 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
         String sortOrder = COLUMN_START_ID + " ASC";
         List<Start> startList = new ArrayList<Start>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         Cursor cursor = db.query(TABLE_START, //Table to query
                 columns,             //columns to return
@@ -267,14 +300,13 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return startList;
     }
 
     // Method to update an entry in the database
     public void updateStart(Start start) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COLUMN_START_ORDER, start.getStartOrder());
         values.put(COLUMN_START_STAGE, start.getStage());
@@ -283,15 +315,68 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
         // updating row
         db.update(TABLE_START, values, COLUMN_START_ID + " = ?",
                 new String[]{String.valueOf(start.getStartID())});
-        db.close();
+        timecardNavigator.rosterChanged(TimecardNavigator.START, start.getStage());
+    }
+
+    // Method to swap the entries at two start orders of a stage. The start orders on the two
+    // cars' stage entries are changed along with them.
+    public void swapStartOrders(int stageNum, int startOrder1, int startOrder2) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            SEQUENCER.swap(db, stageNum, startOrder1, startOrder2);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            startOrdersChanged(stageNum);
+        }
+    }
+
+    // Method to move the car at one start order of a stage to another, with the cars in
+    // between moving up or down one place to make room. Returns false, changing nothing, if
+    // there is no car at the first order or the second is past the last one.
+    public boolean moveStartOrder(int stageNum, int fromOrder, int toOrder) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            boolean moved = SEQUENCER.move(db, stageNum, fromOrder, toOrder);
+            db.setTransactionSuccessful();
+            return moved;
+        } finally {
+            db.endTransaction();
+            startOrdersChanged(stageNum);
+        }
+    }
+
+    // Method to give every car at a stage a new start order, in the order the car numbers are
+    // listed. Returns false, changing nothing, unless every car at the stage is listed once.
+    public boolean setStartOrders(int stageNum, int[] carNums) {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            boolean applied = SEQUENCER.apply(db, stageNum, carNums);
+            if (applied) {
+                db.setTransactionSuccessful();
+            }
+            return applied;
+        } finally {
+            db.endTransaction();
+            startOrdersChanged(stageNum);
+        }
+    }
+
+    // Method to drop the cached timecards of a stage once its start orders have changed
+    private void startOrdersChanged(int stageNum) {
+        timecardNavigator.rosterChanged(TimecardNavigator.START, stageNum);
+        timecardNavigator.stagesChanged(stageNum);
     }
 
     // Method to delete an entry in the database
     public void deleteStart(Start start) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         db.delete(TABLE_START, COLUMN_START_ID + " = ?",
                 new String[]{String.valueOf(start.getStartID())});
-        db.close();
+        timecardNavigator.rosterChanged(TimecardNavigator.START, start.getStage());
     }
 
     // Method to return a list of all entries with the given stage number
@@ -312,7 +397,7 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
         String[] selectionArgs = {String.valueOf(stageNum)};
         List<Start> startList = new ArrayList<Start>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         Cursor cursor = db.query(TABLE_START, //Table to query
                 columns,             //columns to return
@@ -334,7 +419,6 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return startList;
     }
@@ -347,7 +431,7 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
                 COLUMN_START_ORDER
         };
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         String sortOrder = COLUMN_START_ORDER + " ASC";
         // selection criteria
@@ -369,7 +453,6 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
             currSO = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return currSO;
     }
@@ -380,7 +463,7 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_START_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_START_STAGE + " = ?" + " AND " + COLUMN_START_CARNUM + " = ?";
         // selection argument
@@ -396,7 +479,6 @@ public class StartDatabaseHelper extends SQLiteOpenHelper {
                 null);                      //The sort order
         int cursorCount = cursor.getCount();
         cursor.close();
-        db.close();
         if (cursorCount > 0) {
             return true;
         }
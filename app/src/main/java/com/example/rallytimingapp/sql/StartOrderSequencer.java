@@ -0,0 +1,113 @@
+package com.example.rallytimingapp.sql;
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+final class StartOrderSequencer {
+    // Changes the start orders of the cars at the A Control or the Start, for one table.
+    // Start orders are unique within a stage and SQLite checks that row by row, so the new
+    // orders are first written as negative numbers, which can't clash with any order in use,
+    // and then all turned positive again. The start orders on the cars' stage entries are
+    // copied over afterwards. Every method has to be called inside a transaction, so a crash
+    // part way through leaves the orders as they were. Orders and car numbers are ints and
+    // are written into the SQL as they are.
+
+    private final String table;
+    private final String stageColumn;
+    private final String orderColumn;
+    private final String carColumn;
+    private final String stageIdColumn;
+
+    StartOrderSequencer(String table, String stageColumn, String orderColumn, String carColumn, String stageIdColumn) {
+        this.table = table;
+        this.stageColumn = stageColumn;
+        this.orderColumn = orderColumn;
+        this.carColumn = carColumn;
+        this.stageIdColumn = stageIdColumn;
+    }
+
+    // Method to swap the cars at two start orders of a stage
+    void swap(SQLiteDatabase db, int stageNum, int startOrder1, int startOrder2) {
+        String newOrder = "CASE " + orderColumn + " WHEN " + startOrder1 + " THEN " + startOrder2
+                + " ELSE " + startOrder1 + " END";
+        String where = orderColumn + " IN (" + startOrder1 + ", " + startOrder2 + ")";
+        resequence(db, stageNum, newOrder, where, -1);
+    }
+
+    // Method to move the car at one start order of a stage to another, moving the cars in
+    // between up or down one place. Returns false, changing nothing, if there is no car at
+    // the first order or the second is not between 1 and the last order.
+    boolean move(SQLiteDatabase db, int stageNum, int fromOrder, int toOrder) {
+        if (count(db, stageNum, orderColumn + " = " + fromOrder) != 1
+                || toOrder < 1 || toOrder > lastOrder(db, stageNum)) {
+            return false;
+        }
+        String newOrder = "CASE WHEN " + orderColumn + " = " + fromOrder + " THEN " + toOrder
+                + " WHEN " + fromOrder + " < " + toOrder + " THEN " + orderColumn + " - 1"
+                + " ELSE " + orderColumn + " + 1 END";
+        String where = orderColumn + " BETWEEN " + Math.min(fromOrder, toOrder) + " AND " + Math.max(fromOrder, toOrder);
+        return resequence(db, stageNum, newOrder, where, -1);
+    }
+
+    // Method to give the cars at a stage the start orders 1, 2, 3... in the order they are
+    // listed. Returns false if the list isn't every car at the stage once, in which case the
+    // caller must not commit the transaction, as the orders may be part way through changing.
+    boolean apply(SQLiteDatabase db, int stageNum, int[] carNums) {
+        if (carNums.length == 0 || count(db, stageNum, null) != carNums.length) {
+            return false;
+        }
+        StringBuilder newOrder = new StringBuilder("CASE " + carColumn);
+        StringBuilder cars = new StringBuilder();
+        for (int i = 0; i < carNums.length; i++) {
+            newOrder.append(" WHEN ").append(carNums[i]).append(" THEN ").append(i + 1);
+            cars.append(i == 0 ? "" : ", ").append(carNums[i]);
+        }
+        newOrder.append(" END");
+        return resequence(db, stageNum, newOrder.toString(), carColumn + " IN (" + cars + ")", carNums.length);
+    }
+
+    // Method to give the entries of a stage picked out by the where clause their new orders.
+    // If the number of entries given is not -1 and that many weren't found, it stops straight
+    // away and returns false, before any order could clash with one left as it was.
+    private boolean resequence(SQLiteDatabase db, int stageNum, String newOrder, String where, int expected) {
+        String whereStage = " WHERE " + stageColumn + " = " + stageNum + " AND ";
+        int changed = executeUpdate(db, "UPDATE " + table + " SET " + orderColumn + " = -(" + newOrder + ")"
+                + whereStage + where);
+        if (expected != -1 && changed != expected) {
+            return false;
+        }
+        executeUpdate(db, "UPDATE " + table + " SET " + orderColumn + " = -" + orderColumn
+                + whereStage + orderColumn + " < 0");
+        // The where clause still picks out the same entries, as their new orders cover the
+        // same orders as before
+        long clock = RallyDatabase.getClock(db).now();
+        String order = "(SELECT " + orderColumn + " FROM " + table + " WHERE " + stageIdColumn + " = "
+                + StageDatabaseHelper.TABLE_STAGE + "." + StageDatabaseHelper.COLUMN_STAGE_ID + ")";
+        executeUpdate(db, "UPDATE " + StageDatabaseHelper.TABLE_STAGE + " SET "
+                + StageDatabaseHelper.setField(StageDatabaseHelper.COLUMN_STAGE_SO, order, String.valueOf(clock)) + ", "
+                + StageDatabaseHelper.COLUMN_STAGE_CLOCK + " = " + clock
+                + " WHERE " + StageDatabaseHelper.COLUMN_STAGE_ID + " IN (SELECT " + stageIdColumn + " FROM "
+                + table + whereStage + where + ")");
+        return true;
+    }
+
+    private int count(SQLiteDatabase db, int stageNum, String where) {
+        return (int) DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM " + table + " WHERE " + stageColumn
+                + " = " + stageNum + (where == null ? "" : " AND " + where), null);
+    }
+
+    private int lastOrder(SQLiteDatabase db, int stageNum) {
+        return (int) DatabaseUtils.longForQuery(db, "SELECT IFNULL(MAX(" + orderColumn + "), 0) FROM " + table
+                + " WHERE " + stageColumn + " = " + stageNum, null);
+    }
+
+    private static int executeUpdate(SQLiteDatabase db, String sql) {
+        SQLiteStatement statement = db.compileStatement(sql);
+        try {
+            return statement.executeUpdateDelete();
+        } finally {
+            statement.close();
+        }
+    }
+}
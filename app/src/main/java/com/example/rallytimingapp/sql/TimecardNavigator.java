@@ -0,0 +1,260 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.rallytimingapp.model.Stage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TimecardNavigator {
+    // Keeps what the A Control, Start and Finish screens need to flip from one timecard to the
+    // next. The order of the cars at a control is read once for each stage and kept as a few
+    // arrays, and the stage entries of the cards either side of the one shown are read along
+    // with it, so pressing an arrow usually needs no query at all. The helpers tell it about
+    // every change, once it has been saved, so nothing is ever shown out of date.
+
+    // The controls a roster can be kept for
+    public static final int A_CONTROL = 0;
+    public static final int START = 1;
+    public static final int FINISH = 2;
+    private static final int CONTROLS = 3;
+
+    private static final int PREFETCH = 2; // Cards read on each side of the one asked for
+    private static final int MAX_STAGES = 64; // Stage entries kept in memory
+
+    private static TimecardNavigator instance;
+
+    private final RallyDatabase rallyDatabase;
+    private final Map<Integer, Roster> rosters = new HashMap<>(); // Rosters by control and stage
+
+    // Stage entries by ID, dropping the one used longest ago once there are too many
+    private final Map<Integer, Stage> stages = new LinkedHashMap<Integer, Stage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Stage> eldest) {
+            return size() > MAX_STAGES;
+        }
+    };
+
+    // Object for the cars at one control for one stage, in order. The stage IDs are those of
+    // the stage on the card, and for the A Control also the previous stage, 0 if there is none.
+    private static class Roster {
+        private final int[] orders;
+        private final int[] stageIds;
+        private final int[] prevStageIds;
+
+        private Roster(int[] orders, int[] stageIds, int[] prevStageIds) {
+            this.orders = orders;
+            this.stageIds = stageIds;
+            this.prevStageIds = prevStageIds;
+        }
+
+        // Method to return where the given order is in the roster, or a negative number if
+        // no car has that order
+        private int indexOf(int order) {
+            return Arrays.binarySearch(orders, order);
+        }
+
+        private int lastOrder() {
+            return orders.length == 0 ? 0 : orders[orders.length - 1];
+        }
+    }
+
+    // Method to return the one shared instance, so every screen sees the same rosters
+    public static synchronized TimecardNavigator getInstance(Context context) {
+        if (instance == null) {
+            instance = new TimecardNavigator(RallyDatabase.getInstance(context));
+        }
+        return instance;
+    }
+
+    private TimecardNavigator(RallyDatabase rallyDatabase) {
+        this.rallyDatabase = rallyDatabase;
+    }
+
+    // Method to return the highest order at a control for a stage, 0 if no car is there yet
+    public synchronized int getLastOrder(int control, int stageNum) {
+        return getRoster(control, stageNum).lastOrder();
+    }
+
+    // Method to return the stage entry on the card at the given order, which for the A Control
+    // is the stage being started. Returns an empty stage if no car has that order.
+    public synchronized Stage getStage(int control, int stageNum, int order) {
+        Roster roster = getRoster(control, stageNum);
+        return getCard(roster, roster.stageIds, order);
+    }
+
+    // Method to return the stage the car at the given order at the A Control has just
+    // finished, for the first timecard. Returns an empty stage if there isn't one.
+    public synchronized Stage getPreviousStage(int stageNum, int order) {
+        Roster roster = getRoster(A_CONTROL, stageNum);
+        return getCard(roster, roster.prevStageIds, order);
+    }
+
+    // Method to drop the roster of one control for a stage, after a car has been added,
+    // moved or removed there
+    synchronized void rosterChanged(int control, int stageNum) {
+        rosters.remove(key(control, stageNum));
+    }
+
+    // Method to drop the rosters of one control for every stage, after it has been emptied
+    synchronized void rosterChanged(int control) {
+        Iterator<Integer> keys = rosters.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next() % CONTROLS == control) {
+                keys.remove();
+            }
+        }
+    }
+
+    // Method to drop a stage entry after it has changed, so it is read again when next shown
+    synchronized void stageChanged(int stageID) {
+        stages.remove(stageID);
+    }
+
+    // Method to drop the stage entry of a car after it has changed, when its ID isn't to hand
+    synchronized void stageChanged(int carNum, int stageNum) {
+        Iterator<Stage> entries = stages.values().iterator();
+        while (entries.hasNext()) {
+            Stage stage = entries.next();
+            if (stage.getCarNum() == carNum && stage.getStageNum() == stageNum) {
+                entries.remove();
+            }
+        }
+    }
+
+    // Method to drop every stage entry of a stage, after the start orders there have changed
+    synchronized void stagesChanged(int stageNum) {
+        Iterator<Stage> entries = stages.values().iterator();
+        while (entries.hasNext()) {
+            if (entries.next().getStageNum() == stageNum) {
+                entries.remove();
+            }
+        }
+    }
+
+    // Method to throw everything away after a change to many entries at once
+    synchronized void invalidate() {
+        rosters.clear();
+        stages.clear();
+    }
+
+    private static int key(int control, int stageNum) {
+        return stageNum * CONTROLS + control;
+    }
+
+    // Method to return the roster of a control for a stage, reading it the first time it is needed
+    private Roster getRoster(int control, int stageNum) {
+        Roster roster = rosters.get(key(control, stageNum));
+        if (roster == null) {
+            roster = readRoster(control, stageNum);
+            rosters.put(key(control, stageNum), roster);
+        }
+        return roster;
+    }
+
+    // Method to read the order and stage IDs of every car at a control for a stage, in one query
+    private Roster readRoster(int control, int stageNum) {
+        String table;
+        String stageColumn;
+        String orderColumn;
+        String stageIdColumn;
+        String prevStageIdColumn = null;
+        switch (control) {
+            case A_CONTROL:
+                table = AControlDatabaseHelper.TABLE_ACONTROL;
+                stageColumn = AControlDatabaseHelper.COLUMN_AC_STAGE;
+                orderColumn = AControlDatabaseHelper.COLUMN_AC_SO;
+                stageIdColumn = AControlDatabaseHelper.COLUMN_AC_STAGE2ID;
+                prevStageIdColumn = AControlDatabaseHelper.COLUMN_AC_STAGE1ID;
+                break;
+            case START:
+                table = StartDatabaseHelper.TABLE_START;
+                stageColumn = StartDatabaseHelper.COLUMN_START_STAGE;
+                orderColumn = StartDatabaseHelper.COLUMN_START_ORDER;
+                stageIdColumn = StartDatabaseHelper.COLUMN_START_STAGEID;
+                break;
+            case FINISH:
+                table = FinishDatabaseHelper.TABLE_FINISH;
+                stageColumn = FinishDatabaseHelper.COLUMN_FINISH_STAGE;
+                orderColumn = FinishDatabaseHelper.COLUMN_FINISH_ORDER;
+                stageIdColumn = FinishDatabaseHelper.COLUMN_FINISH_STAGEID;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown control " + control);
+        }
+
+        String[] columns = prevStageIdColumn == null
+                ? new String[]{orderColumn, stageIdColumn}
+                : new String[]{orderColumn, stageIdColumn, prevStageIdColumn};
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.query(table, columns, stageColumn + " = ?",
+                new String[]{String.valueOf(stageNum)}, null, null, orderColumn + " ASC");
+
+        int count = cursor.getCount();
+        int[] orders = new int[count];
+        int[] stageIds = new int[count];
+        int[] prevStageIds = new int[count];
+        for (int i = 0; cursor.moveToNext(); i++) {
+            orders[i] = cursor.getInt(0);
+            stageIds[i] = cursor.getInt(1);
+            // Stage 1 has no previous stage, which is stored as null and read as 0
+            if (prevStageIdColumn != null) {
+                prevStageIds[i] = cursor.getInt(2);
+            }
+        }
+        cursor.close();
+
+        return new Roster(orders, stageIds, prevStageIds);
+    }
+
+    // Method to return a copy of the stage entry on a card, first reading the entries on the
+    // cards either side of it that haven't been read yet, all in one query
+    private Stage getCard(Roster roster, int[] stageIds, int order) {
+        int index = roster.indexOf(order);
+        if (index < 0 || stageIds[index] == 0) {
+            return new Stage();
+        }
+
+        if (!stages.containsKey(stageIds[index])) {
+            List<Integer> missing = new ArrayList<>();
+            int from = Math.max(0, index - PREFETCH);
+            int to = Math.min(stageIds.length - 1, index + PREFETCH);
+            for (int i = from; i <= to; i++) {
+                if (stageIds[i] != 0 && !stages.containsKey(stageIds[i])) {
+                    missing.add(stageIds[i]);
+                }
+            }
+            SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+            for (Stage stage : StageDatabaseHelper.getStages(db, missing)) {
+                stages.put(stage.getStageId(), stage);
+            }
+        }
+
+        Stage stage = stages.get(stageIds[index]);
+        // The screens may change the entry they are given, so they get their own copy
+        return stage == null ? new Stage() : copy(stage);
+    }
+
+    private static Stage copy(Stage stage) {
+        Stage copy = new Stage();
+        copy.setStageId(stage.getStageId());
+        copy.setCarNum(stage.getCarNum());
+        copy.setStageNum(stage.getStageNum());
+        copy.setStartOrder(stage.getStartOrder());
+        copy.setProvStart(stage.getProvStart());
+        copy.setActualStart(stage.getActualStart());
+        copy.setFinishTime(stage.getFinishTime());
+        copy.setStageTime(stage.getStageTime());
+        copy.setActualTime(stage.getActualTime());
+        copy.setDueTime(stage.getDueTime());
+        return copy;
+    }
+}
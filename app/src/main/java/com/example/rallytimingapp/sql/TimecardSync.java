@@ -0,0 +1,200 @@
+package com.example.rallytimingapp.sql;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.rallytimingapp.model.HybridClock;
+import com.example.rallytimingapp.model.Stage;
+import com.example.rallytimingapp.model.TimecardCodec;
+import com.example.rallytimingapp.model.TimecardLog;
+import com.example.rallytimingapp.model.TimecardUpdate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TimecardSync {
+    // Passes the timecards between the Start, Finish and A Control phones, which each keep
+    // their own database. One phone exports the fields changed since a clock reading, in the
+    // form written by TimecardCodec, and the others import the file or stream.
+    // Each field of a stage entry keeps the clock reading of when it was last set, and an
+    // imported field only replaces the one here if it was set later, see
+    // TimecardUpdate.supersedes. So the phones end up with the same timecards whatever order
+    // the files are passed round in, and an import only touches the entries it has fields
+    // for. The stage and due times that follow from the imported times are worked out again.
+
+    private final Context context;
+    private final RallyDatabase rallyDatabase;
+    private final ItineraryHelper itineraryHelper;
+
+    // Object for the outcome of an import
+    public static class Result {
+        private int applied; // Fields changed by the import
+        private int ignored; // Fields which were set here at the same time or later
+        private int missing; // Fields for a car or stage with no entry here
+
+        public int getApplied() {
+            return applied;
+        }
+
+        public int getIgnored() {
+            return ignored;
+        }
+
+        public int getMissing() {
+            return missing;
+        }
+    }
+
+    public TimecardSync(Context context) {
+        this.context = context;
+        this.rallyDatabase = RallyDatabase.getInstance(context);
+        this.itineraryHelper = ItineraryHelper.getInstance(context);
+    }
+
+    // Method to write every field set after the given clock reading to the stream, returning
+    // the latest reading written, to pass in next time. A reading of 0 exports every field.
+    public long exportTimecards(OutputStream out, long since) throws IOException {
+        List<TimecardUpdate> updates = getUpdates(since);
+        long latest = since;
+        for (TimecardUpdate update : updates) {
+            latest = Math.max(latest, update.getTimestamp());
+        }
+        TimecardCodec.write(out, updates);
+        return latest;
+    }
+
+    // Method to return every field set after the given clock reading. Only the entries
+    // changed since then are read, using the index on the entry's clock.
+    List<TimecardUpdate> getUpdates(long since) {
+        List<TimecardUpdate> updates = new ArrayList<>();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.query(StageDatabaseHelper.TABLE_STAGE, null,
+                StageDatabaseHelper.COLUMN_STAGE_CLOCK + " > ?", new String[]{String.valueOf(since)},
+                null, null, null);
+        int[] clockIndexes = getClockIndexes(cursor);
+        while (cursor.moveToNext()) {
+            Stage stage = StageDatabaseHelper.readStage(cursor);
+            for (int field = 0; field < TimecardUpdate.FIELD_COUNT; field++) {
+                long clock = cursor.getLong(clockIndexes[field]);
+                if (clock > since) {
+                    updates.add(new TimecardUpdate(stage.getCarNum(), stage.getStageNum(), field,
+                            TimecardUpdate.getField(stage, field), clock));
+                }
+            }
+        }
+        cursor.close();
+        return updates;
+    }
+
+    // Method to read updates from the stream and save them, in one transaction
+    public Result importTimecards(InputStream in) throws IOException {
+        // Where the stream holds more than one value for a field, the latest is used
+        TimecardLog log = new TimecardLog();
+        log.addAll(TimecardCodec.read(in));
+        return applyUpdates(log.getUpdates());
+    }
+
+    // Method to save updates given in timecard order, one stage entry at a time
+    Result applyUpdates(List<TimecardUpdate> updates) {
+        Result result = new Result();
+        List<Stage> changed = new ArrayList<>();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        HybridClock clock = RallyDatabase.getClock(db);
+        db.beginTransaction();
+        try {
+            int i = 0;
+            while (i < updates.size()) {
+                TimecardUpdate first = updates.get(i);
+                Cursor cursor = db.query(StageDatabaseHelper.TABLE_STAGE, null,
+                        StageDatabaseHelper.COLUMN_STAGE_CARNUM + " = ? AND " + StageDatabaseHelper.COLUMN_STAGE_STAGENUM + " = ?",
+                        new String[]{String.valueOf(first.getCarNum()), String.valueOf(first.getStageNum())},
+                        null, null, null);
+                Stage stage = null;
+                long[] clocks = new long[TimecardUpdate.FIELD_COUNT];
+                if (cursor.moveToFirst()) {
+                    stage = StageDatabaseHelper.readStage(cursor);
+                    int[] clockIndexes = getClockIndexes(cursor);
+                    for (int field = 0; field < clocks.length; field++) {
+                        clocks[field] = cursor.getLong(clockIndexes[field]);
+                    }
+                }
+                cursor.close();
+
+                boolean stageChanged = false;
+                for (; i < updates.size() && updates.get(i).getCarNum() == first.getCarNum()
+                        && updates.get(i).getStageNum() == first.getStageNum(); i++) {
+                    TimecardUpdate update = updates.get(i);
+                    // Readings from here on have to come after every reading seen
+                    clock.receive(update.getTimestamp());
+                    if (stage == null) {
+                        result.missing++;
+                        continue;
+                    }
+                    int field = update.getField();
+                    if (TimecardUpdate.supersedes(update.getTimestamp(), update.getValue(),
+                            clocks[field], TimecardUpdate.getField(stage, field))) {
+                        TimecardUpdate.setField(stage, field, update.getValue());
+                        clocks[field] = update.getTimestamp();
+                        result.applied++;
+                        stageChanged = true;
+                    } else {
+                        result.ignored++;
+                    }
+                }
+                if (stageChanged) {
+                    saveStage(db, stage, clocks, clock.now());
+                    changed.add(stage);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        ClassificationHelper classificationHelper = ClassificationHelper.getInstance(context);
+        TimecardNavigator timecardNavigator = TimecardNavigator.getInstance(context);
+        for (Stage stage : changed) {
+            classificationHelper.stageChanged(stage);
+            timecardNavigator.stageChanged(stage.getStageId());
+        }
+        return result;
+    }
+
+    // Method to save a stage entry with the clock reading of each field. The stage and due
+    // times are worked out again first, and if that changes them they count as set now.
+    private void saveStage(SQLiteDatabase db, Stage stage, long[] clocks, long now) {
+        int stageTime = stage.getStageTime();
+        int dueTime = stage.getDueTime();
+        itineraryHelper.getStageTimeCalculator().recompute(stage);
+        if (stage.getStageTime() != stageTime) {
+            clocks[TimecardUpdate.STAGE_TIME] = now;
+        }
+        if (stage.getDueTime() != dueTime) {
+            clocks[TimecardUpdate.DUE_TIME] = now;
+        }
+
+        ContentValues values = StageDatabaseHelper.stageValues(stage);
+        for (int field = 0; field < clocks.length; field++) {
+            values.put(StageDatabaseHelper.clockColumn(StageDatabaseHelper.FIELD_COLUMNS[field]), clocks[field]);
+        }
+        // The entry has changed here, so the next export reads it again
+        values.put(StageDatabaseHelper.COLUMN_STAGE_CLOCK, now);
+        db.update(StageDatabaseHelper.TABLE_STAGE, values, StageDatabaseHelper.COLUMN_STAGE_ID + " = ?",
+                new String[]{String.valueOf(stage.getStageId())});
+    }
+
+    // Method to return the cursor's index of the clock column of each field
+    private static int[] getClockIndexes(Cursor cursor) {
+        int[] indexes = new int[TimecardUpdate.FIELD_COUNT];
+        for (int field = 0; field < indexes.length; field++) {
+            indexes[field] = cursor.getColumnIndexOrThrow(
+                    StageDatabaseHelper.clockColumn(StageDatabaseHelper.FIELD_COLUMNS[field]));
+        }
+        return indexes;
+    }
+}
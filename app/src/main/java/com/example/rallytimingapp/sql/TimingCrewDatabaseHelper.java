@@ -4,57 +4,51 @@ import android.annotation.SuppressLint;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 
+import com.example.rallytimingapp.model.ListEntry;
 import com.example.rallytimingapp.model.TimingCrew;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
-
-    // Database Version
-    private static final int DATABASE_VERSION = 1;
-
-    // Database Name
-    private static final String DATABASE_NAME = "TimingCrewManager.db";
+public class TimingCrewDatabaseHelper {
 
     // Timing Crew table name
-    private static final String TABLE_TIMING_CREW = "timing_crew";
+    static final String TABLE_TIMING_CREW = "timing_crew";
 
     // Timing Crew Table Columns names
-    private static final String COLUMN_CREW_ID = "crew_id";
-    private static final String COLUMN_CREW_POSITION = "crew_position";
-    private static final String COLUMN_CREW_POSTCHIEF = "crew_post_chief";
-    private static final String COLUMN_CREW_PHONE = "crew_post_chief_phone";
+    static final String COLUMN_CREW_ID = "crew_id";
+    static final String COLUMN_CREW_POSITION = "crew_position";
+    static final String COLUMN_CREW_POSTCHIEF = "crew_post_chief";
+    static final String COLUMN_CREW_PHONE = "crew_post_chief_phone";
 
     // Create table SQL query
-    private String CREATE_CREW_TABLE = "CREATE TABLE " + TABLE_TIMING_CREW + "("
+    static final String CREATE_CREW_TABLE = "CREATE TABLE " + TABLE_TIMING_CREW + "("
             + COLUMN_CREW_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," + COLUMN_CREW_POSITION + " TEXT,"
             + COLUMN_CREW_POSTCHIEF + " TEXT," + COLUMN_CREW_PHONE + " TEXT" + ")";
 
-    // Drop table SQL query
-    private String DROP_CREW_TABLE = "DROP TABLE IF EXISTS " + TABLE_TIMING_CREW;
+    // Index name
+    static final String INDEX_CREW_POSTCHIEF = "index_crew_post_chief";
 
-    public TimingCrewDatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
-    }
+    // Create index SQL query, used to list the crews in each position in order of post chief
+    static final String CREATE_CREW_POSTCHIEF_INDEX = "CREATE INDEX " + INDEX_CREW_POSTCHIEF + " ON "
+            + TABLE_TIMING_CREW + "(" + COLUMN_CREW_POSITION + "," + COLUMN_CREW_POSTCHIEF + "," + COLUMN_CREW_ID + ")";
 
-    @Override
-    public void onCreate(SQLiteDatabase db) {
-        db.execSQL(CREATE_CREW_TABLE);
-    }
+    private final RallyDatabase rallyDatabase;
+    private final ListSearchHelper listSearchHelper;
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL(DROP_CREW_TABLE);
-        onCreate(db);
+    public TimingCrewDatabaseHelper(Context context) {
+        rallyDatabase = RallyDatabase.getInstance(context);
+        listSearchHelper = ListSearchHelper.getInstance(context);
     }
 
     // Method to add an entry to the database
     public void addTimingCrew(TimingCrew crew) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
 
         ContentValues values = new ContentValues();
         values.put(COLUMN_CREW_POSITION, crew.getPosition());
@@ -62,8 +56,10 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
         values.put(COLUMN_CREW_PHONE, crew.getPostChiefPhone());
 
         // Inserting Row
-        db.insert(TABLE_TIMING_CREW, null, values);
-        db.close();
+        long crewID = db.insert(TABLE_TIMING_CREW, null, values);
+        if (crewID != -1) {
+            listSearchHelper.crewChanged((int) crewID, crew);
+        }
     }
 
     // Method to return the ID of the entry with the given position and post chief name
@@ -72,7 +68,7 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_CREW_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_CREW_POSITION + " = ?" + " AND " + COLUMN_CREW_POSTCHIEF + " = ?";
         // selection argument
@@ -92,17 +88,15 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
             crewID = cursor.getInt(0);
         }
         cursor.close();
-        db.close();
 
         return crewID;
     }
 
-    // Method to remove all entries from the database
+    // Method to remove all entries from the database, in a single statement
     public void empty() {
-        List<TimingCrew> crewList = getAllTimingCrews();
-        for (int i = 0; i < crewList.size(); i++) {
-            deleteTimingCrew(crewList.get(i));
-        }
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.delete(TABLE_TIMING_CREW, null, null);
+        listSearchHelper.invalidate();
     }
 
     // Method to return the entry with the given ID
@@ -117,7 +111,7 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
 
         TimingCrew crew = new TimingCrew();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_CREW_ID + " = ?";
@@ -139,7 +133,6 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
             crew.setPostChiefPhone(cursor.getString(cursor.getColumnIndex(COLUMN_CREW_PHONE)));
         }
         cursor.close();
-        db.close();
 
         return crew;
     }
@@ -156,7 +149,7 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
 
         TimingCrew crew = new TimingCrew();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_CREW_POSITION + " = ?" + " AND " + COLUMN_CREW_POSTCHIEF + " = ?";
@@ -178,7 +171,6 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
             crew.setPostChiefPhone(cursor.getString(cursor.getColumnIndex(COLUMN_CREW_PHONE)));
         }
         cursor.close();
-        db.close();
 
         return crew;
     }
@@ -196,7 +188,7 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
         String sortOrder = COLUMN_CREW_ID + " ASC";
         List<TimingCrew> crewList = new ArrayList<TimingCrew>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         Cursor cursor = db.query(TABLE_TIMING_CREW, //Table to query
                 columns,             //columns to return
@@ -217,7 +209,6 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return crewList;
     }
@@ -235,7 +226,7 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
         String sortOrder = COLUMN_CREW_POSTCHIEF + " ASC";
         List<TimingCrew> crewList = new ArrayList<TimingCrew>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_CREW_POSITION + " = ?";
@@ -261,14 +252,91 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return crewList;
     }
 
+    // Method to return the number of crews in the given position
+    public int getPostChiefCount(String position) {
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        return (int) DatabaseUtils.queryNumEntries(db, TABLE_TIMING_CREW, COLUMN_CREW_POSITION + " = ?",
+                new String[]{position});
+    }
+
+    // Method to return one page of the crews in the given position, in order of post chief,
+    // as the ID and post chief of each
+    public List<ListEntry> getPostChiefPage(String position, int offset, int limit) {
+        String[] columns = {
+                COLUMN_CREW_ID,
+                COLUMN_CREW_POSTCHIEF
+        };
+        String sortOrder = COLUMN_CREW_POSTCHIEF + " ASC, " + COLUMN_CREW_ID + " ASC";
+        // selection criteria
+        String selection = COLUMN_CREW_POSITION + " = ?";
+        // selection argument
+        String[] selectionArgs = {position};
+        List<ListEntry> page = new ArrayList<>(limit);
+
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+
+        Cursor cursor = db.query(TABLE_TIMING_CREW, //Table to query
+                columns,             //columns to return
+                selection,        //columns for the WHERE clause
+                selectionArgs,     //The values for the WHERE clause
+                null,        //group the rows
+                null,         //filter by row groups
+                sortOrder,         //The sort order
+                offset + "," + limit);         //The rows to return
+
+        while (cursor.moveToNext()) {
+            page.add(new ListEntry(cursor.getInt(0), cursor.getString(1)));
+        }
+        cursor.close();
+
+        return page;
+    }
+
+    // Method to return the crews with the given IDs, in the same order, as the ID and post
+    // chief of each. IDs no longer in the database are left out.
+    public List<ListEntry> getPostChiefEntries(List<Integer> crewIDs) {
+        if (crewIDs.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String[] columns = {
+                COLUMN_CREW_ID,
+                COLUMN_CREW_POSTCHIEF
+        };
+        // selection criteria, one argument for each ID
+        StringBuilder selection = new StringBuilder(COLUMN_CREW_ID + " IN (");
+        String[] selectionArgs = new String[crewIDs.size()];
+        for (int i = 0; i < crewIDs.size(); i++) {
+            selection.append(i == 0 ? "?" : ",?");
+            selectionArgs[i] = String.valueOf(crewIDs.get(i));
+        }
+        selection.append(")");
+        Map<Integer, String> postChiefs = new HashMap<>();
+
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+
+        Cursor cursor = db.query(TABLE_TIMING_CREW, columns, selection.toString(), selectionArgs,
+                null, null, null);
+        while (cursor.moveToNext()) {
+            postChiefs.put(cursor.getInt(0), cursor.getString(1));
+        }
+        cursor.close();
+
+        List<ListEntry> entries = new ArrayList<>(crewIDs.size());
+        for (int crewID : crewIDs) {
+            if (postChiefs.containsKey(crewID)) {
+                entries.add(new ListEntry(crewID, postChiefs.get(crewID)));
+            }
+        }
+        return entries;
+    }
+
     // Method to update an entry in the database
     public void updateTimingCrew(TimingCrew crew) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COLUMN_CREW_POSITION, crew.getPosition());
         values.put(COLUMN_CREW_POSTCHIEF, crew.getPostChief());
@@ -276,15 +344,15 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
         // updating row
         db.update(TABLE_TIMING_CREW, values, COLUMN_CREW_ID + " = ?",
                 new String[]{String.valueOf(crew.getCrewId())});
-        db.close();
+        listSearchHelper.crewChanged(crew.getCrewId(), crew);
     }
 
     // Method to delete an entry in the database
     public void deleteTimingCrew(TimingCrew timingCrew) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         db.delete(TABLE_TIMING_CREW, COLUMN_CREW_ID + " = ?",
                 new String[]{String.valueOf(timingCrew.getCrewId())});
-        db.close();
+        listSearchHelper.crewRemoved(timingCrew.getCrewId());
     }
 
     // Method to check if an entry with the given position and post chief name exists
@@ -293,7 +361,7 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_CREW_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_CREW_POSITION + " = ?" + " AND " + COLUMN_CREW_POSTCHIEF + " = ?";
         // selection argument
@@ -309,7 +377,6 @@ public class TimingCrewDatabaseHelper extends SQLiteOpenHelper {
                 null);                      //The sort order
         int cursorCount = cursor.getCount();
         cursor.close();
-        db.close();
         if (cursorCount > 0) {
             return true;
         }
@@ -5,91 +5,124 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 
+import com.example.rallytimingapp.model.PasswordHasher;
 import com.example.rallytimingapp.model.User;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class UserDatabaseHelper extends SQLiteOpenHelper {
-
-    // Database Version
-    private static final int DATABASE_VERSION = 5;
-
-    // Database Name
-    private static final String DATABASE_NAME = "UserManager.db";
+public class UserDatabaseHelper {
 
     // User table name
-    private static final String TABLE_USER = "user";
+    static final String TABLE_USER = "user";
 
     // User Table Columns names
-    private static final String COLUMN_USER_ID = "user_id";
-    private static final String COLUMN_USER_USERNAME = "user_username";
-    private static final String COLUMN_USER_PASSWORD = "user_password";
-    private static final String COLUMN_USER_ROLE = "user_role";
-    private static final String COLUMN_USER_ROLE_ID = "user_role_id";
+    static final String COLUMN_USER_ID = "user_id";
+    static final String COLUMN_USER_USERNAME = "user_username";
+    static final String COLUMN_USER_PASSWORD = "user_password";
+    static final String COLUMN_USER_ROLE = "user_role";
+    static final String COLUMN_USER_ROLE_ID = "user_role_id";
 
     // Create table SQL query
-    private String CREATE_USER_TABLE = "CREATE TABLE " + TABLE_USER + "("
+    static final String CREATE_USER_TABLE = "CREATE TABLE " + TABLE_USER + "("
             + COLUMN_USER_ID + " INTEGER PRIMARY KEY AUTOINCREMENT," + COLUMN_USER_USERNAME + " TEXT,"
             + COLUMN_USER_PASSWORD + " TEXT," + COLUMN_USER_ROLE + " TEXT," + COLUMN_USER_ROLE_ID + " INTEGER" + ")";
 
-    // Drop table SQL query
-    private String DROP_USER_TABLE = "DROP TABLE IF EXISTS " + TABLE_USER;
+    // Unique index on the username, so a login is found without reading the whole table
+    static final String INDEX_USER_USERNAME = "index_user_username";
+
+    // Create index SQL query
+    static final String CREATE_USER_USERNAME_INDEX = "CREATE UNIQUE INDEX " + INDEX_USER_USERNAME + " ON "
+            + TABLE_USER + "(" + COLUMN_USER_USERNAME + ")";
+
+    // Hashes the passwords before they are saved, see PasswordHasher. Shared, as the cost
+    // is the same for every login.
+    private static volatile PasswordHasher hasher = new PasswordHasher(PasswordHasher.DEFAULT_ITERATIONS);
+
+    private final RallyDatabase rallyDatabase;
 
     public UserDatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        rallyDatabase = RallyDatabase.getInstance(context);
     }
 
-    @Override
-    public void onCreate(SQLiteDatabase db) {
-        db.execSQL(CREATE_USER_TABLE);
+    // Method to change the hasher, so tests adding thousands of logins can use a lower cost
+    static void setHasher(PasswordHasher passwordHasher) {
+        hasher = passwordHasher;
     }
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL(DROP_USER_TABLE);
-        onCreate(db);
+    // Method to return the hash to save for a password
+    static String hashPassword(String password) {
+        return hasher.hash(password);
     }
 
-    // Method to remove all entries from the database
-    public void empty() {
-        List<User> userList = getAllUsers();
-        for (int i = 0; i < userList.size(); i++) {
-            deleteUser(userList.get(i));
+    // Method to return the user with the given username if the password matches, or null
+    // if it doesn't. The password isn't returned. A password saved as it was typed, or
+    // hashed at a lower cost than the hasher's, is hashed again now it is known.
+    public User authenticate(String username, String password) {
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
+        Cursor cursor = db.query(TABLE_USER,
+                new String[]{COLUMN_USER_ID, COLUMN_USER_PASSWORD, COLUMN_USER_ROLE, COLUMN_USER_ROLE_ID},
+                COLUMN_USER_USERNAME + " = ?", new String[]{username}, null, null, null);
+        User user = null;
+        String saved = null;
+        if (cursor.moveToFirst()) {
+            user = new User();
+            user.setUserId(cursor.getInt(0));
+            user.setUsername(username);
+            saved = cursor.getString(1);
+            user.setRole(cursor.getString(2));
+            user.setId(cursor.getInt(3));
+        }
+        cursor.close();
+
+        PasswordHasher passwordHasher = hasher;
+        if (user == null || !passwordHasher.verify(password, saved)) {
+            return null;
+        }
+        if (passwordHasher.needsRehash(saved)) {
+            ContentValues values = new ContentValues();
+            values.put(COLUMN_USER_PASSWORD, passwordHasher.hash(password));
+            rallyDatabase.getWritableDatabase().update(TABLE_USER, values, COLUMN_USER_ID + " = ?",
+                    new String[]{String.valueOf(user.getUserId())});
         }
+        return user;
+    }
+
+    // Method to remove all entries from the database, in a single statement
+    public void empty() {
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
+        db.delete(TABLE_USER, null, null);
     }
 
     // Method to add an entry to the database
     public void addUser(User user) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
 
         ContentValues values = new ContentValues();
         values.put(COLUMN_USER_USERNAME, user.getUsername());
-        values.put(COLUMN_USER_PASSWORD, user.getPassword());
+        values.put(COLUMN_USER_PASSWORD, hashPassword(user.getPassword()));
         values.put(COLUMN_USER_ROLE, user.getRole());
         values.put(COLUMN_USER_ROLE_ID, user.getId());
 
         // Inserting Row
         db.insert(TABLE_USER, null, values);
-        db.close();
     }
 
-    // Method to return the entry with the given username and role
+    // Method to return the entry with the given username and role. The password is not
+    // returned, only its hash is saved.
     @SuppressLint("Range")
     public User getUser(String username, String role) {
         String[] columns = {
                 COLUMN_USER_ID,
                 COLUMN_USER_USERNAME,
-                COLUMN_USER_PASSWORD,
                 COLUMN_USER_ROLE,
                 COLUMN_USER_ROLE_ID
         };
 
         User user = new User();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_USER_USERNAME + " = ?" + " AND " + COLUMN_USER_ROLE + " = ?";
@@ -107,12 +140,10 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
         if (cursor.moveToFirst()) {
             user.setUserId(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ID))));
             user.setUsername(cursor.getString(cursor.getColumnIndex(COLUMN_USER_USERNAME)));
-            user.setPassword(cursor.getString(cursor.getColumnIndex(COLUMN_USER_PASSWORD)));
             user.setRole(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ROLE)));
             user.setId(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ROLE_ID))));
         }
         cursor.close();
-        db.close();
 
         return user;
     }
@@ -123,14 +154,13 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_USER_ID,
                 COLUMN_USER_USERNAME,
-                COLUMN_USER_PASSWORD,
                 COLUMN_USER_ROLE,
                 COLUMN_USER_ROLE_ID
         };
 
         User user = new User();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_USER_ROLE + " = ?" + " AND " + COLUMN_USER_ROLE_ID + " = ?";
@@ -148,12 +178,10 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
         if (cursor.moveToFirst()) {
             user.setUserId(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ID))));
             user.setUsername(cursor.getString(cursor.getColumnIndex(COLUMN_USER_USERNAME)));
-            user.setPassword(cursor.getString(cursor.getColumnIndex(COLUMN_USER_PASSWORD)));
             user.setRole(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ROLE)));
             user.setId(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ROLE_ID))));
         }
         cursor.close();
-        db.close();
 
         return user;
     }
@@ -164,7 +192,6 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_USER_ID,
                 COLUMN_USER_USERNAME,
-                COLUMN_USER_PASSWORD,
                 COLUMN_USER_ROLE,
                 COLUMN_USER_ROLE_ID
         };
@@ -172,7 +199,7 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
         String sortOrder = COLUMN_USER_USERNAME + " ASC";
         List<User> userList = new ArrayList<User>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         Cursor cursor = db.query(TABLE_USER, //Table to query
                 columns,             //columns to return
@@ -187,14 +214,12 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
                 User user = new User();
                 user.setUserId(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ID))));
                 user.setUsername(cursor.getString(cursor.getColumnIndex(COLUMN_USER_USERNAME)));
-                user.setPassword(cursor.getString(cursor.getColumnIndex(COLUMN_USER_PASSWORD)));
-                user.setRole(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ROLE)));
+                    user.setRole(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ROLE)));
                 user.setId(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ROLE_ID))));
                 userList.add(user);
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return userList;
     }
@@ -205,7 +230,6 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_USER_ID,
                 COLUMN_USER_USERNAME,
-                COLUMN_USER_PASSWORD,
                 COLUMN_USER_ROLE,
                 COLUMN_USER_ROLE_ID
         };
@@ -213,7 +237,7 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
         String sortOrder = COLUMN_USER_ROLE_ID + " ASC";
         List<User> userList = new ArrayList<User>();
 
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
 
         // selection criteria
         String selection = COLUMN_USER_ROLE + " = ?";
@@ -233,38 +257,37 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
                 User user = new User();
                 user.setUserId(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ID))));
                 user.setUsername(cursor.getString(cursor.getColumnIndex(COLUMN_USER_USERNAME)));
-                user.setPassword(cursor.getString(cursor.getColumnIndex(COLUMN_USER_PASSWORD)));
-                user.setRole(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ROLE)));
+                    user.setRole(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ROLE)));
                 user.setId(Integer.parseInt(cursor.getString(cursor.getColumnIndex(COLUMN_USER_ROLE_ID))));
                 userList.add(user);
             } while (cursor.moveToNext());
         }
         cursor.close();
-        db.close();
 
         return userList;
     }
 
-    // Method to update an entry in the database
+    // Method to update an entry in the database. The password is only changed if a new
+    // one is given.
     public void updateUser(User user) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         ContentValues values = new ContentValues();
         values.put(COLUMN_USER_USERNAME, user.getUsername());
-        values.put(COLUMN_USER_PASSWORD, user.getPassword());
+        if (user.getPassword() != null && !user.getPassword().isEmpty()) {
+            values.put(COLUMN_USER_PASSWORD, hashPassword(user.getPassword()));
+        }
         values.put(COLUMN_USER_ROLE, user.getRole());
         values.put(COLUMN_USER_ROLE_ID, user.getId());
         // updating row
         db.update(TABLE_USER, values, COLUMN_USER_ID + " = ?",
                 new String[]{String.valueOf(user.getUserId())});
-        db.close();
     }
 
     // Method to delete an entry from the database
     public void deleteUser(User user) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = rallyDatabase.getWritableDatabase();
         db.delete(TABLE_USER, COLUMN_USER_ID + " = ?",
                 new String[]{String.valueOf(user.getUserId())});
-        db.close();
     }
 
     // Method to check if an entry with the given username exists
@@ -273,7 +296,7 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_USER_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_USER_USERNAME + " = ?";
         // selection argument
@@ -289,7 +312,6 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
                 null);                      //The sort order
         int cursorCount = cursor.getCount();
         cursor.close();
-        db.close();
         if (cursorCount > 0) {
             return true;
         }
@@ -302,7 +324,7 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
         String[] columns = {
                 COLUMN_USER_ID
         };
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = rallyDatabase.getReadableDatabase();
         // selection criteria
         String selection = COLUMN_USER_ROLE + " = ?" + " AND " + COLUMN_USER_ROLE_ID + " = ?";
         // selection argument
@@ -318,36 +340,6 @@ public class UserDatabaseHelper extends SQLiteOpenHelper {
                 null);                      //The sort order
         int cursorCount = cursor.getCount();
         cursor.close();
-        db.close();
-        if (cursorCount > 0) {
-            return true;
-        }
-        return false;
-    }
-
-    // Method to check if a user exists which has the given username, password and role
-    public boolean checkUser(String username, String password, String role) {
-        // array of columns to fetch
-        String[] columns = {
-                COLUMN_USER_ID
-        };
-        SQLiteDatabase db = this.getReadableDatabase();
-        // selection criteria
-        String selection = COLUMN_USER_USERNAME + " = ?" + " AND " + COLUMN_USER_PASSWORD + " = ?" + " AND " + COLUMN_USER_ROLE + " = ?";
-        // selection arguments
-        String[] selectionArgs = {username, password, role};
-        // query user table with conditions
-
-        Cursor cursor = db.query(TABLE_USER, //Table to query
-                columns,                    //columns to return
-                selection,                  //columns for the WHERE clause
-                selectionArgs,              //The values for the WHERE clause
-                null,                       //group the rows
-                null,                       //filter by row groups
-                null);                      //The sort order
-        int cursorCount = cursor.getCount();
-        cursor.close();
-        db.close();
         if (cursorCount > 0) {
             return true;
         }
@@ -0,0 +1,169 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClassificationTest {
+
+    private static int time(String m, String s, String hundredths) {
+        return RallyTime.fromBoxes("", m, s, hundredths);
+    }
+
+    @Test
+    public void fastestFirst() {
+        Classification classification = new Classification(1, 1);
+        classification.setStageTime(5, 1, time("4", "30", "00"));
+        classification.setStageTime(1, 1, time("4", "10", "50"));
+        classification.setStageTime(12, 1, time("4", "20", "00"));
+
+        List<Classification.Result> results = classification.getResults();
+        assertEquals(1, results.get(0).getCarNum());
+        assertEquals(12, results.get(1).getCarNum());
+        assertEquals(5, results.get(2).getCarNum());
+        assertEquals(3, results.get(2).getPosition());
+    }
+
+    @Test
+    public void tiesSharePosition() {
+        Classification classification = new Classification(1, 1);
+        classification.setStageTime(2, 1, time("5", "00", "00"));
+        classification.setStageTime(7, 1, time("5", "00", "00"));
+        classification.setStageTime(3, 1, time("4", "00", "00"));
+        classification.setStageTime(9, 1, time("6", "00", "00"));
+
+        List<Classification.Result> results = classification.getResults();
+        assertEquals(4, results.size());
+        assertEquals(1, results.get(0).getPosition());
+        // Equal times share second place, split by car number, and the next car is fourth
+        assertEquals(2, results.get(1).getCarNum());
+        assertEquals(2, results.get(1).getPosition());
+        assertEquals(7, results.get(2).getCarNum());
+        assertEquals(2, results.get(2).getPosition());
+        assertEquals(4, results.get(3).getPosition());
+    }
+
+    @Test
+    public void carsWithoutATimeAreDNF() {
+        Classification classification = new Classification(1, 1);
+        classification.setStageTime(4, 1, RallyTime.NO_TIME);
+        classification.setStageTime(8, 1, time("3", "00", "00"));
+
+        List<Classification.Result> results = classification.getResults();
+        assertEquals(8, results.get(0).getCarNum());
+        assertEquals(1, results.get(0).getPosition());
+        assertEquals(4, results.get(1).getCarNum());
+        assertTrue(results.get(1).isDNF());
+    }
+
+    @Test
+    public void overallPutsMissedStagesBehind() {
+        Classification overall = new Classification(1, 2);
+        overall.setStageTime(1, 1, time("5", "00", "00"));
+        overall.setStageTime(1, 2, time("5", "00", "00"));
+        // Car 2 is quicker on stage 1 but has no time for stage 2
+        overall.setStageTime(2, 1, time("4", "00", "00"));
+        overall.setStageTime(2, 2, RallyTime.NO_TIME);
+
+        List<Classification.Result> results = overall.getResults();
+        assertEquals(1, results.get(0).getCarNum());
+        assertEquals(time("10", "00", "00"), results.get(0).getTotalTime());
+        assertTrue(results.get(1).isDNF());
+    }
+
+    @Test
+    public void updatedTimeMovesOnlyThatCar() {
+        Classification classification = new Classification(1, 1);
+        classification.setStageTime(1, 1, time("3", "00", "00"));
+        classification.setStageTime(2, 1, time("4", "00", "00"));
+        classification.setStageTime(3, 1, time("5", "00", "00"));
+
+        // A corrected finish time moves car 3 to the top
+        classification.setStageTime(3, 1, time("2", "59", "99"));
+        List<Classification.Result> results = classification.getResults();
+        assertEquals(3, results.size());
+        assertEquals(3, results.get(0).getCarNum());
+        assertEquals(1, results.get(1).getCarNum());
+        assertEquals(2, results.get(2).getCarNum());
+    }
+
+    @Test
+    public void removingTheLastEntryRemovesTheCar() {
+        Classification overall = new Classification(1, 2);
+        overall.setStageTime(6, 1, time("3", "00", "00"));
+        overall.setStageTime(6, 2, time("3", "00", "00"));
+        overall.removeStage(6, 2);
+        assertEquals(time("3", "00", "00"), overall.getResult(6).getTotalTime());
+        overall.removeStage(6, 1);
+        assertNull(overall.getResult(6));
+        assertEquals(0, overall.size());
+    }
+
+    @Test
+    public void penaltiesAddToTheTotal() {
+        Classification overall = new Classification(1, 2);
+        overall.setStageTime(1, 1, time("3", "00", "00"));
+        overall.setStageTime(2, 1, time("3", "05", "00"));
+        // Car 1 was a minute early at the next control, which puts it behind car 2
+        overall.setPenalty(1, 1, RallyTime.MS_PER_MINUTE, false);
+        List<Classification.Result> results = overall.getResults();
+        assertEquals(2, results.get(0).getCarNum());
+        assertEquals(time("4", "00", "00"), results.get(1).getTotalTime());
+        assertEquals(RallyTime.MS_PER_MINUTE, results.get(1).getPenalty());
+
+        // Correcting the check in takes the penalty back off
+        overall.setPenalty(1, 1, 0, false);
+        assertEquals(1, overall.getResults().get(0).getCarNum());
+        assertEquals(time("3", "00", "00"), overall.getResult(1).getTotalTime());
+    }
+
+    @Test
+    public void outOfTimeCarsAreExcluded() {
+        Classification overall = new Classification(1, 2);
+        overall.setStageTime(4, 1, time("2", "00", "00"));
+        overall.setStageTime(5, 1, time("3", "00", "00"));
+        overall.setPenalty(4, 1, 16 * 10 * RallyTime.MS_PER_SECOND, true);
+
+        List<Classification.Result> results = overall.getResults();
+        assertEquals(5, results.get(0).getCarNum());
+        assertEquals(1, results.get(0).getPosition());
+        assertEquals(4, results.get(1).getCarNum());
+        assertTrue(results.get(1).isExcluded());
+        assertTrue(results.get(1).isDNF());
+
+        // Removing the entry clears the exclusion with it
+        overall.setStageTime(4, 2, time("2", "00", "00"));
+        overall.removeStage(4, 1);
+        assertEquals(0, overall.getResult(4).getPenalty());
+        assertFalse(overall.getResult(4).isExcluded());
+    }
+
+    @Test
+    public void penaltyForACarNotClassifiedIsIgnored() {
+        Classification overall = new Classification(1, 2);
+        overall.setPenalty(9, 1, RallyTime.MS_PER_MINUTE, false);
+        assertNull(overall.getResult(9));
+    }
+
+    @Test
+    public void listedResultsDontChangeWithLaterTimes() {
+        Classification classification = new Classification(1, 1);
+        classification.setStageTime(4, 1, time("5", "00", "00"));
+        List<Classification.Result> results = classification.getResults();
+        classification.setStageTime(4, 1, time("3", "00", "00"));
+        assertEquals(time("5", "00", "00"), results.get(0).getTotalTime());
+        assertEquals(time("3", "00", "00"), classification.getResult(4).getTotalTime());
+    }
+
+    @Test
+    public void stagesOutsideTheRangeAreIgnored() {
+        Classification classification = new Classification(2, 2);
+        classification.setStageTime(1, 1, time("3", "00", "00"));
+        assertEquals(0, classification.size());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EntryListParserTest {
+
+    private static EntryListParser parser(String csv) {
+        return new EntryListParser(new StringReader(csv));
+    }
+
+    @Test
+    public void rowsWithoutHeader() throws IOException {
+        EntryListParser parser = parser("1,Hayden Paddon,John Kennard,Hayden,hayden\n"
+                + "5, Emma Gilmour , Mal Peden,Emma,emma\n");
+
+        EntryListParser.Entry entry = parser.next();
+        assertTrue(entry.isValid());
+        assertEquals(1, entry.getCarNum());
+        assertEquals("Hayden Paddon", entry.getDriver());
+        assertEquals("John Kennard", entry.getCodriver());
+        assertEquals("Hayden", entry.getUsername());
+        assertEquals("hayden", entry.getPassword());
+
+        entry = parser.next();
+        assertEquals(5, entry.getCarNum());
+        assertEquals("Emma Gilmour", entry.getDriver());
+        assertEquals(2, entry.getLineNum());
+        assertNull(parser.next());
+    }
+
+    @Test
+    public void headerSetsColumnOrder() throws IOException {
+        EntryListParser parser = parser("\uFEFFDriver,Co-driver,Car No.,Password,Username\n"
+                + "\n"
+                + "Ben Hunt,Tony Rawstorn,2,ben,Ben\n");
+
+        EntryListParser.Entry entry = parser.next();
+        assertTrue(entry.isValid());
+        assertEquals(2, entry.getCarNum());
+        assertEquals("Ben Hunt", entry.getDriver());
+        assertEquals("Tony Rawstorn", entry.getCodriver());
+        assertEquals("Ben", entry.getUsername());
+        assertEquals("ben", entry.getPassword());
+        // The header and blank line still count towards the line number
+        assertEquals(3, entry.getLineNum());
+    }
+
+    @Test
+    public void quotedFields() throws IOException {
+        EntryListParser.Entry entry = parser("12,\"Hawkeswood, Jack\",\"Sarah \"\"Bren\"\" Brenna\",Jack,jack").next();
+        assertTrue(entry.isValid());
+        assertEquals("Hawkeswood, Jack", entry.getDriver());
+        assertEquals("Sarah \"Bren\" Brenna", entry.getCodriver());
+    }
+
+    @Test
+    public void badRowsAreReportedAndSkipped() throws IOException {
+        EntryListParser parser = parser("x1,A,B,C,D\n"
+                + "0,A,B,C,D\n"
+                + "3,,B,C,D\n"
+                + "4,A,B,C\n"
+                + "5,\"A,B,C,D\n"
+                + "6,A,B,C,D\n");
+
+        // With no number in the first column the first row is read as a header, but it
+        // names no columns so the usual order is kept
+        EntryListParser.Entry entry = parser.next();
+        assertFalse(entry.isValid());
+        assertEquals("Car number must be above 0", entry.getError());
+        assertEquals("Missing driver", parser.next().getError());
+        assertEquals("Missing password", parser.next().getError());
+        assertEquals("Missing closing quote", parser.next().getError());
+
+        entry = parser.next();
+        assertTrue(entry.isValid());
+        assertEquals(6, entry.getCarNum());
+        assertNull(parser.next());
+    }
+
+    @Test
+    public void carNumberMustBeANumber() throws IOException {
+        EntryListParser parser = parser("Car,Driver,Codriver,Username,Password\n12a,A,B,C,D\n");
+        assertEquals("Car number \"12a\" is not a number", parser.next().getError());
+    }
+}
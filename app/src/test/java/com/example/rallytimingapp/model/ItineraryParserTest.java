@@ -0,0 +1,74 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ItineraryParserTest {
+
+    private static ItineraryParser parser(String csv) {
+        return new ItineraryParser(new StringReader(csv));
+    }
+
+    @Test
+    public void readsStagesInAnyOrder() throws IOException {
+        ItineraryParser parser = parser("\uFEFFStage,Name,Distance,Start Control,Next Control,Road Distance,Target Time\n"
+                + "2,\"SS 2 Helena, Reverse\",13.51,TC 2,TC 3,46.07,50:30\n"
+                + "\n"
+                + "1,SSS 1 Pohe Island 1,1.24,TC 1,TC 2,2.83,7\n");
+
+        Itinerary itinerary = parser.read();
+        assertNotNull(itinerary);
+        assertEquals(0, parser.getErrors().size());
+        assertEquals(2, itinerary.getStageCount());
+
+        ItineraryStage stage = itinerary.getStage(1);
+        assertEquals("SSS 1 Pohe Island 1", stage.getName());
+        assertEquals(1240, stage.getDistance());
+        assertEquals("TC 1", stage.getStartControl());
+        assertEquals("TC 2", stage.getNextControl());
+        assertEquals(2830, stage.getRoadDistance());
+        assertEquals(7 * RallyTime.MS_PER_MINUTE, stage.getTargetTime());
+
+        stage = itinerary.getStage(2);
+        assertEquals("SS 2 Helena, Reverse", stage.getName());
+        assertEquals(13510, stage.getDistance());
+        assertEquals(50 * RallyTime.MS_PER_MINUTE + 30 * RallyTime.MS_PER_SECOND, stage.getTargetTime());
+    }
+
+    @Test
+    public void anyBadRowMeansNoItinerary() throws IOException {
+        ItineraryParser parser = parser("1,SS 1,1.2,TC 1,TC 2,3.0,10:00\n"
+                + "2,SS 2,abc,TC 2,TC 3,3.0,10:00\n"
+                + "3,SS 3,1.2,TC 3,TC 4,1.0,10:00\n"
+                + "4,SS 4,1.2,TC 4,TC 5,3.0,10:75\n"
+                + "5,,1.2,TC 5,TC 6,3.0,10:00\n");
+
+        assertNull(parser.read());
+        assertEquals(4, parser.getErrors().size());
+        assertEquals("Line 2: Distance \"abc\" is not a number of km", parser.getErrors().get(0));
+        assertEquals("Line 5: Missing stage name", parser.getErrors().get(3));
+    }
+
+    @Test
+    public void stagesMustBeNumberedWithoutGaps() throws IOException {
+        ItineraryParser parser = parser("1,SS 1,1.2,TC 1,TC 2,3.0,10:00\n"
+                + "3,SS 3,1.2,TC 3,TC 4,3.0,10:00\n");
+
+        assertNull(parser.read());
+        assertEquals("Stages must be numbered 1 to 2, found stage 3", parser.getErrors().get(0));
+    }
+
+    @Test
+    public void emptyFileHasNoStages() throws IOException {
+        ItineraryParser parser = parser("Stage,Name\n\n");
+
+        assertNull(parser.read());
+        assertEquals("No stages found", parser.getErrors().get(0));
+    }
+}
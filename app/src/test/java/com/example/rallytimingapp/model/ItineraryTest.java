@@ -0,0 +1,48 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ItineraryTest {
+
+    private static ItineraryStage stage(int stageNum, int roadDistance, int targetMinutes) {
+        return new ItineraryStage(stageNum, "SS " + stageNum, 10000, "TC " + stageNum,
+                "TC " + (stageNum + 1), roadDistance, targetMinutes * RallyTime.MS_PER_MINUTE);
+    }
+
+    @Test
+    public void stagesAreFoundByNumberInAnyOrder() {
+        Itinerary itinerary = new Itinerary(Arrays.asList(stage(3, 46070, 50), stage(1, 2830, 7), stage(2, 2830, 7)));
+        assertEquals(3, itinerary.getStageCount());
+        assertEquals(1, itinerary.getStage(1).getStageNum());
+        assertEquals("TC 4", itinerary.getStage(3).getNextControl());
+        assertNull(itinerary.getStage(0));
+        assertNull(itinerary.getStage(4));
+        assertArrayEquals(new int[]{7 * RallyTime.MS_PER_MINUTE, 7 * RallyTime.MS_PER_MINUTE,
+                50 * RallyTime.MS_PER_MINUTE}, itinerary.getTargetTimes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void gapInStageNumbersIsRejected() {
+        new Itinerary(Arrays.asList(stage(1, 2830, 7), stage(3, 46070, 50)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void repeatedStageNumberIsRejected() {
+        new Itinerary(Arrays.asList(stage(1, 2830, 7), stage(1, 2830, 7)));
+    }
+
+    @Test
+    public void averageSpeedMatchesTheTimecard() {
+        // The road sections printed on the original timecards, before rounding
+        assertEquals(24.26, stage(1, 2830, 7).getAverageSpeed(), 0.01);
+        assertEquals(55.28, stage(3, 46070, 50).getAverageSpeed(), 0.01);
+        assertEquals(53.55, stage(4, 35700, 40).getAverageSpeed(), 0.01);
+        assertEquals(0, stage(5, 1000, 0).getAverageSpeed(), 0);
+    }
+}
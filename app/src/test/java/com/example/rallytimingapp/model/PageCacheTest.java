@@ -0,0 +1,53 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PageCacheTest {
+
+    @Test
+    public void rowsAreFoundByPosition() {
+        PageCache<String> cache = new PageCache<>(3, 4);
+        cache.putPage(0, Arrays.asList("a", "b", "c"));
+        cache.putPage(1, Arrays.asList("d", "e"));
+
+        assertEquals("a", cache.get(0));
+        assertEquals("c", cache.get(2));
+        assertEquals("e", cache.get(4));
+        // Past the end of a short last page, and in a page that isn't loaded
+        assertNull(cache.get(5));
+        assertNull(cache.get(6));
+        assertEquals(2, cache.pageOf(7));
+    }
+
+    @Test
+    public void leastRecentlyUsedPageIsDropped() {
+        PageCache<String> cache = new PageCache<>(2, 2);
+        cache.putPage(0, Arrays.asList("a", "b"));
+        cache.putPage(1, Arrays.asList("c", "d"));
+        // Reading page 0 makes page 1 the least recently used
+        cache.get(0);
+        cache.putPage(2, Arrays.asList("e", "f"));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.hasPage(0));
+        assertFalse(cache.hasPage(1));
+        assertTrue(cache.hasPage(2));
+        assertNull(cache.get(2));
+    }
+
+    @Test
+    public void clearDropsEverything() {
+        PageCache<String> cache = new PageCache<>(2, 2);
+        cache.putPage(0, Arrays.asList("a", "b"));
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(0));
+    }
+}
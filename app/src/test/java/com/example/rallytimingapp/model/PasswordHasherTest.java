@@ -0,0 +1,60 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PasswordHasherTest {
+
+    private final PasswordHasher hasher = new PasswordHasher(1000);
+
+    @Test
+    public void hashMatchesOnlyItsPassword() {
+        String hash = hasher.hash("finish");
+        assertTrue(hash.startsWith("pbkdf2$1000$"));
+        assertFalse(hash.contains("finish"));
+        assertTrue(hasher.verify("finish", hash));
+        assertFalse(hasher.verify("Finish", hash));
+        assertFalse(hasher.verify("", hash));
+    }
+
+    @Test
+    public void samePasswordGetsNewSalt() {
+        String first = hasher.hash("admin");
+        String second = hasher.hash("admin");
+        assertNotEquals(first, second);
+        assertTrue(hasher.verify("admin", first));
+        assertTrue(hasher.verify("admin", second));
+    }
+
+    @Test
+    public void hashFromLowerCostStillMatches() {
+        String old = new PasswordHasher(10).hash("start");
+        assertTrue(hasher.verify("start", old));
+        assertTrue(hasher.needsRehash(old));
+        assertFalse(hasher.needsRehash(hasher.hash("start")));
+        // Raising the cost again means the current hashes are made again too
+        assertTrue(new PasswordHasher(2000).needsRehash(hasher.hash("start")));
+    }
+
+    @Test
+    public void plaintextPasswordMatchesAndNeedsRehash() {
+        assertTrue(hasher.verify("hayden", "hayden"));
+        assertFalse(hasher.verify("paddon", "hayden"));
+        assertTrue(hasher.needsRehash("hayden"));
+    }
+
+    @Test
+    public void damagedHashNeverMatches() {
+        String hash = hasher.hash("ac");
+        assertFalse(hasher.verify("ac", hash.substring(0, hash.length() - 1)));
+        assertFalse(hasher.verify("ac", "pbkdf2$1000$zz$zz"));
+        assertFalse(hasher.verify("ac", "pbkdf2$x$00$00"));
+        assertFalse(hasher.verify("ac", "pbkdf2$1000$00"));
+        assertFalse(hasher.verify("ac", null));
+        assertEquals(1000, hasher.getIterations());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PenaltyCalculatorTest {
+
+    private final PenaltyCalculator calculator = new PenaltyCalculator();
+
+    private static int time(String h, String m, String s) {
+        return RallyTime.fromBoxes(h, m, s, "");
+    }
+
+    @Test
+    public void anyTimeInTheDueMinuteIsOnTime() {
+        int due = time("10", "42", "");
+        assertEquals(0, calculator.getPenalty(time("10", "42", ""), due));
+        assertEquals(0, calculator.getPenalty(time("10", "42", "59"), due));
+        assertEquals(0, PenaltyCalculator.getMinutesLate(time("10", "42", "30"), due));
+    }
+
+    @Test
+    public void earlyAndLateMinutes() {
+        int due = time("10", "42", "");
+        assertEquals(2 * PenaltyCalculator.DEFAULT_EARLY_PENALTY, calculator.getPenalty(time("10", "40", "59"), due));
+        assertEquals(3 * PenaltyCalculator.DEFAULT_LATE_PENALTY, calculator.getPenalty(time("10", "45", "10"), due));
+    }
+
+    @Test
+    public void lateOverMidnight() {
+        int due = time("23", "58", "");
+        assertEquals(3, PenaltyCalculator.getMinutesLate(time("00", "01", "20"), due));
+        assertEquals(3 * PenaltyCalculator.DEFAULT_LATE_PENALTY, calculator.getPenalty(time("00", "01", ""), due));
+    }
+
+    @Test
+    public void earlyOverMidnight() {
+        int due = time("00", "02", "");
+        assertEquals(-4, PenaltyCalculator.getMinutesLate(time("23", "58", "45"), due));
+        assertEquals(4 * PenaltyCalculator.DEFAULT_EARLY_PENALTY, calculator.getPenalty(time("23", "58", ""), due));
+    }
+
+    @Test
+    public void dueAtMidnightExactly() {
+        int due = time("00", "00", "");
+        assertEquals(0, calculator.getPenalty(time("00", "00", "30"), due));
+        assertEquals(-1, PenaltyCalculator.getMinutesLate(time("23", "59", "59"), due));
+    }
+
+    @Test
+    public void outOfTimeAfterMaxLateness() {
+        int due = time("23", "50", "");
+        // 15 minutes late is the most allowed, which is 00:05 the next day
+        assertFalse(calculator.isExcluded(time("00", "05", "59"), due));
+        assertTrue(calculator.isExcluded(time("00", "06", ""), due));
+        // Being early never excludes a car, however early
+        assertFalse(calculator.isExcluded(time("23", "00", ""), due));
+    }
+
+    @Test
+    public void configuredPenalties() {
+        PenaltyCalculator strict = new PenaltyCalculator(2 * RallyTime.MS_PER_MINUTE, 30 * RallyTime.MS_PER_SECOND,
+                5 * RallyTime.MS_PER_MINUTE);
+        int due = time("12", "00", "");
+        assertEquals(4 * RallyTime.MS_PER_MINUTE, strict.getPenalty(time("11", "58", ""), due));
+        assertEquals(90 * RallyTime.MS_PER_SECOND, strict.getPenalty(time("12", "03", ""), due));
+        assertTrue(strict.isExcluded(time("12", "06", ""), due));
+
+        PenaltyCalculator noLimit = new PenaltyCalculator(RallyTime.MS_PER_MINUTE, RallyTime.MS_PER_SECOND,
+                RallyTime.NO_TIME);
+        assertFalse(noLimit.isExcluded(time("14", "00", ""), due));
+    }
+
+    @Test
+    public void missingTimesHaveNoPenalty() {
+        Stage stage = new Stage();
+        stage.setDueTime(time("10", "00", ""));
+        assertEquals(0, calculator.getPenalty(stage));
+        assertFalse(calculator.isExcluded(stage));
+        stage.setActualTime(time("10", "20", ""));
+        assertEquals(20 * PenaltyCalculator.DEFAULT_LATE_PENALTY, calculator.getPenalty(stage));
+        assertTrue(calculator.isExcluded(stage));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RallyTimeTest {
+
+    @Test
+    public void boxesRoundTrip() {
+        int time = RallyTime.fromBoxes("13", "07", "42", "58");
+        assertEquals(((13 * 60 + 7) * 60 + 42) * 1000 + 580, time);
+        assertEquals("13", RallyTime.toBox(RallyTime.getHours(time)));
+        assertEquals("07", RallyTime.toBox(RallyTime.getMinutes(time)));
+        assertEquals("42", RallyTime.toBox(RallyTime.getSeconds(time)));
+        assertEquals("58", RallyTime.toBox(RallyTime.getHundredths(time)));
+    }
+
+    @Test
+    public void emptyBoxesAreNoTime() {
+        assertEquals(RallyTime.NO_TIME, RallyTime.fromBoxes("", "", "", ""));
+        assertEquals("", RallyTime.toBox(RallyTime.getHours(RallyTime.NO_TIME)));
+        // Only some boxes filled in counts the rest as 0
+        assertEquals(12 * RallyTime.MS_PER_HOUR, RallyTime.fromBoxes("12", "", "", ""));
+    }
+
+    @Test
+    public void oldTextFormats() {
+        assertEquals(RallyTime.fromBoxes("09", "30", "", ""), RallyTime.parseTimeOfDay("09:30"));
+        assertEquals(RallyTime.fromBoxes("09", "31", "05", "7"), RallyTime.parseTimeOfDay("09:31:05:7"));
+        assertEquals(RallyTime.fromBoxes("", "6", "05", "70"), RallyTime.parseStageTime("6:05:70"));
+        assertEquals(RallyTime.NO_TIME, RallyTime.parseTimeOfDay(""));
+        assertEquals(RallyTime.NO_TIME, RallyTime.parseTimeOfDay(":"));
+        assertEquals(RallyTime.NO_TIME, RallyTime.parseStageTime(null));
+    }
+
+    @Test
+    public void stageTimeMinutesDontWrap() {
+        int stageTime = RallyTime.fromBoxes("", "75", "00", "00");
+        assertEquals("75", RallyTime.toBox(RallyTime.getTotalMinutes(stageTime)));
+        assertEquals("15", RallyTime.toBox(RallyTime.getMinutes(stageTime)));
+    }
+}
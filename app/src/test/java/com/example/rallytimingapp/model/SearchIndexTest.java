@@ -0,0 +1,56 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchIndexTest {
+
+    private static SearchIndex competitors() {
+        SearchIndex index = new SearchIndex();
+        index.put(1, "Hayden Paddon", "Hayden Paddon", "John Kennard", "1");
+        index.put(2, "Emma Gilmour", "Emma Gilmour", "Malcolm Read", "12");
+        index.put(3, "Ben Hunt", "Ben Hunt", "Tony Rawstorn", "21");
+        return index;
+    }
+
+    @Test
+    public void searchesAnyFieldIgnoringCase() {
+        SearchIndex index = competitors();
+
+        assertEquals("[1]", index.search("PADDON").toString());
+        // Codriver, and text spanning more than one indexed piece
+        assertEquals("[2]", index.search("malcolm r").toString());
+        // Car numbers, with the list still in name order
+        assertEquals("[3, 2]", index.search("2").toString());
+        assertEquals("[]", index.search("paddonx").toString());
+        // Sharing every piece isn't enough, the whole text has to be there
+        assertEquals("[]", index.search("hunt ben").toString());
+    }
+
+    @Test
+    public void emptySearchListsEverythingByName() {
+        SearchIndex index = competitors();
+
+        assertEquals("[3, 2, 1]", index.search("").toString());
+        assertEquals("[3, 2, 1]", index.search(null).toString());
+    }
+
+    @Test
+    public void changesAreSearchedStraightAway() {
+        SearchIndex index = competitors();
+        index.put(1, "Hayden Paddon", "Hayden Paddon", "Seb Marshall", "1");
+        index.remove(3);
+        index.put(4, "Emma Smith", "Emma Smith", "Jo Brown", "4");
+
+        assertEquals(3, index.size());
+        assertTrue(index.search("kennard").isEmpty());
+        assertEquals("[1]", index.search("marsh").toString());
+        assertTrue(index.search("hunt").isEmpty());
+        assertEquals("[2, 4]", index.search("emma").toString());
+
+        index.clear();
+        assertTrue(index.search("").isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StageTimeCalculatorTest {
+
+    private final StageTimeCalculator calculator = new StageTimeCalculator(new int[]{
+            RallyTime.fromBoxes("00", "07", "", ""),
+            RallyTime.fromBoxes("00", "50", "", "")
+    });
+
+    @Test
+    public void stageTimeFromStartAndFinish() {
+        int start = RallyTime.fromBoxes("12", "59", "", "");
+        int finish = RallyTime.fromBoxes("13", "03", "21", "45");
+        assertEquals(RallyTime.fromBoxes("", "04", "21", "45"), StageTimeCalculator.getStageTime(start, finish));
+    }
+
+    @Test
+    public void stageTimeOverMidnight() {
+        int start = RallyTime.fromBoxes("23", "58", "", "");
+        int finish = RallyTime.fromBoxes("00", "05", "00", "50");
+        assertEquals(RallyTime.fromBoxes("", "07", "00", "50"), StageTimeCalculator.getStageTime(start, finish));
+    }
+
+    @Test
+    public void missingTimes() {
+        assertEquals(RallyTime.NO_TIME, StageTimeCalculator.getStageTime(RallyTime.NO_TIME, 1000));
+        assertEquals(RallyTime.NO_TIME, StageTimeCalculator.getDueTime(1000, RallyTime.NO_TIME));
+        assertEquals(RallyTime.NO_TIME, calculator.getTargetTime(3));
+        assertEquals(0, StageTimeCalculator.getLateness(RallyTime.NO_TIME, 1000));
+    }
+
+    @Test
+    public void provisionalStartIsThreeMinutesAfterCheckIn() {
+        int actualTime = RallyTime.fromBoxes("10", "58", "", "");
+        assertEquals(RallyTime.fromBoxes("11", "01", "", ""), StageTimeCalculator.getProvisionalStart(actualTime));
+    }
+
+    @Test
+    public void latenessEitherSideOfMidnight() {
+        int due = RallyTime.fromBoxes("23", "59", "", "");
+        assertEquals(2 * RallyTime.MS_PER_MINUTE,
+                StageTimeCalculator.getLateness(RallyTime.fromBoxes("00", "01", "", ""), due));
+        assertEquals(-RallyTime.MS_PER_MINUTE,
+                StageTimeCalculator.getLateness(RallyTime.fromBoxes("23", "58", "", ""), due));
+    }
+
+    @Test
+    public void recomputeFillsStageAndDueTime() {
+        Stage stage = new Stage();
+        stage.setStageNum(2);
+        stage.setActualStart(RallyTime.fromBoxes("10", "00", "", ""));
+        assertTrue(calculator.recompute(stage));
+        assertEquals(RallyTime.fromBoxes("10", "50", "", ""), stage.getDueTime());
+        assertEquals(RallyTime.NO_TIME, stage.getStageTime());
+
+        stage.setFinishTime(RallyTime.fromBoxes("10", "06", "30", "00"));
+        assertTrue(calculator.recompute(stage));
+        assertEquals(RallyTime.fromBoxes("", "06", "30", "00"), stage.getStageTime());
+        // Nothing left to change the second time round
+        assertFalse(calculator.recompute(stage));
+    }
+}
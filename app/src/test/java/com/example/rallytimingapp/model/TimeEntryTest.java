@@ -0,0 +1,101 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimeEntryTest {
+
+    // Method to type each digit of the given text, returning what happened to the last one
+    private static int type(TimeEntry entry, String digits) {
+        int result = TimeEntry.TYPED;
+        for (int i = 0; i < digits.length(); i++) {
+            result = entry.type(digits.charAt(i) - '0');
+        }
+        return result;
+    }
+
+    @Test
+    public void typingMovesThroughTheBoxes() {
+        TimeEntry entry = new TimeEntry(TimeEntry.FINISH_TIME);
+        assertEquals(RallyTime.NO_TIME, entry.getTime());
+        assertEquals(TimeEntry.TYPED, entry.type(1));
+        assertEquals(TimeEntry.BOX_FILLED, entry.type(0));
+        assertEquals(1, entry.getCursor());
+        assertEquals(TimeEntry.BOX_FILLED, type(entry, "4212"));
+        assertEquals(TimeEntry.LAST_BOX_FILLED, type(entry, "34"));
+        assertEquals(RallyTime.fromBoxes("10", "42", "12", "34"), entry.getTime());
+    }
+
+    @Test
+    public void valueTooLargeClearsTheBox() {
+        TimeEntry entry = new TimeEntry(TimeEntry.TIME_OF_DAY);
+        assertEquals(TimeEntry.INVALID, type(entry, "24"));
+        assertEquals(0, entry.getCursor());
+        assertEquals(0, entry.getDigitCount(0));
+        assertEquals(TimeEntry.BOX_FILLED, type(entry, "23"));
+        assertEquals(TimeEntry.INVALID, type(entry, "60"));
+        assertEquals(1, entry.getCursor());
+        assertEquals(TimeEntry.LAST_BOX_FILLED, type(entry, "59"));
+        assertEquals(RallyTime.fromBoxes("23", "59", "", ""), entry.getTime());
+    }
+
+    @Test
+    public void emptyBoxesCountAsZero() {
+        TimeEntry entry = new TimeEntry(TimeEntry.FINISH_TIME);
+        entry.select(1);
+        type(entry, "7");
+        assertEquals(7 * RallyTime.MS_PER_MINUTE, entry.getTime());
+        assertEquals(RallyTime.NO_TIME, entry.getValue(0));
+    }
+
+    @Test
+    public void timeFillsTheBoxes() {
+        TimeEntry entry = new TimeEntry(TimeEntry.STAGE_TIME);
+        int stageTime = RallyTime.fromBoxes("", "75", "08", "90");
+        entry.setTime(stageTime);
+        // A stage time's minutes aren't wrapped at the hour
+        assertEquals(75, entry.getValue(0));
+        assertEquals(8, entry.getValue(1));
+        assertEquals(90, entry.getValue(2));
+        assertEquals(stageTime, entry.getTime());
+
+        TimeEntry finishTime = new TimeEntry(TimeEntry.FINISH_TIME);
+        finishTime.setTime(RallyTime.fromBoxes("13", "05", "59", "01"));
+        assertEquals(13, finishTime.getValue(0));
+        assertEquals(5, finishTime.getValue(1));
+        assertEquals(59, finishTime.getValue(2));
+        assertEquals(1, finishTime.getValue(3));
+
+        finishTime.setTime(RallyTime.NO_TIME);
+        assertEquals(RallyTime.NO_TIME, finishTime.getTime());
+    }
+
+    @Test
+    public void typingInAFilledBoxStartsItAgain() {
+        TimeEntry entry = new TimeEntry(TimeEntry.TIME_OF_DAY);
+        entry.setTime(RallyTime.fromBoxes("10", "42", "", ""));
+        assertEquals(TimeEntry.TYPED, entry.type(0));
+        assertEquals(0, entry.getValue(0));
+        assertEquals(TimeEntry.BOX_FILLED, entry.type(9));
+        // The minutes are kept until a digit is typed in their box
+        assertEquals(RallyTime.fromBoxes("09", "42", "", ""), entry.getTime());
+        type(entry, "15");
+        assertEquals(RallyTime.fromBoxes("09", "15", "", ""), entry.getTime());
+    }
+
+    @Test
+    public void deleteGoesBackThroughTheBoxes() {
+        TimeEntry entry = new TimeEntry(TimeEntry.TIME_OF_DAY);
+        type(entry, "104");
+        entry.delete();
+        assertEquals(1, entry.getCursor());
+        assertEquals(0, entry.getDigitCount(1));
+        // Deleting on an empty box removes the last digit of the one before
+        entry.delete();
+        assertEquals(0, entry.getCursor());
+        assertEquals(1, entry.getValue(0));
+        assertEquals(TimeEntry.BOX_FILLED, entry.type(2));
+        assertEquals(12 * RallyTime.MS_PER_HOUR, entry.getTime());
+    }
+}
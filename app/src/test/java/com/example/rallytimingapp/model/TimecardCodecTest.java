@@ -0,0 +1,160 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TimecardCodecTest {
+
+    private static final long NOW = 1700000000000L;
+
+    private static byte[] encode(List<TimecardUpdate> updates) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TimecardCodec.write(out, updates);
+        return out.toByteArray();
+    }
+
+    private static List<TimecardUpdate> decode(byte[] bytes) throws IOException {
+        return TimecardCodec.read(new ByteArrayInputStream(bytes));
+    }
+
+    private static void assertSameUpdate(TimecardUpdate expected, TimecardUpdate actual) {
+        assertTrue(expected.sameField(actual));
+        assertEquals(expected.getValue(), actual.getValue());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    }
+
+    // Every field of every timecard of an event, set over the course of a day
+    private static List<TimecardUpdate> fullEvent(int cars, int stages) {
+        Random random = new Random(1);
+        List<TimecardUpdate> updates = new ArrayList<>();
+        for (int carNum = 1; carNum <= cars; carNum++) {
+            for (int stageNum = 1; stageNum <= stages; stageNum++) {
+                for (int field = 0; field < TimecardUpdate.FIELD_COUNT; field++) {
+                    int value = field == TimecardUpdate.START_ORDER ? carNum
+                            : 8 * RallyTime.MS_PER_HOUR + random.nextInt(10 * RallyTime.MS_PER_HOUR);
+                    updates.add(new TimecardUpdate(carNum, stageNum, field, value,
+                            NOW + random.nextInt(12 * RallyTime.MS_PER_HOUR)));
+                }
+            }
+        }
+        return updates;
+    }
+
+    @Test
+    public void roundTripInTimecardOrder() throws IOException {
+        List<TimecardUpdate> updates = Arrays.asList(
+                new TimecardUpdate(12, 2, TimecardUpdate.FINISH_TIME, 36125430, NOW + 500),
+                new TimecardUpdate(3, 1, TimecardUpdate.ACTUAL_START, 36000000, NOW),
+                new TimecardUpdate(3, 1, TimecardUpdate.START_ORDER, 7, NOW - 60000),
+                new TimecardUpdate(12, 1, TimecardUpdate.DUE_TIME, RallyTime.NO_TIME, NOW + 1));
+
+        List<TimecardUpdate> decoded = decode(encode(updates));
+
+        assertEquals(4, decoded.size());
+        assertSameUpdate(updates.get(2), decoded.get(0));
+        assertSameUpdate(updates.get(1), decoded.get(1));
+        assertSameUpdate(updates.get(3), decoded.get(2));
+        assertSameUpdate(updates.get(0), decoded.get(3));
+    }
+
+    @Test
+    public void emptyList() throws IOException {
+        byte[] bytes = encode(Collections.<TimecardUpdate>emptyList());
+        assertEquals(5, bytes.length);
+        assertTrue(decode(bytes).isEmpty());
+    }
+
+    @Test
+    public void varintLimits() throws IOException {
+        long[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, 0xFFFFFFFFL, Long.MAX_VALUE, -1};
+        for (long value : values) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            TimecardCodec.writeVarlong(out, value);
+            assertEquals(value, TimecardCodec.readVarlong(new ByteArrayInputStream(out.toByteArray())));
+        }
+        long[] signed = {0, -1, 1, -64, 64, Long.MIN_VALUE, Long.MAX_VALUE};
+        for (long value : signed) {
+            assertEquals(value, TimecardCodec.unzigzag(TimecardCodec.zigzag(value)));
+        }
+        // Small differences either way stay in one byte
+        assertEquals(1, TimecardCodec.zigzag(-1));
+        assertEquals(2, TimecardCodec.zigzag(1));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        decode("Car,Driver\n".getBytes("UTF-8"));
+    }
+
+    @Test(expected = EOFException.class)
+    public void rejectsTruncatedFile() throws IOException {
+        byte[] bytes = encode(fullEvent(2, 1));
+        decode(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test
+    public void latestUpdateWins() {
+        TimecardUpdate early = new TimecardUpdate(5, 1, TimecardUpdate.FINISH_TIME, 40000000, NOW);
+        TimecardUpdate late = new TimecardUpdate(5, 1, TimecardUpdate.FINISH_TIME, 39000000, NOW + 1);
+
+        TimecardLog log = new TimecardLog();
+        assertTrue(log.add(late));
+        assertFalse(log.add(early));
+        assertEquals(39000000, log.get(5, 1, TimecardUpdate.FINISH_TIME).getValue());
+        assertNull(log.get(5, 2, TimecardUpdate.FINISH_TIME));
+    }
+
+    @Test
+    public void mergeIgnoresOrderAndRepeats() {
+        List<TimecardUpdate> updates = fullEvent(20, 4);
+        // A second device with the same fields set at the same moments to other values
+        List<TimecardUpdate> other = new ArrayList<>();
+        for (TimecardUpdate update : updates) {
+            other.add(new TimecardUpdate(update.getCarNum(), update.getStageNum(), update.getField(),
+                    update.getValue() + 1000, update.getTimestamp()));
+        }
+        List<TimecardUpdate> all = new ArrayList<>(updates);
+        all.addAll(other);
+
+        TimecardLog expected = new TimecardLog();
+        expected.addAll(all);
+        Random random = new Random(2);
+        for (int i = 0; i < 10; i++) {
+            Collections.shuffle(all, random);
+            TimecardLog log = new TimecardLog();
+            log.addAll(all);
+            log.addAll(all.subList(0, all.size() / 3));
+
+            List<TimecardUpdate> merged = log.getUpdates();
+            List<TimecardUpdate> wanted = expected.getUpdates();
+            assertEquals(wanted.size(), merged.size());
+            for (int j = 0; j < wanted.size(); j++) {
+                assertSameUpdate(wanted.get(j), merged.get(j));
+            }
+        }
+        assertEquals(updates.get(0).getValue() + 1000, expected.get(1, 1, TimecardUpdate.START_ORDER).getValue());
+    }
+
+    @Test
+    public void fullEventIsCompact() throws IOException {
+        List<TimecardUpdate> updates = fullEvent(200, 4);
+        byte[] bytes = encode(updates);
+        assertEquals(updates.size(), decode(bytes).size());
+        // Car and stage take a byte each, the field one, the time four and the timestamp four
+        assertTrue("Took " + bytes.length + " bytes", bytes.length < updates.size() * 12);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.rallytimingapp.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimecardMergeTest {
+
+    private static final int TRIALS = 200;
+    private static final long START = HybridClock.fromTime(1700000000000L);
+
+    // Clock whose time is set by the test
+    private static class TestClock extends HybridClock {
+        long time;
+
+        TestClock(long time) {
+            super(0);
+            this.time = time;
+        }
+
+        @Override
+        protected long currentTime() {
+            return time;
+        }
+    }
+
+    // Random edits to a few timecards, with clock readings close enough together to clash
+    private static List<TimecardUpdate> randomUpdates(Random random, int count) {
+        List<TimecardUpdate> updates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            updates.add(new TimecardUpdate(1 + random.nextInt(3), 1 + random.nextInt(2),
+                    random.nextInt(TimecardUpdate.FIELD_COUNT), random.nextInt(5) - 1, START + random.nextInt(8)));
+        }
+        return updates;
+    }
+
+    private static TimecardLog merge(List<TimecardUpdate> updates) {
+        TimecardLog log = new TimecardLog();
+        log.addAll(updates);
+        return log;
+    }
+
+    private static void assertSameLog(TimecardLog expected, TimecardLog actual) {
+        List<TimecardUpdate> wanted = expected.getUpdates();
+        List<TimecardUpdate> merged = actual.getUpdates();
+        assertEquals(wanted.size(), merged.size());
+        for (int i = 0; i < wanted.size(); i++) {
+            assertTrue(wanted.get(i).sameField(merged.get(i)));
+            assertEquals(wanted.get(i).getValue(), merged.get(i).getValue());
+            assertEquals(wanted.get(i).getTimestamp(), merged.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    public void mergeIsCommutative() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            List<TimecardUpdate> a = randomUpdates(random, 20);
+            List<TimecardUpdate> b = randomUpdates(random, 20);
+
+            TimecardLog ab = merge(a);
+            ab.addAll(b);
+            TimecardLog ba = merge(b);
+            ba.addAll(a);
+            assertSameLog(ab, ba);
+        }
+    }
+
+    @Test
+    public void mergeIsAssociative() {
+        Random random = new Random(2);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            List<TimecardUpdate> a = randomUpdates(random, 15);
+            List<TimecardUpdate> b = randomUpdates(random, 15);
+            List<TimecardUpdate> c = randomUpdates(random, 15);
+
+            // (a + b) + c, against a + (b + c) where b and c were merged on another phone first
+            TimecardLog left = merge(a);
+            left.addAll(b);
+            left.addAll(c);
+            TimecardLog bc = merge(b);
+            bc.addAll(c);
+            TimecardLog right = merge(a);
+            right.addAll(bc.getUpdates());
+            assertSameLog(left, right);
+        }
+    }
+
+    @Test
+    public void mergeIgnoresOrderAndRepeats() {
+        Random random = new Random(3);
+        for (int trial = 0; trial < TRIALS; trial++) {
+            List<TimecardUpdate> updates = randomUpdates(random, 40);
+            TimecardLog expected = merge(updates);
+
+            List<TimecardUpdate> shuffled = new ArrayList<>(updates);
+            shuffled.addAll(updates.subList(0, random.nextInt(updates.size())));
+            Collections.shuffle(shuffled, random);
+            assertSameLog(expected, merge(shuffled));
+        }
+    }
+
+    @Test
+    public void clockReadingsAlwaysGoUp() {
+        TestClock clock = new TestClock(1000);
+        long last = clock.now();
+        // Several readings in the same millisecond, then the phone's time going back
+        for (int i = 0; i < 5; i++) {
+            long reading = clock.now();
+            assertTrue(reading > last);
+            last = reading;
+        }
+        clock.time = 500;
+        assertTrue(clock.now() > last);
+        assertEquals(1000, HybridClock.getTime(last));
+
+        clock.time = 2000;
+        assertEquals(HybridClock.fromTime(2000), clock.now());
+    }
+
+    @Test
+    public void editAfterSeeingAnotherWins() {
+        // The second phone's time is a minute behind the first's
+        TestClock first = new TestClock(60000 + 1000);
+        TestClock second = new TestClock(1000);
+
+        TimecardUpdate firstEdit = new TimecardUpdate(5, 1, TimecardUpdate.FINISH_TIME, 40000000, first.now());
+        second.receive(firstEdit.getTimestamp());
+        TimecardUpdate secondEdit = new TimecardUpdate(5, 1, TimecardUpdate.FINISH_TIME, 39000000, second.now());
+
+        assertTrue(secondEdit.supersedes(firstEdit));
+        TimecardLog log = merge(Collections.singletonList(secondEdit));
+        log.add(firstEdit);
+        assertEquals(39000000, log.get(5, 1, TimecardUpdate.FINISH_TIME).getValue());
+    }
+
+    @Test
+    public void clockStartsAfterSavedReading() {
+        TestClock clock = new TestClock(0);
+        clock.receive(START);
+        assertTrue(clock.now() > START);
+        assertEquals(START + 1, clock.getLast());
+    }
+}